@@ -23,25 +23,60 @@ THE SOFTWARE.
 */
 package com.tenio.api;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import com.tenio.api.pool.ArrayPool;
+import com.tenio.api.pool.MessagePool;
 import com.tenio.api.pool.ObjectPool;
+import com.tenio.api.pool.PrimitiveArrayPool;
+import com.tenio.configuration.constant.DeliveryMode;
+import com.tenio.configuration.constant.OutboundPolicy;
 import com.tenio.configuration.constant.TEvent;
 import com.tenio.entity.AbstractPlayer;
 import com.tenio.entity.AbstractRoom;
 import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TByteArray;
+import com.tenio.entity.element.TFloatArray;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TLongArray;
 import com.tenio.entity.element.TObject;
 import com.tenio.event.IEventManager;
 import com.tenio.logger.AbstractLogger;
+import com.tenio.message.OutboundMessage;
+import com.tenio.message.codec.MessageCodecs;
 import com.tenio.network.Connection;
+import com.tenio.pool.ElementPool;
 import com.tenio.pool.IElementPool;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 /**
  * This class provides you a necessary interface for sending messages from the
  * server to clients. It uses a pooling mechanism to increase performance. For
  * creating a message, it's better that decrease this content as less as
  * possible (for fast transferring, save bandwidth, reduce risk, ...). For
  * example, a message should only hold an array, and the client will reference
- * the defined APIs to retrieve his desired values by the array's indexes.
+ * the defined APIs to retrieve his desired values by the array's indexes.<br>
+ * Numeric data (e.g. the positions of many entities) should be held in the
+ * primitive arrays (e.g. {@link #getIntArrayPack()}), they are sent as compact
+ * binary data without any boxed value.<br>
+ * A typed message (see {@link com.tenio.annotation.Message}) is written by its
+ * generated codec directly, without any intermediate map. It should be taken
+ * from {@link #getMessagePack(Class)} and is repaid when it is sent.<br>
+ * Each sent message is wrapped in a reference-counted {@link OutboundMessage},
+ * the connections encode it later in their event loops and the message with
+ * its pooled values is only repaid after the last one has done, so the caller
+ * must not use them after sending. The same applies to every value which is
+ * held by a sent message (e.g. the arrays put into a data pack): the message
+ * takes it as is without any copy, so it must not be changed or reused for the
+ * next message, a new one is needed for each send.<br>
+ * The raw data (e.g. voice relay or replay blobs, see
+ * {@link TEvent#RECEIVED_RAW_FROM_PLAYER}) is sent as is by
+ * {@link #sendRaw(AbstractPlayer, int, ByteBuf)}, without any serialization.
  * 
  * @author kong
  * 
@@ -50,6 +85,19 @@ public final class MessageApi extends AbstractLogger {
 
 	private final IElementPool<TArray> __arrayPool = new ArrayPool();
 	private final IElementPool<TObject> __objectPool = new ObjectPool();
+	private final IElementPool<TIntArray> __intArrayPool = new PrimitiveArrayPool<TIntArray>(TIntArray::newInstance);
+	private final IElementPool<TFloatArray> __floatArrayPool = new PrimitiveArrayPool<TFloatArray>(
+			TFloatArray::newInstance);
+	private final IElementPool<TLongArray> __longArrayPool = new PrimitiveArrayPool<TLongArray>(
+			TLongArray::newInstance);
+	private final IElementPool<TByteArray> __byteArrayPool = new PrimitiveArrayPool<TByteArray>(
+			TByteArray::newInstance);
+	private final IElementPool<OutboundMessage> __outboundPool = new ElementPool<OutboundMessage>(
+			"OUTBOUND MESSAGE POOL", OutboundMessage::newInstance, OutboundMessage::clear);
+	private final Consumer<OutboundMessage> __objectRecycler = this::__recycleObject;
+	private final Consumer<OutboundMessage> __messageRecycler = this::__recycleMessage;
+	private final Consumer<OutboundMessage> __rawRecycler = this::__recycleRaw;
+	private final Map<Class<?>, MessagePool<?>> __messagePools = new ConcurrentHashMap<Class<?>, MessagePool<?>>();
 	private final IEventManager __eventManager;
 
 	public MessageApi(IEventManager eventManager) {
@@ -66,11 +114,7 @@ public final class MessageApi extends AbstractLogger {
 	public void sendToConnection(Connection connection, String key, Object value) {
 		var message = __objectPool.get();
 		message.put(key, value);
-		connection.send(message);
-		__objectPool.repay(message);
-		if (value instanceof TArray) {
-			__arrayPool.repay((TArray) value);
-		}
+		__send(connection, message, true);
 	}
 
 	/**
@@ -89,9 +133,24 @@ public final class MessageApi extends AbstractLogger {
 		var message = __objectPool.get();
 		message.put(key, value);
 		message.put(keyData, data);
-		connection.send(message);
-		__objectPool.repay(message);
-		__arrayPool.repay(data);
+		__send(connection, message, true);
+	}
+
+	/**
+	 * Send a message to a connection
+	 * 
+	 * @param connection See {@link Connection}
+	 * @param content    the sending message, a {@link TObject} or a typed message
+	 * @param pooled     set <b>true</b> if the content is a {@link TObject} taken
+	 *                   from the pool by this class
+	 */
+	private void __send(Connection connection, Object content, boolean pooled) {
+		var message = __newOutboundMessage(content, false, pooled);
+		try {
+			connection.send(message);
+		} finally {
+			message.release();
+		}
 	}
 
 	/**
@@ -99,18 +158,131 @@ public final class MessageApi extends AbstractLogger {
 	 * 
 	 * @param player  See {@link AbstractPlayer}
 	 * @param index   the index of connection in current player
-	 * @param message the sending message
+	 * @param mode    the delivery mode, see {@link DeliveryMode} (can be
+	 *                <b>null</b> for the connection's default mode)
+	 * @param content the sending message, a {@link TObject}, a typed message or
+	 *                the raw data
+	 * @param pooled  set <b>true</b> if the content is a {@link TObject} taken
+	 *                from the pool by this class
 	 */
-	private void __send(AbstractPlayer player, int index, TObject message) {
+	private void __send(AbstractPlayer player, int index, DeliveryMode mode, Object content, boolean pooled) {
+		var message = __newOutboundMessage(content, false, pooled);
+		try {
+			__send(player, index, mode, message);
+		} finally {
+			message.release();
+		}
+	}
+
+	/**
+	 * Send an outbound message to a player, the connection retains the message
+	 * until it is encoded
+	 * 
+	 * @param player  See {@link AbstractPlayer}
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode} (can be
+	 *                <b>null</b> for the connection's default mode)
+	 * @param message the sending message, see {@link OutboundMessage}
+	 */
+	private void __send(AbstractPlayer player, int index, DeliveryMode mode, OutboundMessage message) {
 		player.setCurrentWriterTime(); // update time to check TIMEOUT
 		// send to CLIENT (connection)
 		if (player.hasConnection(index)) {
-			player.getConnection(index).send(message);
+			if (mode == null) {
+				player.getConnection(index).send(message);
+			} else {
+				player.getConnection(index).send(message, mode);
+			}
+		}
+		debug("SENT", "", player.getName(), message);
+		__eventManager.getExternal().emit(TEvent.SEND_TO_PLAYER, player, index, message.getContent());
+	}
+
+	/**
+	 * Send a message to a group of players. The message is only serialized once
+	 * for each key mode, all the connections share the same packet.
+	 * 
+	 * @param players the list of receivers
+	 * @param ignore  the player who does not receive the message (can be
+	 *                <b>null</b>)
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode} (can be
+	 *                <b>null</b> for the connection's default mode)
+	 * @param content the sending message, a {@link TObject}, a typed message or
+	 *                the raw data
+	 * @param pooled  set <b>true</b> if the content is a {@link TObject} taken
+	 *                from the pool by this class
+	 */
+	private void __broadcast(Collection<? extends AbstractPlayer> players, AbstractPlayer ignore, int index,
+			DeliveryMode mode, Object content, boolean pooled) {
+		var message = __newOutboundMessage(content, players.size() > 1, pooled);
+		try {
+			for (var player : players) {
+				if (!player.equals(ignore)) {
+					__send(player, index, mode, message);
+				}
+			}
+		} finally {
+			message.release();
+		}
+	}
+
+	/**
+	 * @param content the sending message, a {@link TObject}, a typed message or
+	 *                the raw data
+	 * @param shared  set <b>true</b> if the message is sent to many connections
+	 * @param pooled  set <b>true</b> if the content is a {@link TObject} taken
+	 *                from the pool by this class, a caller's {@link TObject} is
+	 *                never repaid to the pool
+	 * @return an outbound message, its content is repaid when the last connection
+	 *         has encoded it
+	 */
+	private OutboundMessage __newOutboundMessage(Object content, boolean shared, boolean pooled) {
+		Consumer<OutboundMessage> recycler;
+		if (pooled) {
+			recycler = __objectRecycler;
+		} else if (content instanceof ByteBuf) {
+			recycler = __rawRecycler;
+		} else {
+			recycler = __messageRecycler;
 		}
-		debug("SENT", "", player.getName(), message.toString());
-		__eventManager.getExternal().emit(TEvent.SEND_TO_PLAYER, player, index, message);
+		return __outboundPool.get().initialize(content, shared, recycler);
 	}
 
+	/**
+	 * Repay a message which held a pooled {@link TObject}, its values are repaid
+	 * too
+	 * 
+	 * @param message the released message
+	 */
+	private void __recycleObject(OutboundMessage message) {
+		var object = (TObject) message.getContent();
+		object.forEach((key, value) -> __repay(value));
+		__objectPool.repay(object);
+		__outboundPool.repay(message);
+	}
+
+	/**
+	 * Repay a message which held a typed message
+	 * 
+	 * @param message the released message
+	 */
+	private void __recycleMessage(OutboundMessage message) {
+		__repayMessage(message.getContent());
+		__outboundPool.repay(message);
+	}
+
+	/**
+	 * Release the raw data of a message
+	 * 
+	 * @param message the released message
+	 */
+	private void __recycleRaw(OutboundMessage message) {
+		((ByteBuf) message.getContent()).release();
+		__outboundPool.repay(message);
+	}
+
+
 	/**
 	 * Send a message to player via his connection
 	 * 
@@ -122,11 +294,7 @@ public final class MessageApi extends AbstractLogger {
 	public void sendToPlayer(AbstractPlayer player, int index, String key, Object value) {
 		var message = __objectPool.get();
 		message.put(key, value);
-		__send(player, index, message);
-		__objectPool.repay(message);
-		if (value instanceof TArray) {
-			__arrayPool.repay((TArray) value);
-		}
+		__send(player, index, null, message, true);
 	}
 
 	/**
@@ -146,9 +314,46 @@ public final class MessageApi extends AbstractLogger {
 		var message = __objectPool.get();
 		message.put(key, value);
 		message.put(keyData, data);
-		__send(player, index, message);
-		__objectPool.repay(message);
-		__arrayPool.repay(data);
+		__send(player, index, null, message, true);
+	}
+
+	/**
+	 * Send a message to player via his connection in a delivery mode. It is useful
+	 * for a Datagram connection which enables the reliable layer, see
+	 * {@link DeliveryMode}.
+	 * 
+	 * @param player See {@link AbstractPlayer}
+	 * @param index  the index of connection in current player
+	 * @param mode   the delivery mode, see {@link DeliveryMode}
+	 * @param key    the key of message
+	 * @param value  the value of message
+	 */
+	public void sendToPlayer(AbstractPlayer player, int index, DeliveryMode mode, String key, Object value) {
+		var message = __objectPool.get();
+		message.put(key, value);
+		__send(player, index, mode, message, true);
+	}
+
+	/**
+	 * Send a message to a player in a delivery mode, see {@link DeliveryMode}
+	 * 
+	 * Must use {@link #getArrayPack()} to create data array package for avoiding
+	 * memory leak.
+	 * 
+	 * @param player  the desired player
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param key     the key of message
+	 * @param value   the value of message
+	 * @param keyData the key of message's data
+	 * @param data    the message data, see: {@link TArray}
+	 */
+	public void sendToPlayer(AbstractPlayer player, int index, DeliveryMode mode, String key, Object value,
+			String keyData, TArray data) {
+		var message = __objectPool.get();
+		message.put(key, value);
+		message.put(keyData, data);
+		__send(player, index, mode, message, true);
 	}
 
 	/**
@@ -162,13 +367,7 @@ public final class MessageApi extends AbstractLogger {
 	public void sendToRoom(AbstractRoom room, int index, String key, Object value) {
 		var message = __objectPool.get();
 		message.put(key, value);
-		for (var player : room.getPlayers().values()) {
-			__send(player, index, message);
-		}
-		__objectPool.repay(message);
-		if (value instanceof TArray) {
-			__arrayPool.repay((TArray) value);
-		}
+		__broadcast(room.getPlayers().values(), null, index, null, message, true);
 	}
 
 	/**
@@ -188,11 +387,7 @@ public final class MessageApi extends AbstractLogger {
 		var message = __objectPool.get();
 		message.put(key, value);
 		message.put(keyData, data);
-		for (var player : room.getPlayers().values()) {
-			__send(player, index, message);
-		}
-		__objectPool.repay(message);
-		__arrayPool.repay(data);
+		__broadcast(room.getPlayers().values(), null, index, null, message, true);
 	}
 
 	/**
@@ -207,15 +402,7 @@ public final class MessageApi extends AbstractLogger {
 		var room = player.getRoom();
 		var message = __objectPool.get();
 		message.put(key, value);
-		for (var p : room.getPlayers().values()) {
-			if (!p.equals(player)) {
-				__send(p, index, message);
-			}
-		}
-		__objectPool.repay(message);
-		if (value instanceof TArray) {
-			__arrayPool.repay((TArray) value);
-		}
+		__broadcast(room.getPlayers().values(), player, index, null, message, true);
 	}
 
 	/**
@@ -237,13 +424,296 @@ public final class MessageApi extends AbstractLogger {
 		var message = __objectPool.get();
 		message.put(key, value);
 		message.put(keyData, data);
-		for (var p : room.getPlayers().values()) {
-			if (!p.equals(player)) {
-				__send(p, index, message);
-			}
+		__broadcast(room.getPlayers().values(), player, index, null, message, true);
+	}
+
+	/**
+	 * Send a message to a list of players
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param key     the key of message
+	 * @param value   the value of message
+	 */
+	public void sendToPlayers(Collection<? extends AbstractPlayer> players, int index, String key, Object value) {
+		var message = __objectPool.get();
+		message.put(key, value);
+		__broadcast(players, null, index, null, message, true);
+	}
+
+	/**
+	 * Send a message to a list of players
+	 * 
+	 * Must use {@link #getArrayPack()} to create data array package for avoiding
+	 * memory leak.
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param key     the key of message
+	 * @param value   the value of message
+	 * @param keyData the key of message's data
+	 * @param data    the message's data, see: {@link TArray}
+	 */
+	public void sendToPlayers(Collection<? extends AbstractPlayer> players, int index, String key, Object value,
+			String keyData, TArray data) {
+		sendToPlayers(players, index, null, key, value, keyData, data);
+	}
+
+	/**
+	 * Send a message to a list of players in a delivery mode, see
+	 * {@link DeliveryMode}. A state update which is sent in an unreliable mode can
+	 * be dropped for a slow connection instead of being queued, see
+	 * {@link OutboundPolicy#DROP_OLDEST}.
+	 * 
+	 * Must use {@link #getArrayPack()} to create data array package for avoiding
+	 * memory leak.
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param key     the key of message
+	 * @param value   the value of message
+	 * @param keyData the key of message's data
+	 * @param data    the message's data, see: {@link TArray}
+	 */
+	public void sendToPlayers(Collection<? extends AbstractPlayer> players, int index, DeliveryMode mode, String key,
+			Object value, String keyData, TArray data) {
+		var message = __objectPool.get();
+		message.put(key, value);
+		message.put(keyData, data);
+		__broadcast(players, null, index, mode, message, true);
+	}
+
+	/**
+	 * Send a typed message to a player, the message is repaid to its pool after
+	 * that
+	 * 
+	 * Must use {@link #getMessagePack(Class)} to create the message for avoiding
+	 * memory leak.
+	 * 
+	 * @param player  the desired player
+	 * @param index   the index of connection in current player
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToPlayer(AbstractPlayer player, int index, Object message) {
+		__send(player, index, null, message, false);
+	}
+
+	/**
+	 * Send a typed message to all players of one room, the message is repaid to
+	 * its pool after that
+	 * 
+	 * Must use {@link #getMessagePack(Class)} to create the message for avoiding
+	 * memory leak.
+	 * 
+	 * @param room    the desired room
+	 * @param index   the index of connection in current player
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToRoom(AbstractRoom room, int index, Object message) {
+		__broadcast(room.getPlayers().values(), null, index, null, message, false);
+	}
+
+	/**
+	 * Send a typed message to all players of one room in a delivery mode, see
+	 * {@link #sendToRoom(AbstractRoom, int, Object)} and
+	 * {@link #sendToPlayers(Collection, int, DeliveryMode, Object)}
+	 * 
+	 * @param room    the desired room
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToRoom(AbstractRoom room, int index, DeliveryMode mode, Object message) {
+		__broadcast(room.getPlayers().values(), null, index, mode, message, false);
+	}
+
+	/**
+	 * Send a typed message to all players in one room except the desired player,
+	 * the message is repaid to its pool after that
+	 * 
+	 * Must use {@link #getMessagePack(Class)} to create the message for avoiding
+	 * memory leak.
+	 * 
+	 * @param player  the desired player
+	 * @param index   the index of connection in current player
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToRoomIgnorePlayer(AbstractPlayer player, int index, Object message) {
+		__broadcast(player.getRoom().getPlayers().values(), player, index, null, message, false);
+	}
+
+	/**
+	 * Send a typed message to a list of players, the message is repaid to its pool
+	 * after that
+	 * 
+	 * Must use {@link #getMessagePack(Class)} to create the message for avoiding
+	 * memory leak.
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToPlayers(Collection<? extends AbstractPlayer> players, int index, Object message) {
+		__broadcast(players, null, index, null, message, false);
+	}
+
+	/**
+	 * Send a typed message to a list of players in a delivery mode, see
+	 * {@link DeliveryMode}. A state update which is sent in an unreliable mode can
+	 * be dropped for a slow connection instead of being queued, see
+	 * {@link OutboundPolicy#DROP_OLDEST}.
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param message the typed message, see {@link com.tenio.annotation.Message}
+	 */
+	public void sendToPlayers(Collection<? extends AbstractPlayer> players, int index, DeliveryMode mode,
+			Object message) {
+		__broadcast(players, null, index, mode, message, false);
+	}
+
+	/**
+	 * Send the raw data to a player as is, e.g. to a port whose codec is
+	 * <b>raw</b>. The data is released after it was written, so the caller must
+	 * retain it to keep it (e.g. when relaying the data of
+	 * {@link TEvent#RECEIVED_RAW_FROM_PLAYER}).
+	 * 
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @param data   the raw data, see {@link ByteBuf}
+	 */
+	public void sendRaw(AbstractPlayer player, int index, ByteBuf data) {
+		__send(player, index, null, data, false);
+	}
+
+	/**
+	 * Send the raw data to a player as is in a delivery mode, see
+	 * {@link #sendRaw(AbstractPlayer, int, ByteBuf)}
+	 * 
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @param mode   the delivery mode, see {@link DeliveryMode}
+	 * @param data   the raw data, see {@link ByteBuf}
+	 */
+	public void sendRaw(AbstractPlayer player, int index, DeliveryMode mode, ByteBuf data) {
+		__send(player, index, mode, data, false);
+	}
+
+	/**
+	 * Send the raw data to a player as is, the array is wrapped without any copy
+	 * and must not be modified after that
+	 * 
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @param data   the raw data
+	 */
+	public void sendRaw(AbstractPlayer player, int index, byte[] data) {
+		__send(player, index, null, Unpooled.wrappedBuffer(data), false);
+	}
+
+	/**
+	 * Send the raw data to all players in one room except the desired player (e.g.
+	 * a voice relay), see {@link #sendRaw(AbstractPlayer, int, ByteBuf)}
+	 * 
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @param data   the raw data, see {@link ByteBuf}
+	 */
+	public void sendRawToRoomIgnorePlayer(AbstractPlayer player, int index, ByteBuf data) {
+		__broadcast(player.getRoom().getPlayers().values(), player, index, null, data, false);
+	}
+
+	/**
+	 * Send the raw data to a list of players, all the connections write the same
+	 * buffer, see {@link #sendRaw(AbstractPlayer, int, ByteBuf)}
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param data    the raw data, see {@link ByteBuf}
+	 */
+	public void sendRawToPlayers(Collection<? extends AbstractPlayer> players, int index, ByteBuf data) {
+		__broadcast(players, null, index, null, data, false);
+	}
+
+	/**
+	 * Send the raw data to a list of players in a delivery mode, see
+	 * {@link #sendRawToPlayers(Collection, int, ByteBuf)} and
+	 * {@link DeliveryMode}
+	 * 
+	 * @param players the desired players
+	 * @param index   the index of connection in current player
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param data    the raw data, see {@link ByteBuf}
+	 */
+	public void sendRawToPlayers(Collection<? extends AbstractPlayer> players, int index, DeliveryMode mode,
+			ByteBuf data) {
+		__broadcast(players, null, index, mode, data, false);
+	}
+
+	/**
+	 * Check the backpressure of a player's connection, a slow connection can not
+	 * send more messages immediately. In this case, the sending messages are
+	 * queued or dropped depending on the port's outbound policy, see
+	 * {@link OutboundPolicy}.
+	 * 
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @return <b>true</b> if the connection exists and is writable, <b>false</b>
+	 *         otherwise
+	 */
+	public boolean isWritable(AbstractPlayer player, int index) {
+		return player.hasConnection(index) && player.getConnection(index).isWritable();
+	}
+
+	/**
+	 * @param player the desired player
+	 * @param index  the index of connection in current player
+	 * @return the number of outbound bytes which are waiting to be sent to the
+	 *         player's connection (<b>0</b> if the connection does not exist)
+	 */
+	public long getPendingBytes(AbstractPlayer player, int index) {
+		return player.hasConnection(index) ? player.getConnection(index).getPendingBytes() : 0;
+	}
+
+	/**
+	 * Repay a message's value to its pool if it was taken from one
+	 * 
+	 * @param value the value of message
+	 */
+	private void __repay(Object value) {
+		if (value instanceof TArray) {
+			__arrayPool.repay((TArray) value);
+		} else if (value instanceof TIntArray) {
+			__intArrayPool.repay((TIntArray) value);
+		} else if (value instanceof TFloatArray) {
+			__floatArrayPool.repay((TFloatArray) value);
+		} else if (value instanceof TLongArray) {
+			__longArrayPool.repay((TLongArray) value);
+		} else if (value instanceof TByteArray) {
+			__byteArrayPool.repay((TByteArray) value);
 		}
-		__objectPool.repay(message);
-		__arrayPool.repay(data);
+	}
+
+	/**
+	 * Repay a typed message to its pool, a caller's {@link TObject} is not
+	 * pooled here
+	 * 
+	 * @param message the typed message
+	 */
+	@SuppressWarnings("unchecked")
+	private void __repayMessage(Object message) {
+		if (message instanceof TObject) {
+			return;
+		}
+		((MessagePool<Object>) __getMessagePool(message.getClass())).repay(message);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> MessagePool<T> __getMessagePool(Class<T> type) {
+		return (MessagePool<T>) __messagePools.computeIfAbsent(type,
+				key -> new MessagePool<T>(MessageCodecs.get(type)));
 	}
 
 	/**
@@ -253,4 +723,67 @@ public final class MessageApi extends AbstractLogger {
 		return __arrayPool.get();
 	}
 
+	/**
+	 * @return a {@link TIntArray} object from the pooling mechanism
+	 */
+	public TIntArray getIntArrayPack() {
+		return __intArrayPool.get();
+	}
+
+	/**
+	 * @return a {@link TFloatArray} object from the pooling mechanism
+	 */
+	public TFloatArray getFloatArrayPack() {
+		return __floatArrayPool.get();
+	}
+
+	/**
+	 * @return a {@link TLongArray} object from the pooling mechanism
+	 */
+	public TLongArray getLongArrayPack() {
+		return __longArrayPool.get();
+	}
+
+	/**
+	 * @return a {@link TByteArray} object from the pooling mechanism
+	 */
+	public TByteArray getByteArrayPack() {
+		return __byteArrayPool.get();
+	}
+
+	/**
+	 * @param type the class of a typed message, see
+	 *             {@link com.tenio.annotation.Message}
+	 * @return a typed message with the default values from the pooling mechanism
+	 * @throws IllegalArgumentException when the class has no generated codec
+	 */
+	public <T> T getMessagePack(Class<T> type) {
+		return __getMessagePool(type).get();
+	}
+
+	/**
+	 * Convert a received message to a typed message from the pooling mechanism,
+	 * it is repaid when it is sent or by {@link #repayMessagePack(Object)}
+	 * 
+	 * @param type   the class of a typed message, see
+	 *               {@link com.tenio.annotation.Message}
+	 * @param source the received message, see {@link TObject}
+	 * @return the typed message
+	 * @throws IllegalArgumentException when the class has no generated codec
+	 */
+	public <T> T getMessagePack(Class<T> type, TObject source) {
+		var message = getMessagePack(type);
+		MessageCodecs.get(type).decode(source, message);
+		return message;
+	}
+
+	/**
+	 * Repay a typed message which is not sent
+	 * 
+	 * @param message the typed message, see {@link #getMessagePack(Class)}
+	 */
+	public void repayMessagePack(Object message) {
+		__repayMessage(message);
+	}
+
 }
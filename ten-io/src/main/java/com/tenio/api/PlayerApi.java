@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.entity.AbstractPlayer;
 import com.tenio.entity.AbstractRoom;
 import com.tenio.entity.manager.IPlayerManager;
@@ -89,7 +90,22 @@ public final class PlayerApi extends AbstractLogger {
 	}
 
 	/**
-	 * @return all current players
+	 * @param type the main connection's type, see {@link ConnectionType}
+	 * @return the number of all current players whose main connection has this
+	 *         type
+	 */
+	public int countPlayers(final ConnectionType type) {
+		return __playerManager.countPlayers(type);
+	}
+
+	/**
+	 * The returned map is read-only, any change through it (e.g. <b>put</b>,
+	 * <b>remove</b> or <b>clear</b>) throws an
+	 * {@link UnsupportedOperationException}. The players must be changed by the
+	 * manager's methods instead.
+	 * 
+	 * @return all current players in a read-only view, it can be iterated while
+	 *         the players are changed (weakly consistent)
 	 */
 	public Map<String, AbstractPlayer> gets() {
 		return __playerManager.gets();
@@ -23,13 +23,8 @@ THE SOFTWARE.
 */
 package com.tenio.api.pool;
 
-import javax.annotation.concurrent.GuardedBy;
-
-import com.tenio.configuration.constant.Constants;
 import com.tenio.entity.element.TObject;
-import com.tenio.exception.NullElementPoolException;
-import com.tenio.logger.AbstractLogger;
-import com.tenio.pool.IElementPool;
+import com.tenio.pool.ElementPool;
 
 /**
  * The object pool mechanism for {@link TObject}.
@@ -37,86 +32,10 @@ import com.tenio.pool.IElementPool;
  * @author kong
  * 
  */
-public final class ObjectPool extends AbstractLogger implements IElementPool<TObject> {
-
-	@GuardedBy("this")
-	private TObject[] __pool;
-	@GuardedBy("this")
-	private boolean[] __used;
+public final class ObjectPool extends ElementPool<TObject> {
 
 	public ObjectPool() {
-		__pool = new TObject[Constants.BASE_ELEMENT_POOL];
-		__used = new boolean[Constants.BASE_ELEMENT_POOL];
-
-		for (int i = 0; i < __pool.length; i++) {
-			__pool[i] = TObject.newInstance();
-			__used[i] = false;
-		}
-	}
-
-	@Override
-	public synchronized TObject get() {
-		for (int i = 0; i < __used.length; i++) {
-			if (!__used[i]) {
-				__used[i] = true;
-				return __pool[i];
-			}
-		}
-		// If we got here, then all the Elements are in use. We will
-		// increase the number in our pool by @ADD_ELEMENT_POOL (arbitrary value for
-		// illustration purposes).
-		var oldUsed = __used;
-		__used = new boolean[oldUsed.length + Constants.ADD_ELEMENT_POOL];
-		System.arraycopy(oldUsed, 0, __used, 0, oldUsed.length);
-
-		var oldPool = __pool;
-		__pool = new TObject[oldPool.length + Constants.ADD_ELEMENT_POOL];
-		System.arraycopy(oldPool, 0, __pool, 0, oldPool.length);
-
-		for (int i = oldPool.length; i < __pool.length; i++) {
-			__pool[i] = TObject.newInstance();
-			__used[i] = false;
-		}
-
-		info("OBJECT POOL",
-				buildgen("Increase the number of elements by ", Constants.ADD_ELEMENT_POOL, " to ", __used.length));
-
-		// and allocate the last old ELement
-		__used[oldPool.length - 1] = true;
-		return __pool[oldPool.length - 1];
-	}
-
-	@Override
-	public synchronized void repay(TObject element) {
-		boolean flagFound = false;
-		for (int i = 0; i < __pool.length; i++) {
-			if (__pool[i] == element) {
-				__used[i] = false;
-				// Clear object
-				element.clear();
-				flagFound = true;
-				break;
-			}
-		}
-		if (!flagFound) {
-			var e = new NullElementPoolException();
-			error(e);
-			throw e;
-		}
-	}
-
-	@Override
-	public synchronized void cleanup() {
-		for (int i = 0; i < __pool.length; i++) {
-			__pool[i] = null;
-		}
-		__used = null;
-		__pool = null;
-	}
-
-	@Override
-	public synchronized int getPoolSize() {
-		return (__pool.length == __used.length) ? __pool.length : -1;
+		super("OBJECT POOL", TObject::newInstance, TObject::clear);
 	}
 
 }
@@ -33,7 +33,11 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
 import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.HandlerMode;
+import com.tenio.configuration.constant.OutboundPolicy;
 import com.tenio.configuration.constant.RestMethod;
+import com.tenio.configuration.constant.TEvent;
+import com.tenio.configuration.constant.TransportType;
 import com.tenio.entity.element.TObject;
 import com.tenio.logger.AbstractLogger;
 import com.tenio.utility.XMLUtility;
@@ -52,6 +56,8 @@ import com.tenio.utility.XMLUtility;
  * handle</li>
  * <li><i>maxPlayer:</i> The maximum number of players which game can handle
  * </li>
+ * <li><i>opcodeKey:</i> The key which holds the opcode of a player's message
+ * for routing it to its handler (<b>c</b> by default)</li>
  * <li><i>idleReader:</i> The max IDLE time in seconds which server can wait
  * from the last getting message from client</li>
  * <li><i>idleWriter:</i> The max IDLE time in seconds which server can wait
@@ -60,6 +66,9 @@ import com.tenio.utility.XMLUtility;
  * keep the empty room</li>
  * <li><i>timeoutScan:</i> The period checking player time out in seconds</li>
  * <li><i>ccuScan:</i> The period checking CCU in seconds</li>
+ * <li><i>handlerScan:</i> The period checking the messages handlers' workload
+ * in seconds, it is only used when the messages are not handled in the I/O
+ * threads</li>
  * <li><i>serverName:</i> The server name</li>
  * <li><i>serverId:</i> The server id (module name)</li>
  * <li><i>versionName:</i> This current version name of your server in string
@@ -68,6 +77,34 @@ import com.tenio.utility.XMLUtility;
  * type (can be compared)</li>
  * </ul>
  * 
+ * <h1>Configuration for network, declared in properties file</h1> <br>
+ * <ul>
+ * <li><i>transport:</i> The transport type for all sockets, <b>nio</b> (by
+ * default) or <b>epoll</b> (Linux only, falls back to <b>nio</b> when it is not
+ * available)</li>
+ * <li><i>producerThreads:</i> The number of threads for accepting new
+ * connections</li>
+ * <li><i>consumerThreads:</i> The number of threads for handling the
+ * connections' I/O (0 for the default value)</li>
+ * <li><i>handlerMode:</i> The threads which handle the players' messages,
+ * <b>io</b> (by default), <b>player</b> or <b>room</b> (worker threads keeping
+ * the order of each player or room), see {@link HandlerMode}</li>
+ * <li><i>handlerThreads:</i> The number of worker threads for handling the
+ * players' messages (0 for the number of available processors)</li>
+ * </ul>
+ * 
+ * Each socket or web socket port can be tuned by its optional attributes:
+ * <i>backlog</i>, <i>sendBuffer</i>, <i>receiveBuffer</i>, <i>noDelay</i>,
+ * <i>lowWaterMark</i>, <i>highWaterMark</i>, <i>allocator</i> (<b>pooled</b>
+ * or <b>unpooled</b>), <i>reliable</i> (UDP only), <i>outboundPolicy</i>
+ * (<b>queue</b>, <b>dropOldest</b> or <b>disconnect</b>),
+ * <i>unwritableTimeout</i>, <i>maxFrameLength</i> (TCP only),
+ * <i>lazyDecoding</i>, <i>keyDictionary</i> and <i>codec</i> (<b>msgpack</b>,
+ * <b>raw</b> or a decoder's class name), see {@link Sock}.
+ * When only one of the water marks is defined and it crosses the default
+ * other one, that default follows it; defining both with the
+ * <i>lowWaterMark</i> above the <i>highWaterMark</i> is rejected.
+ * 
  * @author kong
  * 
  */
@@ -86,6 +123,11 @@ public abstract class BaseConfiguration extends AbstractLogger {
 	 * The maximum number of players which game can handle
 	 */
 	public static final String MAX_PLAYER = "t.maxPlayer";
+	/**
+	 * The key which holds the opcode of a player's message, see
+	 * {@link com.tenio.extension.MessageRouter}
+	 */
+	public static final String OPCODE_KEY = "t.opcodeKey";
 	/**
 	 * The max IDLE time in seconds which server can wait from the last getting
 	 * message from client
@@ -108,6 +150,11 @@ public abstract class BaseConfiguration extends AbstractLogger {
 	 * The period checking CCU in seconds
 	 */
 	public static final String CCU_SCAN = "t.ccuScan";
+	/**
+	 * The period checking the messages handlers' workload in seconds, see
+	 * {@link TEvent#HANDLER_WORKLOAD}
+	 */
+	public static final String HANDLER_SCAN = "t.handlerScan";
 	/**
 	 * The server name
 	 */
@@ -125,6 +172,28 @@ public abstract class BaseConfiguration extends AbstractLogger {
 	 */
 	public static final String VERSION_CODE = "t.versionCode";
 
+	/**
+	 * The transport type for all sockets, see {@link TransportType}
+	 */
+	public static final String TRANSPORT = "t.transport";
+	/**
+	 * The number of threads for accepting new connections
+	 */
+	public static final String PRODUCER_THREADS = "t.producerThreads";
+	/**
+	 * The number of threads for handling the connections' I/O
+	 */
+	public static final String CONSUMER_THREADS = "t.consumerThreads";
+	/**
+	 * The threads which handle the players' messages, see {@link HandlerMode}
+	 */
+	public static final String HANDLER_MODE = "t.handlerMode";
+	/**
+	 * The number of worker threads for handling the players' messages when they
+	 * are not handled in the I/O threads
+	 */
+	public static final String HANDLER_THREADS = "t.handlerThreads";
+
 	/**
 	 * All configuration values will be held in this map. You access values by your
 	 * defined keys.
@@ -197,12 +266,39 @@ public abstract class BaseConfiguration extends AbstractLogger {
 		}
 
 		// Network
+		var attrNetworkProperties = XMLUtility.getNodeList(root, "//Server/Network/Properties/Property");
+		for (int j = 0; j < attrNetworkProperties.getLength(); j++) {
+			var pDataNode = attrNetworkProperties.item(j);
+			switch (pDataNode.getAttributes().getNamedItem("name").getTextContent()) {
+			case "transport":
+				__configuration.put(TRANSPORT, pDataNode.getTextContent());
+				break;
+
+			case "producerThreads":
+				__configuration.put(PRODUCER_THREADS, pDataNode.getTextContent());
+				break;
+
+			case "consumerThreads":
+				__configuration.put(CONSUMER_THREADS, pDataNode.getTextContent());
+				break;
+
+			case "handlerMode":
+				__configuration.put(HANDLER_MODE, pDataNode.getTextContent());
+				break;
+
+			case "handlerThreads":
+				__configuration.put(HANDLER_THREADS, pDataNode.getTextContent());
+				break;
+			}
+		}
+
 		var attrNetworkSockets = XMLUtility.getNodeList(root, "//Server/Network/Sockets/Port");
 		for (int j = 0; j < attrNetworkSockets.getLength(); j++) {
 			var pDataNode = attrNetworkSockets.item(j);
 			var port = new Sock(pDataNode.getAttributes().getNamedItem("name").getTextContent(),
 					__getConnectionType(pDataNode.getAttributes().getNamedItem("type").getTextContent()),
 					Integer.parseInt(pDataNode.getTextContent()));
+			__setSockOptions(port, pDataNode);
 			__socketPorts.add(port);
 		}
 		var attrNetworkWebSockets = XMLUtility.getNodeList(root, "//Server/Network/WebSockets/Port");
@@ -210,6 +306,7 @@ public abstract class BaseConfiguration extends AbstractLogger {
 			var pDataNode = attrNetworkWebSockets.item(j);
 			var port = new Sock(pDataNode.getAttributes().getNamedItem("name").getTextContent(),
 					ConnectionType.WEB_SOCKET, Integer.parseInt(pDataNode.getTextContent()));
+			__setSockOptions(port, pDataNode);
 			__webSocketPorts.add(port);
 		}
 		var attrNetworkHttps = XMLUtility.getNodeList(root, "//Server/Network/Http/Port");
@@ -249,6 +346,10 @@ public abstract class BaseConfiguration extends AbstractLogger {
 				__configuration.put(MAX_PLAYER, pDataNode.getTextContent());
 				break;
 
+			case "opcodeKey":
+				__configuration.put(OPCODE_KEY, pDataNode.getTextContent());
+				break;
+
 			case "idleReader":
 				__configuration.put(IDLE_READER, pDataNode.getTextContent());
 				break;
@@ -268,6 +369,10 @@ public abstract class BaseConfiguration extends AbstractLogger {
 			case "ccuScan":
 				__configuration.put(CCU_SCAN, pDataNode.getTextContent());
 				break;
+
+			case "handlerScan":
+				__configuration.put(HANDLER_SCAN, pDataNode.getTextContent());
+				break;
 			}
 		}
 
@@ -287,6 +392,109 @@ public abstract class BaseConfiguration extends AbstractLogger {
 
 	}
 
+	/**
+	 * Read the optional tuning attributes of a port, a missing attribute keeps its
+	 * default value.
+	 * 
+	 * @param sock the port, see {@link Sock}
+	 * @param node the port's node in the configuration file
+	 */
+	private void __setSockOptions(Sock sock, Node node) {
+		boolean lowWaterMarkDefined = false;
+		boolean highWaterMarkDefined = false;
+		var attributes = node.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			var attribute = attributes.item(i);
+			var value = attribute.getTextContent();
+			switch (attribute.getNodeName()) {
+			case "backlog":
+				sock.setBacklog(Integer.parseInt(value));
+				break;
+
+			case "sendBuffer":
+				sock.setSendBuffer(Integer.parseInt(value));
+				break;
+
+			case "receiveBuffer":
+				sock.setReceiveBuffer(Integer.parseInt(value));
+				break;
+
+			case "noDelay":
+				sock.setNoDelay(Boolean.parseBoolean(value));
+				break;
+
+			case "lowWaterMark":
+				sock.setLowWaterMark(Integer.parseInt(value));
+				lowWaterMarkDefined = true;
+				break;
+
+			case "highWaterMark":
+				sock.setHighWaterMark(Integer.parseInt(value));
+				highWaterMarkDefined = true;
+				break;
+
+			case "allocator":
+				sock.setPooledAllocator(!value.equalsIgnoreCase("unpooled"));
+				break;
+
+			case "reliable":
+				sock.setReliable(Boolean.parseBoolean(value));
+				break;
+
+			case "outboundPolicy":
+				sock.setOutboundPolicy(__getOutboundPolicy(value));
+				break;
+
+			case "unwritableTimeout":
+				sock.setUnwritableTimeout(Long.parseLong(value));
+				break;
+
+			case "maxFrameLength":
+				sock.setMaxFrameLength(Integer.parseInt(value));
+				break;
+
+			case "lazyDecoding":
+				sock.setLazyDecoding(Boolean.parseBoolean(value));
+				break;
+
+			case "keyDictionary":
+				sock.setKeyDictionary(Boolean.parseBoolean(value));
+				break;
+
+			case "codec":
+				sock.setCodec(value);
+				break;
+			}
+		}
+
+		if (sock.getLowWaterMark() > sock.getHighWaterMark()) {
+			if (lowWaterMarkDefined && highWaterMarkDefined) {
+				throw new IllegalArgumentException("The port " + sock.getName() + " has the lowWaterMark ("
+						+ sock.getLowWaterMark() + ") above its highWaterMark (" + sock.getHighWaterMark() + ")");
+			}
+			// only one of them was defined, the default one follows it
+			if (lowWaterMarkDefined) {
+				sock.setHighWaterMark(sock.getLowWaterMark());
+			} else {
+				sock.setLowWaterMark(sock.getHighWaterMark());
+			}
+		}
+	}
+
+	/**
+	 * @param policy the policy name in text
+	 * @return the policy in {@link OutboundPolicy} type
+	 */
+	private OutboundPolicy __getOutboundPolicy(final String policy) {
+		switch (policy.toLowerCase()) {
+		case "dropoldest":
+			return OutboundPolicy.DROP_OLDEST;
+		case "disconnect":
+			return OutboundPolicy.DISCONNECT;
+		}
+		return OutboundPolicy.QUEUE;
+	}
+
 	/**
 	 * @param type the type name in text
 	 * @return the connection type in {@link ConnectionType} type
@@ -301,6 +509,38 @@ public abstract class BaseConfiguration extends AbstractLogger {
 		return null;
 	}
 
+	/**
+	 * @param type the transport name in text
+	 * @return the transport type in {@link TransportType} type
+	 */
+	private TransportType __getTransportType(final String type) {
+		if (type == null) {
+			return TransportType.NIO;
+		}
+		switch (type.toLowerCase()) {
+		case "epoll":
+			return TransportType.EPOLL;
+		}
+		return TransportType.NIO;
+	}
+
+	/**
+	 * @param mode the handler mode in text
+	 * @return the handler mode in {@link HandlerMode} type
+	 */
+	private HandlerMode __getHandlerMode(final String mode) {
+		if (mode == null) {
+			return HandlerMode.IO;
+		}
+		switch (mode.toLowerCase()) {
+		case "player":
+			return HandlerMode.PLAYER;
+		case "room":
+			return HandlerMode.ROOM;
+		}
+		return HandlerMode.IO;
+	}
+
 	/**
 	 * @param method the method name in text
 	 * @return the method in {@link RestMethod} type
@@ -319,6 +559,22 @@ public abstract class BaseConfiguration extends AbstractLogger {
 		return null;
 	}
 
+	/**
+	 * @return the desired transport type in configuration, see
+	 *         {@link TransportType}
+	 */
+	public TransportType getTransportType() {
+		return __getTransportType(__configuration.get(TRANSPORT));
+	}
+
+	/**
+	 * @return the threads which handle the players' messages, see
+	 *         {@link HandlerMode}
+	 */
+	public HandlerMode getHandlerMode() {
+		return __getHandlerMode(__configuration.get(HANDLER_MODE));
+	}
+
 	/**
 	 * @return the list of socket ports in configuration
 	 */
@@ -24,8 +24,17 @@ THE SOFTWARE.
 package com.tenio.configuration;
 
 import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.FramingMode;
+import com.tenio.configuration.constant.OutboundPolicy;
+import com.tenio.message.codec.PacketDecoders;
 
 /**
+ * A port in the sockets or web sockets zone. Besides its name, type and port
+ * number, it holds the tuning options which are applied when the port is bound.
+ * All options are optional in the configuration file, a missing one keeps its
+ * default value.
+ * 
  * @author kong
  */
 public final class Sock {
@@ -33,6 +42,20 @@ public final class Sock {
 	private String __name;
 	private ConnectionType __type;
 	private int __port;
+	private int __backlog = Constants.SOCKET_BACKLOG;
+	private int __sendBuffer = Constants.SOCKET_BUFFER_SIZE;
+	private int __receiveBuffer = Constants.SOCKET_BUFFER_SIZE;
+	private boolean __noDelay = true;
+	private int __lowWaterMark = Constants.WRITE_BUFFER_LOW_WATER_MARK;
+	private int __highWaterMark = Constants.WRITE_BUFFER_HIGH_WATER_MARK;
+	private boolean __pooledAllocator = true;
+	private boolean __reliable = false;
+	private OutboundPolicy __outboundPolicy = OutboundPolicy.QUEUE;
+	private long __unwritableTimeout = Constants.UNWRITABLE_TIMEOUT;
+	private int __maxFrameLength = Constants.MAX_FRAME_LENGTH;
+	private boolean __lazyDecoding = false;
+	private boolean __keyDictionary = false;
+	private String __codec = PacketDecoders.MSGPACK;
 
 	public Sock(String name, ConnectionType type, int port) {
 		__name = name;
@@ -52,4 +75,175 @@ public final class Sock {
 		return __port;
 	}
 
+	/**
+	 * @return the maximum queue length for incoming connections (TCP and
+	 *         WebSocket only)
+	 */
+	public int getBacklog() {
+		return __backlog;
+	}
+
+	public void setBacklog(int backlog) {
+		__backlog = backlog;
+	}
+
+	/**
+	 * @return the socket's send buffer size in bytes, <b>0</b> to keep the
+	 *         operating system's value
+	 */
+	public int getSendBuffer() {
+		return __sendBuffer;
+	}
+
+	public void setSendBuffer(int sendBuffer) {
+		__sendBuffer = sendBuffer;
+	}
+
+	/**
+	 * @return the socket's receive buffer size in bytes, <b>0</b> to keep the
+	 *         operating system's value
+	 */
+	public int getReceiveBuffer() {
+		return __receiveBuffer;
+	}
+
+	public void setReceiveBuffer(int receiveBuffer) {
+		__receiveBuffer = receiveBuffer;
+	}
+
+	/**
+	 * @return <b>true</b> if the Nagle's algorithm is disabled (TCP and WebSocket
+	 *         only)
+	 */
+	public boolean isNoDelay() {
+		return __noDelay;
+	}
+
+	public void setNoDelay(boolean noDelay) {
+		__noDelay = noDelay;
+	}
+
+	/**
+	 * @return the number of pending outbound bytes below which a channel becomes
+	 *         writable again
+	 */
+	public int getLowWaterMark() {
+		return __lowWaterMark;
+	}
+
+	public void setLowWaterMark(int lowWaterMark) {
+		__lowWaterMark = lowWaterMark;
+	}
+
+	/**
+	 * @return the number of pending outbound bytes above which a channel becomes
+	 *         not writable
+	 */
+	public int getHighWaterMark() {
+		return __highWaterMark;
+	}
+
+	public void setHighWaterMark(int highWaterMark) {
+		__highWaterMark = highWaterMark;
+	}
+
+	/**
+	 * @return <b>true</b> if the buffers are taken from the pooled allocator,
+	 *         otherwise the unpooled one is used
+	 */
+	public boolean isPooledAllocator() {
+		return __pooledAllocator;
+	}
+
+	public void setPooledAllocator(boolean pooledAllocator) {
+		__pooledAllocator = pooledAllocator;
+	}
+
+	/**
+	 * @return <b>true</b> if the reliable layer is enabled (UDP only)
+	 */
+	public boolean isReliable() {
+		return __reliable;
+	}
+
+	public void setReliable(boolean reliable) {
+		__reliable = reliable;
+	}
+
+	/**
+	 * @return the policy while a connection is not writable, see
+	 *         {@link OutboundPolicy} (TCP and WebSocket only)
+	 */
+	public OutboundPolicy getOutboundPolicy() {
+		return __outboundPolicy;
+	}
+
+	public void setOutboundPolicy(OutboundPolicy outboundPolicy) {
+		__outboundPolicy = outboundPolicy;
+	}
+
+	/**
+	 * @return the time in seconds a connection can stay not writable before it is
+	 *         closed, see {@link OutboundPolicy#DISCONNECT}
+	 */
+	public long getUnwritableTimeout() {
+		return __unwritableTimeout;
+	}
+
+	public void setUnwritableTimeout(long unwritableTimeout) {
+		__unwritableTimeout = unwritableTimeout;
+	}
+
+	/**
+	 * @return the maximum length of a package's content when the connection uses
+	 *         the variable-length header, see {@link FramingMode#VARINT} (TCP
+	 *         only)
+	 */
+	public int getMaxFrameLength() {
+		return __maxFrameLength;
+	}
+
+	public void setMaxFrameLength(int maxFrameLength) {
+		__maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * @return <b>true</b> if only the keys of an incoming message are decoded on
+	 *         receipt, each value is decoded on its first read, see
+	 *         {@link com.tenio.entity.element.TObject}
+	 */
+	public boolean isLazyDecoding() {
+		return __lazyDecoding;
+	}
+
+	public void setLazyDecoding(boolean lazyDecoding) {
+		__lazyDecoding = lazyDecoding;
+	}
+
+	/**
+	 * @return <b>true</b> if the outgoing messages' keys are replaced by their ids
+	 *         in the {@link com.tenio.message.codec.KeyDictionary}
+	 */
+	public boolean isKeyDictionary() {
+		return __keyDictionary;
+	}
+
+	public void setKeyDictionary(boolean keyDictionary) {
+		__keyDictionary = keyDictionary;
+	}
+
+	/**
+	 * @return the codec of the incoming packets, <b>msgpack</b> (by default),
+	 *         <b>raw</b> or the class name of a
+	 *         {@link com.tenio.message.codec.IPacketDecoder}, see
+	 *         {@link PacketDecoders}
+	 */
+	public String getCodec() {
+		return __codec;
+	}
+
+	public void setCodec(String codec) {
+		__codec = codec;
+	}
+
 }
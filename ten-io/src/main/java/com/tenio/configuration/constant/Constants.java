@@ -45,6 +45,32 @@ public final class Constants {
 	 * connections which connect to our server must follow this rule.
 	 */
 	public static final int HEADER_BYTES = 2;
+	/**
+	 * The maximum length of a package's content in the fixed header mode, see
+	 * {@link FramingMode#FIXED}. It is the same for both directions.
+	 */
+	public static final int MAX_FIXED_FRAME_LENGTH = Short.MAX_VALUE;
+	/**
+	 * A TCP client which sends this byte before its first package switches the
+	 * connection to the variable-length header, see {@link FramingMode#VARINT}.
+	 * It is never the first byte of a fixed header because a package's length is
+	 * limited to {@link #MAX_FIXED_FRAME_LENGTH} in that mode.
+	 */
+	public static final int VARINT_PREAMBLE = 0xFF;
+	/**
+	 * The default maximum length of a package's content in the variable-length
+	 * header mode
+	 */
+	public static final int MAX_FRAME_LENGTH = 1024 * 1024;
+	/**
+	 * The MessagePack extension types of the primitive arrays, see
+	 * {@link com.tenio.entity.element.AbstractPrimitiveArray}. The elements follow
+	 * the extension's header in big-endian order.
+	 */
+	public static final byte MSGPACK_EXT_INT_ARRAY = 1;
+	public static final byte MSGPACK_EXT_LONG_ARRAY = 2;
+	public static final byte MSGPACK_EXT_FLOAT_ARRAY = 3;
+	public static final byte MSGPACK_EXT_BYTE_ARRAY = 4;
 	/**
 	 * It is used in the FSM pattern in which all entities can communicate with
 	 * others by message in some delay time. The value below describes one entity
@@ -68,6 +94,23 @@ public final class Constants {
 	 */
 	public static final int ADD_ELEMENT_POOL = 10;
 
+	/**
+	 * The maximum number of free elements kept by each thread before they are
+	 * given back to the shared stack of a pool.
+	 * 
+	 * @see com.tenio.pool.ElementPool
+	 */
+	public static final int THREAD_CACHE_ELEMENT_POOL = 16;
+
+	/**
+	 * The system property which enables the leak detection of all pools, an
+	 * element's acquiring stack trace is recorded for reporting when it is not
+	 * repaid (e.g. <code>-Dtenio.pool.leakDetection=true</code>).
+	 * 
+	 * @see com.tenio.pool.ElementPool
+	 */
+	public static final String KEY_ELEMENT_POOL_LEAK_DETECTION = "tenio.pool.leakDetection";
+
 	/**
 	 * A unique key for the CCU scan schedule.
 	 */
@@ -83,6 +126,11 @@ public final class Constants {
 	 */
 	public static final String KEY_SCHEDULE_TIME_OUT_SCAN = "t.schedule.time.out.scan";
 
+	/**
+	 * A unique key for the messages handlers' workload scan schedule.
+	 */
+	public static final String KEY_SCHEDULE_HANDLER_SCAN = "t.schedule.handler.scan";
+
 	public static final String KEY_SCHEDULE_HTTP_MANAGER = "t.schedule.http.manager";
 
 	/**
@@ -101,6 +149,144 @@ public final class Constants {
 	 */
 	public static final long TRAFFIC_COUNTER_CHECK_INTERVAL = 1000;
 
+	/**
+	 * The default maximum queue length for incoming connections of a TCP or
+	 * WebSocket port
+	 */
+	public static final int SOCKET_BACKLOG = 1024;
+
+	/**
+	 * The default send/receive buffer size of a socket, 0 means the operating
+	 * system's value is kept
+	 */
+	public static final int SOCKET_BUFFER_SIZE = 0;
+
+	/**
+	 * The default number of pending outbound bytes below which a channel becomes
+	 * writable again
+	 */
+	public static final int WRITE_BUFFER_LOW_WATER_MARK = 32 * 1024;
+
+	/**
+	 * The default number of pending outbound bytes above which a channel becomes
+	 * not writable
+	 */
+	public static final int WRITE_BUFFER_HIGH_WATER_MARK = 64 * 1024;
+
+	/**
+	 * The maximum number of droppable messages which are held for a not writable
+	 * connection, see {@link OutboundPolicy#DROP_OLDEST}
+	 */
+	public static final int OUTBOUND_DROPPABLE_QUEUE = 32;
+
+	/**
+	 * The default time in seconds a connection can stay not writable before it is
+	 * closed, see {@link OutboundPolicy#DISCONNECT}
+	 */
+	public static final long UNWRITABLE_TIMEOUT = 10;
+
+	/**
+	 * The maximum number of flushes which are consolidated into one, the channel
+	 * is flushed once this number is reached even when the consolidation is still
+	 * in progress
+	 */
+	public static final int FLUSH_CONSOLIDATION_LIMIT = 256;
+
+	/**
+	 * The default number of threads for accepting new connections
+	 */
+	public static final int PRODUCER_THREADS = 1;
+
+	/**
+	 * The default number of threads for handling the connections' I/O, 0 means the
+	 * Netty's default value (twice the number of available processors)
+	 */
+	public static final int CONSUMER_THREADS = 0;
+
+	/**
+	 * The maximum number of sessions (remote addresses) in one Datagram channel
+	 */
+	public static final int DATAGRAM_MAX_SESSIONS = 100000;
+
+	/**
+	 * The idle time in seconds before a Datagram session, which is not attached
+	 * to any player, is removed
+	 */
+	public static final long DATAGRAM_SESSION_IDLE_TIMEOUT = 30;
+
+	/**
+	 * The period in seconds for scanning the idle Datagram sessions
+	 */
+	public static final long DATAGRAM_SESSION_SCAN = 10;
+
+	/**
+	 * The maximum size in bytes of a packet in the reliable Datagram layer, a
+	 * larger message is split into fragments
+	 */
+	public static final int RELIABLE_MTU = 1200;
+
+	/**
+	 * The maximum number of unacknowledged reliable fragments for one remote
+	 * address (must be a power of two)
+	 */
+	public static final int RELIABLE_WINDOW = 256;
+
+	/**
+	 * The period in milliseconds for retransmitting the expired fragments
+	 */
+	public static final long RELIABLE_TICK = 10;
+
+	/**
+	 * The initial retransmission timeout in milliseconds
+	 */
+	public static final long RELIABLE_INITIAL_RTO = 200;
+
+	/**
+	 * The minimum retransmission timeout in milliseconds
+	 */
+	public static final long RELIABLE_MIN_RTO = 30;
+
+	/**
+	 * The maximum retransmission timeout in milliseconds
+	 */
+	public static final long RELIABLE_MAX_RTO = 1000;
+
+	/**
+	 * The maximum number of reliable fragments waiting for a room in the window
+	 * of one remote address, a message which does not fit is rejected
+	 */
+	public static final int RELIABLE_MAX_BACKLOG = 4096;
+
+	/**
+	 * The maximum number of retransmissions of one reliable fragment, after that
+	 * the remote address is considered lost and its reliable state is reset
+	 */
+	public static final int RELIABLE_MAX_RETRIES = 12;
+
+	/**
+	 * The idle time in seconds before the reliable state of a remote address is
+	 * reset
+	 */
+	public static final long RELIABLE_IDLE_TIMEOUT = 60;
+
+	/**
+	 * The length of the pending TCP Fast Open requests queue, it is only used in
+	 * the native epoll transport
+	 */
+	public static final int TCP_FASTOPEN_QUEUE = 256;
+
+	/**
+	 * The key which holds the opcode of a message by default, see
+	 * {@link com.tenio.extension.MessageRouter}
+	 */
+	public static final String OPCODE_KEY = "c";
+
+	/**
+	 * The maximum opcode of a message, see
+	 * {@link com.tenio.extension.MessageRouter}
+	 */
+	public static final int MAX_OPCODE = 65535;
+
 	/**
 	 * The HTTP response with UTF-8 encoding
 	 */
@@ -0,0 +1,48 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.configuration.constant;
+
+/**
+ * The delivery modes of a message sent via a Datagram connection. They only
+ * take effect on the ports which enable the reliable layer, otherwise all
+ * messages are sent in the {@link #UNRELIABLE} mode.
+ * 
+ * @author kong
+ */
+public enum DeliveryMode {
+	/**
+	 * Fire-and-forget, a message can be lost, duplicated or arrive out of order
+	 */
+	UNRELIABLE,
+	/**
+	 * A message can be lost, but an older message is never delivered after a newer
+	 * one (suitable for the state updates like movements)
+	 */
+	UNRELIABLE_SEQUENCED,
+	/**
+	 * A message is retransmitted until it is acknowledged, all messages are
+	 * delivered exactly once in their sending order
+	 */
+	RELIABLE_ORDERED
+}
@@ -0,0 +1,46 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.configuration.constant;
+
+/**
+ * The header which holds the content's length of each TCP package. A connection
+ * starts in the {@link #FIXED} mode, the client can switch it to the
+ * {@link #VARINT} mode by sending the {@link Constants#VARINT_PREAMBLE} byte
+ * first. The server always answers in the same mode as its client.
+ * 
+ * @author kong
+ */
+public enum FramingMode {
+	/**
+	 * A 2 bytes header in <b>BIG_ENDIAN</b> byte's order, see
+	 * {@link Constants#HEADER_BYTES}
+	 */
+	FIXED,
+	/**
+	 * An unsigned varint header, 7 bits per byte with the least significant group
+	 * first and the highest bit set on all bytes but the last one. A package
+	 * shorter than 128 bytes only needs 1 byte.
+	 */
+	VARINT
+}
@@ -0,0 +1,52 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.configuration.constant;
+
+/**
+ * The threads which handle the messages from players, see
+ * {@link TEvent#RECEIVED_FROM_PLAYER} and
+ * {@link TEvent#RECEIVED_RAW_FROM_PLAYER}
+ * 
+ * @author kong
+ */
+public enum HandlerMode {
+	/**
+	 * The messages are handled in the I/O threads which read them, a slow handler
+	 * delays all the connections sharing its thread
+	 */
+	IO,
+	/**
+	 * The messages are handled in the worker threads, the ones from the same
+	 * player are always handled by the same thread in order
+	 */
+	PLAYER,
+	/**
+	 * The messages are handled in the worker threads, the ones from the players
+	 * in the same room are always handled by the same thread in order. A player
+	 * without a room is treated as {@link #PLAYER}. When a player joins or leaves
+	 * a room, its next messages stay in its previous thread until the earlier
+	 * ones were handled, so each player's order is always kept
+	 */
+	ROOM
+}
@@ -48,7 +48,8 @@ public enum LEvent {
 	CONNECTION_CLOSE,
 
 	/**
-	 * The exceptions occur when the server handles messages from a client. <br>
+	 * The exceptions occur when the server handles messages from a client, or when
+	 * a message cannot be sent to it (e.g. it is too long to be framed). <br>
 	 * <ul>
 	 * <li><b>parameter[0]</b> the connection's id in string</li>
 	 * <li><b>parameter[1]</b> the connection, see {@link Connection}</li>
@@ -59,6 +60,19 @@ public enum LEvent {
 	 */
 	CONNECTION_EXCEPTION,
 
+	/**
+	 * When a connection's channel becomes not writable, the client cannot read as
+	 * fast as the server writes. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> the connection, see {@link Connection}</li>
+	 * <li><b>parameter[1]</b> the number of pending outbound bytes, see
+	 * {@link Long}</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	CONNECTION_SLOW,
+
 	/**
 	 * This event is called when you let the player leave by his desire. <br>
 	 * <ul>
@@ -90,7 +104,9 @@ public enum LEvent {
 	 * <li><b>parameter[1]</b> the connection (can be <b>null</b>) that is retrieved
 	 * from the corresponding channel, see {@link Connection}</li>
 	 * <li><b>parameter[2]</b> the message, see {@link TObject} which is sent by its
-	 * corresponding connection</li>
+	 * corresponding connection, or the raw data decoded by the port's codec (see
+	 * {@link com.tenio.configuration.Sock#getCodec()}) which is released after
+	 * this event</li>
 	 * <li><b>parameter[3]</b> the connection object which is used to assigned to a
 	 * player (can be <b>null</b>, see {@link Connection}</li>
 	 * </ul>
@@ -0,0 +1,55 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.configuration.constant;
+
+import com.tenio.network.Connection;
+
+/**
+ * What a Socket or WebSocket connection does while its channel is not writable,
+ * that means the client cannot read as fast as the server writes and the
+ * pending outbound bytes exceeded the high water mark, see
+ * {@link Connection#isWritable()}.
+ * 
+ * @author kong
+ */
+public enum OutboundPolicy {
+	/**
+	 * Keep queuing all the messages until the channel becomes writable again
+	 */
+	QUEUE,
+	/**
+	 * The droppable messages, which are sent in an unreliable delivery mode (see
+	 * {@link DeliveryMode}), are held in a small queue and the oldest one is
+	 * dropped when it is full. The other messages are still queued, including
+	 * the broadcasts which are sent without a delivery mode, so a frequent state
+	 * update should be sent in an unreliable one. The held messages are written
+	 * before such a message to keep the sending order.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Keep queuing all the messages, but close the connection when the channel
+	 * stays not writable for too long
+	 */
+	DISCONNECT
+}
@@ -53,7 +53,7 @@ public enum TEvent {
 	 * <ul>
 	 * <li><b>parameter[0]</b> a valid connection, see {@link Connection}</li>
 	 * <li><b>parameter[1]</b> a message that sent from the client, see
-	 * {@link TObject}</li>
+	 * {@link TObject} (or the raw data, see {@link #RECEIVED_RAW_FROM_PLAYER})</li>
 	 * </ul>
 	 * 
 	 * Return <b>null</b>
@@ -124,7 +124,8 @@ public enum TEvent {
 	 * <li><b>parameter[0]</b> a new connection from the current client (the old one
 	 * was removed automatically), see {@link Connection}</li>
 	 * <li><b>parameter[1]</b> a message from the current client which needs to hold
-	 * some credentials information, see {@link TObject}</li>
+	 * some credentials information, see {@link TObject} (or the raw data, see
+	 * {@link #RECEIVED_RAW_FROM_PLAYER})</li>
 	 * </ul>
 	 * 
 	 * Return if you allow the client can be re-connected, return the corresponding
@@ -167,7 +168,11 @@ public enum TEvent {
 	 * {@link AbstractPlayer}</li>
 	 * <li><b>parameter[1]</b> this message was sent by the connection with index in
 	 * {@link Integer}. Notice that, 0 value means main connection.
-	 * <li><b>parameter[2]</b> the sent message, see {@link TObject}</li>
+	 * <li><b>parameter[2]</b> the sent message, see {@link TObject}, a typed
+	 * message (see {@link com.tenio.annotation.Message}) or the raw data (see
+	 * {@link com.tenio.api.MessageApi#sendRaw(AbstractPlayer, int, io.netty.buffer.ByteBuf)}).
+	 * It is repaid to its pool once all the connections have encoded it, so it
+	 * must not be kept</li>
 	 * </ul>
 	 * 
 	 * Return <b>null</b>
@@ -182,13 +187,41 @@ public enum TEvent {
 	 * {@link AbstractPlayer} to your server</li>
 	 * <li><b>parameter[1]</b> this message was sent by the connection with index in
 	 * {@link Integer}. Notice that, 0 value means main connection.
-	 * <li><b>parameter[2]</b> the received message, see {@link TObject}</li>
+	 * <li><b>parameter[2]</b> the received message, see {@link TObject}. It can be
+	 * converted to a typed message (see {@link com.tenio.annotation.Message}) by
+	 * {@link com.tenio.api.MessageApi#getMessagePack(Class, TObject)}</li>
 	 * </ul>
+	 * The messages are handled in the I/O threads by default, or in the worker
+	 * threads which keep each player's order, see
+	 * {@link com.tenio.configuration.constant.HandlerMode}. <br>
 	 * 
 	 * Return <b>null</b>
 	 */
 	RECEIVED_FROM_PLAYER,
 
+	/**
+	 * With a valid player, the raw data sent from a port whose codec does not
+	 * decode the packets to maps (e.g. voice relay or replay blobs), see
+	 * {@link com.tenio.configuration.Sock#getCodec()}. Before the client becomes
+	 * a player, the messages of the handshake events (e.g.
+	 * {@link #CONNECTION_SUCCESS} or {@link #ATTACH_CONNECTION_REQUEST}) are also
+	 * the raw data on such a port, instead of {@link TObject}s. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> the player which sent the data, see
+	 * {@link AbstractPlayer}</li>
+	 * <li><b>parameter[1]</b> the data was sent by the connection with index in
+	 * {@link Integer}</li>
+	 * <li><b>parameter[2]</b> the data, a {@link io.netty.buffer.ByteBuf} for the
+	 * <b>raw</b> codec (or the object of a custom codec). It is released after
+	 * this event, so it must be retained to be kept longer; it can be relayed by
+	 * {@link com.tenio.api.MessageApi#sendRaw(AbstractPlayer, int, io.netty.buffer.ByteBuf)}
+	 * after retaining it</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	RECEIVED_RAW_FROM_PLAYER,
+
 	/**
 	 * Created a new room. A room ({@link AbstractRoom}) is a group of some players.
 	 * <br>
@@ -291,6 +324,23 @@ public enum TEvent {
 	 */
 	DISCONNECT_CONNECTION,
 
+	/**
+	 * When a connection cannot send its messages as fast as they are written (the
+	 * pending outbound bytes exceeded the port's high water mark), this event
+	 * occurs. What happens next depends on the port's outbound policy, see
+	 * {@link OutboundPolicy}. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> the slow connection, see {@link Connection}</li>
+	 * <li><b>parameter[1]</b> the corresponding player (can be <b>null</b>), see
+	 * {@link AbstractPlayer}</li>
+	 * <li><b>parameter[2]</b> the number of pending outbound bytes, see
+	 * {@link Long}</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	CONNECTION_SLOW,
+
 	/**
 	 * You can see the number of concurrent users (CCU) in period time. This scanned
 	 * time can be changed in configuration, see {@link BaseConfiguration}. <br>
@@ -315,7 +365,7 @@ public enum TEvent {
 	 * {@link Integer}</li>
 	 * <li><b>parameter[1]</b> the message from one client needs to hold some
 	 * credentials data so that you can return him a corresponding value, see
-	 * {@link TObject}</li>
+	 * {@link TObject} (or the raw data, see {@link #RECEIVED_RAW_FROM_PLAYER})</li>
 	 * </ul>
 	 * 
 	 * Return if the client is allowed to attach a sub connection, return the
@@ -347,7 +397,7 @@ public enum TEvent {
 	 * <li><b>parameter[0]</b> the index of in-comming connection, see
 	 * {@link Integer}</li>
 	 * <li><b>parameter[1]</b> the message received from one client, see
-	 * {@link TObject}</li>
+	 * {@link TObject} (or the raw data, see {@link #RECEIVED_RAW_FROM_PLAYER})</li>
 	 * <li><b>parameter[2]</b> the reason for failed, see {@link ErrorMsg} in string
 	 * type</li>
 	 * </ul>
@@ -371,6 +421,63 @@ public enum TEvent {
 	 */
 	BANDWIDTH,
 
+	/**
+	 * The memory held by the buffers' allocators, which are used for encoding and
+	 * decoding all messages. A port uses the pooled allocator or the unpooled one
+	 * by its <i>allocator</i> setting. It is retrieved in the same period as the
+	 * {@link #BANDWIDTH} event. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> Used direct memory of the pooled allocator (KB)</li>
+	 * <li><b>parameter[1]</b> Used heap memory of the pooled allocator (KB)</li>
+	 * <li><b>parameter[2]</b> The number of direct arenas</li>
+	 * <li><b>parameter[3]</b> The number of thread local caches</li>
+	 * <li><b>parameter[4]</b> Used direct memory of the unpooled allocator
+	 * (KB)</li>
+	 * <li><b>parameter[5]</b> Used heap memory of the unpooled allocator (KB)</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	BUFFER_MEMORY,
+
+	/**
+	 * The number of outbound operations which reach the sockets. The flushes of a
+	 * channel are consolidated, so they should be much fewer than the writes when
+	 * many messages are sent in a short time. It is retrieved in the same period
+	 * as the {@link #BANDWIDTH} event. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> Writes per second</li>
+	 * <li><b>parameter[1]</b> Flushes per second</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	OUTBOUND_RATE,
+
+	/**
+	 * The workload of the worker threads which handle the players' messages, it
+	 * is only retrieved when the messages are not handled in the I/O threads, see
+	 * {@link com.tenio.configuration.constant.HandlerMode}. This scanned time can
+	 * be changed in configuration, see {@link BaseConfiguration}. <br>
+	 * <ul>
+	 * <li><b>parameter[0]</b> the number of waiting messages in all queues, see
+	 * {@link Integer}</li>
+	 * <li><b>parameter[1]</b> the number of waiting messages in the longest
+	 * queue, see {@link Integer}</li>
+	 * <li><b>parameter[2]</b> the number of messages handled in the period, see
+	 * {@link Long}</li>
+	 * <li><b>parameter[3]</b> the average waiting time of a message in the queue
+	 * (microseconds), see {@link Long}</li>
+	 * <li><b>parameter[4]</b> the average handling time of a message
+	 * (microseconds), see {@link Long}</li>
+	 * <li><b>parameter[5]</b> the longest handling time of a message
+	 * (microseconds), see {@link Long}</li>
+	 * </ul>
+	 * 
+	 * Return <b>null</b>
+	 */
+	HANDLER_WORKLOAD,
+
 	/**
 	 * You can authenticate the request in here
 	 * <ul>
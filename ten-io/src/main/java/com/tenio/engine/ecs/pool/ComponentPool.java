@@ -25,13 +25,8 @@ package com.tenio.engine.ecs.pool;
 
 import java.lang.reflect.InvocationTargetException;
 
-import javax.annotation.concurrent.GuardedBy;
-
-import com.tenio.configuration.constant.Constants;
 import com.tenio.engine.ecs.base.IComponent;
-import com.tenio.exception.NullElementPoolException;
-import com.tenio.logger.AbstractLogger;
-import com.tenio.pool.IElementPool;
+import com.tenio.pool.ElementPool;
 
 /**
  * The object pool mechanism for {@link IComponent}.
@@ -39,97 +34,19 @@ import com.tenio.pool.IElementPool;
  * @author kong
  * 
  */
-public final class ComponentPool extends AbstractLogger implements IElementPool<IComponent> {
-
-	@GuardedBy("this")
-	private IComponent[] __pool;
-	@GuardedBy("this")
-	private boolean[] __used;
-	private Class<?> __clazz;
+public final class ComponentPool extends ElementPool<IComponent> {
 
 	public ComponentPool(Class<?> clazz) {
-		__clazz = clazz;
-		__pool = new IComponent[Constants.BASE_ELEMENT_POOL];
-		__used = new boolean[Constants.BASE_ELEMENT_POOL];
-
-		for (int i = 0; i < __pool.length; i++) {
-			try {
-				var component = (IComponent) __clazz.getDeclaredConstructor().newInstance();
-				__pool[i] = component;
-				__used[i] = false;
-			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-					| InvocationTargetException | NoSuchMethodException | SecurityException e) {
-				error(e);
-			}
-		}
-	}
-
-	@Override
-	public synchronized IComponent get() {
-		for (int i = 0; i < __used.length; i++) {
-			if (!__used[i]) {
-				__used[i] = true;
-				return __pool[i];
-			}
-		}
-		// If we got here, then all the Elements are in use. We will
-		// increase the number in our pool by @ADD_ELEMENT_POOL (arbitrary value for
-		// illustration purposes).
-		var oldUsed = __used;
-		__used = new boolean[oldUsed.length + Constants.ADD_ELEMENT_POOL];
-		System.arraycopy(oldUsed, 0, __used, 0, oldUsed.length);
-
-		var oldPool = __pool;
-		__pool = new IComponent[oldPool.length + Constants.ADD_ELEMENT_POOL];
-		System.arraycopy(oldPool, 0, __pool, 0, oldPool.length);
-
-		for (int i = oldPool.length; i < __pool.length; i++) {
-			try {
-				__pool[i] = (IComponent) __clazz.getDeclaredConstructor().newInstance();
-				__used[i] = false;
-			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-					| InvocationTargetException | NoSuchMethodException | SecurityException e) {
-				error(e);
-			}
-		}
-
-		info("COMPONENT POOL",
-				buildgen("Increase the number of elements by ", Constants.ADD_ELEMENT_POOL, " to ", __used.length));
-
-		// and allocate the last old ELement
-		__used[oldPool.length - 1] = true;
-		return __pool[oldPool.length - 1];
+		super("COMPONENT POOL", () -> __newComponent(clazz), null);
 	}
 
-	@Override
-	public synchronized void repay(IComponent element) {
-		boolean flagFound = false;
-		for (int i = 0; i < __pool.length; i++) {
-			if (__pool[i] == element) {
-				__used[i] = false;
-				flagFound = true;
-				break;
-			}
+	private static IComponent __newComponent(Class<?> clazz) {
+		try {
+			return (IComponent) clazz.getDeclaredConstructor().newInstance();
+		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
+				| InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			throw new IllegalArgumentException("Unable to create a component of " + clazz.getName(), e);
 		}
-		if (!flagFound) {
-			var e = new NullElementPoolException();
-			error(e);
-			throw e;
-		}
-	}
-
-	@Override
-	public synchronized void cleanup() {
-		for (int i = 0; i < __pool.length; i++) {
-			__pool[i] = null;
-		}
-		__used = null;
-		__pool = null;
-	}
-
-	@Override
-	public synchronized int getPoolSize() {
-		return (__pool.length == __used.length) ? __pool.length : -1;
 	}
 
 }
@@ -0,0 +1,99 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.entity.element;
+
+/**
+ * The base of the arrays which hold primitive values (e.g. {@link TIntArray}).
+ * The values are kept in a primitive array, there is no boxed object for each
+ * element. Such an array is sent as a MessagePack extension (a compact binary
+ * blob) and received as the same type.
+ * 
+ * @author kong
+ * 
+ */
+public abstract class AbstractPrimitiveArray {
+
+	/**
+	 * The default number of elements which can be held without resizing
+	 */
+	protected static final int DEFAULT_CAPACITY = 16;
+
+	private int __size;
+
+	/**
+	 * @return the number of elements
+	 */
+	public int size() {
+		return __size;
+	}
+
+	public boolean isEmpty() {
+		return __size == 0;
+	}
+
+	/**
+	 * Remove all elements, the capacity is kept for reusing
+	 */
+	public void clear() {
+		__size = 0;
+	}
+
+	/**
+	 * @return the number of bytes of one element on the wire
+	 */
+	public abstract int getElementBytes();
+
+	/**
+	 * @return the current number of elements which can be held without resizing
+	 */
+	protected abstract int _getCapacity();
+
+	/**
+	 * @param capacity the new number of elements which can be held
+	 */
+	protected abstract void _resize(int capacity);
+
+	/**
+	 * Reserve a slot at the end of the array
+	 * 
+	 * @return the index of the new element
+	 */
+	protected int _append() {
+		if (__size == _getCapacity()) {
+			_resize(Math.max(DEFAULT_CAPACITY, __size << 1));
+		}
+		return __size++;
+	}
+
+	/**
+	 * @param index the element's index
+	 * @throws IndexOutOfBoundsException when the index is out of range
+	 */
+	protected void _checkIndex(int index) {
+		if (index < 0 || index >= __size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + __size);
+		}
+	}
+
+}
@@ -21,23 +21,20 @@ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
 OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
 THE SOFTWARE.
 */
-package com.tenio.event;
+package com.tenio.entity.element;
 
 /**
- * This function interface provides one method for invoking an event.
+ * A value in a {@link TObject} which is not decoded yet. It is decoded the
+ * first time its key is read, then replaced by the result.
  * 
  * @author kong
  * 
  */
-@FunctionalInterface
-public interface IEvent<T extends Object> {
+public interface ILazyElement {
 
 	/**
-	 * To invoke an event.
-	 * 
-	 * @param args the parameters those will be sent to subscribers
-	 * @return the subsribe's result
+	 * @return the decoded value
 	 */
-	Object emit(@SuppressWarnings("unchecked") T... args);
+	Object decode();
 
 }
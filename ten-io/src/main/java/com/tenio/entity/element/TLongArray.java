@@ -0,0 +1,111 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.entity.element;
+
+import java.util.Arrays;
+
+/**
+ * An array of <b>long</b> values, see {@link AbstractPrimitiveArray}.
+ * 
+ * @author kong
+ * 
+ */
+public final class TLongArray extends AbstractPrimitiveArray {
+
+	private long[] __elements;
+
+	public static TLongArray newInstance() {
+		return new TLongArray(DEFAULT_CAPACITY);
+	}
+
+	public static TLongArray newInstance(int capacity) {
+		return new TLongArray(capacity);
+	}
+
+	private TLongArray(int capacity) {
+		__elements = new long[capacity];
+	}
+
+	public TLongArray put(final long value) {
+		// the array may be replaced while appending
+		int index = _append();
+		__elements[index] = value;
+		return this;
+	}
+
+	public long getLong(final int index) {
+		_checkIndex(index);
+		return __elements[index];
+	}
+
+	public void set(final int index, final long value) {
+		_checkIndex(index);
+		__elements[index] = value;
+	}
+
+	/**
+	 * @return a copy of the elements
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(__elements, size());
+	}
+
+	@Override
+	public int getElementBytes() {
+		return 8;
+	}
+
+	@Override
+	protected int _getCapacity() {
+		return __elements.length;
+	}
+
+	@Override
+	protected void _resize(int capacity) {
+		__elements = Arrays.copyOf(__elements, capacity);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof TLongArray)) {
+			return false;
+		}
+		var other = (TLongArray) object;
+		return Arrays.equals(__elements, 0, size(), other.__elements, 0, other.size());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(toArray());
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
@@ -23,25 +23,266 @@ THE SOFTWARE.
 */
 package com.tenio.entity.element;
 
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * This is an element object in your server. It can be used to hold your map
  * data. All message comes from a client will be converted to this object. That
- * helps us normalize the way to communicate and easy to use.
+ * helps us normalize the way to communicate and easy to use.<br>
+ * Most messages only carry a few keys, so the keys and values are kept in one
+ * flat array and a key is found by a linear scan. An object which holds more
+ * than {@link #COMPACT_LIMIT} keys is promoted to a hash table, and it goes
+ * back to the flat array when it is cleared (e.g. when it is repaid to its
+ * pool). The keys keep their insertion order while the object is compact.<br>
+ * A received message can hold lazy values (see {@link ILazyElement}), only the
+ * keys are read on receipt and each value is decoded the first time it is
+ * read. Any operation on all the values (e.g. iterating its entries or
+ * comparing it) decodes the remaining ones first.
  * 
  * @author kong
  * 
  */
-public final class TObject extends HashMap<String, Object> {
+public final class TObject extends AbstractMap<String, Object> implements Serializable {
 
 	private static final long serialVersionUID = 8818783476027583633L;
 
+	/**
+	 * The maximum number of keys which are kept in the flat array
+	 */
+	public static final int COMPACT_LIMIT = 8;
+	/**
+	 * The initial number of keys which can be held without resizing
+	 */
+	private static final int DEFAULT_CAPACITY = 4;
+
+	/**
+	 * The keys are at the even indexes, each value follows its key
+	 */
+	private Object[] __compact;
+	private int __size;
+	/**
+	 * The hash table, it is only created when the object grows beyond
+	 * {@link #COMPACT_LIMIT} keys
+	 */
+	private HashMap<String, Object> __table;
+	private transient Set<Map.Entry<String, Object>> __entrySet;
+	private transient Set<String> __keySet;
+
 	public static TObject newInstance() {
 		return new TObject();
 	}
 
 	private TObject() {
+		__compact = new Object[DEFAULT_CAPACITY << 1];
+	}
+
+	/**
+	 * Put a value which is decoded later, on its first read
+	 * 
+	 * @param key   the key
+	 * @param value the undecoded value, see {@link ILazyElement}
+	 */
+	public void putLazy(String key, ILazyElement value) {
+		__put(key, value);
+	}
+
+	/**
+	 * @return <b>true</b> if some values are not decoded yet
+	 */
+	public boolean isLazy() {
+		if (__table != null) {
+			return __table.values().stream().anyMatch(value -> value instanceof ILazyElement);
+		}
+		for (int i = 0; i < __size; i++) {
+			if (__compact[(i << 1) + 1] instanceof ILazyElement) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return __table != null ? __table.size() : __size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return __table != null ? __table.containsKey(key) : __indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (__table != null) {
+			var value = __table.get(key);
+			if (value instanceof ILazyElement) {
+				value = ((ILazyElement) value).decode();
+				__table.put((String) key, value);
+			}
+			return value;
+		}
+		int index = __indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		var value = __compact[(index << 1) + 1];
+		if (value instanceof ILazyElement) {
+			value = ((ILazyElement) value).decode();
+			__compact[(index << 1) + 1] = value;
+		}
+		return value;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		return __decode(__put(key, value));
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (__table != null) {
+			return __decode(__table.remove(key));
+		}
+		int index = __indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		var old = __compact[(index << 1) + 1];
+		__removeAt(index);
+		return __decode(old);
+	}
+
+	@Override
+	public void clear() {
+		// a large object goes back to the flat array
+		__table = null;
+		Arrays.fill(__compact, 0, __size << 1, null);
+		__size = 0;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		__decodeAll();
+		if (__table != null) {
+			__table.forEach(action);
+			return;
+		}
+		for (int i = 0; i < __size; i++) {
+			action.accept((String) __compact[i << 1], __compact[(i << 1) + 1]);
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if (__entrySet == null) {
+			__entrySet = new EntrySet();
+		}
+		return __entrySet;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		if (__keySet == null) {
+			__keySet = new KeySet();
+		}
+		return __keySet;
+	}
+
+	@Override
+	public TObject clone() {
+		var object = new TObject();
+		object.putAll(this);
+		return object;
+	}
+
+	private Object writeReplace() {
+		__decodeAll();
+		return this;
+	}
+
+	private int __indexOf(Object key) {
+		for (int i = 0; i < __size; i++) {
+			var current = __compact[i << 1];
+			if (current == key || (key != null && key.equals(current))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the previous value, it may be undecoded
+	 */
+	private Object __put(String key, Object value) {
+		if (__table != null) {
+			return __table.put(key, value);
+		}
+		int index = __indexOf(key);
+		if (index >= 0) {
+			var old = __compact[(index << 1) + 1];
+			__compact[(index << 1) + 1] = value;
+			return old;
+		}
+		if (__size == COMPACT_LIMIT) {
+			__promote();
+			return __table.put(key, value);
+		}
+		if ((__size << 1) == __compact.length) {
+			__compact = Arrays.copyOf(__compact, Math.min(__compact.length << 1, COMPACT_LIMIT << 1));
+		}
+		__compact[__size << 1] = key;
+		__compact[(__size << 1) + 1] = value;
+		__size++;
+		return null;
+	}
+
+	private void __removeAt(int index) {
+		int from = (index + 1) << 1;
+		System.arraycopy(__compact, from, __compact, index << 1, (__size << 1) - from);
+		__size--;
+		__compact[__size << 1] = null;
+		__compact[(__size << 1) + 1] = null;
+	}
+
+	private void __promote() {
+		__table = new HashMap<String, Object>(COMPACT_LIMIT << 2);
+		for (int i = 0; i < __size; i++) {
+			__table.put((String) __compact[i << 1], __compact[(i << 1) + 1]);
+		}
+		Arrays.fill(__compact, 0, __size << 1, null);
+		__size = 0;
+	}
+
+	private Object __decode(Object value) {
+		return value instanceof ILazyElement ? ((ILazyElement) value).decode() : value;
+	}
+
+	private void __decodeAll() {
+		if (__table != null) {
+			for (var entry : __table.entrySet()) {
+				if (entry.getValue() instanceof ILazyElement) {
+					entry.setValue(((ILazyElement) entry.getValue()).decode());
+				}
+			}
+			return;
+		}
+		for (int i = 0; i < __size; i++) {
+			__compact[(i << 1) + 1] = __decode(__compact[(i << 1) + 1]);
+		}
 	}
 
 	public double getDouble(final String key) {
@@ -89,4 +330,134 @@ public final class TObject extends HashMap<String, Object> {
 		return this;
 	}
 
+	/**
+	 * Iterates the flat array, an element can be removed while iterating
+	 */
+	private abstract class CompactIterator<E> implements Iterator<E> {
+
+		private int __next;
+		private int __last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return __next < __size;
+		}
+
+		protected int _nextIndex() {
+			if (__next >= __size) {
+				throw new NoSuchElementException();
+			}
+			__last = __next++;
+			return __last;
+		}
+
+		@Override
+		public void remove() {
+			if (__last < 0) {
+				throw new IllegalStateException();
+			}
+			__removeAt(__last);
+			__next = __last;
+			__last = -1;
+		}
+
+	}
+
+	/**
+	 * An entry of the flat array, its slot can be moved by a removal, so the key
+	 * is looked up again on each change
+	 */
+	private final class CompactEntry extends AbstractMap.SimpleEntry<String, Object> {
+
+		private static final long serialVersionUID = 3436104387932524117L;
+
+		private CompactEntry(int index) {
+			super((String) __compact[index << 1], __compact[(index << 1) + 1]);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			if (__table != null) {
+				if (!__table.containsKey(getKey())) {
+					throw new IllegalStateException("The entry was removed: " + getKey());
+				}
+				__table.put(getKey(), value);
+				return super.setValue(value);
+			}
+			int index = __indexOf(getKey());
+			if (index < 0) {
+				throw new IllegalStateException("The entry was removed: " + getKey());
+			}
+			__compact[(index << 1) + 1] = value;
+			return super.setValue(value);
+		}
+
+	}
+
+	/**
+	 * The entries' view, all values are decoded before iterating
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return TObject.this.size();
+		}
+
+		@Override
+		public void clear() {
+			TObject.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			__decodeAll();
+			if (__table != null) {
+				return __table.entrySet().iterator();
+			}
+			return new CompactIterator<Map.Entry<String, Object>>() {
+				@Override
+				public Map.Entry<String, Object> next() {
+					return new CompactEntry(_nextIndex());
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * The keys' view, the values are not decoded
+	 */
+	private final class KeySet extends AbstractSet<String> {
+
+		@Override
+		public int size() {
+			return TObject.this.size();
+		}
+
+		@Override
+		public void clear() {
+			TObject.this.clear();
+		}
+
+		@Override
+		public boolean contains(Object key) {
+			return containsKey(key);
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			if (__table != null) {
+				return __table.keySet().iterator();
+			}
+			return new CompactIterator<String>() {
+				@Override
+				public String next() {
+					return (String) __compact[_nextIndex() << 1];
+				}
+			};
+		}
+
+	}
+
 }
@@ -26,6 +26,7 @@ package com.tenio.entity.manager;
 import java.util.Map;
 
 import com.tenio.api.PlayerApi;
+import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.entity.AbstractPlayer;
 import com.tenio.network.Connection;
 
@@ -51,7 +52,20 @@ public interface IPlayerManager extends IManager {
 	int countPlayers();
 
 	/**
-	 * @return all current players
+	 * @param type the main connection's type, see {@link ConnectionType}
+	 * @return the number of all current players whose main connection has this
+	 *         type
+	 */
+	int countPlayers(final ConnectionType type);
+
+	/**
+	 * The returned map is read-only, any change through it (e.g. <b>put</b>,
+	 * <b>remove</b> or <b>clear</b>) throws an
+	 * {@link UnsupportedOperationException}. The players must be changed by the
+	 * manager's methods instead.
+	 * 
+	 * @return all current players in a read-only view, it can be iterated while
+	 *         the players are changed (weakly consistent)
 	 */
 	Map<String, AbstractPlayer> gets();
 
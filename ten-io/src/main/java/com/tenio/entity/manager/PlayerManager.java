@@ -23,8 +23,11 @@ THE SOFTWARE.
 */
 package com.tenio.entity.manager;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import com.tenio.api.PlayerApi;
 import com.tenio.configuration.BaseConfiguration;
@@ -42,7 +45,10 @@ import com.tenio.network.Connection;
 /**
  * Manage all your players ({@link AbstractPlayer}) on the server. It is a
  * singleton pattern class, which can be called anywhere. But it's better that
- * you use the {@link PlayerApi} interface for easy management.
+ * you use the {@link PlayerApi} interface for easy management.<br>
+ * The players are held in a concurrent map, so a lookup never takes a lock and
+ * the iterations are weakly consistent. The counters are maintained on each
+ * change, all the changes of a player are made atomically with its counters.
  * 
  * @see IPlayerManager
  * 
@@ -54,7 +60,23 @@ public final class PlayerManager extends AbstractLogger implements IPlayerManage
 	/**
 	 * A map object to manage your players with the key must be a player's name
 	 */
-	private final Map<String, AbstractPlayer> __players = new HashMap<String, AbstractPlayer>();
+	private final Map<String, AbstractPlayer> __players = new ConcurrentHashMap<String, AbstractPlayer>();
+	/**
+	 * The read-only view of all players, see {@link #gets()}
+	 */
+	private final Map<String, AbstractPlayer> __readonlyPlayers = Collections.unmodifiableMap(__players);
+	/**
+	 * The main connection's type of each player which has connections, it is only
+	 * changed with the player's entry in {@link #__players}
+	 */
+	private final Map<String, ConnectionType> __connectionTypes = new ConcurrentHashMap<String, ConnectionType>();
+	private final AtomicInteger __count = new AtomicInteger();
+	private final AtomicInteger __playerCount = new AtomicInteger();
+	/**
+	 * The number of players by their main connection's type, indexed by the
+	 * type's ordinal
+	 */
+	private final AtomicIntegerArray __connectionTypeCounts = new AtomicIntegerArray(ConnectionType.values().length);
 	private final IEventManager __eventManager;
 	private BaseConfiguration __configuration;
 
@@ -69,100 +91,140 @@ public final class PlayerManager extends AbstractLogger implements IPlayerManage
 
 	@Override
 	public int count() {
-		synchronized (__players) {
-			return __players.size();
-		}
+		return __count.get();
 	}
 
 	@Override
 	public int countPlayers() {
-		synchronized (__players) {
-			return (int) __players.values().stream().filter(player -> !player.isNPC()).count();
-		}
+		return __playerCount.get();
+	}
+
+	@Override
+	public int countPlayers(final ConnectionType type) {
+		return __connectionTypeCounts.get(type.ordinal());
 	}
 
 	@Override
 	public Map<String, AbstractPlayer> gets() {
-		synchronized (__players) {
-			return __players;
-		}
+		return __readonlyPlayers;
 	}
 
 	@Override
 	public void clear() {
-		synchronized (__players) {
-			__players.clear();
+		for (var name : __players.keySet()) {
+			__remove(name);
 		}
 	}
 
 	@Override
 	public boolean contain(final String name) {
-		synchronized (__players) {
-			return __players.containsKey(name);
-		}
+		return __players.containsKey(name);
 	}
 
 	@Override
 	public AbstractPlayer get(final String name) {
-		synchronized (__players) {
-			return __players.get(name);
-		}
+		return __players.get(name);
 	}
 
 	@Override
 	public void add(final AbstractPlayer player, final Connection connection) {
-		if (player.getName() == null) {
-			// fire an event
-			__eventManager.getExternal().emit(TEvent.PLAYER_IN_FAILED, player, ErrorMsg.PLAYER_IS_INVALID);
-			var e = new NullPlayerNameException();
-			error(e);
-			throw e;
-		}
-
-		synchronized (__players) {
-			if (__players.containsKey(player.getName())) {
-				// fire an event
-				__eventManager.getExternal().emit(TEvent.PLAYER_IN_FAILED, player, ErrorMsg.PLAYER_IS_EXISTED);
-				var e = new DuplicatedPlayerException();
-				error(e, "player name: ", player.getName());
-				throw e;
-			}
+		__checkName(player);
 
-			// add the main connection
-			connection.setUsername(player.getName());
-			int size = 0;
-			if (connection.isType(ConnectionType.WEB_SOCKET)) {
-				size = __configuration.getWebSocketPorts().size();
-			} else {
-				size = __configuration.getSocketPorts().size();
-			}
-			player.initializeConnections(size);
-			player.setConnection(connection, 0);
+		// the existing player's connections must not be touched
+		if (__players.containsKey(player.getName())) {
+			__duplicated(player);
+		}
 
-			__players.put(player.getName(), player);
+		// add the main connection
+		int size = 0;
+		if (connection.isType(ConnectionType.WEB_SOCKET)) {
+			size = __configuration.getWebSocketPorts().size();
+		} else {
+			size = __configuration.getSocketPorts().size();
+		}
+		player.initializeConnections(size);
+		player.setConnection(connection, 0);
 
-			// fire an event
-			__eventManager.getExternal().emit(TEvent.PLAYER_IN_SUCCESS, player);
+		if (!__add(player, connection.getType())) {
+			__duplicated(player);
 		}
+		connection.setUsername(player.getName());
 
+		// fire an event
+		__eventManager.getExternal().emit(TEvent.PLAYER_IN_SUCCESS, player);
 	}
 
 	@Override
 	public void add(final AbstractPlayer player) {
-		synchronized (__players) {
-			if (__players.containsKey(player.getName())) {
-				// fire an event
-				__eventManager.getExternal().emit(TEvent.PLAYER_IN_FAILED, player, ErrorMsg.PLAYER_IS_EXISTED);
-				var e = new DuplicatedPlayerException();
-				error(e, "player name: ", player.getName());
-				throw e;
+		__checkName(player);
+
+		if (!__add(player, null)) {
+			__duplicated(player);
+		}
+
+		// fire an event
+		__eventManager.getExternal().emit(TEvent.PLAYER_IN_SUCCESS, player);
+	}
+
+	/**
+	 * @param player the new player
+	 * @param type   the main connection's type, <b>null</b> for a NPC or a BOT
+	 * @return <b>true</b> if the player was added, <b>false</b> if its name has
+	 *         existed
+	 */
+	private boolean __add(final AbstractPlayer player, final ConnectionType type) {
+		var added = new boolean[1];
+		__players.compute(player.getName(), (name, existing) -> {
+			if (existing != null) {
+				return existing;
+			}
+			__count.incrementAndGet();
+			if (type != null) {
+				__connectionTypes.put(name, type);
+				__playerCount.incrementAndGet();
+				__connectionTypeCounts.incrementAndGet(type.ordinal());
+			}
+			added[0] = true;
+			return player;
+		});
+		return added[0];
+	}
+
+	/**
+	 * @param name the player's name
+	 * @return <b>true</b> if the player was removed by this call
+	 */
+	private boolean __remove(final String name) {
+		var removed = new boolean[1];
+		__players.computeIfPresent(name, (key, existing) -> {
+			__count.decrementAndGet();
+			var type = __connectionTypes.remove(key);
+			if (type != null) {
+				__playerCount.decrementAndGet();
+				__connectionTypeCounts.decrementAndGet(type.ordinal());
 			}
+			removed[0] = true;
+			return null;
+		});
+		return removed[0];
+	}
 
-			__players.put(player.getName(), player);
+	private void __checkName(final AbstractPlayer player) {
+		if (player.getName() == null) {
 			// fire an event
-			__eventManager.getExternal().emit(TEvent.PLAYER_IN_SUCCESS, player);
+			__eventManager.getExternal().emit(TEvent.PLAYER_IN_FAILED, player, ErrorMsg.PLAYER_IS_INVALID);
+			var e = new NullPlayerNameException();
+			error(e);
+			throw e;
 		}
+	}
 
+	private void __duplicated(final AbstractPlayer player) {
+		// fire an event
+		__eventManager.getExternal().emit(TEvent.PLAYER_IN_FAILED, player, ErrorMsg.PLAYER_IS_EXISTED);
+		var e = new DuplicatedPlayerException();
+		error(e, "player name: ", player.getName());
+		throw e;
 	}
 
 	@Override
@@ -171,20 +233,16 @@ public final class PlayerManager extends AbstractLogger implements IPlayerManage
 			return;
 		}
 
-		synchronized (__players) {
-			if (!__players.containsKey(player.getName())) {
-				return;
-			}
-
-			// force player leave room, fire a logic event
-			__eventManager.getInternal().emit(LEvent.FORCE_PLAYER_LEAVE_ROOM, player);
-
-			// remove all player's connections, player
-			removeAllConnections(player);
-
-			__players.remove(player.getName());
+		// only the call which removes the player cleans it up
+		if (!__remove(player.getName())) {
+			return;
 		}
 
+		// force player leave room, fire a logic event
+		__eventManager.getInternal().emit(LEvent.FORCE_PLAYER_LEAVE_ROOM, player);
+
+		// remove all player's connections
+		removeAllConnections(player);
 	}
 
 	@Override
@@ -198,14 +256,7 @@ public final class PlayerManager extends AbstractLogger implements IPlayerManage
 			return;
 		}
 
-		synchronized (__players) {
-			if (!__players.containsKey(player.getName())) {
-				return;
-			}
-
-			__players.remove(player.getName());
-		}
-
+		__remove(player.getName());
 	}
 
 }
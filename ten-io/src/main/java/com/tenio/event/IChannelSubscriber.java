@@ -0,0 +1,52 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.event;
+
+import com.tenio.network.Connection;
+
+/**
+ * A typed subscriber of
+ * {@link com.tenio.configuration.constant.LEvent#CHANNEL_HANDLE}, no
+ * parameters array is created and the connection's index is not boxed.
+ * 
+ * @author kong
+ * 
+ */
+@FunctionalInterface
+public interface IChannelSubscriber {
+
+	/**
+	 * To dispatch a message received from a channel.
+	 * 
+	 * @param index         the index of the connection
+	 * @param connection    the connection which is retrieved from the channel (can
+	 *                      be <b>null</b>), see {@link Connection}
+	 * @param message       the message, see
+	 *                      {@link com.tenio.configuration.constant.LEvent#CHANNEL_HANDLE}
+	 * @param newConnection the connection which is created for the message (can be
+	 *                      <b>null</b>), see {@link Connection}
+	 */
+	void dispatch(int index, Connection connection, Object message, Connection newConnection);
+
+}
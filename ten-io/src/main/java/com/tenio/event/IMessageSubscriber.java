@@ -0,0 +1,51 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.event;
+
+import com.tenio.entity.AbstractPlayer;
+
+/**
+ * A typed subscriber of the per-message events of a player:
+ * {@link com.tenio.configuration.constant.TEvent#RECEIVED_FROM_PLAYER},
+ * {@link com.tenio.configuration.constant.TEvent#RECEIVED_RAW_FROM_PLAYER} and
+ * {@link com.tenio.configuration.constant.TEvent#SEND_TO_PLAYER}. Unlike
+ * {@link ISubscriber}, no parameters array is created and the connection's
+ * index is not boxed.
+ * 
+ * @author kong
+ * 
+ */
+@FunctionalInterface
+public interface IMessageSubscriber {
+
+	/**
+	 * To dispatch a message of a player.
+	 * 
+	 * @param player  the player, see {@link AbstractPlayer}
+	 * @param index   the index of the player's connection
+	 * @param message the message, see the corresponding event
+	 */
+	void dispatch(AbstractPlayer player, int index, Object message);
+
+}
@@ -23,46 +23,50 @@ THE SOFTWARE.
 */
 package com.tenio.event.external;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import com.tenio.configuration.constant.TEvent;
-import com.tenio.event.IEvent;
+import com.tenio.entity.AbstractPlayer;
 
 /**
- * This class for handling events and these subscribers.
- * 
- * @param <T> the template
+ * This class for handling events and these subscribers. The subscribers of an
+ * event are found by the event's ordinal in an array, they are called in the
+ * order of their subscriptions.<br>
+ * The table is an immutable snapshot which is replaced as a whole through a
+ * volatile reference (copy-on-write), so an emit never takes a lock and never
+ * sees a half-built table, even while the subscribers are changed at runtime.
  * 
  * @author kong
  * 
  */
-public final class TEventHandler<T> {
+public final class TEventHandler {
+
+	private static final TSubscriber[] NO_SUBSCRIBERS = new TSubscriber[0];
 
 	/**
-	 * An instance creates a mapping between an event with its list of event
-	 * handlers.
+	 * The subscribers of each event, indexed by the event's ordinal. Neither the
+	 * table nor its lists are modified after being published.
 	 */
-	private final Map<TEvent, List<IEvent<T>>> __delegate = new HashMap<TEvent, List<IEvent<T>>>();
+	private volatile TSubscriber[][] __delegate = newTable();
 
 	/**
-	 * Create a link between an event and its list of event handlers.
+	 * @return a new table without any subscribers
+	 */
+	static TSubscriber[][] newTable() {
+		var table = new TSubscriber[TEvent.values().length][];
+		Arrays.fill(table, NO_SUBSCRIBERS);
+		return table;
+	}
+
+	/**
+	 * Replace all the subscribers, the emits which have already started keep
+	 * using the old ones.
 	 * 
-	 * @param type  see {@link TEvent}
-	 * @param event see {@link IEvent}
+	 * @param table the subscribers of each event, indexed by the event's ordinal.
+	 *              It must not be modified after this call.
 	 */
-	public void subscribe(final TEvent type, final IEvent<T> event) {
-		if (__delegate.containsKey(type)) {
-			__delegate.get(type).add(event);
-		} else {
-			// create a new array of events
-			var events = new ArrayList<IEvent<T>>();
-			// add the first event
-			events.add(event);
-			__delegate.put(type, events);
-		}
+	public void publish(final TSubscriber[][] table) {
+		__delegate = table;
 	}
 
 	/**
@@ -73,27 +77,49 @@ public final class TEventHandler<T> {
 	 * @return the event result (the response of its subscribers), see
 	 *         {@link Object} or <b>null</b>
 	 */
-	public Object emit(final TEvent type, final @SuppressWarnings("unchecked") T... args) {
-		if (!__delegate.isEmpty()) {
-			Object obj = null;
-			if (__delegate.containsKey(type)) {
-				for (IEvent<T> event : __delegate.get(type)) {
-					obj = event.emit(args);
+	public Object emit(final TEvent type, final Object... args) {
+		Object obj = null;
+		for (var subscriber : __delegate[type.ordinal()]) {
+			obj = subscriber.dispatch(args);
+		}
+		// return the last event's result
+		return obj;
+	}
+
+	/**
+	 * Emit a message of a player without creating any parameters array for the
+	 * typed subscribers (see {@link com.tenio.event.IMessageSubscriber}), the
+	 * array is only created once for the untyped ones.
+	 * 
+	 * @param type    see {@link TEvent}
+	 * @param player  the player, see {@link AbstractPlayer}
+	 * @param index   the index of the player's connection
+	 * @param message the message
+	 * @return the last untyped subscriber's result, see {@link Object} or
+	 *         <b>null</b>
+	 */
+	public Object emit(final TEvent type, final AbstractPlayer player, final int index, final Object message) {
+		Object obj = null;
+		Object[] args = null;
+		for (var subscriber : __delegate[type.ordinal()]) {
+			var messageSub = subscriber.getMessageSub();
+			if (messageSub != null) {
+				messageSub.dispatch(player, index, message);
+			} else {
+				if (args == null) {
+					args = new Object[] { player, index, message };
 				}
+				obj = subscriber.getSub().dispatch(args);
 			}
-			// return the last event's result
-			return obj;
 		}
-		return null;
+		return obj;
 	}
 
 	/**
 	 * Clear all events and these handlers.
 	 */
 	public void clear() {
-		if (!__delegate.isEmpty()) {
-			__delegate.clear();
-		}
+		__delegate = newTable();
 	}
 
 }
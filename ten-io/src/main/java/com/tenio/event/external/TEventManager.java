@@ -24,14 +24,21 @@ THE SOFTWARE.
 package com.tenio.event.external;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import com.tenio.configuration.constant.TEvent;
+import com.tenio.entity.AbstractPlayer;
+import com.tenio.event.IMessageSubscriber;
 import com.tenio.event.ISubscriber;
 import com.tenio.logger.AbstractLogger;
 
 /**
- * This class for managing events and these subscribers.
+ * This class for managing events and these subscribers. The subscribers can be
+ * added or removed at any time, after {@link #subscribe()} each change is
+ * published to the emits at once as a new immutable table, see
+ * {@link TEventHandler}.
  * 
  * @author kong
  * 
@@ -39,9 +46,15 @@ import com.tenio.logger.AbstractLogger;
 public final class TEventManager extends AbstractLogger {
 
 	/**
-	 * A list of subscribers.
+	 * The subscribers of each event, indexed by the event's ordinal. It is
+	 * replaced on each change, so it can be shared with the event handler.
+	 */
+	private volatile TSubscriber[][] __subscribers = TEventHandler.newTable();
+	/**
+	 * The changes are published to the event handler once it is <b>true</b>
 	 */
-	private final List<TSubscriber> __subscribers = new ArrayList<TSubscriber>();
+	@GuardedBy("this")
+	private boolean __subscribed;
 	/**
 	 * @see TEventProducer
 	 */
@@ -60,6 +73,21 @@ public final class TEventManager extends AbstractLogger {
 		return __producer.emit(type, args);
 	}
 
+	/**
+	 * Emit a message of a player without creating any parameters array.
+	 * 
+	 * @param type    see {@link TEvent}
+	 * @param player  the player, see {@link AbstractPlayer}
+	 * @param index   the index of the player's connection
+	 * @param message the message
+	 * @return the event result (the response of its subscribers), see
+	 *         {@link Object} or <b>null</b>
+	 * @see TEventProducer#emit(TEvent, AbstractPlayer, int, Object)
+	 */
+	public Object emit(final TEvent type, final AbstractPlayer player, final int index, final Object message) {
+		return __producer.emit(type, player, index, message);
+	}
+
 	/**
 	 * Add a subscriber's handler.
 	 * 
@@ -67,26 +95,93 @@ public final class TEventManager extends AbstractLogger {
 	 * @param sub  see {@link ISubscriber}
 	 */
 	public void on(final TEvent type, final ISubscriber sub) {
-		if (hasSubscriber(type)) {
-			info("EXTERNAL EVENT WARNING", "Duplicated", type);
+		__add(TSubscriber.newInstance(type, sub));
+	}
+
+	/**
+	 * Add a typed subscriber's handler for the per-message events of a player,
+	 * see {@link IMessageSubscriber}
+	 * 
+	 * @param type see {@link TEvent}
+	 * @param sub  see {@link IMessageSubscriber}
+	 */
+	public void on(final TEvent type, final IMessageSubscriber sub) {
+		__add(TSubscriber.newInstance(type, sub));
+	}
+
+	/**
+	 * Remove a subscriber's handler.
+	 * 
+	 * @param type see {@link TEvent}
+	 * @param sub  the handler which was added, see {@link ISubscriber}
+	 * @return <b>true</b> if the handler was removed
+	 */
+	public boolean off(final TEvent type, final ISubscriber sub) {
+		return __remove(type, sub);
+	}
+
+	/**
+	 * Remove a typed subscriber's handler.
+	 * 
+	 * @param type see {@link TEvent}
+	 * @param sub  the handler which was added, see {@link IMessageSubscriber}
+	 * @return <b>true</b> if the handler was removed
+	 */
+	public boolean off(final TEvent type, final IMessageSubscriber sub) {
+		return __remove(type, sub);
+	}
+
+	private synchronized void __add(final TSubscriber subscriber) {
+		if (hasSubscriber(subscriber.getType())) {
+			info("EXTERNAL EVENT WARNING", "Duplicated", subscriber.getType());
 		}
 
-		__subscribers.add(TSubscriber.newInstance(type, sub));
+		int ordinal = subscriber.getType().ordinal();
+		var table = __subscribers.clone();
+		table[ordinal] = Arrays.copyOf(table[ordinal], table[ordinal].length + 1);
+		table[ordinal][table[ordinal].length - 1] = subscriber;
+		__update(table);
+	}
+
+	private synchronized boolean __remove(final TEvent type, final Object sub) {
+		int ordinal = type.ordinal();
+		var subscribers = __subscribers[ordinal];
+		for (int i = 0; i < subscribers.length; i++) {
+			if (subscribers[i].getSub() == sub || subscribers[i].getMessageSub() == sub) {
+				var table = __subscribers.clone();
+				table[ordinal] = new TSubscriber[subscribers.length - 1];
+				System.arraycopy(subscribers, 0, table[ordinal], 0, i);
+				System.arraycopy(subscribers, i + 1, table[ordinal], i, subscribers.length - i - 1);
+				__update(table);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@GuardedBy("this")
+	private void __update(final TSubscriber[][] table) {
+		__subscribers = table;
+		if (__subscribed) {
+			__producer.getEventHandler().publish(table);
+		}
 	}
 
 	/**
-	 * Collect all subscribers and these corresponding events.
+	 * Collect all subscribers and these corresponding events, the next changes
+	 * are published at once.
 	 */
-	public void subscribe() {
-		__producer.clear(); // clear the old first
+	public synchronized void subscribe() {
+		__subscribed = true;
+		__producer.getEventHandler().publish(__subscribers);
 
 		// only for log recording
 		var subs = new ArrayList<TEvent>();
-		// start handling
-		__subscribers.forEach(s -> {
-			subs.add(s.getType());
-			__producer.getEventHandler().subscribe(s.getType(), s.getSub()::dispatch);
-		});
+		for (var subscribers : __subscribers) {
+			for (var subscriber : subscribers) {
+				subs.add(subscriber.getType());
+			}
+		}
 		info("EXTERNAL EVENT UPDATED", "Subscribers", subs.toString());
 	}
 
@@ -97,14 +192,15 @@ public final class TEventManager extends AbstractLogger {
 	 * @return <b>true</b> if an event has any subscribers
 	 */
 	public boolean hasSubscriber(final TEvent type) {
-		return __subscribers.stream().anyMatch(subscribe -> subscribe.isType(type));
+		return __subscribers[type.ordinal()].length > 0;
 	}
 
 	/**
 	 * Clear all subscribers and these corresponding events.
 	 */
-	public void clear() {
-		__subscribers.clear();
+	public synchronized void clear() {
+		__subscribers = TEventHandler.newTable();
+		__subscribed = false;
 		__producer.clear();
 	}
 
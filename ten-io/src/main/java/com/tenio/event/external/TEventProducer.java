@@ -24,6 +24,7 @@ THE SOFTWARE.
 package com.tenio.event.external;
 
 import com.tenio.configuration.constant.TEvent;
+import com.tenio.entity.AbstractPlayer;
 
 /**
  * Only for creating an event handler object, see {@link TEventHandler}
@@ -36,14 +37,14 @@ public final class TEventProducer {
 	/**
 	 * @see TEventHandler
 	 */
-	private final TEventHandler<Object> __eventHandler = new TEventHandler<Object>();
+	private final TEventHandler __eventHandler = new TEventHandler();
 
 	/**
 	 * Retrieves an event handler
 	 * 
 	 * @return see {@link TEventHandler}
 	 */
-	public TEventHandler<Object> getEventHandler() {
+	public TEventHandler getEventHandler() {
 		return __eventHandler;
 	}
 
@@ -60,6 +61,21 @@ public final class TEventProducer {
 		return __eventHandler.emit(type, args);
 	}
 
+	/**
+	 * Emit a message of a player without creating any parameters array.
+	 * 
+	 * @param type    see {@link TEvent}
+	 * @param player  the player, see {@link AbstractPlayer}
+	 * @param index   the index of the player's connection
+	 * @param message the message
+	 * @return the event result (the response of its subscribers), see
+	 *         {@link Object} or <b>null</b>
+	 * @see TEventHandler#emit(TEvent, AbstractPlayer, int, Object)
+	 */
+	public Object emit(final TEvent type, final AbstractPlayer player, final int index, final Object message) {
+		return __eventHandler.emit(type, player, index, message);
+	}
+
 	/**
 	 * Clear all events and these handlers.
 	 * 
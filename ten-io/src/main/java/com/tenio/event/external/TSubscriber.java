@@ -24,10 +24,14 @@ THE SOFTWARE.
 package com.tenio.event.external;
 
 import com.tenio.configuration.constant.TEvent;
+import com.tenio.entity.AbstractPlayer;
+import com.tenio.event.IMessageSubscriber;
 import com.tenio.event.ISubscriber;
 
 /**
- * An object which creates a mapping between an event type with a subscriber.
+ * An object which creates a mapping between an event type with a subscriber,
+ * an untyped one (see {@link ISubscriber}) or a typed one (see
+ * {@link IMessageSubscriber}).
  * 
  * @author kong
  * 
@@ -42,14 +46,23 @@ public final class TSubscriber {
 	 * @see ISubscriber
 	 */
 	private final ISubscriber __sub;
+	/**
+	 * @see IMessageSubscriber
+	 */
+	private final IMessageSubscriber __messageSub;
 
 	public static TSubscriber newInstance(final TEvent type, final ISubscriber sub) {
-		return new TSubscriber(type, sub);
+		return new TSubscriber(type, sub, null);
+	}
+
+	public static TSubscriber newInstance(final TEvent type, final IMessageSubscriber sub) {
+		return new TSubscriber(type, null, sub);
 	}
 
-	private TSubscriber(final TEvent type, final ISubscriber sub) {
+	private TSubscriber(final TEvent type, final ISubscriber sub, final IMessageSubscriber messageSub) {
 		__type = type;
 		__sub = sub;
+		__messageSub = messageSub;
 	}
 
 	/**
@@ -68,10 +81,33 @@ public final class TSubscriber {
 	}
 
 	/**
-	 * @return see {@link ISubscriber}
+	 * @return see {@link ISubscriber}, <b>null</b> for a typed subscriber
 	 */
 	public ISubscriber getSub() {
 		return __sub;
 	}
 
+	/**
+	 * @return see {@link IMessageSubscriber}, <b>null</b> for an untyped
+	 *         subscriber
+	 */
+	public IMessageSubscriber getMessageSub() {
+		return __messageSub;
+	}
+
+	/**
+	 * Dispatch the parameters, a typed subscriber receives them as a message of a
+	 * player
+	 * 
+	 * @param args all the parameters in an array
+	 * @return the subscriber's result, always <b>null</b> for a typed subscriber
+	 */
+	public Object dispatch(final Object... args) {
+		if (__sub != null) {
+			return __sub.dispatch(args);
+		}
+		__messageSub.dispatch((AbstractPlayer) args[0], (int) args[1], args[2]);
+		return null;
+	}
+
 }
@@ -23,36 +23,43 @@ THE SOFTWARE.
 */
 package com.tenio.event.internal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.tenio.configuration.constant.LEvent;
-import com.tenio.event.IEvent;
+import com.tenio.network.Connection;
 
 /**
- * This class for handling events and these subscribers.
- * 
- * @param <T> the template
+ * This class for handling events and these subscribers. Each event has at most
+ * one subscriber which is found by the event's ordinal in an array.<br>
+ * The table is an immutable snapshot which is replaced as a whole through a
+ * volatile reference (copy-on-write), so an emit never takes a lock and never
+ * sees a half-built table.
  * 
  * @author kong
  * 
  */
-public final class LEventHandler<T> {
+public final class LEventHandler {
 
 	/**
-	 * An instance creates a mapping between an event with its list of event
-	 * handlers.
+	 * The subscriber of each event, indexed by the event's ordinal. The table is
+	 * not modified after being published.
 	 */
-	private final Map<LEvent, IEvent<T>> __delegate = new HashMap<LEvent, IEvent<T>>();
+	private volatile LSubscriber[] __delegate = newTable();
 
 	/**
-	 * Create a link between an event and its list of event handlers.
+	 * @return a new table without any subscribers
+	 */
+	static LSubscriber[] newTable() {
+		return new LSubscriber[LEvent.values().length];
+	}
+
+	/**
+	 * Replace all the subscribers, the emits which have already started keep
+	 * using the old ones.
 	 * 
-	 * @param type  see {@link LEvent}
-	 * @param event see {@link IEvent}
+	 * @param table the subscriber of each event, indexed by the event's ordinal.
+	 *              It must not be modified after this call.
 	 */
-	public void subscribe(final LEvent type, final IEvent<T> event) {
-		__delegate.put(type, event);
+	public void publish(final LSubscriber[] table) {
+		__delegate = table;
 	}
 
 	/**
@@ -63,20 +70,46 @@ public final class LEventHandler<T> {
 	 * @return the event result (the response of its subscribers), see
 	 *         {@link Object} or <b>null</b>
 	 */
-	public Object emit(final LEvent type, final @SuppressWarnings("unchecked") T... args) {
-		if (__delegate.containsKey(type)) {
-			return __delegate.get(type).emit(args);
+	public Object emit(final LEvent type, final Object... args) {
+		var subscriber = __delegate[type.ordinal()];
+		if (subscriber != null) {
+			return subscriber.dispatch(args);
 		}
 		return null;
 	}
 
+	/**
+	 * Emit a channel's message without creating any parameters array for a typed
+	 * subscriber, see {@link com.tenio.event.IChannelSubscriber}
+	 * 
+	 * @param type          see {@link LEvent}
+	 * @param index         the index of the connection
+	 * @param connection    the connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @param message       the message
+	 * @param newConnection the new connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @return the untyped subscriber's result, see {@link Object} or <b>null</b>
+	 */
+	public Object emit(final LEvent type, final int index, final Connection connection, final Object message,
+			final Connection newConnection) {
+		var subscriber = __delegate[type.ordinal()];
+		if (subscriber == null) {
+			return null;
+		}
+		var channelSub = subscriber.getChannelSub();
+		if (channelSub != null) {
+			channelSub.dispatch(index, connection, message, newConnection);
+			return null;
+		}
+		return subscriber.getSub().dispatch(index, connection, message, newConnection);
+	}
+
 	/**
 	 * Clear all events and these handlers
 	 */
 	public void clear() {
-		if (!__delegate.isEmpty()) {
-			__delegate.clear();
-		}
+		__delegate = newTable();
 	}
 
 }
@@ -24,14 +24,20 @@ THE SOFTWARE.
 package com.tenio.event.internal;
 
 import java.util.ArrayList;
-import java.util.List;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import com.tenio.configuration.constant.LEvent;
+import com.tenio.network.Connection;
+import com.tenio.event.IChannelSubscriber;
 import com.tenio.event.ISubscriber;
 import com.tenio.logger.AbstractLogger;
 
 /**
- * This class for managing events and these subscribers.
+ * This class for managing events and these subscribers. The subscribers can be
+ * added or removed at any time, after {@link #subscribe()} each change is
+ * published to the emits at once as a new immutable table, see
+ * {@link LEventHandler}.
  * 
  * @author kong
  * 
@@ -39,9 +45,15 @@ import com.tenio.logger.AbstractLogger;
 public final class LEventManager extends AbstractLogger {
 
 	/**
-	 * A list of subscribers
+	 * The subscriber of each event, indexed by the event's ordinal. It is
+	 * replaced on each change, so it can be shared with the event handler.
+	 */
+	private volatile LSubscriber[] __subscribers = LEventHandler.newTable();
+	/**
+	 * The changes are published to the event handler once it is <b>true</b>
 	 */
-	private final List<LSubscriber> __subscribers = new ArrayList<LSubscriber>();
+	@GuardedBy("this")
+	private boolean __subscribed;
 	/**
 	 * @see LEventProducer
 	 */
@@ -61,32 +73,94 @@ public final class LEventManager extends AbstractLogger {
 	}
 
 	/**
-	 * Add a subscriber's handler.
+	 * Emit a channel's message without creating any parameters array
+	 * 
+	 * @param type          see {@link LEvent}
+	 * @param index         the index of the connection
+	 * @param connection    the connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @param message       the message
+	 * @param newConnection the new connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @return the event result (the response of its subscriber), see
+	 *         {@link Object} or <b>null</b>
+	 * @see LEventProducer#emit(LEvent, int, Connection, Object, Connection)
+	 */
+	public Object emit(final LEvent type, final int index, final Connection connection, final Object message,
+			final Connection newConnection) {
+		return __producer.emit(type, index, connection, message, newConnection);
+	}
+
+	/**
+	 * Add a subscriber's handler, it replaces the old one.
 	 * 
 	 * @param type see {@link LEvent}
 	 * @param sub  see {@link ISubscriber}
 	 */
 	public void on(final LEvent type, final ISubscriber sub) {
-		if (hasSubscriber(type)) {
-			info("INTERNAL EVENT WARNING", "Duplicated", type);
+		__add(LSubscriber.newInstance(type, sub));
+	}
+
+	/**
+	 * Add a typed subscriber's handler for {@link LEvent#CHANNEL_HANDLE}, see
+	 * {@link IChannelSubscriber}. It replaces the old one.
+	 * 
+	 * @param type see {@link LEvent}
+	 * @param sub  see {@link IChannelSubscriber}
+	 */
+	public void on(final LEvent type, final IChannelSubscriber sub) {
+		__add(LSubscriber.newInstance(type, sub));
+	}
+
+	/**
+	 * Remove the subscriber's handler of an event.
+	 * 
+	 * @param type see {@link LEvent}
+	 * @return <b>true</b> if the event had a handler
+	 */
+	public synchronized boolean off(final LEvent type) {
+		if (!hasSubscriber(type)) {
+			return false;
 		}
+		var table = __subscribers.clone();
+		table[type.ordinal()] = null;
+		__update(table);
+		return true;
+	}
+
+	private synchronized void __add(final LSubscriber subscriber) {
+		if (hasSubscriber(subscriber.getType())) {
+			info("INTERNAL EVENT WARNING", "Duplicated", subscriber.getType());
+		}
+
+		var table = __subscribers.clone();
+		table[subscriber.getType().ordinal()] = subscriber;
+		__update(table);
+	}
 
-		__subscribers.add(LSubscriber.newInstance(type, sub));
+	@GuardedBy("this")
+	private void __update(final LSubscriber[] table) {
+		__subscribers = table;
+		if (__subscribed) {
+			__producer.getEventHandler().publish(table);
+		}
 	}
 
 	/**
-	 * Collect all subscribers and these corresponding events.
+	 * Collect all subscribers and these corresponding events, the next changes
+	 * are published at once.
 	 */
-	public void subscribe() {
-		__producer.clear(); // clear the old first
+	public synchronized void subscribe() {
+		__subscribed = true;
+		__producer.getEventHandler().publish(__subscribers);
 
 		// only for log recording
 		var subs = new ArrayList<LEvent>();
-		// start handling
-		__subscribers.forEach(s -> {
-			subs.add(s.getType());
-			__producer.getEventHandler().subscribe(s.getType(), s.getSub()::dispatch);
-		});
+		for (var subscriber : __subscribers) {
+			if (subscriber != null) {
+				subs.add(subscriber.getType());
+			}
+		}
 		info("INTERNAL EVENT UPDATED", "Subscribers", subs.toString());
 	}
 
@@ -97,19 +171,15 @@ public final class LEventManager extends AbstractLogger {
 	 * @return <b>true</b> if an event has any subscribers
 	 */
 	public boolean hasSubscriber(final LEvent type) {
-		for (var subscriber : __subscribers) {
-			if (subscriber.getType() == type) {
-				return true;
-			}
-		}
-		return false;
+		return __subscribers[type.ordinal()] != null;
 	}
 
 	/**
 	 * Clear all subscribers and these corresponding events.
 	 */
-	public void clear() {
-		__subscribers.clear();
+	public synchronized void clear() {
+		__subscribers = LEventHandler.newTable();
+		__subscribed = false;
 		__producer.clear();
 	}
 
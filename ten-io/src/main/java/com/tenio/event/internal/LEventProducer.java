@@ -24,6 +24,7 @@ THE SOFTWARE.
 package com.tenio.event.internal;
 
 import com.tenio.configuration.constant.LEvent;
+import com.tenio.network.Connection;
 
 /**
  * Only for creating an event handler object, see {@link LEventHandler}
@@ -36,14 +37,14 @@ public final class LEventProducer {
 	/**
 	 * @see LEventHandler
 	 */
-	private final LEventHandler<Object> __eventHandler = new LEventHandler<Object>();
+	private final LEventHandler __eventHandler = new LEventHandler();
 
 	/**
 	 * Retrieves an event handler
 	 * 
 	 * @return see {@link LEventHandler}
 	 */
-	public LEventHandler<Object> getEventHandler() {
+	public LEventHandler getEventHandler() {
 		return __eventHandler;
 	}
 
@@ -60,6 +61,25 @@ public final class LEventProducer {
 		return __eventHandler.emit(type, args);
 	}
 
+	/**
+	 * Emit a channel's message without creating any parameters array
+	 * 
+	 * @param type          see {@link LEvent}
+	 * @param index         the index of the connection
+	 * @param connection    the connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @param message       the message
+	 * @param newConnection the new connection (can be <b>null</b>), see
+	 *                      {@link Connection}
+	 * @return the event result (the response of its subscriber), see
+	 *         {@link Object} or <b>null</b>
+	 * @see LEventHandler#emit(LEvent, int, Connection, Object, Connection)
+	 */
+	public Object emit(final LEvent type, final int index, final Connection connection, final Object message,
+			final Connection newConnection) {
+		return __eventHandler.emit(type, index, connection, message, newConnection);
+	}
+
 	/**
 	 * Clear all events and these handlers
 	 * 
@@ -24,10 +24,14 @@ THE SOFTWARE.
 package com.tenio.event.internal;
 
 import com.tenio.configuration.constant.LEvent;
+import com.tenio.event.IChannelSubscriber;
 import com.tenio.event.ISubscriber;
+import com.tenio.network.Connection;
 
 /**
- * An object which creates a mapping between an event type with a subscriber
+ * An object which creates a mapping between an event type with a subscriber,
+ * an untyped one (see {@link ISubscriber}) or a typed one (see
+ * {@link IChannelSubscriber})
  * 
  * @author kong
  * 
@@ -42,14 +46,23 @@ public final class LSubscriber {
 	 * @see ISubscriber
 	 */
 	private final ISubscriber __sub;
+	/**
+	 * @see IChannelSubscriber
+	 */
+	private final IChannelSubscriber __channelSub;
 
 	public static LSubscriber newInstance(final LEvent type, final ISubscriber sub) {
-		return new LSubscriber(type, sub);
+		return new LSubscriber(type, sub, null);
+	}
+
+	public static LSubscriber newInstance(final LEvent type, final IChannelSubscriber sub) {
+		return new LSubscriber(type, null, sub);
 	}
 
-	private LSubscriber(final LEvent type, final ISubscriber sub) {
+	private LSubscriber(final LEvent type, final ISubscriber sub, final IChannelSubscriber channelSub) {
 		__type = type;
 		__sub = sub;
+		__channelSub = channelSub;
 	}
 
 	/**
@@ -60,10 +73,33 @@ public final class LSubscriber {
 	}
 
 	/**
-	 * @return see {@link ISubscriber}
+	 * @return see {@link ISubscriber}, <b>null</b> for a typed subscriber
 	 */
 	public ISubscriber getSub() {
 		return __sub;
 	}
 
+	/**
+	 * @return see {@link IChannelSubscriber}, <b>null</b> for an untyped
+	 *         subscriber
+	 */
+	public IChannelSubscriber getChannelSub() {
+		return __channelSub;
+	}
+
+	/**
+	 * Dispatch the parameters, a typed subscriber receives them as a channel's
+	 * message
+	 * 
+	 * @param args all the parameters in an array
+	 * @return the subscriber's result, always <b>null</b> for a typed subscriber
+	 */
+	public Object dispatch(final Object... args) {
+		if (__sub != null) {
+			return __sub.dispatch(args);
+		}
+		__channelSub.dispatch((int) args[0], (Connection) args[1], args[2], (Connection) args[3]);
+		return null;
+	}
+
 }
@@ -36,11 +36,14 @@ import com.tenio.configuration.constant.TEvent;
 import com.tenio.entity.AbstractPlayer;
 import com.tenio.entity.AbstractRoom;
 import com.tenio.entity.element.TObject;
+import com.tenio.event.IMessageSubscriber;
 import com.tenio.event.ISubscriber;
 import com.tenio.logger.AbstractLogger;
 import com.tenio.network.Connection;
 import com.tenio.server.Server;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * This class provides you all the necessary APIs for your own logic game
  * handling. The entry point class must implement the {@link IExtension}
@@ -90,6 +93,65 @@ public abstract class AbstractExtensionHandler extends AbstractLogger {
 		__server.getEventManager().getExternal().on(type, sub);
 	}
 
+	/**
+	 * Handle the per-message events of a player
+	 * ({@link TEvent#RECEIVED_FROM_PLAYER}, {@link TEvent#RECEIVED_RAW_FROM_PLAYER}
+	 * and {@link TEvent#SEND_TO_PLAYER}) without any parameters array or boxing
+	 * 
+	 * @param type the type of this current event
+	 * @param sub  your own typed handler, see {@link IMessageSubscriber}
+	 */
+	protected void _on(final TEvent type, final IMessageSubscriber sub) {
+		__server.getEventManager().getExternal().on(type, sub);
+	}
+
+	/**
+	 * Stop handling an event at runtime, the emits which have already started can
+	 * still call the handler
+	 * 
+	 * @param type the type of this current event
+	 * @param sub  the subscriber-class handler which was added
+	 * @return <b>true</b> if the handler was removed
+	 */
+	protected boolean _off(final TEvent type, final ISubscriber sub) {
+		return __server.getEventManager().getExternal().off(type, sub);
+	}
+
+	/**
+	 * Stop handling a per-message event at runtime, see
+	 * {@link #_off(TEvent, ISubscriber)}
+	 * 
+	 * @param type the type of this current event
+	 * @param sub  the typed handler which was added
+	 * @return <b>true</b> if the handler was removed
+	 */
+	protected boolean _off(final TEvent type, final IMessageSubscriber sub) {
+		return __server.getEventManager().getExternal().off(type, sub);
+	}
+
+	/**
+	 * Handle the messages of players which carry an opcode, the messages are
+	 * dispatched to their handlers without a central condition chain, see
+	 * {@link MessageRouter}
+	 * 
+	 * @param opcode  the opcode of the messages
+	 * @param handler your own typed handler, see {@link IMessageSubscriber}
+	 */
+	protected void _route(final int opcode, final IMessageSubscriber handler) {
+		__server.getMessageRouter().route(opcode, handler);
+	}
+
+	/**
+	 * Handle the messages of players which carry an opcode, see
+	 * {@link MessageRouter#route(Enum, IMessageSubscriber)}
+	 * 
+	 * @param opcode  the opcode of the messages, its ordinal is sent
+	 * @param handler your own typed handler, see {@link IMessageSubscriber}
+	 */
+	protected void _route(final Enum<?> opcode, final IMessageSubscriber handler) {
+		__server.getMessageRouter().route(opcode, handler);
+	}
+
 	/**
 	 * @param object the corresponding object
 	 * @return a value in {@link TObject} type
@@ -98,6 +160,31 @@ public abstract class AbstractExtensionHandler extends AbstractLogger {
 		return (TObject) object;
 	}
 
+	/**
+	 * @param <T>    the corresponding return type
+	 * @param object the corresponding object, a typed message or a {@link TObject}
+	 * @param type   the class of the typed message, see
+	 *               {@link com.tenio.annotation.Message}
+	 * @return a value in the typed message's type, a converted {@link TObject} is
+	 *         taken from the pooling mechanism, see
+	 *         {@link MessageApi#getMessagePack(Class, TObject)}
+	 */
+	protected <T> T _getMessage(Object object, Class<T> type) {
+		if (type.isInstance(object)) {
+			return type.cast(object);
+		}
+		return _messageApi.getMessagePack(type, (TObject) object);
+	}
+
+	/**
+	 * @param object the corresponding object
+	 * @return a value in {@link ByteBuf} type, see
+	 *         {@link TEvent#RECEIVED_RAW_FROM_PLAYER}
+	 */
+	protected ByteBuf _getByteBuf(Object object) {
+		return (ByteBuf) object;
+	}
+
 	/**
 	 * @param object the corresponding object
 	 * @return a value in {@link Connection} type
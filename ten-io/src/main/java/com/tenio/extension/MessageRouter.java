@@ -0,0 +1,201 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.extension;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.entity.AbstractPlayer;
+import com.tenio.entity.element.TObject;
+import com.tenio.event.IMessageSubscriber;
+import com.tenio.exception.DuplicatedOpcodeException;
+import com.tenio.logger.AbstractLogger;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Dispatch each message of a player to the handler of its opcode, instead of
+ * one subscriber with a long chain of conditions. The handlers are held in an
+ * array indexed by the opcodes, so a lookup does not depend on the number of
+ * routes.<br>
+ * The opcode of a {@link TObject} is the integer value of its opcode key, only
+ * this value is decoded when the message is lazily decoded. The opcode of the
+ * raw data (see {@link ByteBuf}) is its first unsigned byte, which is left in
+ * the buffer. A message without an opcode or with an unknown one is rejected
+ * without any lookup, it is given to the fallback handler if there is one.<br>
+ * The routes must be added before the server starts, the number of invocations
+ * and the handling time of each opcode are counted.
+ * 
+ * @author kong
+ * 
+ */
+public final class MessageRouter extends AbstractLogger implements IMessageSubscriber {
+
+	private final String __opcodeKey;
+	private IMessageSubscriber[] __handlers = new IMessageSubscriber[0];
+	private LongAdder[] __invocations = new LongAdder[0];
+	private LongAdder[] __handlingTimes = new LongAdder[0];
+	private final LongAdder __rejections = new LongAdder();
+	private IMessageSubscriber __fallback;
+
+	public static MessageRouter newInstance(String opcodeKey) {
+		return new MessageRouter(opcodeKey);
+	}
+
+	private MessageRouter(String opcodeKey) {
+		__opcodeKey = opcodeKey;
+	}
+
+	/**
+	 * Add a new route
+	 * 
+	 * @param opcode  the opcode, from 0 to {@link Constants#MAX_OPCODE}
+	 * @param handler the handler of the messages with this opcode
+	 * @throws DuplicatedOpcodeException if the opcode already has a handler
+	 */
+	public void route(int opcode, IMessageSubscriber handler) throws DuplicatedOpcodeException {
+		if (opcode < 0 || opcode > Constants.MAX_OPCODE) {
+			throw new IllegalArgumentException("The opcode must be from 0 to " + Constants.MAX_OPCODE);
+		}
+		if (opcode >= __handlers.length) {
+			__handlers = Arrays.copyOf(__handlers, opcode + 1);
+			__invocations = Arrays.copyOf(__invocations, opcode + 1);
+			__handlingTimes = Arrays.copyOf(__handlingTimes, opcode + 1);
+		}
+		if (__handlers[opcode] != null) {
+			throw new DuplicatedOpcodeException(opcode);
+		}
+		__handlers[opcode] = handler;
+		__invocations[opcode] = new LongAdder();
+		__handlingTimes[opcode] = new LongAdder();
+	}
+
+	/**
+	 * Add a new route, the opcode is the ordinal of an enum's constant
+	 * 
+	 * @param opcode  the enum's constant
+	 * @param handler the handler of the messages with this opcode
+	 * @throws DuplicatedOpcodeException if the opcode already has a handler
+	 */
+	public void route(Enum<?> opcode, IMessageSubscriber handler) throws DuplicatedOpcodeException {
+		route(opcode.ordinal(), handler);
+	}
+
+	/**
+	 * @param fallback the handler of the messages which have no route, can be
+	 *                 <b>null</b>
+	 */
+	public void setFallback(IMessageSubscriber fallback) {
+		__fallback = fallback;
+	}
+
+	/**
+	 * @return <b>true</b> if there is at least one route
+	 */
+	public boolean hasRoutes() {
+		for (var handler : __handlers) {
+			if (handler != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the key which holds the opcode of a {@link TObject}
+	 */
+	public String getOpcodeKey() {
+		return __opcodeKey;
+	}
+
+	@Override
+	public void dispatch(AbstractPlayer player, int index, Object message) {
+		int opcode = __getOpcode(message);
+		var handlers = __handlers;
+		if (opcode < 0 || opcode >= handlers.length || handlers[opcode] == null) {
+			__rejections.increment();
+			if (__fallback != null) {
+				__fallback.dispatch(player, index, message);
+			}
+			return;
+		}
+
+		long startTime = System.nanoTime();
+		try {
+			handlers[opcode].dispatch(player, index, message);
+		} finally {
+			__handlingTimes[opcode].add(System.nanoTime() - startTime);
+			__invocations[opcode].increment();
+		}
+	}
+
+	/**
+	 * @param message the message
+	 * @return the opcode, or -1 if the message has no opcode
+	 */
+	private int __getOpcode(Object message) {
+		if (message instanceof TObject) {
+			var opcode = ((TObject) message).get(__opcodeKey);
+			if (opcode instanceof Number) {
+				return ((Number) opcode).intValue();
+			}
+		} else if (message instanceof ByteBuf) {
+			var data = (ByteBuf) message;
+			if (data.isReadable()) {
+				return data.getUnsignedByte(data.readerIndex());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param opcode the opcode
+	 * @return the number of handled messages with this opcode
+	 */
+	public long getInvocations(int opcode) {
+		return opcode >= 0 && opcode < __invocations.length && __invocations[opcode] != null
+				? __invocations[opcode].sum()
+				: 0;
+	}
+
+	/**
+	 * @param opcode the opcode
+	 * @return the total handling time in nanoseconds of the messages with this
+	 *         opcode
+	 */
+	public long getHandlingTime(int opcode) {
+		return opcode >= 0 && opcode < __handlingTimes.length && __handlingTimes[opcode] != null
+				? __handlingTimes[opcode].sum()
+				: 0;
+	}
+
+	/**
+	 * @return the number of messages without an opcode or with an unknown one
+	 */
+	public long getRejections() {
+		return __rejections.sum();
+	}
+
+}
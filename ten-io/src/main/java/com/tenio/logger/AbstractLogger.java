@@ -222,9 +222,10 @@ public abstract class AbstractLogger {
 	 * @param where    where you put this log
 	 * @param subWhere the extra information for "where" you put this log
 	 * @param tag      the tag type
-	 * @param msg      the message content
+	 * @param msg      the message content, it is only converted to a string when
+	 *                 the debug level is enabled
 	 */
-	public final void debug(final String where, final Object subWhere, final String tag, final String msg) {
+	public final void debug(final String where, final Object subWhere, final String tag, final Object msg) {
 		if (!__logger.isDebugEnabled()) {
 			return;
 		}
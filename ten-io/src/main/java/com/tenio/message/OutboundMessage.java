@@ -0,0 +1,206 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message;
+
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.KeyDictionary;
+import com.tenio.message.codec.MessageCodecs;
+import com.tenio.message.codec.MsgPackConverter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+
+/**
+ * A reference-counted outbound message, it holds a {@link TObject}, a typed
+ * message (see {@link com.tenio.annotation.Message}) or the raw data in a
+ * {@link ByteBuf} until the last connection
+ * which sends it has encoded it. Each connection retains the message before it
+ * hands the message over to its event loop and releases it after the encoding,
+ * so the content can be repaid to its pool safely whatever thread the encoding
+ * happens in.<br>
+ * A shared message is sent to many connections, its content is serialized only
+ * once for each key mode (plain keys or the {@link KeyDictionary} ids) and all
+ * the connections write the same packet.
+ * 
+ * @author kong
+ * 
+ */
+public final class OutboundMessage extends AbstractReferenceCounted {
+
+	private Object __content;
+	private boolean __shared;
+	private Consumer<OutboundMessage> __recycler;
+	@GuardedBy("this")
+	private ByteBuf __packet;
+	@GuardedBy("this")
+	private ByteBuf __dictionaryPacket;
+
+	public static OutboundMessage newInstance() {
+		return new OutboundMessage();
+	}
+
+	private OutboundMessage() {
+	}
+
+	/**
+	 * Prepare a new or recycled message for sending, its reference count is
+	 * <b>1</b> after that
+	 * 
+	 * @param content  the content, a {@link TObject}, a typed message or the raw
+	 *                 data in a {@link ByteBuf} which is owned by the message
+	 * @param shared   set <b>true</b> if the message is sent to many connections
+	 * @param recycler called when the message is released by its last holder, it
+	 *                 should repay the content (can be <b>null</b>)
+	 * @return the message itself
+	 */
+	public OutboundMessage initialize(Object content, boolean shared, Consumer<OutboundMessage> recycler) {
+		__content = content;
+		__shared = shared;
+		__recycler = recycler;
+		setRefCnt(1);
+		return this;
+	}
+
+	/**
+	 * @return the content, a {@link TObject}, a typed message or the raw data. It
+	 *         must not be used after the message was released.
+	 */
+	public Object getContent() {
+		return __content;
+	}
+
+	/**
+	 * @return <b>true</b> if the message is sent to many connections, see
+	 *         {@link #getPacket(KeyDictionary, ByteBufAllocator)}
+	 */
+	public boolean isShared() {
+		return __shared;
+	}
+
+	/**
+	 * @return <b>true</b> if the content is the raw data, it is written as is, see
+	 *         {@link #getPacket(KeyDictionary, ByteBufAllocator)}
+	 */
+	public boolean isRaw() {
+		return __content instanceof ByteBuf;
+	}
+
+	/**
+	 * Write the content to the end of a buffer
+	 * 
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @return the written buffer or <b>null</b> if any exceptions caused (the
+	 *         buffer is released in that case)
+	 */
+	public ByteBuf encode(ByteBuf buffer, KeyDictionary dictionary) {
+		if (isRaw()) {
+			var raw = (ByteBuf) __content;
+			return buffer.writeBytes(raw, raw.readerIndex(), raw.readableBytes());
+		}
+		if (__content instanceof TObject) {
+			return MsgPackConverter.serializeToBuffer((TObject) __content, buffer, dictionary);
+		}
+		return MessageCodecs.serializeToBuffer(__content, buffer, dictionary);
+	}
+
+	/**
+	 * Serialize the content once for all the connections in the same key mode,
+	 * the raw data is the packet itself
+	 * 
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @param alloc      the allocator of the connection's channel, which is
+	 *                   configured by its port, the packet is taken from the
+	 *                   allocator of the first connection in the key mode, see
+	 *                   {@link ByteBufAllocator}
+	 * @return the packet which is owned by this message, a connection writes its
+	 *         retained duplicate, or <b>null</b> if the content could not be
+	 *         serialized
+	 */
+	public synchronized ByteBuf getPacket(KeyDictionary dictionary, ByteBufAllocator alloc) {
+		if (isRaw()) {
+			return (ByteBuf) __content;
+		}
+		if (dictionary == null) {
+			if (__packet == null) {
+				__packet = encode(alloc.ioBuffer(), null);
+			}
+			return __packet;
+		}
+		if (__dictionaryPacket == null) {
+			__dictionaryPacket = encode(alloc.ioBuffer(), dictionary);
+		}
+		return __dictionaryPacket;
+	}
+
+	@Override
+	protected void deallocate() {
+		synchronized (this) {
+			if (__packet != null) {
+				__packet.release();
+				__packet = null;
+			}
+			if (__dictionaryPacket != null) {
+				__dictionaryPacket.release();
+				__dictionaryPacket = null;
+			}
+		}
+		var recycler = __recycler;
+		if (recycler != null) {
+			recycler.accept(this);
+		}
+	}
+
+	/**
+	 * Forget the content, it is called when the message is repaid to its pool
+	 */
+	public void clear() {
+		__content = null;
+		__recycler = null;
+	}
+
+	@Override
+	public OutboundMessage retain() {
+		super.retain();
+		return this;
+	}
+
+	@Override
+	public OutboundMessage touch(Object hint) {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(__content);
+	}
+
+}
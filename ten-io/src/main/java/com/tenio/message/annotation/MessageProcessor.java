@@ -0,0 +1,440 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.annotation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+import com.tenio.annotation.Field;
+import com.tenio.annotation.Message;
+import com.tenio.entity.element.AbstractPrimitiveArray;
+import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.IMessageCodec;
+
+/**
+ * Generate a codec for each class annotated by {@link Message}, see
+ * {@link IMessageCodec}. The codec of the class <b>Foo</b> is named
+ * <b>FooCodec</b> (<b>Outer_InnerCodec</b> for a nested class) and placed in
+ * the same package, so it can access the fields directly without any
+ * reflection. All the codecs are declared as services so that
+ * {@link com.tenio.message.codec.MessageCodecs} can find them.<br>
+ * The processor is enabled by having this jar in the compile classpath.
+ * 
+ * @author kong
+ * 
+ */
+public final class MessageProcessor extends AbstractProcessor {
+
+	private static final String SERVICE_FILE = "META-INF/services/" + IMessageCodec.class.getName();
+
+	private final Set<String> __codecs = new LinkedHashSet<String>();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Set.of(Message.class.getName());
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			__writeServices();
+			return false;
+		}
+		for (var element : roundEnv.getElementsAnnotatedWith(Message.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				__error(element, "@Message can only be applied to a class");
+				continue;
+			}
+			__generate((TypeElement) element);
+		}
+		return true;
+	}
+
+	private void __generate(TypeElement type) {
+		if (!__checkType(type)) {
+			return;
+		}
+		var fields = new ArrayList<VariableElement>();
+		boolean valid = true;
+		for (var field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if (field.getAnnotation(Field.class) != null) {
+				valid &= __checkField(field);
+				fields.add(field);
+			}
+		}
+		if (!valid) {
+			return;
+		}
+
+		var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		var codecName = __getCodecName(type);
+		var qualifiedName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+		try (var writer = new PrintWriter(
+				processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+			__writeCodec(writer, packageName, codecName, type.getQualifiedName().toString(), fields);
+		} catch (IOException e) {
+			__error(type, "Unable to generate the codec: " + e.getMessage());
+			return;
+		}
+		__codecs.add(qualifiedName);
+	}
+
+	private boolean __checkType(TypeElement type) {
+		if (type.getModifiers().contains(Modifier.PRIVATE) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+			__error(type, "A @Message class must not be private or abstract");
+			return false;
+		}
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+			if (type.getNestingKind() != NestingKind.MEMBER || !type.getModifiers().contains(Modifier.STATIC)) {
+				__error(type, "A nested @Message class must be a static member class");
+				return false;
+			}
+		}
+		if (!type.getTypeParameters().isEmpty()) {
+			__error(type, "A @Message class must not be generic");
+			return false;
+		}
+		for (var constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		__error(type, "A @Message class needs a non-private constructor without parameters");
+		return false;
+	}
+
+	private boolean __checkField(VariableElement field) {
+		var modifiers = field.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)
+				|| modifiers.contains(Modifier.FINAL)) {
+			__error(field, "A @Field must not be private, static or final");
+			return false;
+		}
+		var kind = field.asType().getKind();
+		if (kind == TypeKind.ARRAY) {
+			__error(field, "A @Field can not be an array, use the primitive arrays (e.g. TIntArray) instead");
+			return false;
+		}
+		if (kind == TypeKind.CHAR || field.asType().toString().equals("java.lang.Character")) {
+			__error(field, "A @Field can not be a char, use a String instead");
+			return false;
+		}
+		if (!__isSupported(field.asType())) {
+			__error(field, "A @Field must be a primitive, a boxed primitive, a String, a TObject, a TArray, "
+					+ "a primitive array (e.g. TIntArray), a Collection which can hold a TArray or a Map which "
+					+ "can hold a TObject");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The generated codec writes a field by
+	 * {@link com.tenio.message.codec.MsgPackWriter} and casts the decoded value
+	 * back, so a field must be able to hold what
+	 * {@link com.tenio.message.codec.MsgPackReader} creates: an array becomes a
+	 * {@link TArray} and a map becomes a {@link TObject}
+	 * 
+	 * @param type the field's type
+	 * @return <b>true</b> if the type can be encoded and decoded
+	 */
+	private boolean __isSupported(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return true;
+		}
+		if (type.getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+		var types = processingEnv.getTypeUtils();
+		var erasure = types.erasure(type);
+		try {
+			types.unboxedType(erasure);
+			return true;
+		} catch (IllegalArgumentException e) {
+			// not a boxed primitive
+		}
+		if (erasure.toString().equals(String.class.getName())
+				|| types.isAssignable(erasure, __getType(AbstractPrimitiveArray.class))) {
+			return true;
+		}
+		return (types.isAssignable(__getType(TArray.class), erasure)
+				&& types.isAssignable(erasure, __getType(Collection.class)))
+				|| (types.isAssignable(__getType(TObject.class), erasure)
+						&& types.isAssignable(erasure, __getType(Map.class)));
+	}
+
+	private TypeMirror __getType(Class<?> clazz) {
+		var element = processingEnv.getElementUtils().getTypeElement(clazz.getCanonicalName());
+		return processingEnv.getTypeUtils().erasure(element.asType());
+	}
+
+	private String __getCodecName(TypeElement type) {
+		var name = new StringBuilder(type.getSimpleName());
+		Element enclosing = type.getEnclosingElement();
+		while (!(enclosing instanceof PackageElement)) {
+			name.insert(0, '_').insert(0, enclosing.getSimpleName());
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name.append("Codec").toString();
+	}
+
+	private String __getKey(VariableElement field) {
+		var key = field.getAnnotation(Field.class).name();
+		return key.isEmpty() ? field.getSimpleName().toString() : key;
+	}
+
+	private void __writeCodec(PrintWriter writer, String packageName, String codecName, String typeName,
+			List<VariableElement> fields) {
+		if (!packageName.isEmpty()) {
+			writer.println("package " + packageName + ";");
+			writer.println();
+		}
+		writer.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+		writer.println("public final class " + codecName + " implements com.tenio.message.codec.IMessageCodec<"
+				+ typeName + "> {");
+		writer.println();
+
+		writer.println("\t@Override");
+		writer.println("\tpublic Class<" + typeName + "> getType() {");
+		writer.println("\t\treturn " + typeName + ".class;");
+		writer.println("\t}");
+		writer.println();
+
+		writer.println("\t@Override");
+		writer.println("\tpublic " + typeName + " newMessage() {");
+		writer.println("\t\treturn new " + typeName + "();");
+		writer.println("\t}");
+		writer.println();
+
+		writer.println("\t@Override");
+		writer.println("\tpublic void reset(" + typeName + " message) {");
+		for (var field : fields) {
+			writer.println("\t\tmessage." + field.getSimpleName() + " = " + __getDefault(field.asType()) + ";");
+		}
+		writer.println("\t}");
+		writer.println();
+
+		writer.println("\t@Override");
+		writer.println("\tpublic void encode(" + typeName
+				+ " message, io.netty.buffer.ByteBuf buffer, com.tenio.message.codec.KeyDictionary dictionary) {");
+		writer.println("\t\tcom.tenio.message.codec.MsgPackWriter.writeMapHeader(buffer, " + fields.size() + ");");
+		for (var field : fields) {
+			writer.println("\t\tcom.tenio.message.codec.MsgPackWriter.writeKey(buffer, \""
+					+ __escape(__getKey(field)) + "\", dictionary);");
+			writer.println("\t\t" + __getWriter(field.asType(), "message." + field.getSimpleName()) + ";");
+		}
+		writer.println("\t}");
+		writer.println();
+
+		writer.println("\t@Override");
+		writer.println("\t@SuppressWarnings(\"unchecked\")");
+		writer.println("\tpublic void decode(com.tenio.entity.element.TObject source, " + typeName + " target) {");
+		writer.println("\t\tObject value;");
+		for (var field : fields) {
+			var key = "\"" + __escape(__getKey(field)) + "\"";
+			var target = "target." + field.getSimpleName();
+			if (field.asType().getKind().isPrimitive()) {
+				writer.println("\t\tvalue = source.get(" + key + ");");
+				writer.println("\t\tif (value != null) {");
+				writer.println("\t\t\t" + target + " = " + __getReader(field.asType(), "value") + ";");
+				writer.println("\t\t}");
+			} else {
+				writer.println("\t\tif (source.containsKey(" + key + ")) {");
+				writer.println("\t\t\tvalue = source.get(" + key + ");");
+				writer.println("\t\t\t" + target + " = value == null ? null : " + __getReader(field.asType(), "value")
+						+ ";");
+				writer.println("\t\t}");
+			}
+		}
+		writer.println("\t}");
+		writer.println();
+
+		writer.println("}");
+	}
+
+	private String __getDefault(TypeMirror type) {
+		switch (type.getKind()) {
+		case BOOLEAN:
+			return "false";
+		case BYTE:
+			return "(byte) 0";
+		case SHORT:
+			return "(short) 0";
+		case INT:
+			return "0";
+		case LONG:
+			return "0L";
+		case FLOAT:
+			return "0F";
+		case DOUBLE:
+			return "0D";
+		default:
+			return "null";
+		}
+	}
+
+	private String __getWriter(TypeMirror type, String value) {
+		var writer = "com.tenio.message.codec.MsgPackWriter.";
+		switch (type.getKind()) {
+		case BOOLEAN:
+			return writer + "writeBoolean(buffer, " + value + ")";
+		case BYTE:
+		case SHORT:
+		case INT:
+		case LONG:
+			return writer + "writeInteger(buffer, " + value + ")";
+		case FLOAT:
+			return writer + "writeFloat(buffer, " + value + ")";
+		case DOUBLE:
+			return writer + "writeDouble(buffer, " + value + ")";
+		default:
+			if (type.toString().equals(String.class.getName())) {
+				return writer + "writeString(buffer, " + value + ")";
+			}
+			return writer + "writeValue(buffer, " + value + ", dictionary)";
+		}
+	}
+
+	private String __getReader(TypeMirror type, String value) {
+		var number = "((Number) " + value + ")";
+		switch (type.getKind()) {
+		case BOOLEAN:
+			return "(Boolean) " + value;
+		case BYTE:
+			return number + ".byteValue()";
+		case SHORT:
+			return number + ".shortValue()";
+		case INT:
+			return number + ".intValue()";
+		case LONG:
+			return number + ".longValue()";
+		case FLOAT:
+			return number + ".floatValue()";
+		case DOUBLE:
+			return number + ".doubleValue()";
+		default:
+			break;
+		}
+		switch (type.toString()) {
+		case "java.lang.Byte":
+			return "Byte.valueOf(" + number + ".byteValue())";
+		case "java.lang.Short":
+			return "Short.valueOf(" + number + ".shortValue())";
+		case "java.lang.Integer":
+			return "Integer.valueOf(" + number + ".intValue())";
+		case "java.lang.Long":
+			return "Long.valueOf(" + number + ".longValue())";
+		case "java.lang.Float":
+			return "Float.valueOf(" + number + ".floatValue())";
+		case "java.lang.Double":
+			return "Double.valueOf(" + number + ".doubleValue())";
+		default:
+			return "(" + type + ") " + value;
+		}
+	}
+
+	private String __escape(String key) {
+		return key.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * Write the service file, the codecs which were declared by a previous
+	 * compilation (e.g. an incremental one which only processed a few classes)
+	 * are kept
+	 */
+	private void __writeServices() {
+		if (__codecs.isEmpty()) {
+			return;
+		}
+		var services = __readServices();
+		services.addAll(__codecs);
+		try (var writer = new PrintWriter(processingEnv.getFiler()
+				.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openWriter())) {
+			for (var codec : services) {
+				writer.println(codec);
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return the codecs which are already declared in the output's service file
+	 */
+	private Set<String> __readServices() {
+		var services = new LinkedHashSet<String>();
+		try (var reader = new BufferedReader(processingEnv.getFiler()
+				.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openReader(true))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int comment = line.indexOf('#');
+				if (comment >= 0) {
+					line = line.substring(0, comment);
+				}
+				line = line.trim();
+				if (!line.isEmpty()) {
+					services.add(line);
+				}
+			}
+		} catch (IOException e) {
+			// there is no previous service file
+		}
+		return services;
+	}
+
+	private void __error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.entity.element.TByteArray;
+
+/**
+ * Read the values written by a {@link BitWriter}, they must be read in the
+ * same order with the same numbers of bits. A reader is not thread-safe, it
+ * can be reused by wrapping another array.
+ * 
+ * @author kong
+ * 
+ */
+public final class BitReader {
+
+	private TByteArray __source;
+	private int __index;
+	/**
+	 * The bits of the current byte which are not read yet
+	 */
+	private int __current;
+	private int __available;
+
+	public static BitReader newInstance() {
+		return new BitReader();
+	}
+
+	private BitReader() {
+	}
+
+	/**
+	 * Start reading from the beginning of an array
+	 * 
+	 * @param source the source array, see {@link TByteArray}
+	 * @return the reader itself
+	 */
+	public BitReader wrap(TByteArray source) {
+		__source = source;
+		__index = 0;
+		__current = 0;
+		__available = 0;
+		return this;
+	}
+
+	/**
+	 * @param bits the number of bits (1 to 64)
+	 * @return the unsigned value
+	 * @throws IndexOutOfBoundsException when there are not enough bits left
+	 */
+	public long readBits(int bits) {
+		if (bits < 1 || bits > 64) {
+			throw new IllegalArgumentException("The number of bits must be from 1 to 64: " + bits);
+		}
+		if (bits > getRemainingBits()) {
+			throw new IndexOutOfBoundsException(
+					"Unable to read " + bits + " bits, only " + getRemainingBits() + " bits left");
+		}
+		long result = 0;
+		while (bits > 0) {
+			if (__available == 0) {
+				__current = __source.getByte(__index++) & 0xff;
+				__available = 8;
+			}
+			int take = Math.min(__available, bits);
+			int chunk = (__current >>> (__available - take)) & ((1 << take) - 1);
+			result = (result << take) | chunk;
+			__available -= take;
+			bits -= take;
+		}
+		return result;
+	}
+
+	/**
+	 * @param bits the number of bits (1 to 64) in two's complement
+	 * @return the signed value
+	 */
+	public long readSignedBits(int bits) {
+		long value = readBits(bits);
+		return bits == 64 ? value : (value << (64 - bits)) >> (64 - bits);
+	}
+
+	public boolean readBoolean() {
+		return readBits(1) == 1;
+	}
+
+	public float readFloat() {
+		return Float.intBitsToFloat((int) readBits(32));
+	}
+
+	/**
+	 * @return the number of bits which are not read yet, including the padding
+	 *         bits of the last byte
+	 */
+	public long getRemainingBits() {
+		return (long) (__source.size() - __index) * 8 + __available;
+	}
+
+}
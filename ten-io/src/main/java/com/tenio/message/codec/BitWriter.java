@@ -0,0 +1,154 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.entity.element.TByteArray;
+
+/**
+ * Write values of any number of bits (1 to 64) into a {@link TByteArray}, the
+ * most significant bit first. It packs a state stream (e.g. the positions of
+ * many entities quantized by {@link Quantizer}) much tighter than the
+ * MessagePack numbers, and the result is sent as an ordinary value:
+ * 
+ * <pre>
+ * var writer = BitWriter.newInstance().wrap(messageApi.getByteArrayPack());
+ * writer.writeBits(count, 16);
+ * ...
+ * messageApi.sendToPlayers(players, index, "s", writer.flush());
+ * </pre>
+ * 
+ * A writer is not thread-safe, it can be reused by wrapping another array.
+ * 
+ * @author kong
+ * 
+ */
+public final class BitWriter {
+
+	private TByteArray __target;
+	/**
+	 * The bits of the current byte which are not written to the target yet
+	 */
+	private int __current;
+	private int __pending;
+	private long __bitCount;
+
+	public static BitWriter newInstance() {
+		return new BitWriter();
+	}
+
+	private BitWriter() {
+	}
+
+	/**
+	 * Start writing to the end of an array, the pending bits of the previous one
+	 * are dropped
+	 * 
+	 * @param target the destination array, see {@link TByteArray}
+	 * @return the writer itself
+	 */
+	public BitWriter wrap(TByteArray target) {
+		__target = target;
+		__current = 0;
+		__pending = 0;
+		__bitCount = 0;
+		return this;
+	}
+
+	/**
+	 * @param value the value, only its lowest bits are written
+	 * @param bits  the number of bits (1 to 64)
+	 * @return the writer itself
+	 */
+	public BitWriter writeBits(long value, int bits) {
+		__checkBits(bits);
+		__bitCount += bits;
+		while (bits > 0) {
+			int take = Math.min(8 - __pending, bits);
+			int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+			__current = (__current << take) | chunk;
+			__pending += take;
+			bits -= take;
+			if (__pending == 8) {
+				__target.put((byte) __current);
+				__current = 0;
+				__pending = 0;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @param value a signed value, see {@link BitReader#readSignedBits(int)}
+	 * @param bits  the number of bits (1 to 64) in two's complement
+	 * @return the writer itself
+	 * @throws IllegalArgumentException when the value does not fit in the bits
+	 */
+	public BitWriter writeSignedBits(long value, int bits) {
+		__checkBits(bits);
+		if (bits < 64 && (value < -(1L << (bits - 1)) || value >= (1L << (bits - 1)))) {
+			throw new IllegalArgumentException("The value " + value + " does not fit in " + bits + " bits");
+		}
+		return writeBits(value, bits);
+	}
+
+	public BitWriter writeBoolean(boolean value) {
+		return writeBits(value ? 1 : 0, 1);
+	}
+
+	/**
+	 * @param value a float in its 32 bits without any loss
+	 * @return the writer itself
+	 */
+	public BitWriter writeFloat(float value) {
+		return writeBits(Float.floatToRawIntBits(value), 32);
+	}
+
+	/**
+	 * @return the number of bits written since the last wrapping
+	 */
+	public long getBitCount() {
+		return __bitCount;
+	}
+
+	/**
+	 * Write the pending bits padded by zeros to a whole byte
+	 * 
+	 * @return the destination array
+	 */
+	public TByteArray flush() {
+		if (__pending > 0) {
+			__target.put((byte) (__current << (8 - __pending)));
+			__current = 0;
+			__pending = 0;
+		}
+		return __target;
+	}
+
+	private void __checkBits(int bits) {
+		if (bits < 1 || bits > 64) {
+			throw new IllegalArgumentException("The number of bits must be from 1 to 64: " + bits);
+		}
+	}
+
+}
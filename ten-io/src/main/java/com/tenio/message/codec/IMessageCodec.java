@@ -0,0 +1,79 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.entity.element.TObject;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The codec of a typed message, it is generated for each class annotated by
+ * {@link com.tenio.annotation.Message}, see {@link MessageCodecs}. A message is
+ * written as a MessagePack map, the same as a {@link TObject} holding the same
+ * keys and values, so the clients can not tell the difference.
+ * 
+ * @author kong
+ * 
+ */
+public interface IMessageCodec<T> {
+
+	/**
+	 * @return the message's class
+	 */
+	Class<T> getType();
+
+	/**
+	 * @return a new message with the default values
+	 */
+	T newMessage();
+
+	/**
+	 * Set all fields of a message to their default values, so it can be reused
+	 * 
+	 * @param message the message
+	 */
+	void reset(T message);
+
+	/**
+	 * Write a message to the end of the buffer, from its writer index
+	 * 
+	 * @param message    the message
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @throws UnsupportedOperationException when a value type is not supported
+	 */
+	void encode(T message, ByteBuf buffer, KeyDictionary dictionary);
+
+	/**
+	 * Copy the values of a received message into a typed message, a missing key
+	 * keeps its field unchanged
+	 * 
+	 * @param source the received message, see {@link TObject}
+	 * @param target the typed message
+	 * @throws ClassCastException when a value has an unexpected type
+	 */
+	void decode(TObject source, T target);
+
+}
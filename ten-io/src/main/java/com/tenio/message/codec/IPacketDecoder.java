@@ -0,0 +1,52 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Convert an incoming packet (a whole frame of a Socket or WebSocket
+ * connection, or a Datagram packet's content) to a message. The decoder of a
+ * port is chosen by its <i>codec</i> attribute, see
+ * {@link PacketDecoders#newInstance(com.tenio.configuration.Sock)}. One instance
+ * is shared by all the channels of its port, so it must be thread-safe.<br>
+ * A decoded {@link com.tenio.entity.element.TObject} is handled as usual,
+ * any other object is handled as raw data, see
+ * {@link com.tenio.configuration.constant.TEvent#RECEIVED_RAW_FROM_PLAYER}.
+ * 
+ * @author kong
+ * 
+ */
+public interface IPacketDecoder {
+
+	/**
+	 * @param packet the packet, it is released by the caller right after this
+	 *               method returns, so a result which holds it (e.g. a slice)
+	 *               must retain it
+	 * @return the message, or <b>null</b> to drop the packet
+	 * @throws RuntimeException when the packet is malformed, it is dropped
+	 */
+	Object decode(ByteBuf packet);
+
+}
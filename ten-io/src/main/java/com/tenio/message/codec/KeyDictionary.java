@@ -0,0 +1,128 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dictionary of the well-known message keys. Each registered key gets a
+ * small integer id, a connection in the dictionary mode (see
+ * {@link com.tenio.configuration.Sock#isKeyDictionary()}) receives the ids
+ * instead of the keys' strings, which saves bytes on every package. An
+ * incoming key can always be a string or an id, so the legacy clients are
+ * still accepted. An id is mapped back to the registered (interned)
+ * {@link String} instance, nothing is allocated for it.<br>
+ * The keys should be registered at startup, before any connection is
+ * accepted, and in the same order as the clients register them. An id is
+ * never reassigned.
+ * 
+ * @author kong
+ * 
+ */
+public final class KeyDictionary {
+
+	/**
+	 * The maximum number of keys, an id is written in 2 bytes at most
+	 */
+	public static final int MAX_KEYS = 65536;
+
+	private static volatile KeyDictionary __instance;
+
+	// preventing Singleton object instantiation from outside
+	// creates multiple instance if two thread access this method simultaneously
+	public static KeyDictionary getInstance() {
+		var ref = __instance;
+		if (ref == null) {
+			synchronized (KeyDictionary.class) {
+				ref = __instance;
+				if (ref == null) {
+					__instance = ref = new KeyDictionary();
+				}
+			}
+		}
+		return ref;
+	}
+
+	private final Map<String, Integer> __ids = new ConcurrentHashMap<String, Integer>();
+	/**
+	 * The keys by their ids, it is replaced on each registration
+	 */
+	private volatile String[] __keys = new String[0];
+
+	private KeyDictionary() {
+	}
+
+	/**
+	 * Register keys, a key which is already registered keeps its id
+	 * 
+	 * @param keys the keys
+	 * @throws IllegalStateException when there are more than {@link #MAX_KEYS}
+	 *                               keys
+	 */
+	public synchronized void register(String... keys) {
+		for (var key : keys) {
+			if (__ids.containsKey(key)) {
+				continue;
+			}
+			var current = __keys;
+			if (current.length >= MAX_KEYS) {
+				throw new IllegalStateException("The dictionary is full, unable to register: " + key);
+			}
+			var added = Arrays.copyOf(current, current.length + 1);
+			added[current.length] = key.intern();
+			// publish the key before its id, a writer never sends an id which the
+			// readers do not know yet
+			__keys = added;
+			__ids.put(added[current.length], current.length);
+		}
+	}
+
+	/**
+	 * @param key the key
+	 * @return the key's id or <b>-1</b> if it is not registered
+	 */
+	public int getId(String key) {
+		var id = __ids.get(key);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param id the key's id
+	 * @return the registered key or <b>null</b> if the id is unknown
+	 */
+	public String getKey(int id) {
+		var keys = __keys;
+		return id >= 0 && id < keys.length ? keys[id] : null;
+	}
+
+	/**
+	 * @return the number of registered keys
+	 */
+	public int size() {
+		return __keys.length;
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.tenio.entity.element.TObject;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * All the codecs of typed messages, see {@link IMessageCodec}. The generated
+ * codecs are declared as services, so they are found once by the
+ * {@link ServiceLoader} and no reflection is used afterwards. A codec can also
+ * be registered manually.
+ * 
+ * @author kong
+ * 
+ */
+public final class MessageCodecs {
+
+	private static final Map<Class<?>, IMessageCodec<?>> __codecs = new ConcurrentHashMap<Class<?>, IMessageCodec<?>>();
+
+	static {
+		for (var codec : __load(MessageCodecs.class.getClassLoader())) {
+			__codecs.put(codec.getType(), codec);
+		}
+	}
+
+	private MessageCodecs() {
+	}
+
+	/**
+	 * @param codec the codec, it replaces the existing one of the same type
+	 */
+	public static void register(IMessageCodec<?> codec) {
+		__codecs.put(codec.getType(), codec);
+	}
+
+	/**
+	 * @param type the message's class
+	 * @return the codec of the message
+	 * @throws IllegalArgumentException when the class has no codec
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> IMessageCodec<T> get(Class<T> type) {
+		var codec = __codecs.get(type);
+		if (codec == null) {
+			// the codecs of another class loader (e.g. an extension's jar)
+			for (var loaded : __load(type.getClassLoader())) {
+				__codecs.putIfAbsent(loaded.getType(), loaded);
+			}
+			codec = __codecs.get(type);
+			if (codec == null) {
+				throw new IllegalArgumentException("No codec for " + type.getName()
+						+ ", make sure it is annotated by @Message and compiled with the annotation processor");
+			}
+		}
+		return (IMessageCodec<T>) codec;
+	}
+
+	/**
+	 * @param type the message's class
+	 * @return <b>true</b> if the class has a codec
+	 */
+	public static boolean has(Class<?> type) {
+		try {
+			get(type);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Serialize a typed message to a pooled buffer
+	 * 
+	 * @param message    the typed message
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @return a pooled {@link ByteBuf} that must be released by the caller or
+	 *         <b>null</b> if any exceptions caused
+	 */
+	public static ByteBuf serializeToBuffer(Object message, KeyDictionary dictionary) {
+		return serializeToBuffer(message, PooledByteBufAllocator.DEFAULT.buffer(), dictionary);
+	}
+
+	/**
+	 * Serialize a typed message to the end of a given buffer
+	 * 
+	 * @param message    the typed message
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @return the written buffer or <b>null</b> if any exceptions caused (the
+	 *         buffer is released in that case)
+	 */
+	@SuppressWarnings("unchecked")
+	public static ByteBuf serializeToBuffer(Object message, ByteBuf buffer, KeyDictionary dictionary) {
+		try {
+			var codec = (IMessageCodec<Object>) get(message.getClass());
+			codec.encode(message, buffer, dictionary);
+			return buffer;
+		} catch (RuntimeException e) {
+			buffer.release();
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Convert a received message to a new typed message
+	 * 
+	 * @param source the received message, see {@link TObject}
+	 * @param type   the message's class
+	 * @return the typed message
+	 */
+	public static <T> T decode(TObject source, Class<T> type) {
+		var codec = get(type);
+		var message = codec.newMessage();
+		codec.decode(source, message);
+		return message;
+	}
+
+	/**
+	 * @param loader the class loader which finds the services
+	 * @return the declared codecs
+	 */
+	@SuppressWarnings("unchecked")
+	private static ServiceLoader<IMessageCodec<?>> __load(ClassLoader loader) {
+		// the class literal of a generic interface can only be raw
+		return ServiceLoader.load((Class<IMessageCodec<?>>) (Class<?>) IMessageCodec.class, loader);
+	}
+
+}
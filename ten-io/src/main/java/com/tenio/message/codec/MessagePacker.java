@@ -27,26 +27,41 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.FramingMode;
+
+import io.netty.buffer.ByteBuf;
 
 /**
  * When sending a message through the Internet, it's necessary to convert one
  * object data to its corresponding serialize data. Because TCP transfers data
  * by a stream, so it needs to determine the one package range by adding a value
- * called header length to each package's header.
+ * called header length to each package's header. The header can be a fixed
+ * short value or a varint, see {@link FramingMode}.
  * 
  * @author kong
  * 
  */
 public final class MessagePacker {
 
+	/**
+	 * The maximum number of bytes of a varint header (32 bits value)
+	 */
+	public static final int MAX_VARINT_BYTES = 5;
+
 	/**
 	 * Add the header-length value to the package's header
 	 * 
 	 * @param data your sending data in an array of bytes
 	 * @return a new array of bytes data with a header-length value at the package's
 	 *         header
+	 * @throws IllegalArgumentException when the data is longer than
+	 *                                  {@link Constants#MAX_FIXED_FRAME_LENGTH}, use
+	 *                                  {@link #packVarint(byte[])} instead
 	 */
 	public static byte[] pack(byte[] data) {
+		if (data.length > Constants.MAX_FIXED_FRAME_LENGTH) {
+			throw new IllegalArgumentException("Too long package for the fixed header: " + data.length);
+		}
 		// Make bytes
 		var length = shortToByte((short) data.length);
 		// HEADER_BYTES bytes for hold data's length
@@ -58,6 +73,133 @@ public final class MessagePacker {
 		return all;
 	}
 
+	/**
+	 * Add the header-length value in varint to the package's header, see
+	 * {@link FramingMode#VARINT}. The connection must be switched to this mode
+	 * first by sending the {@link Constants#VARINT_PREAMBLE} byte.
+	 * 
+	 * @param data your sending data in an array of bytes
+	 * @return a new array of bytes data with a varint header-length value at the
+	 *         package's header
+	 */
+	public static byte[] packVarint(byte[] data) {
+		var all = new byte[getVarintSize(data.length) + data.length];
+		int offset = writeVarint(data.length, all, 0);
+		System.arraycopy(data, 0, all, offset, data.length);
+
+		return all;
+	}
+
+	/**
+	 * @param value a non-negative value
+	 * @return the number of bytes which are needed to write the value in varint
+	 */
+	public static int getVarintSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Write a non-negative value in varint to an array of bytes
+	 * 
+	 * @param value  the value
+	 * @param dst    the destination array
+	 * @param offset the position of the first byte
+	 * @return the position right after the last written byte
+	 */
+	public static int writeVarint(int value, byte[] dst, int offset) {
+		while ((value & ~0x7F) != 0) {
+			dst[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		dst[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * Read a varint value from an array of bytes, its size can be retrieved by
+	 * {@link #getVarintSize(int)}
+	 * 
+	 * @param src    the source array
+	 * @param offset the position of the first byte
+	 * @param limit  the position right after the last readable byte
+	 * @return the value or <b>-1</b> if there are not enough bytes
+	 * @throws IllegalArgumentException when the value is malformed
+	 */
+	public static int readVarint(byte[] src, int offset, int limit) {
+		int value = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+			if (offset + i >= limit) {
+				return -1;
+			}
+			int current = src[offset + i] & 0xFF;
+			if (!__isValidVarintByte(current, i)) {
+				break;
+			}
+			value |= (current & 0x7F) << (7 * i);
+			if (current < 0x80) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	/**
+	 * Write a non-negative value in varint to a buffer
+	 * 
+	 * @param buffer the destination buffer, see {@link ByteBuf}
+	 * @param value  the value
+	 */
+	public static void writeVarint(ByteBuf buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer.writeByte(value);
+	}
+
+	/**
+	 * Read a varint value from a buffer. The reader index is only moved when the
+	 * whole value was read.
+	 * 
+	 * @param buffer the source buffer, see {@link ByteBuf}
+	 * @return the value or <b>-1</b> if there are not enough bytes
+	 * @throws IllegalArgumentException when the value is malformed
+	 */
+	public static int readVarint(ByteBuf buffer) {
+		int index = buffer.readerIndex();
+		int value = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+			if (index + i >= buffer.writerIndex()) {
+				return -1;
+			}
+			int current = buffer.getUnsignedByte(index + i);
+			if (!__isValidVarintByte(current, i)) {
+				break;
+			}
+			value |= (current & 0x7F) << (7 * i);
+			if (current < 0x80) {
+				buffer.readerIndex(index + i + 1);
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	/**
+	 * @param current the current byte
+	 * @param index   the byte's index in the varint
+	 * @return <b>true</b> if the byte can be a part of a non-negative 32 bits value
+	 */
+	private static boolean __isValidVarintByte(int current, int index) {
+		// the last byte only holds the remaining 3 bits
+		return index < MAX_VARINT_BYTES - 1 || current <= 0x07;
+	}
+
 	/**
 	 * Convert a value in short type to its corresponding array of bytes. This
 	 * convert by <b>BIG_EDIAN</b> byte's order
@@ -23,20 +23,13 @@ THE SOFTWARE.
 */
 package com.tenio.message.codec;
 
-import static org.msgpack.template.Templates.TString;
-import static org.msgpack.template.Templates.TValue;
-import static org.msgpack.template.Templates.tMap;
-
-import java.io.IOException;
 import java.util.Map;
 
-import org.msgpack.MessagePack;
-import org.msgpack.type.Value;
-
-import com.tenio.entity.element.TArray;
 import com.tenio.entity.element.TObject;
-import com.tenio.message.pool.ByteArrayInputStreamPool;
-import com.tenio.pool.IElementPool;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 
 /**
  * <a href="https://msgpack.org/index.html">MessagePack</a> is an efficient
@@ -44,7 +37,8 @@ import com.tenio.pool.IElementPool;
  * languages like JSON. But it's faster and smaller. Small integers are encoded
  * into a single byte, and typical short strings require only one extra byte in
  * addition to the strings themselves. This class helps you convert one system
- * object ({@link TObject}) to MsgPack data and vice versa.
+ * object ({@link TObject}) to MsgPack data and vice versa, see
+ * {@link MsgPackWriter} and {@link MsgPackReader}.
  * 
  * @author kong
  * 
@@ -55,116 +49,98 @@ public final class MsgPackConverter {
 	 * Serialize an object to an array of bytes data
 	 * 
 	 * @param object a {@link Map} type object
-	 * @return an array of bytes data
+	 * @return an array of bytes data or <b>null</b> if any exceptions caused
 	 */
 	public static byte[] serialize(Map<String, Object> object) {
-		return MsgPackUtil.pack(object);
+		var buffer = PooledByteBufAllocator.DEFAULT.heapBuffer();
+		try {
+			MsgPackWriter.write(object, buffer);
+			return ByteBufUtil.getBytes(buffer);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return null;
+		} finally {
+			buffer.release();
+		}
 	}
 
 	/**
-	 * Un-serialize an array of bytes data to a {@link TObject}
+	 * Serialize an object to a pooled buffer. It is useful when the same message
+	 * needs to be sent to many connections, the object is only encoded once and
+	 * each connection writes a retained duplicate of the buffer.
 	 * 
-	 * @param msg an array of bytes data
-	 * @return an object in <b>TObject</b> type
+	 * @param object a {@link Map} type object
+	 * @return a pooled {@link ByteBuf} that must be released by the caller or
+	 *         <b>null</b> if any exceptions caused
 	 */
-	public static TObject unserialize(byte[] msg) {
-		var object = TObject.newInstance();
-		var dstMap = MsgPackUtil.unpack(msg);
-		if (dstMap == null || dstMap.isEmpty()) {
-			return null;
-		}
-		dstMap.forEach((key, value) -> {
-			object.put(key, MsgPackUtil.valueToObject(value));
-		});
-		return object;
+	public static ByteBuf serializeToBuffer(Map<String, Object> object) {
+		return serializeToBuffer(object, PooledByteBufAllocator.DEFAULT.buffer());
 	}
 
-	private final static class MsgPackUtil {
-
-		/**
-		 * A MsgPack instance
-		 */
-		private static final MessagePack __packer = new MessagePack();
-		/**
-		 * An object creation pool instance, which is used for re-use byte objects, see
-		 * {@link IElementPool}
-		 */
-		private static final IElementPool<ByteArrayInputStream> __bytesPool = new ByteArrayInputStreamPool();
+	/**
+	 * Serialize an object to a pooled buffer, the registered keys are written as
+	 * their ids
+	 * 
+	 * @param object     a {@link Map} type object
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @return a pooled {@link ByteBuf} that must be released by the caller or
+	 *         <b>null</b> if any exceptions caused
+	 */
+	public static ByteBuf serializeToBuffer(Map<String, Object> object, KeyDictionary dictionary) {
+		return serializeToBuffer(object, PooledByteBufAllocator.DEFAULT.buffer(), dictionary);
+	}
 
-		/**
-		 * Converting an object ({@link TObject}) to array of bytes data
-		 * 
-		 * @param map an object in {@link Map} type
-		 * @return an array of bytes data
-		 */
-		public static byte[] pack(Map<String, Object> map) {
-			try {
-				return __packer.write(map);
-			} catch (IOException e) {
-				e.printStackTrace();
-				return null;
-			}
-		}
+	/**
+	 * Serialize an object to the end of a given buffer. The data is appended from
+	 * the buffer's writer index, so a header can be reserved before calling this
+	 * method.
+	 * 
+	 * @param object a {@link Map} type object
+	 * @param buffer the destination buffer, see {@link ByteBuf}
+	 * @return the written buffer or <b>null</b> if any exceptions caused (the
+	 *         buffer is released in that case)
+	 */
+	public static ByteBuf serializeToBuffer(Map<String, Object> object, ByteBuf buffer) {
+		return serializeToBuffer(object, buffer, null);
+	}
 
-		/**
-		 * Converting an array of bytes data to a {@link Map} object
-		 * 
-		 * @param msg an array of bytes
-		 * @return a object in map type
-		 */
-		public static Map<String, Value> unpack(byte[] msg) {
-			var mapTmpl = tMap(TString, TValue);
-			var in = __bytesPool.get();
-			try {
-				in.reset(msg);
-				var unpacker = __packer.createUnpacker(in);
-				return unpacker.read(mapTmpl);
-			} catch (IOException | IllegalArgumentException e) {
-				e.printStackTrace();
-				return null;
-			} finally {
-				// anyway --> repay
-				__bytesPool.repay(in);
-			}
+	/**
+	 * Serialize an object to the end of a given buffer, the registered keys are
+	 * written as their ids
+	 * 
+	 * @param object     a {@link Map} type object
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @return the written buffer or <b>null</b> if any exceptions caused (the
+	 *         buffer is released in that case)
+	 */
+	public static ByteBuf serializeToBuffer(Map<String, Object> object, ByteBuf buffer, KeyDictionary dictionary) {
+		try {
+			MsgPackWriter.write(object, buffer, dictionary);
+			return buffer;
+		} catch (RuntimeException e) {
+			buffer.release();
+			e.printStackTrace();
+			return null;
 		}
+	}
 
-		/**
-		 * Converting value in MsgPack type to its corresponding in Java type
-		 * 
-		 * @param value the value in {@link Value} type
-		 * @return an object in Java type
-		 */
-		public static Object valueToObject(Value value) {
-			if (value.isNilValue()) {
-				value.asNilValue();
-				return null;
-			} else if (value.isRawValue()) {
-				// String only
-				return value.asRawValue().getString();
-			} else if (value.isBooleanValue()) {
-				return value.asBooleanValue().getBoolean();
-			} else if (value.isFloatValue()) {
-				// Double only (8 bytes)
-				return value.asFloatValue().getDouble();
-			} else if (value.isIntegerValue()) {
-				// Integer only (4 bytes)
-				return value.asIntegerValue().getInt();
-			} else if (value.isArrayValue()) {
-				// Convert value to list of objects (TArray)
-				var arr = value.asArrayValue();
-				var array = TArray.newInstance();
-				arr.forEach(element -> {
-					array.add(valueToObject(element));
-				});
-				return array;
-			} else if (value.isMapValue()) {
-				// FIXME: Temporary not support
-				throw new UnsupportedOperationException();
-			} else {
-				throw new UnsupportedOperationException();
-			}
+	/**
+	 * Un-serialize an array of bytes data to a {@link TObject}
+	 * 
+	 * @param msg an array of bytes data
+	 * @return an object in <b>TObject</b> type or <b>null</b> if the data is empty
+	 *         or invalid
+	 */
+	public static TObject unserialize(byte[] msg) {
+		try {
+			return MsgPackReader.read(msg);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return null;
 		}
-
 	}
 
 }
@@ -0,0 +1,599 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.entity.element.AbstractPrimitiveArray;
+import com.tenio.entity.element.ILazyElement;
+import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TByteArray;
+import com.tenio.entity.element.TFloatArray;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TLongArray;
+import com.tenio.entity.element.TObject;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/**
+ * Reads <a href="https://msgpack.org/index.html">MessagePack</a> data straight
+ * from a {@link ByteBuf} into a {@link TObject}. There is no intermediate
+ * bytes' array or <code>Value</code> tree, each value is converted to its Java
+ * type as soon as it is read: raw data becomes a {@link String}, floating
+ * values become a {@link Double}, integer values become an {@link Integer}
+ * ({@link Long} when the value does not fit), arrays become a {@link TArray}
+ * and maps become a {@link TObject}. The extensions written by
+ * {@link MsgPackWriter} become primitive arrays, see
+ * {@link AbstractPrimitiveArray}.<br>
+ * The keys' strings are cached, a message usually carries the same few short
+ * keys again and again, so each of them is only decoded once. A key can also be
+ * an id in the {@link KeyDictionary}.<br>
+ * A map can also be read lazily (see {@link #readLazy(ByteBuf)}): only its
+ * keys are decoded, each value is decoded on its first read from the
+ * {@link TObject}.
+ * 
+ * @author kong
+ * 
+ */
+public final class MsgPackReader {
+
+	/**
+	 * The number of cached keys, it must be a power of two
+	 */
+	private static final int KEY_CACHE_SIZE = 1024;
+	/**
+	 * The longer keys are not cached
+	 */
+	private static final int MAX_CACHED_KEY_BYTES = 32;
+	/**
+	 * The entries are immutable, so the cache is shared by all threads without
+	 * any lock. A race only causes a key to be decoded once more.
+	 */
+	private static final CachedKey[] __keys = new CachedKey[KEY_CACHE_SIZE];
+
+	private MsgPackReader() {
+	}
+
+	/**
+	 * Read a map from an array of bytes data
+	 * 
+	 * @param bytes the source data
+	 * @return an object in <b>TObject</b> type or <b>null</b> if the map is empty
+	 * @see #read(ByteBuf)
+	 */
+	public static TObject read(byte[] bytes) {
+		return read(Unpooled.wrappedBuffer(bytes));
+	}
+
+	/**
+	 * Read a map from the buffer. The buffer's reader index is moved to the end of
+	 * the read data, the buffer itself is never released here.
+	 * 
+	 * @param buffer the source buffer, see {@link ByteBuf}
+	 * @return an object in <b>TObject</b> type or <b>null</b> if the map is empty
+	 * @throws IndexOutOfBoundsException     when the data is truncated
+	 * @throws IllegalArgumentException      when the data is not a map of string
+	 *                                       keys or known keys' ids, or a uint64
+	 *                                       value exceeds {@link Long#MAX_VALUE}
+	 * @throws UnsupportedOperationException when a value type is not supported
+	 */
+	public static TObject read(ByteBuf buffer) {
+		int size = __readMapSize(buffer, buffer.readUnsignedByte());
+		if (size <= 0) {
+			return null;
+		}
+		return __readMap(buffer, size);
+	}
+
+	/**
+	 * Read a map from the buffer, but only decode its keys. The map's data is
+	 * copied once, each value is decoded from the copy on its first read, see
+	 * {@link TObject#putLazy(String, ILazyElement)}. A nested map becomes a lazy
+	 * {@link TObject} as well. The whole structure is checked here, so a
+	 * truncated or unsupported value is still rejected on receipt.
+	 * 
+	 * @param buffer the source buffer, see {@link ByteBuf}
+	 * @return an object in <b>TObject</b> type or <b>null</b> if the map is empty
+	 * @throws IndexOutOfBoundsException     when the data is truncated
+	 * @throws IllegalArgumentException      when the data is not a map of string
+	 *                                       keys or known keys' ids, or a uint64
+	 *                                       value exceeds {@link Long#MAX_VALUE}
+	 * @throws UnsupportedOperationException when a value type is not supported
+	 * @see #read(ByteBuf)
+	 */
+	public static TObject readLazy(ByteBuf buffer) {
+		var source = ByteBufUtil.getBytes(buffer);
+		var data = Unpooled.wrappedBuffer(source);
+		try {
+			int size = __readMapSize(data, data.readUnsignedByte());
+			if (size <= 0) {
+				return null;
+			}
+			return __readLazyMap(data, size, source);
+		} finally {
+			buffer.skipBytes(data.readerIndex());
+		}
+	}
+
+	private static TObject __readLazyMap(ByteBuf data, int size, byte[] source) {
+		var object = TObject.newInstance();
+		for (int i = 0; i < size; i++) {
+			var key = __readKey(data);
+			int offset = data.readerIndex();
+			short head = data.getUnsignedByte(offset);
+			if (head <= 0x7f || head >= 0xe0 || head == 0xc0 || head == 0xc2 || head == 0xc3) {
+				// a single byte value is cheaper to decode than to defer
+				object.put(key, __readValue(data));
+			} else {
+				__skipValue(data);
+				object.putLazy(key, new LazyValue(source, offset));
+			}
+		}
+		return object;
+	}
+
+	private static TObject __readMap(ByteBuf buffer, int size) {
+		var object = TObject.newInstance();
+		for (int i = 0; i < size; i++) {
+			object.put(__readKey(buffer), __readValue(buffer));
+		}
+		return object;
+	}
+
+	private static int __readMapSize(ByteBuf buffer, short head) {
+		if (head >= 0x80 && head <= 0x8f) {
+			return head & 0x0f;
+		}
+		switch (head) {
+		case 0xde:
+			return buffer.readUnsignedShort();
+		case 0xdf:
+			return __checkLength(buffer.readUnsignedInt());
+		default:
+			throw new IllegalArgumentException("Expected a map, got 0x" + Integer.toHexString(head));
+		}
+	}
+
+	private static String __readKey(ByteBuf buffer) {
+		short head = buffer.readUnsignedByte();
+		if (head >= 0xa0 && head <= 0xbf) {
+			return __readCachedString(buffer, head & 0x1f);
+		}
+		// an id in the key dictionary
+		if (head <= 0x7f) {
+			return __getDictionaryKey(head);
+		}
+		switch (head) {
+		case 0xcc:
+			return __getDictionaryKey(buffer.readUnsignedByte());
+		case 0xcd:
+			return __getDictionaryKey(buffer.readUnsignedShort());
+		case 0xc4:
+		case 0xd9:
+			return __readCachedString(buffer, buffer.readUnsignedByte());
+		case 0xc5:
+		case 0xda:
+			return __readString(buffer, buffer.readUnsignedShort());
+		case 0xc6:
+		case 0xdb:
+			return __readString(buffer, __checkLength(buffer.readUnsignedInt()));
+		default:
+			throw new IllegalArgumentException("Expected a string key, got 0x" + Integer.toHexString(head));
+		}
+	}
+
+	private static String __getDictionaryKey(int id) {
+		var key = KeyDictionary.getInstance().getKey(id);
+		if (key == null) {
+			throw new IllegalArgumentException("Unknown key id " + id);
+		}
+		return key;
+	}
+
+	private static Object __readValue(ByteBuf buffer) {
+		short head = buffer.readUnsignedByte();
+
+		// positive fixint
+		if (head <= 0x7f) {
+			return Integer.valueOf(head);
+		}
+		// negative fixint
+		if (head >= 0xe0) {
+			return Integer.valueOf((byte) head);
+		}
+		// fixmap
+		if (head <= 0x8f) {
+			return __readMap(buffer, head & 0x0f);
+		}
+		// fixarray
+		if (head <= 0x9f) {
+			return __readArray(buffer, head & 0x0f);
+		}
+		// fixstr
+		if (head <= 0xbf) {
+			return __readString(buffer, head & 0x1f);
+		}
+
+		switch (head) {
+		case 0xc0:
+			return null;
+		case 0xc2:
+			return Boolean.FALSE;
+		case 0xc3:
+			return Boolean.TRUE;
+
+		// raw data (String only)
+		case 0xc4:
+		case 0xd9:
+			return __readString(buffer, buffer.readUnsignedByte());
+		case 0xc5:
+		case 0xda:
+			return __readString(buffer, buffer.readUnsignedShort());
+		case 0xc6:
+		case 0xdb:
+			return __readString(buffer, __checkLength(buffer.readUnsignedInt()));
+
+		// Double only (8 bytes)
+		case 0xca:
+			return Double.valueOf(buffer.readFloat());
+		case 0xcb:
+			return Double.valueOf(buffer.readDouble());
+
+		// Integer only (4 bytes), Long when it is out of range
+		case 0xcc:
+			return Integer.valueOf(buffer.readUnsignedByte());
+		case 0xcd:
+			return Integer.valueOf(buffer.readUnsignedShort());
+		case 0xce:
+			return __toNumber(buffer.readUnsignedInt());
+		case 0xcf:
+			return __toNumber(__readUint64(buffer));
+		case 0xd0:
+			return Integer.valueOf(buffer.readByte());
+		case 0xd1:
+			return Integer.valueOf(buffer.readShort());
+		case 0xd2:
+			return Integer.valueOf(buffer.readInt());
+		case 0xd3:
+			return __toNumber(buffer.readLong());
+
+		// list of objects (TArray)
+		case 0xdc:
+			return __readArray(buffer, buffer.readUnsignedShort());
+		case 0xdd:
+			return __readArray(buffer, __checkLength(buffer.readUnsignedInt()));
+
+		// map of objects (TObject)
+		case 0xde:
+			return __readMap(buffer, buffer.readUnsignedShort());
+		case 0xdf:
+			return __readMap(buffer, __checkLength(buffer.readUnsignedInt()));
+
+		// primitive arrays
+		case 0xd4:
+			return __readPrimitiveArray(buffer, 1);
+		case 0xd5:
+			return __readPrimitiveArray(buffer, 2);
+		case 0xd6:
+			return __readPrimitiveArray(buffer, 4);
+		case 0xd7:
+			return __readPrimitiveArray(buffer, 8);
+		case 0xd8:
+			return __readPrimitiveArray(buffer, 16);
+		case 0xc7:
+			return __readPrimitiveArray(buffer, buffer.readUnsignedByte());
+		case 0xc8:
+			return __readPrimitiveArray(buffer, buffer.readUnsignedShort());
+		case 0xc9:
+			return __readPrimitiveArray(buffer, __checkLength(buffer.readUnsignedInt()));
+
+		default:
+			throw new UnsupportedOperationException("Unsupported type 0x" + Integer.toHexString(head));
+		}
+	}
+
+	private static AbstractPrimitiveArray __readPrimitiveArray(ByteBuf buffer, int length) {
+		byte type = buffer.readByte();
+		if (length > buffer.readableBytes()) {
+			throw new IndexOutOfBoundsException("Expected " + length + " bytes, remain " + buffer.readableBytes());
+		}
+		switch (type) {
+		case Constants.MSGPACK_EXT_INT_ARRAY: {
+			int size = __getElements(length, 4);
+			var array = TIntArray.newInstance(size);
+			for (int i = 0; i < size; i++) {
+				array.put(buffer.readInt());
+			}
+			return array;
+		}
+		case Constants.MSGPACK_EXT_FLOAT_ARRAY: {
+			int size = __getElements(length, 4);
+			var array = TFloatArray.newInstance(size);
+			for (int i = 0; i < size; i++) {
+				array.put(buffer.readFloat());
+			}
+			return array;
+		}
+		case Constants.MSGPACK_EXT_LONG_ARRAY: {
+			int size = __getElements(length, 8);
+			var array = TLongArray.newInstance(size);
+			for (int i = 0; i < size; i++) {
+				array.put(buffer.readLong());
+			}
+			return array;
+		}
+		case Constants.MSGPACK_EXT_BYTE_ARRAY: {
+			var array = TByteArray.newInstance(length);
+			for (int i = 0; i < length; i++) {
+				array.put(buffer.readByte());
+			}
+			return array;
+		}
+		default:
+			throw new UnsupportedOperationException("Unsupported extension type " + type);
+		}
+	}
+
+	private static int __getElements(int length, int elementBytes) {
+		if (length % elementBytes != 0) {
+			throw new IllegalArgumentException("Length " + length + " is not a multiple of " + elementBytes);
+		}
+		return length / elementBytes;
+	}
+
+	private static TArray __readArray(ByteBuf buffer, int size) {
+		var array = TArray.newInstance();
+		for (int i = 0; i < size; i++) {
+			array.add(__readValue(buffer));
+		}
+		return array;
+	}
+
+	private static String __readString(ByteBuf buffer, int length) {
+		if (length > buffer.readableBytes()) {
+			throw new IndexOutOfBoundsException("Expected " + length + " bytes, remain " + buffer.readableBytes());
+		}
+		var value = buffer.toString(buffer.readerIndex(), length, CharsetUtil.UTF_8);
+		buffer.skipBytes(length);
+		return value;
+	}
+
+	private static void __skipValue(ByteBuf buffer) {
+		short head = buffer.readUnsignedByte();
+
+		// positive and negative fixint
+		if (head <= 0x7f || head >= 0xe0) {
+			return;
+		}
+		// fixmap
+		if (head <= 0x8f) {
+			__skipValues(buffer, (head & 0x0f) * 2L);
+			return;
+		}
+		// fixarray
+		if (head <= 0x9f) {
+			__skipValues(buffer, head & 0x0f);
+			return;
+		}
+		// fixstr
+		if (head <= 0xbf) {
+			buffer.skipBytes(head & 0x1f);
+			return;
+		}
+
+		switch (head) {
+		case 0xc0:
+		case 0xc2:
+		case 0xc3:
+			return;
+		case 0xc4:
+		case 0xd9:
+			buffer.skipBytes(buffer.readUnsignedByte());
+			return;
+		case 0xc5:
+		case 0xda:
+			buffer.skipBytes(buffer.readUnsignedShort());
+			return;
+		case 0xc6:
+		case 0xdb:
+			buffer.skipBytes(__checkLength(buffer.readUnsignedInt()));
+			return;
+		case 0xcc:
+		case 0xd0:
+			buffer.skipBytes(1);
+			return;
+		case 0xcd:
+		case 0xd1:
+			buffer.skipBytes(2);
+			return;
+		case 0xca:
+		case 0xce:
+		case 0xd2:
+			buffer.skipBytes(4);
+			return;
+		case 0xcf:
+			__readUint64(buffer);
+			return;
+		case 0xcb:
+		case 0xd3:
+			buffer.skipBytes(8);
+			return;
+		case 0xdc:
+			__skipValues(buffer, buffer.readUnsignedShort());
+			return;
+		case 0xdd:
+			__skipValues(buffer, buffer.readUnsignedInt());
+			return;
+		case 0xde:
+			__skipValues(buffer, buffer.readUnsignedShort() * 2L);
+			return;
+		case 0xdf:
+			__skipValues(buffer, buffer.readUnsignedInt() * 2L);
+			return;
+		case 0xd4:
+		case 0xd5:
+		case 0xd6:
+		case 0xd7:
+		case 0xd8:
+			// the extension's type and data, only the known types are accepted
+			__skipPrimitiveArray(buffer, 1 << (head - 0xd4));
+			return;
+		case 0xc7:
+			__skipPrimitiveArray(buffer, buffer.readUnsignedByte());
+			return;
+		case 0xc8:
+			__skipPrimitiveArray(buffer, buffer.readUnsignedShort());
+			return;
+		case 0xc9:
+			__skipPrimitiveArray(buffer, __checkLength(buffer.readUnsignedInt()));
+			return;
+		default:
+			throw new UnsupportedOperationException("Unsupported type 0x" + Integer.toHexString(head));
+		}
+	}
+
+	private static void __skipPrimitiveArray(ByteBuf buffer, int length) {
+		byte type = buffer.readByte();
+		switch (type) {
+		case Constants.MSGPACK_EXT_INT_ARRAY:
+		case Constants.MSGPACK_EXT_FLOAT_ARRAY:
+			__getElements(length, 4);
+			break;
+		case Constants.MSGPACK_EXT_LONG_ARRAY:
+			__getElements(length, 8);
+			break;
+		case Constants.MSGPACK_EXT_BYTE_ARRAY:
+			break;
+		default:
+			throw new UnsupportedOperationException("Unsupported extension type " + type);
+		}
+		buffer.skipBytes(length);
+	}
+
+	private static void __skipValues(ByteBuf buffer, long count) {
+		// each value takes one byte at least
+		if (count > buffer.readableBytes()) {
+			throw new IndexOutOfBoundsException("Expected " + count + " values, remain " + buffer.readableBytes());
+		}
+		for (long i = 0; i < count; i++) {
+			__skipValue(buffer);
+		}
+	}
+
+	private static String __readCachedString(ByteBuf buffer, int length) {
+		if (length > MAX_CACHED_KEY_BYTES || length > buffer.readableBytes()) {
+			return __readString(buffer, length);
+		}
+		int index = buffer.readerIndex();
+		int hash = 1;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + buffer.getByte(index + i);
+		}
+		int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+		var key = __keys[slot];
+		if (key != null && key.__matches(buffer, index, length)) {
+			buffer.skipBytes(length);
+			return key.__value;
+		}
+		key = new CachedKey(ByteBufUtil.getBytes(buffer, index, length), __readString(buffer, length));
+		__keys[slot] = key;
+		return key.__value;
+	}
+
+	private static int __checkLength(long length) {
+		if (length > Integer.MAX_VALUE) {
+			throw new IndexOutOfBoundsException("Length is too large: " + length);
+		}
+		return (int) length;
+	}
+
+	/**
+	 * A uint64 value is only supported in the range of a <b>long</b>, a larger
+	 * one would silently become negative
+	 */
+	private static long __readUint64(ByteBuf buffer) {
+		long value = buffer.readLong();
+		if (value < 0) {
+			throw new IllegalArgumentException("The uint64 value is out of range: " + Long.toUnsignedString(value));
+		}
+		return value;
+	}
+
+	private static Number __toNumber(long value) {
+		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return Integer.valueOf((int) value);
+		}
+		return Long.valueOf(value);
+	}
+
+	private static final class LazyValue implements ILazyElement {
+
+		private final byte[] __source;
+		private final int __offset;
+
+		private LazyValue(byte[] source, int offset) {
+			__source = source;
+			__offset = offset;
+		}
+
+		@Override
+		public Object decode() {
+			var data = Unpooled.wrappedBuffer(__source);
+			data.readerIndex(__offset);
+			short head = data.getUnsignedByte(__offset);
+			if ((head >= 0x80 && head <= 0x8f) || head == 0xde || head == 0xdf) {
+				return __readLazyMap(data, __readMapSize(data, data.readUnsignedByte()), __source);
+			}
+			return __readValue(data);
+		}
+
+	}
+
+	private static final class CachedKey {
+
+		private final byte[] __bytes;
+		private final String __value;
+
+		private CachedKey(byte[] bytes, String value) {
+			__bytes = bytes;
+			__value = value;
+		}
+
+		private boolean __matches(ByteBuf buffer, int index, int length) {
+			if (__bytes.length != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (__bytes[i] != buffer.getByte(index + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,341 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.entity.element.AbstractPrimitiveArray;
+import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TByteArray;
+import com.tenio.entity.element.TFloatArray;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TLongArray;
+import com.tenio.entity.element.TObject;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.CharsetUtil;
+
+/**
+ * Writes a {@link TObject} as <a href="https://msgpack.org/index.html">
+ * MessagePack</a> data straight into a {@link ByteBuf}. Each value is written
+ * as soon as its type is checked, there is no template lookup and no
+ * intermediate object. The output is the same as the one of the former
+ * <code>org.msgpack</code> based converter, so the existing clients can read
+ * it: integers use their smallest encoding, a {@link Float} is written in 4
+ * bytes and a {@link Double} in 8 bytes, strings and bytes' arrays are written
+ * as raw data (without the <b>str 8</b> type), collections (e.g. a
+ * {@link TArray}) become arrays and maps (e.g. a {@link TObject}) become maps.
+ * The primitive arrays (see {@link AbstractPrimitiveArray}) are written as
+ * extensions, only the clients which use them have to read this type. When a
+ * {@link KeyDictionary} is given, the registered keys are written as their ids
+ * (positive integers) instead of their strings.
+ * 
+ * @author kong
+ * 
+ */
+public final class MsgPackWriter {
+
+	private MsgPackWriter() {
+	}
+
+	/**
+	 * Write a map to the end of the buffer, from its writer index
+	 * 
+	 * @param map    the map, see {@link TObject}
+	 * @param buffer the destination buffer, see {@link ByteBuf}
+	 * @throws UnsupportedOperationException when a value type is not supported
+	 */
+	public static void write(Map<String, Object> map, ByteBuf buffer) {
+		__writeMap(buffer, map, null);
+	}
+
+	/**
+	 * Write a map to the end of the buffer, from its writer index. The keys of
+	 * all maps are replaced by their ids when they are registered in the
+	 * dictionary.
+	 * 
+	 * @param map        the map, see {@link TObject}
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 * @throws UnsupportedOperationException when a value type is not supported
+	 */
+	public static void write(Map<String, Object> map, ByteBuf buffer, KeyDictionary dictionary) {
+		__writeMap(buffer, map, dictionary);
+	}
+
+	/**
+	 * Write the header of a map, its keys and values must follow. This method and
+	 * the ones below let a generated codec (see {@link IMessageCodec}) write a
+	 * message without any intermediate map.
+	 * 
+	 * @param buffer the destination buffer, see {@link ByteBuf}
+	 * @param size   the number of keys
+	 */
+	public static void writeMapHeader(ByteBuf buffer, int size) {
+		if (size < 16) {
+			buffer.writeByte(0x80 | size);
+		} else if (size < 65536) {
+			buffer.writeByte(0xde);
+			buffer.writeShort(size);
+		} else {
+			buffer.writeByte(0xdf);
+			buffer.writeInt(size);
+		}
+	}
+
+	/**
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param key        the key, it is written as its id when it is registered in
+	 *                   the dictionary
+	 * @param dictionary the key dictionary, see {@link KeyDictionary} (can be
+	 *                   <b>null</b>)
+	 */
+	public static void writeKey(ByteBuf buffer, String key, KeyDictionary dictionary) {
+		int id = dictionary == null ? -1 : dictionary.getId(key);
+		if (id < 0) {
+			__writeString(buffer, key);
+		} else {
+			__writeLong(buffer, id);
+		}
+	}
+
+	/**
+	 * @param buffer     the destination buffer, see {@link ByteBuf}
+	 * @param value      a value of any supported type
+	 * @param dictionary the key dictionary for the nested maps (can be
+	 *                   <b>null</b>)
+	 * @throws UnsupportedOperationException when the value type is not supported
+	 */
+	public static void writeValue(ByteBuf buffer, Object value, KeyDictionary dictionary) {
+		__writeValue(buffer, value, dictionary);
+	}
+
+	public static void writeInteger(ByteBuf buffer, long value) {
+		__writeLong(buffer, value);
+	}
+
+	public static void writeFloat(ByteBuf buffer, float value) {
+		buffer.writeByte(0xca);
+		buffer.writeFloat(value);
+	}
+
+	public static void writeDouble(ByteBuf buffer, double value) {
+		buffer.writeByte(0xcb);
+		buffer.writeDouble(value);
+	}
+
+	public static void writeBoolean(ByteBuf buffer, boolean value) {
+		buffer.writeByte(value ? 0xc3 : 0xc2);
+	}
+
+	/**
+	 * @param buffer the destination buffer, see {@link ByteBuf}
+	 * @param value  the string, <b>null</b> is written as nil
+	 */
+	public static void writeString(ByteBuf buffer, String value) {
+		if (value == null) {
+			buffer.writeByte(0xc0);
+		} else {
+			__writeString(buffer, value);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void __writeValue(ByteBuf buffer, Object value, KeyDictionary dictionary) {
+		if (value == null) {
+			buffer.writeByte(0xc0);
+		} else if (value instanceof String) {
+			__writeString(buffer, (String) value);
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short
+				|| value instanceof Byte) {
+			__writeLong(buffer, ((Number) value).longValue());
+		} else if (value instanceof Boolean) {
+			buffer.writeByte((Boolean) value ? 0xc3 : 0xc2);
+		} else if (value instanceof Double) {
+			buffer.writeByte(0xcb);
+			buffer.writeDouble((Double) value);
+		} else if (value instanceof Float) {
+			buffer.writeByte(0xca);
+			buffer.writeFloat((Float) value);
+		} else if (value instanceof AbstractPrimitiveArray) {
+			__writePrimitiveArray(buffer, (AbstractPrimitiveArray) value);
+		} else if (value instanceof Collection) {
+			__writeCollection(buffer, (Collection<?>) value, dictionary);
+		} else if (value instanceof Map) {
+			__writeMap(buffer, (Map<String, Object>) value, dictionary);
+		} else if (value instanceof byte[]) {
+			var bytes = (byte[]) value;
+			__writeRawHeader(buffer, bytes.length);
+			buffer.writeBytes(bytes);
+		} else {
+			throw new UnsupportedOperationException("Unsupported type " + value.getClass().getName());
+		}
+	}
+
+	private static void __writeMap(ByteBuf buffer, Map<String, Object> map, KeyDictionary dictionary) {
+		writeMapHeader(buffer, map.size());
+		// a TObject iterates its flat array without creating any entry
+		map.forEach((key, value) -> {
+			writeKey(buffer, key, dictionary);
+			__writeValue(buffer, value, dictionary);
+		});
+	}
+
+	private static void __writeCollection(ByteBuf buffer, Collection<?> collection, KeyDictionary dictionary) {
+		int size = collection.size();
+		if (size < 16) {
+			buffer.writeByte(0x90 | size);
+		} else if (size < 65536) {
+			buffer.writeByte(0xdc);
+			buffer.writeShort(size);
+		} else {
+			buffer.writeByte(0xdd);
+			buffer.writeInt(size);
+		}
+		for (var element : collection) {
+			__writeValue(buffer, element, dictionary);
+		}
+	}
+
+	private static void __writePrimitiveArray(ByteBuf buffer, AbstractPrimitiveArray array) {
+		int size = array.size();
+		if (array instanceof TIntArray) {
+			var elements = (TIntArray) array;
+			__writeExtHeader(buffer, Constants.MSGPACK_EXT_INT_ARRAY, size * 4);
+			for (int i = 0; i < size; i++) {
+				buffer.writeInt(elements.getInt(i));
+			}
+		} else if (array instanceof TFloatArray) {
+			var elements = (TFloatArray) array;
+			__writeExtHeader(buffer, Constants.MSGPACK_EXT_FLOAT_ARRAY, size * 4);
+			for (int i = 0; i < size; i++) {
+				buffer.writeFloat(elements.getFloat(i));
+			}
+		} else if (array instanceof TLongArray) {
+			var elements = (TLongArray) array;
+			__writeExtHeader(buffer, Constants.MSGPACK_EXT_LONG_ARRAY, size * 8);
+			for (int i = 0; i < size; i++) {
+				buffer.writeLong(elements.getLong(i));
+			}
+		} else if (array instanceof TByteArray) {
+			var elements = (TByteArray) array;
+			__writeExtHeader(buffer, Constants.MSGPACK_EXT_BYTE_ARRAY, size);
+			for (int i = 0; i < size; i++) {
+				buffer.writeByte(elements.getByte(i));
+			}
+		} else {
+			throw new UnsupportedOperationException("Unsupported type " + array.getClass().getName());
+		}
+	}
+
+	private static void __writeExtHeader(ByteBuf buffer, byte type, int length) {
+		switch (length) {
+		case 1:
+			buffer.writeByte(0xd4);
+			break;
+		case 2:
+			buffer.writeByte(0xd5);
+			break;
+		case 4:
+			buffer.writeByte(0xd6);
+			break;
+		case 8:
+			buffer.writeByte(0xd7);
+			break;
+		case 16:
+			buffer.writeByte(0xd8);
+			break;
+		default:
+			if (length < 256) {
+				buffer.writeByte(0xc7);
+				buffer.writeByte(length);
+			} else if (length < 65536) {
+				buffer.writeByte(0xc8);
+				buffer.writeShort(length);
+			} else {
+				buffer.writeByte(0xc9);
+				buffer.writeInt(length);
+			}
+			break;
+		}
+		buffer.writeByte(type);
+	}
+
+	private static void __writeString(ByteBuf buffer, String value) {
+		__writeRawHeader(buffer, ByteBufUtil.utf8Bytes(value));
+		buffer.writeCharSequence(value, CharsetUtil.UTF_8);
+	}
+
+	private static void __writeRawHeader(ByteBuf buffer, int length) {
+		if (length < 32) {
+			buffer.writeByte(0xa0 | length);
+		} else if (length < 65536) {
+			buffer.writeByte(0xda);
+			buffer.writeShort(length);
+		} else {
+			buffer.writeByte(0xdb);
+			buffer.writeInt(length);
+		}
+	}
+
+	private static void __writeLong(ByteBuf buffer, long value) {
+		if (value < -(1L << 5)) {
+			if (value < -(1L << 15)) {
+				if (value < -(1L << 31)) {
+					buffer.writeByte(0xd3);
+					buffer.writeLong(value);
+				} else {
+					buffer.writeByte(0xd2);
+					buffer.writeInt((int) value);
+				}
+			} else if (value < -(1L << 7)) {
+				buffer.writeByte(0xd1);
+				buffer.writeShort((int) value);
+			} else {
+				buffer.writeByte(0xd0);
+				buffer.writeByte((int) value);
+			}
+		} else if (value < (1L << 7)) {
+			// positive and negative fixint
+			buffer.writeByte((int) value);
+		} else if (value < (1L << 8)) {
+			buffer.writeByte(0xcc);
+			buffer.writeByte((int) value);
+		} else if (value < (1L << 16)) {
+			buffer.writeByte(0xcd);
+			buffer.writeShort((int) value);
+		} else if (value < (1L << 32)) {
+			buffer.writeByte(0xce);
+			buffer.writeInt((int) value);
+		} else {
+			buffer.writeByte(0xcf);
+			buffer.writeLong(value);
+		}
+	}
+
+}
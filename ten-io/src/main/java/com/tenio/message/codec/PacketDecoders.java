@@ -0,0 +1,72 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.configuration.Sock;
+
+/**
+ * Create the packet decoder of a port from its <i>codec</i> attribute, see
+ * {@link IPacketDecoder}.
+ * 
+ * @author kong
+ * 
+ */
+public final class PacketDecoders {
+
+	/**
+	 * Each packet is a MessagePack map, see {@link MsgPackPacketDecoder}
+	 */
+	public static final String MSGPACK = "msgpack";
+	/**
+	 * Each packet is passed through as raw data, see {@link RawPacketDecoder}
+	 */
+	public static final String RAW = "raw";
+
+	private PacketDecoders() {
+	}
+
+	/**
+	 * @param sock the port, see {@link Sock#getCodec()}
+	 * @return the decoder: {@link #MSGPACK}, {@link #RAW} or an instance of the
+	 *         {@link IPacketDecoder} class which is named by the codec (it must
+	 *         have a public no-arg constructor)
+	 * @throws IllegalArgumentException when the codec is unknown
+	 */
+	public static IPacketDecoder newInstance(Sock sock) {
+		var codec = sock.getCodec();
+		if (MSGPACK.equalsIgnoreCase(codec)) {
+			return new MsgPackPacketDecoder(sock.isLazyDecoding());
+		}
+		if (RAW.equalsIgnoreCase(codec)) {
+			return new RawPacketDecoder();
+		}
+		try {
+			var type = Class.forName(codec, true, PacketDecoders.class.getClassLoader());
+			return type.asSubclass(IPacketDecoder.class).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalArgumentException("Unknown codec of the port " + sock.getName() + ": " + codec, e);
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+/**
+ * Map a float in a range to an integer of N bits and back, e.g. a position in
+ * a 1000 units wide world quantized to 16 bits keeps a precision of about
+ * 0.015 units. A value outside the range is clamped to it, an angle wraps
+ * around instead (see {@link #newAngleInstance(int)}).
+ * 
+ * @author kong
+ * 
+ */
+public final class Quantizer {
+
+	private final float __min;
+	private final float __max;
+	private final int __bits;
+	private final boolean __wrap;
+	/**
+	 * The highest quantized value, or the number of values for a wrapped range
+	 */
+	private final long __steps;
+	private final double __step;
+
+	/**
+	 * @param min  the minimum value
+	 * @param max  the maximum value
+	 * @param bits the number of bits (1 to 32)
+	 * @return a quantizer which clamps the values to the range
+	 */
+	public static Quantizer newInstance(float min, float max, int bits) {
+		return new Quantizer(min, max, bits, false);
+	}
+
+	/**
+	 * @param min  the start of the period
+	 * @param max  the end of the period, it is the same value as the start
+	 * @param bits the number of bits (1 to 32)
+	 * @return a quantizer which wraps the values around the period
+	 */
+	public static Quantizer newWrapInstance(float min, float max, int bits) {
+		return new Quantizer(min, max, bits, true);
+	}
+
+	/**
+	 * @param bits the number of bits (1 to 32)
+	 * @return a quantizer of the angles in degrees [0, 360), as the rotations of
+	 *         {@link com.tenio.engine.physic.common.MoveableEntity}
+	 */
+	public static Quantizer newAngleInstance(int bits) {
+		return new Quantizer(0, 360, bits, true);
+	}
+
+	private Quantizer(float min, float max, int bits, boolean wrap) {
+		if (!(max > min) || bits < 1 || bits > 32) {
+			throw new IllegalArgumentException(
+					"Invalid quantization: [" + min + ", " + max + "] in " + bits + " bits");
+		}
+		__min = min;
+		__max = max;
+		__bits = bits;
+		__wrap = wrap;
+		__steps = wrap ? 1L << bits : (1L << bits) - 1;
+		__step = ((double) max - min) / __steps;
+	}
+
+	/**
+	 * @param value the value
+	 * @return the quantized value in [0, 2^bits)
+	 */
+	public long quantize(float value) {
+		long quantized = Math.round((value - (double) __min) / __step);
+		if (__wrap) {
+			return Math.floorMod(quantized, __steps);
+		}
+		return Math.max(0, Math.min(__steps, quantized));
+	}
+
+	/**
+	 * @param quantized the quantized value
+	 * @return the nearest value in the range
+	 */
+	public float dequantize(long quantized) {
+		return (float) (__min + quantized * __step);
+	}
+
+	public void write(BitWriter writer, float value) {
+		writer.writeBits(quantize(value), __bits);
+	}
+
+	public float read(BitReader reader) {
+		return dequantize(reader.readBits(__bits));
+	}
+
+	public int getBits() {
+		return __bits;
+	}
+
+	/**
+	 * @return the maximum error is a half of this value (for the values in the
+	 *         range)
+	 */
+	public float getPrecision() {
+		return (float) __step;
+	}
+
+	public float getMin() {
+		return __min;
+	}
+
+	public float getMax() {
+		return __max;
+	}
+
+}
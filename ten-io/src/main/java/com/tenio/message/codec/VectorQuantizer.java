@@ -0,0 +1,87 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message.codec;
+
+import com.tenio.engine.physic.math.Vector2;
+
+/**
+ * Quantize a {@link Vector2} by one {@link Quantizer} for each axis, it is used
+ * for the positions (the world's bounds) as well as the velocities (a
+ * symmetric range of the maximum speed).
+ * 
+ * @author kong
+ * 
+ */
+public final class VectorQuantizer {
+
+	private final Quantizer __x;
+	private final Quantizer __y;
+
+	/**
+	 * @param x the quantizer of the x axis, see {@link Quantizer}
+	 * @param y the quantizer of the y axis, see {@link Quantizer}
+	 * @return a new instance
+	 */
+	public static VectorQuantizer newInstance(Quantizer x, Quantizer y) {
+		return new VectorQuantizer(x, y);
+	}
+
+	/**
+	 * @param min  the minimum value of both axes
+	 * @param max  the maximum value of both axes
+	 * @param bits the number of bits of each axis
+	 * @return a new instance which uses the same range for both axes
+	 */
+	public static VectorQuantizer newInstance(float min, float max, int bits) {
+		var quantizer = Quantizer.newInstance(min, max, bits);
+		return new VectorQuantizer(quantizer, quantizer);
+	}
+
+	private VectorQuantizer(Quantizer x, Quantizer y) {
+		__x = x;
+		__y = y;
+	}
+
+	public void write(BitWriter writer, Vector2 vector) {
+		__x.write(writer, vector.x);
+		__y.write(writer, vector.y);
+	}
+
+	/**
+	 * @param reader the reader, see {@link BitReader}
+	 * @param vector the vector which receives the values
+	 * @return the vector itself
+	 */
+	public Vector2 read(BitReader reader, Vector2 vector) {
+		return vector.set(__x.read(reader), __y.read(reader));
+	}
+
+	/**
+	 * @return the number of bits of a vector
+	 */
+	public int getBits() {
+		return __x.getBits() + __y.getBits();
+	}
+
+}
@@ -26,9 +26,14 @@ package com.tenio.network;
 import java.net.InetSocketAddress;
 
 import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.DeliveryMode;
+import com.tenio.configuration.constant.OutboundPolicy;
 import com.tenio.entity.AbstractPlayer;
 import com.tenio.entity.element.TObject;
 import com.tenio.event.IEventManager;
+import com.tenio.message.OutboundMessage;
+
+import io.netty.buffer.ByteBuf;
 
 /**
  * A connection is created when the first request from client reach and pass in
@@ -149,6 +154,77 @@ public abstract class Connection {
 	 */
 	public abstract void send(TObject message);
 
+	/**
+	 * Send a message to the client in a delivery mode. On a Datagram connection
+	 * which enables the reliable layer, the message is sent in this mode. On the
+	 * other connections, a message sent in an unreliable mode can be dropped when
+	 * the connection is slow, see {@link OutboundPolicy#DROP_OLDEST}.
+	 * 
+	 * @param message the message content, see {@link TObject}
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 */
+	public abstract void send(TObject message, DeliveryMode mode);
+
+	/**
+	 * Send a serialized message to the client. The packet can be shared between
+	 * many connections, so the connection never takes its ownership: it writes a
+	 * retained duplicate and the caller still has to release the packet.
+	 * 
+	 * @param packet the serialized message content, see {@link ByteBuf}
+	 */
+	public abstract void send(ByteBuf packet);
+
+	/**
+	 * Send a serialized message to the client in a delivery mode, see
+	 * {@link #send(ByteBuf)} and {@link #send(TObject, DeliveryMode)}
+	 * 
+	 * @param packet the serialized message content, see {@link ByteBuf}
+	 * @param mode   the delivery mode, see {@link DeliveryMode}
+	 */
+	public abstract void send(ByteBuf packet, DeliveryMode mode);
+
+	/**
+	 * Send an outbound message to the client. The connection retains the message
+	 * and releases it when the message has been encoded, which may happen later in
+	 * another thread, so the caller can release its own reference right after
+	 * this call.
+	 * 
+	 * @param message the message, see {@link OutboundMessage}
+	 */
+	public abstract void send(OutboundMessage message);
+
+	/**
+	 * Send an outbound message to the client in a delivery mode, see
+	 * {@link #send(OutboundMessage)} and {@link #send(TObject, DeliveryMode)}
+	 * 
+	 * @param message the message, see {@link OutboundMessage}
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 */
+	public abstract void send(OutboundMessage message, DeliveryMode mode);
+
+	/**
+	 * Check the backpressure of the "connection". A connection is not writable when
+	 * its pending outbound bytes exceeded the high water mark, the messages sent
+	 * to it are queued (or dropped, see {@link OutboundPolicy}) until it drops
+	 * below the low water mark.
+	 * 
+	 * @return <b>true</b> if the connection can send more messages immediately,
+	 *         <b>false</b> otherwise
+	 */
+	public abstract boolean isWritable();
+
+	/**
+	 * @return the number of outbound bytes which are waiting to be sent
+	 */
+	public abstract long getPendingBytes();
+
+	/**
+	 * @return <b>true</b> if the keys of the messages sent to this connection are
+	 *         replaced by their ids, see
+	 *         {@link com.tenio.message.codec.KeyDictionary}
+	 */
+	public abstract boolean isKeyDictionary();
+
 	/**
 	 * Close a "connection" between a client with the server
 	 */
@@ -25,8 +25,10 @@ package com.tenio.network.netty;
 
 import java.net.InetSocketAddress;
 
+import com.tenio.configuration.Sock;
 import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.configuration.constant.LEvent;
+import com.tenio.configuration.constant.OutboundPolicy;
 import com.tenio.entity.element.TObject;
 import com.tenio.event.IEventManager;
 import com.tenio.network.Connection;
@@ -34,7 +36,7 @@ import com.tenio.network.Connection;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * Use <a href="https://netty.io/">Netty</a> to handle message. Base on the
@@ -49,11 +51,13 @@ public abstract class BaseNettyHandler extends ChannelInboundHandlerAdapter {
 	private Connection __connection;
 	private ConnectionType __type;
 	private int __index;
+	private Sock __sock;
 
-	public BaseNettyHandler(IEventManager eventManager, int index, ConnectionType type) {
+	public BaseNettyHandler(IEventManager eventManager, int index, ConnectionType type, Sock sock) {
 		__eventManager = eventManager;
 		__index = index;
 		__type = type;
+		__sock = sock;
 	}
 
 	/**
@@ -67,26 +71,40 @@ public abstract class BaseNettyHandler extends ChannelInboundHandlerAdapter {
 		if (remote == null) {
 			return channel.attr(NettyConnection.KEY_CONNECTION).get();
 		}
-		return (Connection) channel.attr(AttributeKey.valueOf(remote.toString())).get();
+		return channel.attr(NettyConnection.KEY_DATAGRAM_SESSIONS).get().get(remote);
 	}
 
 	/**
-	 * Handle in-comming messages for the channel
+	 * Handle in-comming messages for the channel. The raw data is released after
+	 * it was handled.
 	 * 
 	 * @param ctx     the channel, see {@link ChannelHandlerContext}
-	 * @param message the message, see {@link TObject}
+	 * @param message the message, a {@link TObject} or the raw data decoded by the
+	 *                port's codec, see {@link Sock#getCodec()}
 	 * @param remote  the current remote address (in use for Datagram channel)
 	 */
-	protected void _channelRead(ChannelHandlerContext ctx, TObject message, InetSocketAddress remote) {
-		var connection = __getConnection(ctx.channel(), remote);
-
-		if (connection == null) {
-			__connection = NettyConnection.newInstance(__index, __eventManager, __type, ctx.channel());
-			__connection.setRemote(remote);
-			__connection.setThis();
+	protected void _channelRead(ChannelHandlerContext ctx, Object message, InetSocketAddress remote) {
+		try {
+			var connection = __getConnection(ctx.channel(), remote);
+
+			if (connection == null) {
+				// drop the packets from new addresses when no more sessions can be added
+				if (remote != null && ctx.channel().attr(NettyConnection.KEY_DATAGRAM_SESSIONS).get().isFull()) {
+					return;
+				}
+				var newConnection = NettyConnection.newInstance(__index, __eventManager, __type, ctx.channel());
+				newConnection.setOutboundPolicy(__sock.getOutboundPolicy(), __sock.getUnwritableTimeout());
+				newConnection.setMaxFrameLength(__sock.getMaxFrameLength());
+				newConnection.setKeyDictionary(__sock.isKeyDictionary());
+				__connection = newConnection;
+				__connection.setRemote(remote);
+				__connection.setThis();
+			}
+
+			__eventManager.getInternal().emit(LEvent.CHANNEL_HANDLE, __index, connection, message, __connection);
+		} finally {
+			ReferenceCountUtil.release(message);
 		}
-
-		__eventManager.getInternal().emit(LEvent.CHANNEL_HANDLE, __index, connection, message, __connection);
 	}
 
 	/**
@@ -105,6 +123,22 @@ public abstract class BaseNettyHandler extends ChannelInboundHandlerAdapter {
 		connection = null;
 	}
 
+	/**
+	 * When the channel's writability changed, the connection applies its outbound
+	 * policy, see {@link OutboundPolicy} (only for TCP and WebSocket)
+	 * 
+	 * @param ctx the channel, see {@link ChannelHandlerContext}
+	 */
+	protected void _channelWritabilityChanged(ChannelHandlerContext ctx) {
+		if (__type == ConnectionType.DATAGRAM) {
+			return;
+		}
+		var connection = __getConnection(ctx.channel(), null);
+		if (connection != null) {
+			((NettyConnection) connection).writabilityChanged();
+		}
+	}
+
 	/**
 	 * Record the exceptions (only for TCP and WebSocket)
 	 * 
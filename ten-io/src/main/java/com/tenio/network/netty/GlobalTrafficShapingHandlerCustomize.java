@@ -24,17 +24,24 @@ THE SOFTWARE.
 package com.tenio.network.netty;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.tenio.configuration.constant.TEvent;
 import com.tenio.event.IEventManager;
 
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.traffic.GlobalTrafficShapingHandler;
 import io.netty.handler.traffic.TrafficCounter;
 
 /**
  * This implementation of the {@link GlobalTrafficShapingHandler} is for global
  * traffic shaping, that is to say a global limitation of the bandwidth,
- * whatever the number of opened channels.
+ * whatever the number of opened channels. It also counts the writes and the
+ * flushes which reach the sockets, so the effect of the flush consolidation
+ * can be observed, see {@link TEvent#OUTBOUND_RATE}.
  * 
  * @author kong
  *
@@ -42,6 +49,8 @@ import io.netty.handler.traffic.TrafficCounter;
 public final class GlobalTrafficShapingHandlerCustomize extends GlobalTrafficShapingHandler {
 
 	private final IEventManager __eventManager;
+	private final LongAdder __writes = new LongAdder();
+	private final LongAdder __flushes = new LongAdder();
 
 	public GlobalTrafficShapingHandlerCustomize(IEventManager eventManager, ScheduledExecutorService executor,
 			long writeLimit, long readLimit, long checkInterval) {
@@ -49,6 +58,18 @@ public final class GlobalTrafficShapingHandlerCustomize extends GlobalTrafficSha
 		__eventManager = eventManager;
 	}
 
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		__writes.increment();
+		super.write(ctx, msg, promise);
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) throws Exception {
+		__flushes.increment();
+		super.flush(ctx);
+	}
+
 	@Override
 	protected void doAccounting(TrafficCounter counter) {
 		super.doAccounting(counter);
@@ -63,6 +84,17 @@ public final class GlobalTrafficShapingHandlerCustomize extends GlobalTrafficSha
 		__eventManager.getExternal().emit(TEvent.BANDWIDTH, lastReadThroughput, lastWriteThroughput,
 				realWriteThroughput, currentReadBytes, currentWrittenBytes, realWrittenBytes);
 
+		// the ports use one of these allocators, see the "allocator" setting
+		var metric = PooledByteBufAllocator.DEFAULT.metric();
+		var unpooledMetric = UnpooledByteBufAllocator.DEFAULT.metric();
+		__eventManager.getExternal().emit(TEvent.BUFFER_MEMORY, metric.usedDirectMemory() >> 10,
+				metric.usedHeapMemory() >> 10, metric.numDirectArenas(), metric.numThreadLocalCaches(),
+				unpooledMetric.usedDirectMemory() >> 10, unpooledMetric.usedHeapMemory() >> 10);
+
+		long interval = Math.max(counter.checkInterval(), 1);
+		__eventManager.getExternal().emit(TEvent.OUTBOUND_RATE, __writes.sumThenReset() * 1000 / interval,
+				__flushes.sumThenReset() * 1000 / interval);
+
 	}
 
 }
@@ -24,19 +24,35 @@ THE SOFTWARE.
 package com.tenio.network.netty;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.DeliveryMode;
+import com.tenio.configuration.constant.FramingMode;
 import com.tenio.configuration.constant.LEvent;
+import com.tenio.configuration.constant.OutboundPolicy;
 import com.tenio.entity.element.TObject;
 import com.tenio.event.IEventManager;
+import com.tenio.message.OutboundMessage;
+import com.tenio.message.codec.KeyDictionary;
+import com.tenio.message.codec.MessageCodecs;
+import com.tenio.message.codec.MessagePacker;
 import com.tenio.message.codec.MsgPackConverter;
 import com.tenio.network.Connection;
+import com.tenio.network.netty.datagram.NettyDatagramSessionRegistry;
+import com.tenio.network.netty.datagram.ReliableDatagramPacket;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * Use <a href="https://netty.io/">Netty</a> to create a connection
@@ -48,11 +64,20 @@ import io.netty.util.AttributeKey;
 public class NettyConnection extends Connection {
 
 	/**
-	 * Save this connection itself to its channel. In case of Datagram channel, we
-	 * use {@link #__address} as a key for the current connection
+	 * Save this connection itself to its channel (TCP and WebSocket only)
 	 */
 	public static final AttributeKey<Connection> KEY_CONNECTION = AttributeKey.valueOf(KEY_STR_CONNECTION);
-
+	/**
+	 * In case of Datagram channel, all connections are saved in one session
+	 * registry of the channel, see {@link NettyDatagramSessionRegistry}
+	 */
+	public static final AttributeKey<NettyDatagramSessionRegistry> KEY_DATAGRAM_SESSIONS = AttributeKey
+			.valueOf("s");
+	/**
+	 * The framing mode of a Socket channel, which is decided by the client's first
+	 * byte, see {@link FramingMode}
+	 */
+	public static final AttributeKey<FramingMode> KEY_FRAMING = AttributeKey.valueOf("f");
 	/**
 	 * @see Channel
 	 */
@@ -62,6 +87,22 @@ public class NettyConnection extends Connection {
 	 * key of the {@link #getUsername()}
 	 */
 	protected InetSocketAddress __remote;
+	private OutboundPolicy __outboundPolicy = OutboundPolicy.QUEUE;
+	private long __unwritableTimeout = Constants.UNWRITABLE_TIMEOUT;
+	private int __maxFrameLength = Constants.MAX_FRAME_LENGTH;
+	/**
+	 * The key dictionary in use, <b>null</b> if the keys are sent as strings
+	 */
+	private KeyDictionary __keyDictionary;
+	/**
+	 * The droppable messages which are held while the channel is not writable,
+	 * see {@link OutboundPolicy#DROP_OLDEST}. It is also the lock of itself.
+	 */
+	private final Queue<Object> __droppables = new ArrayDeque<Object>();
+	/**
+	 * Only accessed in the channel's event loop
+	 */
+	private ScheduledFuture<?> __disconnection;
 
 	private NettyConnection(int index, IEventManager eventManager, ConnectionType type, Channel channel) {
 		super(eventManager, type, index);
@@ -81,23 +122,407 @@ public class NettyConnection extends Connection {
 
 	@Override
 	public void send(TObject message) {
-		if (isType(ConnectionType.SOCKET)) {
-			__channel.writeAndFlush(MsgPackConverter.serialize(message));
-		} else if (isType(ConnectionType.WEB_SOCKET)) {
-			__channel.writeAndFlush(
-					new BinaryWebSocketFrame(Unpooled.wrappedBuffer(MsgPackConverter.serialize(message))));
-		} else if (isType(ConnectionType.DATAGRAM)) {
+		__send(message, null);
+	}
+
+	@Override
+	public void send(TObject message, DeliveryMode mode) {
+		__send(message, mode);
+	}
+
+	@Override
+	public void send(ByteBuf packet) {
+		send(packet, null);
+	}
+
+	@Override
+	public void send(ByteBuf packet, DeliveryMode mode) {
+		if (isType(ConnectionType.DATAGRAM)) {
+			if (__remote != null) {
+				__writeDatagram(packet.retainedDuplicate(), mode);
+			}
+		} else {
+			var frame = __frame(packet);
+			if (frame != null) {
+				__writeFrame(frame, mode);
+			}
+		}
+	}
+
+	@Override
+	public void send(OutboundMessage message) {
+		send(message, null);
+	}
+
+	@Override
+	public void send(OutboundMessage message, DeliveryMode mode) {
+		var channel = __channel;
+		if (channel == null) {
+			return;
+		}
+		message.retain();
+		if (channel.eventLoop().inEventLoop()) {
+			__write(message, mode);
+			return;
+		}
+		try {
+			channel.eventLoop().execute(() -> __write(message, mode));
+		} catch (RejectedExecutionException e) {
+			message.release();
+		}
+	}
+
+	/**
+	 * Encode and write an outbound message in the channel's event loop, then
+	 * release it
+	 * 
+	 * @param message the message, see {@link OutboundMessage}
+	 * @param mode    the delivery mode, see {@link DeliveryMode} (can be
+	 *                <b>null</b>)
+	 */
+	private void __write(OutboundMessage message, DeliveryMode mode) {
+		try {
+			if (__channel == null) {
+				return;
+			}
+			// the raw data is written without any copy, like a shared packet
+			if (!message.isShared() && !message.isRaw()) {
+				__send(message.getContent(), mode);
+				return;
+			}
+			var packet = message.getPacket(__keyDictionary, __channel.alloc());
+			if (packet == null) {
+				return;
+			}
+			if (isType(ConnectionType.DATAGRAM)) {
+				if (__remote != null) {
+					__writeDatagram(packet.retainedDuplicate(), mode);
+				}
+			} else {
+				var frame = __frame(packet);
+				if (frame != null) {
+					__writeFrame(frame, mode);
+				}
+			}
+		} finally {
+			message.release();
+		}
+	}
+
+	/**
+	 * @param message the message, a {@link TObject} or a typed message
+	 * @param mode    the delivery mode, see {@link DeliveryMode} (can be
+	 *                <b>null</b>)
+	 */
+	private void __send(Object message, DeliveryMode mode) {
+		if (isType(ConnectionType.DATAGRAM)) {
 			if (__remote != null) {
-				__channel.writeAndFlush(
-						new DatagramPacket(Unpooled.wrappedBuffer(MsgPackConverter.serialize(message)), __remote));
+				var buffer = __encode(message, false);
+				if (buffer != null) {
+					__writeDatagram(buffer, mode);
+				}
+			}
+			return;
+		}
+		var frame = __frame(message);
+		if (frame != null) {
+			__writeFrame(frame, mode);
+		}
+	}
+
+	/**
+	 * @param buffer the encoded message, see {@link ByteBuf}
+	 * @param mode   the delivery mode, see {@link DeliveryMode} (can be
+	 *               <b>null</b>, it is sent unreliably then)
+	 */
+	private void __writeDatagram(ByteBuf buffer, DeliveryMode mode) {
+		if (mode == null || mode == DeliveryMode.UNRELIABLE) {
+			__channel.writeAndFlush(new DatagramPacket(buffer, __remote));
+		} else {
+			__channel.writeAndFlush(new ReliableDatagramPacket(buffer, __remote, mode));
+		}
+	}
+
+	/**
+	 * Write a frame of a Socket or WebSocket connection. A frame sent in an
+	 * unreliable mode can be held and dropped while the channel is not writable,
+	 * see {@link OutboundPolicy#DROP_OLDEST}. A reliable frame is never held, the
+	 * held frames are written before it so that it does not overtake them.
+	 * 
+	 * @param frame the frame
+	 * @param mode  the delivery mode, see {@link DeliveryMode} (can be
+	 *              <b>null</b>, it is sent reliably then)
+	 */
+	private void __writeFrame(Object frame, DeliveryMode mode) {
+		if (__outboundPolicy != OutboundPolicy.DROP_OLDEST) {
+			__channel.writeAndFlush(frame);
+			return;
+		}
+		if (mode == null || mode == DeliveryMode.RELIABLE_ORDERED) {
+			synchronized (__droppables) {
+				while (!__droppables.isEmpty()) {
+					__channel.write(__droppables.poll());
+				}
+				__channel.writeAndFlush(frame);
+			}
+			return;
+		}
+		synchronized (__droppables) {
+			// keep the order behind the messages which are already held
+			if (!__channel.isWritable() || !__droppables.isEmpty()) {
+				if (__droppables.size() >= Constants.OUTBOUND_DROPPABLE_QUEUE) {
+					ReferenceCountUtil.release(__droppables.poll());
+				}
+				__droppables.offer(frame);
+				frame = null;
+			}
+		}
+		if (frame != null) {
+			__channel.writeAndFlush(frame);
+		} else if (__channel.isWritable()) {
+			// the channel could become writable before the message was held
+			__channel.eventLoop().execute(this::__flushDroppables);
+		}
+	}
+
+	/**
+	 * @param message the message, a {@link TObject} or a typed message
+	 * @return the outbound frame of a Socket or WebSocket connection, or
+	 *         <b>null</b> if the message could not be encoded
+	 */
+	private Object __frame(Object message) {
+		if (isType(ConnectionType.SOCKET)) {
+			return __encode(message, true);
+		}
+		var buffer = __encode(message, false);
+		return buffer == null ? null : new BinaryWebSocketFrame(buffer);
+	}
+
+	/**
+	 * @param packet a shared serialized message, see {@link ByteBuf}
+	 * @return the outbound frame of a Socket or WebSocket connection which holds
+	 *         a retained duplicate of the packet, or <b>null</b> if the packet is
+	 *         too long
+	 */
+	private Object __frame(ByteBuf packet) {
+		if (isType(ConnectionType.SOCKET)) {
+			// the shared packet has no header, compose one in front of it
+			var header = __header(packet.readableBytes());
+			if (header == null) {
+				return null;
+			}
+			return __channel.alloc().compositeDirectBuffer(2).addComponents(true, header,
+					packet.retainedDuplicate());
+		}
+		return new BinaryWebSocketFrame(packet.retainedDuplicate());
+	}
+
+	/**
+	 * Encode a message into a direct buffer taken from the channel's allocator.
+	 * For the Socket connection, the length header is reserved first and filled
+	 * when the body was written, so no more copy is needed. A varint header only
+	 * reserves 1 byte, when the body is longer than that byte can describe, the
+	 * header is composed in front of the body instead.
+	 * 
+	 * @param message    the message, a {@link TObject} or a typed message
+	 * @param withHeader set <b>true</b> to write the length header in front of the
+	 *                   body
+	 * @return the buffer or <b>null</b> if the message could not be encoded
+	 */
+	private ByteBuf __encode(Object message, boolean withHeader) {
+		var buffer = __channel.alloc().ioBuffer();
+		int headerIndex = buffer.writerIndex();
+		boolean varint = withHeader && __isVarint();
+		int headerBytes = withHeader ? (varint ? 1 : Constants.HEADER_BYTES) : 0;
+		buffer.writeZero(headerBytes);
+		if (message instanceof TObject) {
+			buffer = MsgPackConverter.serializeToBuffer((TObject) message, buffer, __keyDictionary);
+		} else {
+			buffer = MessageCodecs.serializeToBuffer(message, buffer, __keyDictionary);
+		}
+		if (buffer == null) {
+			return null;
+		}
+		if (!withHeader) {
+			return buffer;
+		}
+
+		int length = buffer.writerIndex() - headerIndex - headerBytes;
+		int maxLength = varint ? __maxFrameLength : Constants.MAX_FIXED_FRAME_LENGTH;
+		if (length > maxLength) {
+			buffer.release();
+			__reportTooLong(length, maxLength);
+			return null;
+		}
+		if (!varint) {
+			buffer.setShort(headerIndex, length);
+		} else if (length < 0x80) {
+			buffer.setByte(headerIndex, length);
+		} else {
+			buffer.skipBytes(headerBytes);
+			return __channel.alloc().compositeDirectBuffer(2).addComponents(true, __header(length), buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * @param length the length of a package's body
+	 * @return the length header in the connection's framing mode, see
+	 *         {@link FramingMode}, or <b>null</b> if the body is too long
+	 */
+	private ByteBuf __header(int length) {
+		if (__isVarint()) {
+			if (length > __maxFrameLength) {
+				__reportTooLong(length, __maxFrameLength);
+				return null;
+			}
+			var header = __channel.alloc().ioBuffer(MessagePacker.getVarintSize(length));
+			MessagePacker.writeVarint(header, length);
+			return header;
+		}
+		if (length > Constants.MAX_FIXED_FRAME_LENGTH) {
+			__reportTooLong(length, Constants.MAX_FIXED_FRAME_LENGTH);
+			return null;
+		}
+		return __channel.alloc().ioBuffer(Constants.HEADER_BYTES).writeShort(length);
+	}
+
+	/**
+	 * A message which is too long to be framed is not sent, it is reported as an
+	 * exception of this connection, see {@link LEvent#CONNECTION_EXCEPTION}
+	 * 
+	 * @param length    the length of the message's body
+	 * @param maxLength the maximum length of a frame's body
+	 */
+	private void __reportTooLong(int length, int maxLength) {
+		_eventManager.getInternal().emit(LEvent.CONNECTION_EXCEPTION, __channel.id().asLongText(), this,
+				new IllegalArgumentException(
+						"The message was not sent, its length " + length + " exceeds the limit " + maxLength));
+	}
+
+	private boolean __isVarint() {
+		return __channel.attr(KEY_FRAMING).get() == FramingMode.VARINT;
+	}
+
+	/**
+	 * Send the keys of the messages as their ids in the
+	 * {@link KeyDictionary}, the client must register the same keys in the same
+	 * order
+	 * 
+	 * @param enabled set <b>true</b> to enable the dictionary mode
+	 */
+	public void setKeyDictionary(boolean enabled) {
+		__keyDictionary = enabled ? KeyDictionary.getInstance() : null;
+	}
+
+	@Override
+	public boolean isKeyDictionary() {
+		return __keyDictionary != null;
+	}
+
+	/**
+	 * Set the maximum length of a package's body when the connection uses the
+	 * variable-length header, see {@link FramingMode#VARINT} (TCP only)
+	 * 
+	 * @param maxFrameLength the maximum length
+	 */
+	public void setMaxFrameLength(int maxFrameLength) {
+		__maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * Set the policy while this connection is not writable (TCP and WebSocket
+	 * only)
+	 * 
+	 * @param policy            see {@link OutboundPolicy}
+	 * @param unwritableTimeout the time in seconds this connection can stay not
+	 *                          writable before it is closed, see
+	 *                          {@link OutboundPolicy#DISCONNECT}
+	 */
+	public void setOutboundPolicy(OutboundPolicy policy, long unwritableTimeout) {
+		__outboundPolicy = policy;
+		__unwritableTimeout = unwritableTimeout;
+	}
+
+	/**
+	 * Called in the channel's event loop when its writability changed (TCP and
+	 * WebSocket only)
+	 */
+	void writabilityChanged() {
+		if (__channel.isWritable()) {
+			if (__disconnection != null) {
+				__disconnection.cancel(false);
+				__disconnection = null;
+			}
+			__flushDroppables();
+			return;
+		}
+
+		_eventManager.getInternal().emit(LEvent.CONNECTION_SLOW, this, getPendingBytes());
+		if (__outboundPolicy == OutboundPolicy.DISCONNECT && __disconnection == null) {
+			var channel = __channel;
+			__disconnection = channel.eventLoop().schedule(() -> {
+				__disconnection = null;
+				if (!channel.isWritable()) {
+					channel.close();
+				}
+			}, __unwritableTimeout, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Write all the held droppable messages, see
+	 * {@link OutboundPolicy#DROP_OLDEST}
+	 */
+	private void __flushDroppables() {
+		var channel = __channel;
+		if (channel == null || !channel.isWritable()) {
+			return;
+		}
+		synchronized (__droppables) {
+			if (__droppables.isEmpty()) {
+				return;
+			}
+			while (!__droppables.isEmpty()) {
+				channel.write(__droppables.poll());
+			}
+		}
+		channel.flush();
+	}
+
+	private void __releaseDroppables() {
+		synchronized (__droppables) {
+			while (!__droppables.isEmpty()) {
+				ReferenceCountUtil.release(__droppables.poll());
 			}
 		}
 	}
 
+	@Override
+	public boolean isWritable() {
+		var channel = __channel;
+		return channel != null && channel.isWritable();
+	}
+
+	@Override
+	public long getPendingBytes() {
+		var channel = __channel;
+		if (channel == null) {
+			return 0;
+		}
+		var buffer = channel.unsafe().outboundBuffer();
+		return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+	}
+
 	@Override
 	public void close() {
-		// this channel will be closed in the future
-		__channel.close();
+		if (isType(ConnectionType.DATAGRAM)) {
+			// the channel is shared by all clients, only remove the session
+			removeThis();
+		} else {
+			// this channel will be closed in the future
+			__channel.close();
+		}
 		// need to push event now
 		_eventManager.getInternal().emit(LEvent.MANUALY_CLOSE_CONNECTION, getUsername());
 	}
@@ -105,7 +530,7 @@ public class NettyConnection extends Connection {
 	@Override
 	public Connection getThis() {
 		if (isType(ConnectionType.DATAGRAM)) {
-			return (Connection) __channel.attr(AttributeKey.valueOf(getAddress())).get();
+			return __getSessions().get(__remote);
 		}
 		return __channel.attr(KEY_CONNECTION).get();
 	}
@@ -113,7 +538,7 @@ public class NettyConnection extends Connection {
 	@Override
 	public void setThis() {
 		if (isType(ConnectionType.DATAGRAM)) {
-			__channel.attr(AttributeKey.valueOf(getAddress())).set(this);
+			__getSessions().add(__remote, this);
 		} else {
 			__channel.attr(KEY_CONNECTION).set(this);
 		}
@@ -122,12 +547,16 @@ public class NettyConnection extends Connection {
 	@Override
 	public void removeThis() {
 		if (isType(ConnectionType.DATAGRAM)) {
-			__channel.attr(AttributeKey.valueOf(getAddress())).set(null);
+			__getSessions().remove(__remote, this);
 		} else {
 			__channel.attr(KEY_CONNECTION).set(null);
 		}
 	}
 
+	private NettyDatagramSessionRegistry __getSessions() {
+		return __channel.attr(KEY_DATAGRAM_SESSIONS).get();
+	}
+
 	@Override
 	public void setRemote(InetSocketAddress remote) {
 		// only need for the Datagram connection
@@ -142,6 +571,7 @@ public class NettyConnection extends Connection {
 		// only need for WebSocket and Socket
 		removeUsername();
 		removeThis();
+		__releaseDroppables();
 		__channel = null;
 	}
 
@@ -40,12 +40,13 @@ import com.tenio.network.netty.ws.NettyWSInitializer;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
 
 /**
  * Use <a href="https://netty.io/">Netty</a> to handle a network instance @see
@@ -56,6 +57,7 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
  */
 public final class NettyNetwork extends AbstractLogger implements INetwork {
 
+	private NettyTransport __transport;
 	private EventLoopGroup __producer;
 	private EventLoopGroup __consumer;
 	private GlobalTrafficShapingHandlerCustomize __traficCounter;
@@ -65,8 +67,22 @@ public final class NettyNetwork extends AbstractLogger implements INetwork {
 
 	@Override
 	public String start(IEventManager eventManager, BaseConfiguration configuration) {
-		__producer = new NioEventLoopGroup();
-		__consumer = new NioEventLoopGroup();
+		__transport = NettyTransport.newInstance(configuration.getTransportType());
+		if (__transport.getType() != configuration.getTransportType()) {
+			info("TRANSPORT", buildgen("Unable to use ", configuration.getTransportType(), " > Fallback to ",
+					__transport.getType(), " > Cause: ", NettyTransport.getUnavailabilityCause()));
+		} else {
+			info("TRANSPORT", buildgen("Use ", __transport.getType()));
+		}
+
+		int producerThreads = configuration.isDefined(BaseConfiguration.PRODUCER_THREADS)
+				? configuration.getInt(BaseConfiguration.PRODUCER_THREADS)
+				: Constants.PRODUCER_THREADS;
+		int consumerThreads = configuration.isDefined(BaseConfiguration.CONSUMER_THREADS)
+				? configuration.getInt(BaseConfiguration.CONSUMER_THREADS)
+				: Constants.CONSUMER_THREADS;
+		__producer = __transport.newEventLoopGroup(producerThreads);
+		__consumer = __transport.newEventLoopGroup(consumerThreads);
 
 		__traficCounter = new GlobalTrafficShapingHandlerCustomize(eventManager, __consumer,
 				Constants.TRAFFIC_COUNTER_WRITE_LIMIT, Constants.TRAFFIC_COUNTER_READ_LIMIT,
@@ -136,9 +152,17 @@ public final class NettyNetwork extends AbstractLogger implements INetwork {
 	private Channel __bindUDP(int index, IEventManager eventManager, BaseConfiguration configuration, Sock sock)
 			throws IOException, InterruptedException {
 		var bootstrap = new Bootstrap();
-		bootstrap.group(__consumer).channel(NioDatagramChannel.class).option(ChannelOption.SO_BROADCAST, false)
-				.option(ChannelOption.SO_RCVBUF, 1024).option(ChannelOption.SO_SNDBUF, 1024)
+		bootstrap.group(__consumer).channel(__transport.getDatagramChannel())
+				.option(ChannelOption.SO_BROADCAST, false).option(ChannelOption.ALLOCATOR, __getAllocator(sock))
+				.option(ChannelOption.WRITE_BUFFER_WATER_MARK, __getWaterMark(sock))
 				.handler(new NettyDatagramInitializer(index, eventManager, __traficCounter, configuration));
+		if (sock.getReceiveBuffer() > 0) {
+			bootstrap.option(ChannelOption.SO_RCVBUF, sock.getReceiveBuffer());
+		}
+		if (sock.getSendBuffer() > 0) {
+			bootstrap.option(ChannelOption.SO_SNDBUF, sock.getSendBuffer());
+		}
+		__transport.applyDatagramOptions(bootstrap);
 
 		info("DATAGRAM", buildgen("Name: ", sock.getName(), " > Start at port: ", sock.getPort()));
 
@@ -160,10 +184,9 @@ public final class NettyNetwork extends AbstractLogger implements INetwork {
 	private Channel __bindTCP(int index, IEventManager eventManager, BaseConfiguration configuration, Sock sock)
 			throws IOException, InterruptedException {
 		var bootstrap = new ServerBootstrap();
-		bootstrap.group(__producer, __consumer).channel(NioServerSocketChannel.class)
-				.option(ChannelOption.SO_BACKLOG, 5).childOption(ChannelOption.SO_SNDBUF, 10240)
-				.childOption(ChannelOption.SO_RCVBUF, 10240).childOption(ChannelOption.SO_KEEPALIVE, true)
+		bootstrap.group(__producer, __consumer).channel(__transport.getServerChannel())
 				.childHandler(new NettySocketInitializer(index, eventManager, __traficCounter, configuration));
+		__setServerOptions(bootstrap, sock);
 
 		info("SOCKET", buildgen("Name: ", sock.getName(), " > Start at port: ", sock.getPort()));
 
@@ -186,16 +209,52 @@ public final class NettyNetwork extends AbstractLogger implements INetwork {
 	private Channel __bindWS(int index, IEventManager eventManager, BaseConfiguration configuration, Sock sock)
 			throws IOException, InterruptedException {
 		var bootstrap = new ServerBootstrap();
-		bootstrap.group(__producer, __consumer).channel(NioServerSocketChannel.class)
-				.option(ChannelOption.SO_BACKLOG, 5).childOption(ChannelOption.SO_SNDBUF, 1024)
-				.childOption(ChannelOption.SO_RCVBUF, 1024).childOption(ChannelOption.SO_KEEPALIVE, true)
+		bootstrap.group(__producer, __consumer).channel(__transport.getServerChannel())
 				.childHandler(new NettyWSInitializer(index, eventManager, __traficCounter, configuration));
+		__setServerOptions(bootstrap, sock);
 
 		info("WEB SOCKET", buildgen("Name: ", sock.getName(), " > Start at port: ", sock.getPort()));
 
 		return bootstrap.bind(sock.getPort()).sync().channel();
 	}
 
+	/**
+	 * Apply the port's tuning options to a server bootstrap (TCP and WebSocket).
+	 * 
+	 * @param bootstrap the server bootstrap, see {@link ServerBootstrap}
+	 * @param sock      the socket information, see {@link Sock}
+	 */
+	private void __setServerOptions(ServerBootstrap bootstrap, Sock sock) {
+		bootstrap.option(ChannelOption.SO_BACKLOG, sock.getBacklog())
+				.childOption(ChannelOption.SO_KEEPALIVE, true)
+				.childOption(ChannelOption.TCP_NODELAY, sock.isNoDelay())
+				.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, __getWaterMark(sock))
+				.childOption(ChannelOption.ALLOCATOR, __getAllocator(sock));
+		if (sock.getReceiveBuffer() > 0) {
+			bootstrap.childOption(ChannelOption.SO_RCVBUF, sock.getReceiveBuffer());
+		}
+		if (sock.getSendBuffer() > 0) {
+			bootstrap.childOption(ChannelOption.SO_SNDBUF, sock.getSendBuffer());
+		}
+		__transport.applyServerOptions(bootstrap);
+	}
+
+	/**
+	 * @param sock the socket information, see {@link Sock}
+	 * @return the write buffer's water marks, see {@link WriteBufferWaterMark}
+	 */
+	private WriteBufferWaterMark __getWaterMark(Sock sock) {
+		return new WriteBufferWaterMark(sock.getLowWaterMark(), sock.getHighWaterMark());
+	}
+
+	/**
+	 * @param sock the socket information, see {@link Sock}
+	 * @return the buffers' allocator, see {@link ByteBufAllocator}
+	 */
+	private ByteBufAllocator __getAllocator(Sock sock) {
+		return sock.isPooledAllocator() ? PooledByteBufAllocator.DEFAULT : UnpooledByteBufAllocator.DEFAULT;
+	}
+
 	@Override
 	public void shutdown() {
 		for (var socket : __sockets) {
@@ -0,0 +1,156 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.TransportType;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Provides the event loop groups and channels' classes for a transport type,
+ * see {@link TransportType}. The native epoll transport is only used when its
+ * library can be loaded (Linux only), otherwise the NIO transport is used
+ * instead.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettyTransport {
+
+	private final TransportType __type;
+
+	private NettyTransport(TransportType type) {
+		__type = type;
+	}
+
+	/**
+	 * @param type the desired transport type, see {@link TransportType}
+	 * @return a new instance, its type can be different from the desired one if
+	 *         the native transport is not available
+	 */
+	public static NettyTransport newInstance(TransportType type) {
+		if (type == TransportType.EPOLL && !Epoll.isAvailable()) {
+			return new NettyTransport(TransportType.NIO);
+		}
+		return new NettyTransport(type == null ? TransportType.NIO : type);
+	}
+
+	/**
+	 * @return the reason why the native epoll transport can not be used or
+	 *         <b>null</b> if it is available
+	 */
+	public static Throwable getUnavailabilityCause() {
+		return Epoll.unavailabilityCause();
+	}
+
+	/**
+	 * @return the current transport type, see {@link TransportType}
+	 */
+	public TransportType getType() {
+		return __type;
+	}
+
+	/**
+	 * @param threads the number of threads, <b>0</b> for the Netty's default value
+	 * @return a new event loop group, see {@link EventLoopGroup}
+	 */
+	public EventLoopGroup newEventLoopGroup(int threads) {
+		if (__type == TransportType.EPOLL) {
+			return new EpollEventLoopGroup(threads);
+		}
+		return new NioEventLoopGroup(threads);
+	}
+
+	/**
+	 * @return the server channel's class for TCP and WebSocket
+	 */
+	public Class<? extends ServerChannel> getServerChannel() {
+		if (__type == TransportType.EPOLL) {
+			return EpollServerSocketChannel.class;
+		}
+		return NioServerSocketChannel.class;
+	}
+
+	/**
+	 * @return the client channel's class for TCP
+	 */
+	public Class<? extends SocketChannel> getSocketChannel() {
+		if (__type == TransportType.EPOLL) {
+			return EpollSocketChannel.class;
+		}
+		return NioSocketChannel.class;
+	}
+
+	/**
+	 * @return the channel's class for UDP
+	 */
+	public Class<? extends DatagramChannel> getDatagramChannel() {
+		if (__type == TransportType.EPOLL) {
+			return EpollDatagramChannel.class;
+		}
+		return NioDatagramChannel.class;
+	}
+
+	/**
+	 * Apply the native only options to a server bootstrap: <b>SO_REUSEPORT</b> and
+	 * <b>TCP_FASTOPEN</b>. Nothing is changed in the NIO transport.
+	 * 
+	 * @param bootstrap the server bootstrap, see {@link ServerBootstrap}
+	 */
+	public void applyServerOptions(ServerBootstrap bootstrap) {
+		if (__type == TransportType.EPOLL) {
+			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true).option(EpollChannelOption.TCP_FASTOPEN,
+					Constants.TCP_FASTOPEN_QUEUE);
+		}
+	}
+
+	/**
+	 * Apply the native only options to a datagram bootstrap: <b>SO_REUSEPORT</b>.
+	 * Nothing is changed in the NIO transport.
+	 * 
+	 * @param bootstrap the bootstrap, see {@link Bootstrap}
+	 */
+	public void applyDatagramOptions(Bootstrap bootstrap) {
+		if (__type == TransportType.EPOLL) {
+			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.datagram;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import com.tenio.message.codec.IPacketDecoder;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultAddressedEnvelope;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+/**
+ * Converts each datagram packet to a message by the port's
+ * {@link IPacketDecoder}, by default a {@link com.tenio.entity.element.TObject}
+ * without copying its content. The result is wrapped in an envelope together
+ * with the sender's address, the packet is released by the decoder right after
+ * it was read. A malformed packet is dropped.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettyDatagramDecoder extends MessageToMessageDecoder<DatagramPacket> {
+
+	private final IPacketDecoder __decoder;
+
+	public NettyDatagramDecoder(IPacketDecoder decoder) {
+		__decoder = decoder;
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, DatagramPacket datagram, List<Object> out) throws Exception {
+		try {
+			var message = __decoder.decode(datagram.content());
+			if (message != null) {
+				out.add(new DefaultAddressedEnvelope<Object, InetSocketAddress>(message, datagram.recipient(),
+						datagram.sender()));
+			}
+		} catch (RuntimeException e) {
+			// drop the malformed packet
+		}
+	}
+
+}
@@ -23,14 +23,15 @@ THE SOFTWARE.
 */
 package com.tenio.network.netty.datagram;
 
+import java.net.InetSocketAddress;
+
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.event.IEventManager;
-import com.tenio.message.codec.MsgPackConverter;
 import com.tenio.network.netty.BaseNettyHandler;
 
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.AddressedEnvelope;
 
 /**
  * In this server, a UDP connection is treated as a sub-connection. That means
@@ -46,32 +47,18 @@ import io.netty.channel.socket.DatagramPacket;
 public final class NettyDatagramHandler extends BaseNettyHandler {
 
 	public NettyDatagramHandler(int index, IEventManager eventManager, BaseConfiguration configuration) {
-		super(eventManager, index, ConnectionType.DATAGRAM);
+		super(eventManager, index, ConnectionType.DATAGRAM, configuration.getSocketPorts().get(index));
 	}
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-		// get the message's content
-		byte[] content;
-		DatagramPacket datagram;
-		if (msg instanceof DatagramPacket) {
-			// get the packet and sender data, convert it to a bytes' array
-			datagram = (DatagramPacket) msg;
-			var buffer = datagram.content();
-			int readableBytes = buffer.readableBytes();
-			content = new byte[readableBytes];
-			buffer.readBytes(content);
-		} else {
-			return;
-		}
-
-		// create a new message
-		var message = MsgPackConverter.unserialize(content);
-		if (message == null) {
-			return;
+		// the packet was already decoded, see NettyDatagramDecoder
+		if (msg instanceof AddressedEnvelope) {
+			@SuppressWarnings("unchecked")
+			var envelope = (AddressedEnvelope<Object, InetSocketAddress>) msg;
+			// the envelope's content is released after it was handled
+			_channelRead(ctx, envelope.content(), envelope.sender());
 		}
-
-		_channelRead(ctx, message, datagram.sender());
 	}
 
 }
@@ -23,14 +23,19 @@ THE SOFTWARE.
 */
 package com.tenio.network.netty.datagram;
 
+import java.util.concurrent.TimeUnit;
+
 import com.tenio.configuration.BaseConfiguration;
+import com.tenio.configuration.constant.Constants;
 import com.tenio.event.IEventManager;
+import com.tenio.message.codec.IPacketDecoder;
+import com.tenio.message.codec.PacketDecoders;
 import com.tenio.network.netty.GlobalTrafficShapingHandlerCustomize;
+import com.tenio.network.netty.NettyConnection;
 
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.DatagramChannel;
-import io.netty.handler.codec.bytes.ByteArrayDecoder;
-import io.netty.handler.codec.bytes.ByteArrayEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 /**
  * This class for initializing a channel.
@@ -44,6 +49,10 @@ public final class NettyDatagramInitializer extends ChannelInitializer<DatagramC
 	private final GlobalTrafficShapingHandlerCustomize __trafficCounter;
 	private final BaseConfiguration __configuration;
 	private final int __index;
+	/**
+	 * The packet decoder of this port, it is shared by all the channels
+	 */
+	private final IPacketDecoder __decoder;
 
 	public NettyDatagramInitializer(int index, IEventManager eventManager,
 			GlobalTrafficShapingHandlerCustomize trafficCounter, BaseConfiguration configuration) {
@@ -51,20 +60,38 @@ public final class NettyDatagramInitializer extends ChannelInitializer<DatagramC
 		__eventManager = eventManager;
 		__trafficCounter = trafficCounter;
 		__configuration = configuration;
+		__decoder = PacketDecoders.newInstance(configuration.getSocketPorts().get(index));
 	}
 
 	@Override
 	protected void initChannel(DatagramChannel channel) throws Exception {
+		// all sessions of this channel, the free sessions are scanned periodically
+		var sessions = new NettyDatagramSessionRegistry(Constants.DATAGRAM_MAX_SESSIONS,
+				TimeUnit.SECONDS.toMillis(Constants.DATAGRAM_SESSION_IDLE_TIMEOUT));
+		channel.attr(NettyConnection.KEY_DATAGRAM_SESSIONS).set(sessions);
+		var scanner = channel.eventLoop().scheduleAtFixedRate(sessions::removeIdleSessions,
+				Constants.DATAGRAM_SESSION_SCAN, Constants.DATAGRAM_SESSION_SCAN, TimeUnit.SECONDS);
+		channel.closeFuture().addListener(future -> scanner.cancel(false));
+
 		var pipeline = channel.pipeline();
+		var sock = __configuration.getSocketPorts().get(__index);
 
-		// converts each data chunk into a byte array (read-up)
-		pipeline.addLast("bytearray-decoder", new ByteArrayDecoder());
-		// converts bytes' array to data chunk (write-down)
-		pipeline.addLast("bytearray-encoder", new ByteArrayEncoder());
+		// the reliable layer (optional)
+		if (sock.isReliable()) {
+			pipeline.addLast("reliable", new NettyReliableHandler());
+		}
+
+		// converts each packet into a game message (read-up)
+		pipeline.addLast("packet-decoder", new NettyDatagramDecoder(__decoder));
 
 		// traffic counter
 		pipeline.addLast("traffic-counter", __trafficCounter);
 
+		// all the flushes made in one read loop or in one event loop iteration are
+		// merged into one (write-down)
+		pipeline.addLast("flush-consolidation",
+				new FlushConsolidationHandler(Constants.FLUSH_CONSOLIDATION_LIMIT, true));
+
 		// the logic handler
 		pipeline.addLast("handler", new NettyDatagramHandler(__index, __eventManager, __configuration));
 	}
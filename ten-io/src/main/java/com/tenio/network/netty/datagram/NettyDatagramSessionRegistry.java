@@ -0,0 +1,161 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.datagram;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.tenio.network.Connection;
+
+/**
+ * In a Datagram channel, there is only one channel for all clients. This class
+ * keeps the connection of each remote address (session) in a concurrent map,
+ * so the lookup for every incoming packet is lock-free and does not need to
+ * build any key. To keep the memory footprint bounded:<br>
+ * 1. The number of sessions is limited, packets from new addresses are
+ * dropped when the limit is reached.<br>
+ * 2. The sessions which are not attached to any player (a free connection)
+ * are removed after an idle period. An attached session lives until its player
+ * closes the connection.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettyDatagramSessionRegistry {
+
+	private final ConcurrentHashMap<InetSocketAddress, Session> __sessions;
+	private final int __maxSessions;
+	private final long __idleTimeout;
+
+	/**
+	 * @param maxSessions the maximum number of sessions
+	 * @param idleTimeout the idle time in milliseconds before a free session is
+	 *                    removed
+	 */
+	public NettyDatagramSessionRegistry(int maxSessions, long idleTimeout) {
+		__sessions = new ConcurrentHashMap<InetSocketAddress, Session>();
+		__maxSessions = maxSessions;
+		__idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Retrieve a connection by its remote address, it also marks the session as
+	 * active.
+	 * 
+	 * @param remote the remote address
+	 * @return the connection or <b>null</b> if it does not exist
+	 */
+	public Connection get(InetSocketAddress remote) {
+		var session = __sessions.get(remote);
+		if (session == null) {
+			return null;
+		}
+		session.__lastActive = System.currentTimeMillis();
+		return session.__connection;
+	}
+
+	/**
+	 * Add a new session
+	 * 
+	 * @param remote     the remote address
+	 * @param connection the connection, see {@link Connection}
+	 * @return <b>true</b> if the session was added, <b>false</b> if the limit was
+	 *         reached
+	 */
+	public boolean add(InetSocketAddress remote, Connection connection) {
+		if (isFull() && !__sessions.containsKey(remote)) {
+			return false;
+		}
+		__sessions.put(remote, new Session(connection, System.currentTimeMillis()));
+		return true;
+	}
+
+	/**
+	 * Remove a session if it still belongs to the connection
+	 * 
+	 * @param remote     the remote address
+	 * @param connection the connection, see {@link Connection}
+	 */
+	public void remove(InetSocketAddress remote, Connection connection) {
+		var session = __sessions.get(remote);
+		if (session != null && session.__connection == connection) {
+			__sessions.remove(remote, session);
+		}
+	}
+
+	/**
+	 * @return <b>true</b> if no more sessions can be added
+	 */
+	public boolean isFull() {
+		return __sessions.size() >= __maxSessions;
+	}
+
+	/**
+	 * @return the current number of sessions
+	 */
+	public int count() {
+		return __sessions.size();
+	}
+
+	/**
+	 * Remove all idle free sessions
+	 * 
+	 * @return the number of removed sessions
+	 */
+	public int removeIdleSessions() {
+		return removeIdleSessions(System.currentTimeMillis());
+	}
+
+	/**
+	 * Remove all free sessions which were idle before a moment
+	 * 
+	 * @param now the current time in milliseconds
+	 * @return the number of removed sessions
+	 */
+	public int removeIdleSessions(long now) {
+		int removed = 0;
+		var iterator = __sessions.values().iterator();
+		while (iterator.hasNext()) {
+			var session = iterator.next();
+			if (session.__connection.getUsername() == null && now - session.__lastActive >= __idleTimeout) {
+				iterator.remove();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	private static final class Session {
+
+		private final Connection __connection;
+		private volatile long __lastActive;
+
+		private Session(Connection connection, long lastActive) {
+			__connection = connection;
+			__lastActive = lastActive;
+		}
+
+	}
+
+}
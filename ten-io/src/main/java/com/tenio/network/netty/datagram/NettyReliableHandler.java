@@ -0,0 +1,239 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.datagram;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.DeliveryMode;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.DatagramPacket;
+
+/**
+ * The reliable layer on a Datagram channel, see {@link ReliableEndpoint}. It
+ * keeps one endpoint for each remote address, strips the headers from the
+ * incoming packets and adds them to the outgoing ones. A packet written as a
+ * {@link ReliableDatagramPacket} is sent in its delivery mode, a
+ * {@link DatagramPacket} is sent in the {@link DeliveryMode#UNRELIABLE}
+ * mode.<br>
+ * All the states are only accessed in the channel's event loop, so no lock is
+ * needed. The endpoints which have been idle for
+ * {@link Constants#RELIABLE_IDLE_TIMEOUT} seconds, or which have stopped
+ * acknowledging the reliable fragments (see {@link ReliableEndpoint#isLost()}),
+ * are removed. The next endpoint of the same address gets a new epoch, so the
+ * client resynchronizes its state on the first acknowledgement it receives,
+ * see {@link ReliableEndpoint}.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettyReliableHandler extends ChannelDuplexHandler {
+
+	private final Map<InetSocketAddress, ReliableEndpoint> __endpoints = new HashMap<InetSocketAddress, ReliableEndpoint>();
+	/**
+	 * The endpoints which have fragments in flight or acknowledgements to send
+	 */
+	private final Set<InetSocketAddress> __actives = new HashSet<InetSocketAddress>();
+	/**
+	 * The epoch of the last created endpoint, the consecutive endpoints of an
+	 * address always get different epochs
+	 */
+	private int __epoch = ThreadLocalRandom.current().nextInt(0xFF);
+	private ScheduledFuture<?> __ticker;
+	private ScheduledFuture<?> __scanner;
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		__ticker = ctx.executor().scheduleAtFixedRate(() -> __tick(ctx), Constants.RELIABLE_TICK,
+				Constants.RELIABLE_TICK, TimeUnit.MILLISECONDS);
+		__scanner = ctx.executor().scheduleAtFixedRate(() -> __removeIdleEndpoints(__now()),
+				Constants.DATAGRAM_SESSION_SCAN, Constants.DATAGRAM_SESSION_SCAN, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		__ticker.cancel(false);
+		__scanner.cancel(false);
+		for (var endpoint : __endpoints.values()) {
+			endpoint.release();
+		}
+		__endpoints.clear();
+		__actives.clear();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (!(msg instanceof DatagramPacket)) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+
+		var datagram = (DatagramPacket) msg;
+		var payloads = new ArrayList<ByteBuf>();
+		try {
+			var endpoint = __getEndpoint(datagram.sender());
+			if (endpoint == null) {
+				return;
+			}
+			endpoint.receive(datagram.content(), __now(), payloads);
+			__actives.add(datagram.sender());
+		} finally {
+			datagram.release();
+		}
+		for (var payload : payloads) {
+			ctx.fireChannelRead(new DatagramPacket(payload, datagram.recipient(), datagram.sender()));
+		}
+	}
+
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+		// send the acknowledgements for this batch of reads
+		__tick(ctx);
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		ByteBufHolder datagram;
+		InetSocketAddress recipient;
+		DeliveryMode mode;
+		if (msg instanceof ReliableDatagramPacket) {
+			var packet = (ReliableDatagramPacket) msg;
+			datagram = packet;
+			recipient = packet.recipient();
+			mode = packet.getMode();
+		} else if (msg instanceof DatagramPacket) {
+			var packet = (DatagramPacket) msg;
+			datagram = packet;
+			recipient = packet.recipient();
+			mode = DeliveryMode.UNRELIABLE;
+		} else {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		var packets = new ArrayList<ByteBuf>();
+		try {
+			var endpoint = __getEndpoint(recipient);
+			if (endpoint == null || !endpoint.send(datagram.content(), mode, __now(), ctx.alloc(), packets)) {
+				promise.setFailure(new IllegalStateException("Unable to send to " + recipient));
+				return;
+			}
+			if (endpoint.hasWork()) {
+				__actives.add(recipient);
+			}
+		} finally {
+			datagram.release();
+		}
+		__write(ctx, recipient, packets);
+		promise.setSuccess();
+	}
+
+	/**
+	 * @param remote the remote address
+	 * @return the endpoint, or <b>null</b> if no more endpoints can be created
+	 */
+	private ReliableEndpoint __getEndpoint(InetSocketAddress remote) {
+		var endpoint = __endpoints.get(remote);
+		if (endpoint == null) {
+			if (__endpoints.size() >= Constants.DATAGRAM_MAX_SESSIONS) {
+				return null;
+			}
+			__epoch = __epoch % 0xFF + 1;
+			endpoint = new ReliableEndpoint(__now(), __epoch);
+			__endpoints.put(remote, endpoint);
+		}
+		return endpoint;
+	}
+
+	/**
+	 * Send the pending packets of all active endpoints
+	 * 
+	 * @param ctx the channel, see {@link ChannelHandlerContext}
+	 */
+	private void __tick(ChannelHandlerContext ctx) {
+		if (__actives.isEmpty()) {
+			return;
+		}
+		long now = __now();
+		var packets = new ArrayList<ByteBuf>();
+		// a write in the pipeline may add new active endpoints
+		for (var remote : new ArrayList<InetSocketAddress>(__actives)) {
+			var endpoint = __endpoints.get(remote);
+			if (endpoint == null) {
+				__actives.remove(remote);
+				continue;
+			}
+			endpoint.flush(now, ctx.alloc(), packets);
+			__write(ctx, remote, packets);
+			if (endpoint.isLost()) {
+				endpoint.release();
+				__endpoints.remove(remote);
+				__actives.remove(remote);
+			} else if (!endpoint.hasWork()) {
+				__actives.remove(remote);
+			}
+		}
+		ctx.flush();
+	}
+
+	private void __write(ChannelHandlerContext ctx, InetSocketAddress remote, List<ByteBuf> packets) {
+		for (var packet : packets) {
+			ctx.write(new DatagramPacket(packet, remote), ctx.voidPromise());
+		}
+		packets.clear();
+	}
+
+	private void __removeIdleEndpoints(long now) {
+		long timeout = TimeUnit.SECONDS.toMillis(Constants.RELIABLE_IDLE_TIMEOUT);
+		var iterator = __endpoints.entrySet().iterator();
+		while (iterator.hasNext()) {
+			var entry = iterator.next();
+			if (now - entry.getValue().getLastActive() >= timeout) {
+				entry.getValue().release();
+				__actives.remove(entry.getKey());
+				iterator.remove();
+			}
+		}
+	}
+
+	private long __now() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.datagram;
+
+import java.net.InetSocketAddress;
+
+import com.tenio.configuration.constant.DeliveryMode;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.DefaultAddressedEnvelope;
+
+/**
+ * An outbound datagram packet with its delivery mode, see
+ * {@link DeliveryMode}. On a port without the reliable layer, it is sent as a
+ * normal datagram packet.
+ * 
+ * @author kong
+ * 
+ */
+public final class ReliableDatagramPacket extends DefaultAddressedEnvelope<ByteBuf, InetSocketAddress>
+		implements ByteBufHolder {
+
+	private final DeliveryMode __mode;
+
+	public ReliableDatagramPacket(ByteBuf data, InetSocketAddress recipient, DeliveryMode mode) {
+		super(data, recipient);
+		__mode = mode;
+	}
+
+	/**
+	 * @return the delivery mode, see {@link DeliveryMode}
+	 */
+	public DeliveryMode getMode() {
+		return __mode;
+	}
+
+	@Override
+	public ReliableDatagramPacket copy() {
+		return replace(content().copy());
+	}
+
+	@Override
+	public ReliableDatagramPacket duplicate() {
+		return replace(content().duplicate());
+	}
+
+	@Override
+	public ReliableDatagramPacket retainedDuplicate() {
+		return replace(content().retainedDuplicate());
+	}
+
+	@Override
+	public ReliableDatagramPacket replace(ByteBuf content) {
+		return new ReliableDatagramPacket(content, recipient(), __mode);
+	}
+
+	@Override
+	public ReliableDatagramPacket retain() {
+		super.retain();
+		return this;
+	}
+
+	@Override
+	public ReliableDatagramPacket retain(int increment) {
+		super.retain(increment);
+		return this;
+	}
+
+	@Override
+	public ReliableDatagramPacket touch() {
+		super.touch();
+		return this;
+	}
+
+	@Override
+	public ReliableDatagramPacket touch(Object hint) {
+		super.touch(hint);
+		return this;
+	}
+
+}
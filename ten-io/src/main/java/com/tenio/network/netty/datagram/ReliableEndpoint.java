@@ -0,0 +1,656 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.datagram;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.DeliveryMode;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+
+/**
+ * The reliable layer's state between the server and one remote address. It
+ * does not depend on any channel, all the packets' contents are given to or
+ * returned from it, so it can be used on both sides of a Datagram connection.
+ * <br>
+ * Each packet starts with a header:
+ * 
+ * <pre>
+ * DATA: [type|mode:1][epoch:1][peer epoch:1][sequence:2][ack:2][ack bits:4][fragment index:1][fragments:1] + payload
+ * ACK:  [type|mode:1][epoch:1][peer epoch:1][ack:2][ack bits:4]
+ * </pre>
+ * 
+ * The <b>epoch</b> identifies the sender's state, it is chosen when the
+ * endpoint is created. The <b>peer epoch</b> is the last epoch received from
+ * the other side (<b>0</b> if none was received yet). When an endpoint sees a
+ * new epoch of its peer, the peer has restarted (e.g. its state was removed
+ * after an idle period or a loss): the received state is reset and the
+ * unacknowledged reliable fragments are sent again from the sequence <b>0</b>.
+ * The packets which still carry an older epoch of this side are dropped, the
+ * next acknowledgement tells the peer the new epoch, so both sides resynchronize
+ * without any handshake.<br>
+ * 
+ * Each delivery mode has its own sequence. The <b>ack</b> is the next expected
+ * sequence of the reliable mode (every sequence before it was received), the
+ * bit <b>i</b> of the <b>ack bits</b> means the sequence <b>ack + 1 + i</b> was
+ * received. A message which is larger than the
+ * {@link Constants#RELIABLE_MTU} is split into fragments with consecutive
+ * sequences. Unacknowledged reliable fragments are retransmitted after a
+ * timeout that is computed from the round-trip time, a fragment which is
+ * still unacknowledged after {@link Constants#RELIABLE_MAX_RETRIES}
+ * retransmissions marks the endpoint as lost.
+ * 
+ * @author kong
+ * 
+ */
+public final class ReliableEndpoint {
+
+	public static final int HEADER_BYTES = 13;
+	public static final int ACK_BYTES = 9;
+
+	private static final int TYPE_DATA = 0;
+	private static final int TYPE_ACK = 1;
+	private static final int ACK_BITS = 32;
+	private static final int WINDOW = Constants.RELIABLE_WINDOW;
+	private static final int MASK = WINDOW - 1;
+	private static final int MAX_FRAGMENTS = 0xFF;
+	private static final int MAX_EPOCH = 0xFF;
+	private static final int MAX_FRAGMENT_BYTES = Constants.RELIABLE_MTU - HEADER_BYTES;
+
+	private static final int UNRELIABLE = DeliveryMode.UNRELIABLE.ordinal();
+	private static final int SEQUENCED = DeliveryMode.UNRELIABLE_SEQUENCED.ordinal();
+	private static final int RELIABLE = DeliveryMode.RELIABLE_ORDERED.ordinal();
+
+	/**
+	 * The epoch of this side and the last known one of the peer (<b>0</b> if it is
+	 * unknown)
+	 */
+	private final int __epoch;
+	private int __peerEpoch;
+	/**
+	 * The peer's epoch before its last restart, its delayed packets are dropped
+	 */
+	private int __previousPeerEpoch;
+
+	/**
+	 * The next sequence of each delivery mode
+	 */
+	private final int[] __sequences = new int[DeliveryMode.values().length];
+
+	/**
+	 * The reliable fragments in flight, indexed by their sequences
+	 */
+	private final Fragment[] __inFlight = new Fragment[WINDOW];
+	/**
+	 * The reliable fragments waiting for a room in the window
+	 */
+	private final ArrayDeque<Fragment> __backlog = new ArrayDeque<Fragment>();
+	/**
+	 * The oldest unacknowledged reliable sequence
+	 */
+	private int __sendBase;
+
+	/**
+	 * The reliable fragments received out of order, indexed by their sequences
+	 */
+	private final Fragment[] __received = new Fragment[WINDOW];
+	/**
+	 * The next expected reliable sequence
+	 */
+	private int __expected;
+	private CompositeByteBuf __ordered;
+	private boolean __ackPending;
+
+	/**
+	 * The assembling messages of the unreliable modes
+	 */
+	private final Fragment[][] __assemblies = new Fragment[2][];
+	private final int[] __assemblyStarts = new int[2];
+	private int __lastSequenced = -1;
+
+	private long __srtt = -1;
+	private long __rttvar;
+	private long __rto = Constants.RELIABLE_INITIAL_RTO;
+	private long __lastActive;
+	private boolean __lost;
+
+	/**
+	 * Create an endpoint with a random epoch
+	 * 
+	 * @param now the current time in milliseconds
+	 */
+	public ReliableEndpoint(long now) {
+		this(now, ThreadLocalRandom.current().nextInt(MAX_EPOCH) + 1);
+	}
+
+	/**
+	 * @param now   the current time in milliseconds
+	 * @param epoch the epoch of this endpoint (from <b>1</b> to <b>255</b>), it
+	 *              should differ from the one of the previous endpoint for the
+	 *              same remote address
+	 * @throws IllegalArgumentException when the epoch is out of range
+	 */
+	public ReliableEndpoint(long now, int epoch) {
+		if (epoch < 1 || epoch > MAX_EPOCH) {
+			throw new IllegalArgumentException("The epoch is out of range: " + epoch);
+		}
+		__epoch = epoch;
+		__lastActive = now;
+	}
+
+	/**
+	 * Prepare a message for sending
+	 * 
+	 * @param payload the message's content, it is not released here
+	 * @param mode    the delivery mode, see {@link DeliveryMode}
+	 * @param now     the current time in milliseconds
+	 * @param alloc   the allocator for the packets, see {@link ByteBufAllocator}
+	 * @param out     the packets' contents which can be sent now
+	 * @return <b>false</b> if the message is too large, or it does not fit in the
+	 *         reliable backlog (see {@link Constants#RELIABLE_MAX_BACKLOG})
+	 */
+	public boolean send(ByteBuf payload, DeliveryMode mode, long now, ByteBufAllocator alloc, List<ByteBuf> out) {
+		int length = payload.readableBytes();
+		int fragments = Math.max(1, (length + MAX_FRAGMENT_BYTES - 1) / MAX_FRAGMENT_BYTES);
+		if (fragments > MAX_FRAGMENTS) {
+			return false;
+		}
+		if (mode == DeliveryMode.RELIABLE_ORDERED
+				&& __backlog.size() + fragments > Constants.RELIABLE_MAX_BACKLOG) {
+			return false;
+		}
+
+		int index = payload.readerIndex();
+		int lane = mode.ordinal();
+		for (int i = 0; i < fragments; i++) {
+			int size = Math.min(MAX_FRAGMENT_BYTES, length - i * MAX_FRAGMENT_BYTES);
+			var data = payload.retainedSlice(index + i * MAX_FRAGMENT_BYTES, size);
+			if (lane == RELIABLE) {
+				__backlog.add(new Fragment(data, i, fragments));
+			} else {
+				int sequence = __sequences[lane];
+				__sequences[lane] = (sequence + 1) & 0xFFFF;
+				out.add(__encode(alloc, lane, sequence, i, fragments, data));
+				data.release();
+			}
+		}
+		if (lane == RELIABLE) {
+			__admit(now, alloc, out);
+		}
+		return true;
+	}
+
+	/**
+	 * Handle a received packet
+	 * 
+	 * @param packet    the packet's content, it is not released here
+	 * @param now       the current time in milliseconds
+	 * @param delivered the messages' contents which are ready for the application
+	 */
+	public void receive(ByteBuf packet, long now, List<ByteBuf> delivered) {
+		if (!packet.isReadable()) {
+			return;
+		}
+		int head = packet.getUnsignedByte(packet.readerIndex());
+		int type = head >> 4;
+		int lane = head & 0x0F;
+
+		if (type == TYPE_ACK) {
+			if (packet.readableBytes() < ACK_BYTES) {
+				return;
+			}
+			packet.skipBytes(1);
+			if (__synchronize(packet.readUnsignedByte(), packet.readUnsignedByte(), now)) {
+				__onAck(packet.readUnsignedShort(), packet.readInt(), now);
+			}
+			return;
+		}
+		if (type != TYPE_DATA || lane > RELIABLE || packet.readableBytes() < HEADER_BYTES) {
+			return;
+		}
+
+		packet.skipBytes(1);
+		if (!__synchronize(packet.readUnsignedByte(), packet.readUnsignedByte(), now)) {
+			return;
+		}
+		int sequence = packet.readUnsignedShort();
+		int ack = packet.readUnsignedShort();
+		int ackBits = packet.readInt();
+		int index = packet.readUnsignedByte();
+		int fragments = packet.readUnsignedByte();
+		if (fragments == 0 || index >= fragments) {
+			return;
+		}
+		__onAck(ack, ackBits, now);
+
+		var fragment = new Fragment(packet.readRetainedSlice(packet.readableBytes()), index, fragments);
+		fragment.__sequence = sequence;
+		if (lane == RELIABLE) {
+			__receiveReliable(fragment, delivered);
+		} else {
+			__receiveUnreliable(lane, fragment, delivered);
+		}
+	}
+
+	/**
+	 * Collect the packets which need to be sent now: the fragments that can enter
+	 * the window, the expired fragments and a pending acknowledgement
+	 * 
+	 * @param now   the current time in milliseconds
+	 * @param alloc the allocator for the packets, see {@link ByteBufAllocator}
+	 * @param out   the packets' contents
+	 */
+	public void flush(long now, ByteBufAllocator alloc, List<ByteBuf> out) {
+		__admit(now, alloc, out);
+
+		int inFlight = __countInFlight();
+		for (int i = 0; i < inFlight; i++) {
+			var fragment = __inFlight[(__sendBase + i) & MASK];
+			// the timeout follows the latest estimation, backed off by the retries
+			if (fragment != null && now - fragment.__sentAt >= Math.min(__rto << Math.min(fragment.__retries, 10),
+					Constants.RELIABLE_MAX_RTO)) {
+				if (fragment.__retries >= Constants.RELIABLE_MAX_RETRIES) {
+					// the remote side has stopped acknowledging
+					__lost = true;
+					continue;
+				}
+				fragment.__retries++;
+				__transmit(fragment, now, alloc, out);
+			}
+		}
+
+		if (__ackPending) {
+			var buffer = alloc.ioBuffer(ACK_BYTES);
+			buffer.writeByte(TYPE_ACK << 4 | RELIABLE);
+			buffer.writeByte(__epoch);
+			buffer.writeByte(__peerEpoch);
+			buffer.writeShort(__expected);
+			buffer.writeInt(__getAckBits());
+			__ackPending = false;
+			out.add(buffer);
+		}
+	}
+
+	/**
+	 * @return <b>true</b> if there are fragments in flight or waiting, or an
+	 *         acknowledgement to send
+	 */
+	public boolean hasWork() {
+		return __ackPending || !__backlog.isEmpty() || __countInFlight() > 0;
+	}
+
+	/**
+	 * @return <b>true</b> if a reliable fragment has been retransmitted
+	 *         {@link Constants#RELIABLE_MAX_RETRIES} times without an
+	 *         acknowledgement, the endpoint should be released
+	 */
+	public boolean isLost() {
+		return __lost;
+	}
+
+	/**
+	 * @return the last time in milliseconds a valid packet was received
+	 */
+	public long getLastActive() {
+		return __lastActive;
+	}
+
+	/**
+	 * @return the epoch of this endpoint
+	 */
+	public int getEpoch() {
+		return __epoch;
+	}
+
+	/**
+	 * @return the smoothed round-trip time in milliseconds, <b>-1</b> if it has
+	 *         not been measured
+	 */
+	public long getRoundTripTime() {
+		return __srtt;
+	}
+
+	/**
+	 * @return the current retransmission timeout in milliseconds
+	 */
+	public long getRetransmissionTimeout() {
+		return __rto;
+	}
+
+	/**
+	 * Release all the held buffers
+	 */
+	public void release() {
+		for (int i = 0; i < WINDOW; i++) {
+			__release(__inFlight, i);
+			__release(__received, i);
+		}
+		for (var fragment : __backlog) {
+			fragment.__data.release();
+		}
+		__backlog.clear();
+		for (int i = 0; i < __assemblies.length; i++) {
+			__clearAssembly(i);
+		}
+		if (__ordered != null) {
+			__ordered.release();
+			__ordered = null;
+		}
+	}
+
+	/**
+	 * Check the epochs of a received packet, see {@link ReliableEndpoint}
+	 * 
+	 * @param epoch     the sender's epoch
+	 * @param peerEpoch the sender's view of this side's epoch
+	 * @param now       the current time in milliseconds
+	 * @return <b>true</b> if the packet belongs to the current states of both sides
+	 */
+	private boolean __synchronize(int epoch, int peerEpoch, long now) {
+		if (epoch == 0 || epoch == __previousPeerEpoch) {
+			return false;
+		}
+		__lastActive = now;
+		if (epoch != __peerEpoch) {
+			if (__peerEpoch != 0) {
+				// the peer has restarted
+				__reset();
+				__previousPeerEpoch = __peerEpoch;
+			}
+			__peerEpoch = epoch;
+		}
+		if (peerEpoch != 0 && peerEpoch != __epoch) {
+			// it was sent to a previous state of this side, the next acknowledgement
+			// makes the peer restart
+			__ackPending = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reset the states for a restarted peer. The received fragments are dropped,
+	 * the unacknowledged reliable ones are sent again in front of the backlog.
+	 */
+	private void __reset() {
+		for (int i = __countInFlight() - 1; i >= 0; i--) {
+			int slot = (__sendBase + i) & MASK;
+			var fragment = __inFlight[slot];
+			if (fragment != null) {
+				fragment.__retries = 0;
+				__backlog.addFirst(fragment);
+				__inFlight[slot] = null;
+			}
+		}
+		Arrays.fill(__sequences, 0);
+		__sendBase = 0;
+		__lost = false;
+
+		for (int i = 0; i < WINDOW; i++) {
+			__release(__received, i);
+		}
+		__expected = 0;
+		if (__ordered != null) {
+			__ordered.release();
+			__ordered = null;
+		}
+		for (int i = 0; i < __assemblies.length; i++) {
+			__clearAssembly(i);
+		}
+		__lastSequenced = -1;
+	}
+
+	private void __admit(long now, ByteBufAllocator alloc, List<ByteBuf> out) {
+		while (!__backlog.isEmpty() && __countInFlight() < WINDOW) {
+			var fragment = __backlog.poll();
+			fragment.__sequence = __sequences[RELIABLE];
+			__sequences[RELIABLE] = (fragment.__sequence + 1) & 0xFFFF;
+			__inFlight[fragment.__sequence & MASK] = fragment;
+			__transmit(fragment, now, alloc, out);
+		}
+	}
+
+	private void __transmit(Fragment fragment, long now, ByteBufAllocator alloc, List<ByteBuf> out) {
+		fragment.__sentAt = now;
+		out.add(__encode(alloc, RELIABLE, fragment.__sequence, fragment.__index, fragment.__fragments,
+				fragment.__data));
+	}
+
+	private ByteBuf __encode(ByteBufAllocator alloc, int lane, int sequence, int index, int fragments, ByteBuf data) {
+		var buffer = alloc.ioBuffer(HEADER_BYTES + data.readableBytes());
+		buffer.writeByte(TYPE_DATA << 4 | lane);
+		buffer.writeByte(__epoch);
+		buffer.writeByte(__peerEpoch);
+		buffer.writeShort(sequence);
+		buffer.writeShort(__expected);
+		buffer.writeInt(__getAckBits());
+		buffer.writeByte(index);
+		buffer.writeByte(fragments);
+		buffer.writeBytes(data, data.readerIndex(), data.readableBytes());
+		// the acknowledgement is piggybacked
+		__ackPending = false;
+		return buffer;
+	}
+
+	private int __countInFlight() {
+		return (__sequences[RELIABLE] - __sendBase) & 0xFFFF;
+	}
+
+	private int __getAckBits() {
+		int bits = 0;
+		for (int i = 0; i < ACK_BITS; i++) {
+			int sequence = (__expected + 1 + i) & 0xFFFF;
+			var fragment = __received[sequence & MASK];
+			if (fragment != null && fragment.__sequence == sequence) {
+				bits |= 1 << i;
+			}
+		}
+		return bits;
+	}
+
+	private void __onAck(int ack, int ackBits, long now) {
+		int inFlight = __countInFlight();
+		int acked = (ack - __sendBase) & 0xFFFF;
+		if (acked > inFlight) {
+			// a stale or invalid acknowledgement
+			return;
+		}
+		for (int i = 0; i < acked; i++) {
+			__acknowledge((__sendBase + i) & MASK, now);
+		}
+		__sendBase = ack;
+		for (int i = 0; i < ACK_BITS; i++) {
+			if ((ackBits & (1 << i)) != 0) {
+				int offset = 1 + i;
+				if (offset >= inFlight - acked) {
+					break;
+				}
+				__acknowledge((ack + offset) & MASK, now);
+			}
+		}
+	}
+
+	private void __acknowledge(int slot, long now) {
+		var fragment = __inFlight[slot];
+		if (fragment == null) {
+			return;
+		}
+		if (fragment.__retries == 0) {
+			__updateRoundTripTime(now - fragment.__sentAt);
+		}
+		fragment.__data.release();
+		__inFlight[slot] = null;
+	}
+
+	private void __updateRoundTripTime(long sample) {
+		if (__srtt < 0) {
+			__srtt = sample;
+			__rttvar = sample / 2;
+		} else {
+			__rttvar = (3 * __rttvar + Math.abs(__srtt - sample)) / 4;
+			__srtt = (7 * __srtt + sample) / 8;
+		}
+		__rto = Math.max(Constants.RELIABLE_MIN_RTO,
+				Math.min(Constants.RELIABLE_MAX_RTO, __srtt + Math.max(Constants.RELIABLE_TICK, 4 * __rttvar)));
+	}
+
+	private void __receiveReliable(Fragment fragment, List<ByteBuf> delivered) {
+		__ackPending = true;
+		int distance = (fragment.__sequence - __expected) & 0xFFFF;
+		int slot = fragment.__sequence & MASK;
+		if (distance >= WINDOW || __received[slot] != null) {
+			// an old duplicate or too far ahead, it will be retransmitted
+			fragment.__data.release();
+			return;
+		}
+		__received[slot] = fragment;
+
+		while (__received[__expected & MASK] != null) {
+			var next = __received[__expected & MASK];
+			__received[__expected & MASK] = null;
+			__expected = (__expected + 1) & 0xFFFF;
+
+			if (next.__index == 0 && __ordered != null) {
+				// the previous message was broken
+				__ordered.release();
+				__ordered = null;
+			} else if (next.__index != 0 && __ordered == null) {
+				// the beginning of the message was lost by a reset of the peer
+				next.__data.release();
+				continue;
+			}
+			if (next.__fragments == 1) {
+				delivered.add(next.__data);
+				continue;
+			}
+			if (__ordered == null) {
+				__ordered = next.__data.alloc().compositeBuffer(next.__fragments);
+			}
+			__ordered.addComponent(true, next.__data);
+			if (next.__index == next.__fragments - 1) {
+				delivered.add(__ordered);
+				__ordered = null;
+			}
+		}
+	}
+
+	private void __receiveUnreliable(int lane, Fragment fragment, List<ByteBuf> delivered) {
+		int start = (fragment.__sequence - fragment.__index) & 0xFFFF;
+		if (lane == SEQUENCED && __lastSequenced >= 0 && !__isNewer(start, __lastSequenced)) {
+			fragment.__data.release();
+			return;
+		}
+
+		if (fragment.__fragments == 1) {
+			__deliverUnreliable(lane, start, fragment.__data, delivered);
+			return;
+		}
+
+		var parts = __assemblies[lane];
+		if (parts == null || __assemblyStarts[lane] != start || parts.length != fragment.__fragments) {
+			// a new message, the incomplete one is dropped
+			__clearAssembly(lane);
+			parts = new Fragment[fragment.__fragments];
+			__assemblies[lane] = parts;
+			__assemblyStarts[lane] = start;
+		}
+		if (parts[fragment.__index] != null) {
+			fragment.__data.release();
+			return;
+		}
+		parts[fragment.__index] = fragment;
+		for (var part : parts) {
+			if (part == null) {
+				return;
+			}
+		}
+
+		var message = fragment.__data.alloc().compositeBuffer(parts.length);
+		for (var part : parts) {
+			message.addComponent(true, part.__data);
+		}
+		__assemblies[lane] = null;
+		__deliverUnreliable(lane, start, message, delivered);
+	}
+
+	private void __deliverUnreliable(int lane, int start, ByteBuf message, List<ByteBuf> delivered) {
+		if (lane == SEQUENCED) {
+			__lastSequenced = start;
+		}
+		delivered.add(message);
+	}
+
+	private void __clearAssembly(int lane) {
+		var parts = __assemblies[lane];
+		if (parts == null) {
+			return;
+		}
+		for (var part : parts) {
+			if (part != null) {
+				part.__data.release();
+			}
+		}
+		__assemblies[lane] = null;
+	}
+
+	private void __release(Fragment[] fragments, int slot) {
+		if (fragments[slot] != null) {
+			fragments[slot].__data.release();
+			fragments[slot] = null;
+		}
+	}
+
+	/**
+	 * @return <b>true</b> if the sequence <b>a</b> is newer than <b>b</b> (with
+	 *         wrap around)
+	 */
+	private static boolean __isNewer(int a, int b) {
+		int distance = (a - b) & 0xFFFF;
+		return distance != 0 && distance < 0x8000;
+	}
+
+	private static final class Fragment {
+
+		private final ByteBuf __data;
+		private final int __index;
+		private final int __fragments;
+		private int __sequence;
+		private int __retries;
+		private long __sentAt;
+
+		private Fragment(ByteBuf data, int index, int fragments) {
+			__data = data;
+			__index = index;
+			__fragments = fragments;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.socket;
+
+import java.util.List;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.FramingMode;
+import com.tenio.message.codec.MessagePacker;
+import com.tenio.network.netty.NettyConnection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+
+/**
+ * Breaks the stream data into frames by their length headers. The header's mode
+ * is decided by the first byte of the stream, see {@link FramingMode}, and it
+ * is saved to the channel so the outgoing frames use the same one. Each frame
+ * is a retained slice of the cumulated data, so no copy is needed. A too long
+ * frame is discarded, a malformed varint header closes the channel because the
+ * stream can not be recovered.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettyFrameDecoder extends ByteToMessageDecoder {
+
+	private final int __maxFrameLength;
+	private FramingMode __mode;
+	/**
+	 * The number of remaining bytes of a too long frame which are going to be
+	 * discarded
+	 */
+	private int __discarding;
+
+	/**
+	 * @param maxFrameLength the maximum length of a frame's content in the
+	 *                       {@link FramingMode#VARINT} mode, it is always
+	 *                       {@link Constants#MAX_FIXED_FRAME_LENGTH} in the
+	 *                       {@link FramingMode#FIXED} mode
+	 */
+	public NettyFrameDecoder(int maxFrameLength) {
+		__maxFrameLength = maxFrameLength;
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+		if (__mode == null) {
+			__mode = FramingMode.FIXED;
+			if (in.getUnsignedByte(in.readerIndex()) == Constants.VARINT_PREAMBLE) {
+				in.skipBytes(1);
+				__mode = FramingMode.VARINT;
+			}
+			ctx.channel().attr(NettyConnection.KEY_FRAMING).set(__mode);
+		}
+
+		if (__discarding > 0) {
+			__discard(in);
+			return;
+		}
+
+		int start = in.readerIndex();
+		int length;
+		int maxLength;
+		if (__mode == FramingMode.VARINT) {
+			try {
+				length = MessagePacker.readVarint(in);
+			} catch (IllegalArgumentException e) {
+				in.skipBytes(in.readableBytes());
+				ctx.close();
+				return;
+			}
+			if (length < 0) {
+				return;
+			}
+			maxLength = __maxFrameLength;
+		} else {
+			if (in.readableBytes() < Constants.HEADER_BYTES) {
+				return;
+			}
+			length = in.readUnsignedShort();
+			maxLength = Constants.MAX_FIXED_FRAME_LENGTH;
+		}
+
+		if (length > maxLength) {
+			__discarding = length;
+			__discard(in);
+			// keep decoding the next frames
+			ctx.fireExceptionCaught(new TooLongFrameException("Frame length exceeds " + maxLength + ": " + length));
+			return;
+		}
+		if (in.readableBytes() < length) {
+			// wait for the whole frame
+			in.readerIndex(start);
+			return;
+		}
+		out.add(in.readRetainedSlice(length));
+	}
+
+	private void __discard(ByteBuf in) {
+		int bytes = Math.min(__discarding, in.readableBytes());
+		in.skipBytes(bytes);
+		__discarding -= bytes;
+	}
+
+}
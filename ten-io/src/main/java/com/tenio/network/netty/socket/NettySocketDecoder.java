@@ -0,0 +1,66 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network.netty.socket;
+
+import java.util.List;
+
+import com.tenio.message.codec.IPacketDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+/**
+ * Converts each data chunk (a whole frame from the length decoder) to a message
+ * by the port's {@link IPacketDecoder}, by default a
+ * {@link com.tenio.entity.element.TObject} without copying its content. The
+ * frame is always consumed completely, so it is released by the decoder right
+ * after it was read. A malformed frame is dropped.
+ * 
+ * @author kong
+ * 
+ */
+public final class NettySocketDecoder extends ByteToMessageDecoder {
+
+	private final IPacketDecoder __decoder;
+
+	public NettySocketDecoder(IPacketDecoder decoder) {
+		__decoder = decoder;
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+		try {
+			var message = __decoder.decode(in);
+			if (message != null) {
+				out.add(message);
+			}
+		} catch (RuntimeException e) {
+			// drop the malformed frame
+		} finally {
+			in.skipBytes(in.readableBytes());
+		}
+	}
+
+}
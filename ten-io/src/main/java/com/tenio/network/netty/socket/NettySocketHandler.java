@@ -26,7 +26,6 @@ package com.tenio.network.netty.socket;
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.event.IEventManager;
-import com.tenio.message.codec.MsgPackConverter;
 import com.tenio.network.netty.BaseNettyHandler;
 
 import io.netty.channel.ChannelHandlerContext;
@@ -44,7 +43,7 @@ import io.netty.channel.ChannelHandlerContext;
 public final class NettySocketHandler extends BaseNettyHandler {
 
 	public NettySocketHandler(int index, IEventManager eventManager, BaseConfiguration configuration) {
-		super(eventManager, index, ConnectionType.SOCKET);
+		super(eventManager, index, ConnectionType.SOCKET, configuration.getSocketPorts().get(index));
 	}
 
 	@Override
@@ -54,13 +53,13 @@ public final class NettySocketHandler extends BaseNettyHandler {
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-		// convert the bytes' array to a game message
-		var message = MsgPackConverter.unserialize((byte[]) msg);
-		if (message == null) {
-			return;
-		}
+		// the message was already decoded, see NettySocketDecoder
+		_channelRead(ctx, msg, null);
+	}
 
-		_channelRead(ctx, message, null);
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		_channelWritabilityChanged(ctx);
 	}
 
 	@Override
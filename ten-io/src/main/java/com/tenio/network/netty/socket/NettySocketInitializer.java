@@ -26,14 +26,13 @@ package com.tenio.network.netty.socket;
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.Constants;
 import com.tenio.event.IEventManager;
+import com.tenio.message.codec.IPacketDecoder;
+import com.tenio.message.codec.PacketDecoders;
 import com.tenio.network.netty.GlobalTrafficShapingHandlerCustomize;
 
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.handler.codec.bytes.ByteArrayDecoder;
-import io.netty.handler.codec.bytes.ByteArrayEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 /**
  * This class for initializing a channel.
@@ -47,6 +46,10 @@ public final class NettySocketInitializer extends ChannelInitializer<SocketChann
 	private final GlobalTrafficShapingHandlerCustomize __trafficCounter;
 	private final BaseConfiguration __configuration;
 	private final int __index;
+	/**
+	 * The packet decoder of this port, it is shared by all the channels
+	 */
+	private final IPacketDecoder __decoder;
 
 	public NettySocketInitializer(int index, IEventManager eventManager,
 			GlobalTrafficShapingHandlerCustomize trafficCounter, BaseConfiguration configuration) {
@@ -54,6 +57,7 @@ public final class NettySocketInitializer extends ChannelInitializer<SocketChann
 		__eventManager = eventManager;
 		__trafficCounter = trafficCounter;
 		__configuration = configuration;
+		__decoder = PacketDecoders.newInstance(configuration.getSocketPorts().get(index));
 	}
 
 	@Override
@@ -63,15 +67,19 @@ public final class NettySocketInitializer extends ChannelInitializer<SocketChann
 		// traffic counter
 		pipeline.addLast("traffic-counter", __trafficCounter);
 
-		// break each data chunk by newlines (read-up)
-		pipeline.addLast("length-decoder", new LengthFieldBasedFrameDecoder(Short.MAX_VALUE, 0, Constants.HEADER_BYTES,
-				0, Constants.HEADER_BYTES));
-		// convert each data chunk into a byte array (read-up)
-		pipeline.addLast("bytearray-decoder", new ByteArrayDecoder());
-		// add data-length package's head
-		pipeline.addLast("length-encoder", new LengthFieldPrepender(Constants.HEADER_BYTES));
-		// convert bytes' array to data chunk (write-down)
-		pipeline.addLast("bytearray-encoder", new ByteArrayEncoder());
+		// all the flushes made in one read loop or in one event loop iteration are
+		// merged into one (write-down)
+		pipeline.addLast("flush-consolidation",
+				new FlushConsolidationHandler(Constants.FLUSH_CONSOLIDATION_LIMIT, true));
+
+		var sock = __configuration.getSocketPorts().get(__index);
+
+		// break each data chunk by its length header (read-up)
+		pipeline.addLast("length-decoder", new NettyFrameDecoder(sock.getMaxFrameLength()));
+		// convert each data chunk into a game message (read-up)
+		pipeline.addLast("packet-decoder", new NettySocketDecoder(__decoder));
+		// the outbound data chunk already includes its length header, see
+		// NettyConnection (write-down)
 
 		// the logic handler
 		pipeline.addLast("handler", new NettySocketHandler(__index, __eventManager, __configuration));
@@ -27,6 +27,7 @@ import java.net.URISyntaxException;
 
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.event.IEventManager;
+import com.tenio.message.codec.IPacketDecoder;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -60,11 +61,14 @@ public class NettyWSHandShake extends ChannelInboundHandlerAdapter {
 	private final IEventManager __eventManager;
 	private final BaseConfiguration __configuration;
 	private final int __index;
+	private final IPacketDecoder __decoder;
 
-	public NettyWSHandShake(int index, IEventManager eventManager, BaseConfiguration configuration) {
+	public NettyWSHandShake(int index, IEventManager eventManager, BaseConfiguration configuration,
+			IPacketDecoder decoder) {
 		__index = index;
 		__eventManager = eventManager;
 		__configuration = configuration;
+		__decoder = decoder;
 	}
 
 	@Override
@@ -82,6 +86,8 @@ public class NettyWSHandShake extends ChannelInboundHandlerAdapter {
 				// add new handler to the existing pipeline to handle HandShake-WebSocket
 				// Messages
 				ctx.pipeline().replace(this, "handler", new NettyWSHandler(__index, __eventManager, __configuration));
+				// convert each binary frame into a game message (read-up)
+				ctx.pipeline().addBefore("handler", "packet-decoder", new NettyWSDecoder(__decoder));
 
 				// do the Handshake to upgrade connection from HTTP to WebSocket protocol
 				__handleHandshake(ctx, httpRequest);
@@ -26,11 +26,11 @@ package com.tenio.network.netty.ws;
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.event.IEventManager;
-import com.tenio.message.codec.MsgPackConverter;
 import com.tenio.network.netty.BaseNettyHandler;
 
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * Receive all messages sent from clients. It converts serialize data to a
@@ -45,7 +45,7 @@ import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 public class NettyWSHandler extends BaseNettyHandler {
 
 	public NettyWSHandler(int index, IEventManager eventManager, BaseConfiguration configuration) {
-		super(eventManager, index, ConnectionType.WEB_SOCKET);
+		super(eventManager, index, ConnectionType.WEB_SOCKET, configuration.getWebSocketPorts().get(index));
 	}
 
 	@Override
@@ -55,25 +55,20 @@ public class NettyWSHandler extends BaseNettyHandler {
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-		// only allow this type of frame
-		if (msg instanceof BinaryWebSocketFrame) {
-			// convert the BinaryWebSocketFrame to bytes' array
-			var buffer = ((BinaryWebSocketFrame) msg).content();
-			var bytes = new byte[buffer.readableBytes()];
-			buffer.getBytes(buffer.readerIndex(), bytes);
-			buffer.release();
-
-			// create a new message
-			var message = MsgPackConverter.unserialize(bytes);
-			if (message == null) {
-				return;
-			}
-
-			_channelRead(ctx, message, null);
+		// only binary frames were decoded, see NettyWSDecoder
+		if (msg instanceof WebSocketFrame) {
+			ReferenceCountUtil.release(msg);
+		} else {
+			_channelRead(ctx, msg, null);
 		}
 
 	}
 
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		_channelWritabilityChanged(ctx);
+	}
+
 	@Override
 	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
 		_exceptionCaught(ctx, cause);
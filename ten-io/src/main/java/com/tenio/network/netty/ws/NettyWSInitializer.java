@@ -24,12 +24,16 @@ THE SOFTWARE.
 package com.tenio.network.netty.ws;
 
 import com.tenio.configuration.BaseConfiguration;
+import com.tenio.configuration.constant.Constants;
 import com.tenio.event.IEventManager;
+import com.tenio.message.codec.IPacketDecoder;
+import com.tenio.message.codec.PacketDecoders;
 import com.tenio.network.netty.GlobalTrafficShapingHandlerCustomize;
 
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 /**
  * This class for initializing a channel.
@@ -43,6 +47,10 @@ public final class NettyWSInitializer extends ChannelInitializer<SocketChannel>
 	private final GlobalTrafficShapingHandlerCustomize __trafficCounter;
 	private final BaseConfiguration __configuration;
 	private final int __index;
+	/**
+	 * The packet decoder of this port, it is shared by all the channels
+	 */
+	private final IPacketDecoder __decoder;
 
 	public NettyWSInitializer(int index, IEventManager eventManager,
 			GlobalTrafficShapingHandlerCustomize trafficCounter, BaseConfiguration configuration) {
@@ -50,6 +58,7 @@ public final class NettyWSInitializer extends ChannelInitializer<SocketChannel>
 		__eventManager = eventManager;
 		__trafficCounter = trafficCounter;
 		__configuration = configuration;
+		__decoder = PacketDecoders.newInstance(configuration.getWebSocketPorts().get(index));
 	}
 
 	@Override
@@ -59,11 +68,16 @@ public final class NettyWSInitializer extends ChannelInitializer<SocketChannel>
 		// traffic counter
 		pipeline.addLast("traffic-counter", __trafficCounter);
 
+		// all the flushes made in one read loop or in one event loop iteration are
+		// merged into one (write-down)
+		pipeline.addLast("flush-consolidation",
+				new FlushConsolidationHandler(Constants.FLUSH_CONSOLIDATION_LIMIT, true));
+
 		// add http-codec for TCP hand shaker
 		pipeline.addLast("httpServerCodec", new HttpServerCodec());
 
 		// the logic handler
-		pipeline.addLast("http-handshake", new NettyWSHandShake(__index, __eventManager, __configuration));
+		pipeline.addLast("http-handshake", new NettyWSHandShake(__index, __eventManager, __configuration, __decoder));
 	}
 
 }
@@ -0,0 +1,456 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.pool;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.exception.NullElementPoolException;
+
+/**
+ * A lock-free implementation of {@link IElementPool}, both {@link #get()} and
+ * {@link #repay(Object)} take a constant time:
+ * <ul>
+ * <li>Each element has a slot, which is found by the element's identity in an
+ * open addressing table, and a state (free or in use) changed by a CAS. So a
+ * foreign element or a second repay is detected without any scan.</li>
+ * <li>The free elements are kept in a small cache of the current thread
+ * first, then in a shared stack (a Treiber stack of slots with a stamped head
+ * to avoid the ABA problem).</li>
+ * <li>When no free element is left, {@link Constants#ADD_ELEMENT_POOL} new ones
+ * are created under a lock. The slots live in fixed segments, so growing never
+ * copies the existing elements.</li>
+ * </ul>
+ * The pool creates {@link Constants#BASE_ELEMENT_POOL} elements at first and is
+ * unbounded by default. Its leak detection records the stack trace of every
+ * {@link #get()} so that {@link #reportLeaks()} can tell where the elements
+ * which were never repaid came from, it is enabled by the system property
+ * {@link Constants#KEY_ELEMENT_POOL_LEAK_DETECTION} or a constructor's
+ * parameter.<br>
+ * This class logs by Log4j directly, so it can also be used to pool the
+ * loggers' strings.
+ * 
+ * @author kong
+ * 
+ */
+public class ElementPool<Element> implements IElementPool<Element> {
+
+	private static final int SEGMENT_SHIFT = 6;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private static final int FREE = 0;
+	private static final int USED = 1;
+
+	private final Logger __logger = LogManager.getLogger(getClass());
+	private final String __name;
+	private final Supplier<Element> __creator;
+	private final Consumer<Element> __cleaner;
+	private final int __initialSize;
+	private final int __maxSize;
+	private final boolean __leakDetection;
+	private final Object __lock = new Object();
+	private volatile Store __store;
+
+	/**
+	 * Create an unbounded pool with the default sizes
+	 * 
+	 * @param name    the pool's name for logging
+	 * @param creator creates a new element
+	 * @param cleaner clears an element when it is repaid (can be <b>null</b>)
+	 */
+	public ElementPool(String name, Supplier<Element> creator, Consumer<Element> cleaner) {
+		this(name, creator, cleaner, Constants.BASE_ELEMENT_POOL, Integer.MAX_VALUE,
+				Boolean.getBoolean(Constants.KEY_ELEMENT_POOL_LEAK_DETECTION));
+	}
+
+	/**
+	 * @param name          the pool's name for logging
+	 * @param creator       creates a new element
+	 * @param cleaner       clears an element when it is repaid (can be
+	 *                      <b>null</b>)
+	 * @param initialSize   the number of elements created at first
+	 * @param maxSize       the maximum number of elements, {@link #get()} throws
+	 *                      {@link NullElementPoolException} when all of them are
+	 *                      in use
+	 * @param leakDetection records the acquiring stack traces, see
+	 *                      {@link #reportLeaks()}
+	 */
+	public ElementPool(String name, Supplier<Element> creator, Consumer<Element> cleaner, int initialSize,
+			int maxSize, boolean leakDetection) {
+		if (initialSize < 0 || maxSize < 1 || initialSize > maxSize) {
+			throw new IllegalArgumentException("Invalid pool sizes: " + initialSize + ", " + maxSize);
+		}
+		__name = name;
+		__creator = creator;
+		__cleaner = cleaner;
+		__initialSize = initialSize;
+		__maxSize = maxSize;
+		__leakDetection = leakDetection;
+		__store = __newStore();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Element get() {
+		var store = __store;
+		int slot = store.cache.get().pop();
+		if (slot < 0) {
+			slot = store.pop();
+			if (slot < 0) {
+				slot = __grow(store);
+			}
+		}
+		var segment = store.getSegment(slot);
+		int offset = slot & SEGMENT_MASK;
+		segment.states.set(offset, USED);
+		if (__leakDetection) {
+			segment.traces.set(offset, new Throwable("The element was acquired here"));
+		}
+		return (Element) segment.elements[offset];
+	}
+
+	@Override
+	public void repay(Element element) {
+		var store = __store;
+		int slot = element == null ? -1 : store.table.indexOf(element);
+		if (slot < 0) {
+			var e = new NullElementPoolException("The element does not belong to the pool " + __name);
+			__logger.error(e.getMessage(), e);
+			throw e;
+		}
+		var segment = store.getSegment(slot);
+		int offset = slot & SEGMENT_MASK;
+		if (!segment.states.compareAndSet(offset, USED, FREE)) {
+			// it must not be given out twice
+			__logger.error("[" + __name + "] The element was already repaid", new Throwable());
+			return;
+		}
+		if (__leakDetection) {
+			segment.traces.set(offset, null);
+		}
+		if (__cleaner != null) {
+			__cleaner.accept(element);
+		}
+		if (!store.cache.get().push(slot)) {
+			store.push(slot);
+		}
+	}
+
+	@Override
+	public void cleanup() {
+		synchronized (__lock) {
+			if (__leakDetection) {
+				reportLeaks();
+			}
+			__store = new Store();
+		}
+	}
+
+	@Override
+	public int getPoolSize() {
+		return __store.size;
+	}
+
+	/**
+	 * @return the number of elements which are in use now
+	 */
+	public int getUsedSize() {
+		var store = __store;
+		int used = 0;
+		for (int slot = 0; slot < store.size; slot++) {
+			if (store.getSegment(slot).states.get(slot & SEGMENT_MASK) == USED) {
+				used++;
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * Log all the elements which are still in use, with the stack traces of their
+	 * acquiring when the leak detection is enabled. It is called by
+	 * {@link #cleanup()} when the leak detection is enabled.
+	 * 
+	 * @return the number of elements which are still in use
+	 */
+	public int reportLeaks() {
+		var store = __store;
+		int leaks = 0;
+		for (int slot = 0; slot < store.size; slot++) {
+			var segment = store.getSegment(slot);
+			int offset = slot & SEGMENT_MASK;
+			if (segment.states.get(offset) != USED) {
+				continue;
+			}
+			leaks++;
+			var trace = segment.traces.get(offset);
+			if (trace != null) {
+				__logger.error("[" + __name + "] An element was never repaid: " + segment.elements[offset], trace);
+			}
+		}
+		if (leaks > 0) {
+			__logger.error("[" + __name + "] " + leaks + " element(s) of " + store.size + " are not repaid");
+		}
+		return leaks;
+	}
+
+	private Store __newStore() {
+		var store = new Store();
+		if (__initialSize > 0) {
+			synchronized (__lock) {
+				__create(store, __initialSize, false);
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * Create new elements when there is no free one
+	 * 
+	 * @param store the current store
+	 * @return the slot of a new element for the caller
+	 */
+	private int __grow(Store store) {
+		synchronized (__lock) {
+			// another thread might have grown the pool
+			int slot = store.pop();
+			if (slot >= 0) {
+				return slot;
+			}
+			int count = Math.min(Constants.ADD_ELEMENT_POOL, __maxSize - store.size);
+			if (count <= 0) {
+				throw new NullElementPoolException(
+						"All " + __maxSize + " elements of the pool " + __name + " are in use");
+			}
+			// the first new element is taken by the caller
+			slot = __create(store, count, true);
+			if (__logger.isInfoEnabled()) {
+				__logger.info("[" + __name + "] Increase the number of elements by " + count + " to " + store.size);
+			}
+			return slot;
+		}
+	}
+
+	/**
+	 * Create elements and push them onto the shared stack. It must be called under
+	 * the lock.
+	 * 
+	 * @param store   the current store
+	 * @param count   the number of new elements
+	 * @param reserve keeps the first new element out of the shared stack
+	 * @return the first new slot
+	 */
+	private int __create(Store store, int count, boolean reserve) {
+		int first = store.size;
+		int last = first + count - 1;
+		store.ensureSegments(last);
+		var table = store.table.ensureCapacity(last + 1);
+		for (int slot = last; slot >= first; slot--) {
+			var element = __creator.get();
+			if (element == null) {
+				throw new NullElementPoolException("The pool " + __name + " can not create a new element");
+			}
+			store.getSegment(slot).elements[slot & SEGMENT_MASK] = element;
+			table.add(element, slot);
+		}
+		store.table = table;
+		store.size = last + 1;
+		// the lowest slot is on top
+		for (int slot = last; slot >= (reserve ? first + 1 : first); slot--) {
+			store.push(slot);
+		}
+		return first;
+	}
+
+	/**
+	 * All the elements and their states, it is replaced by {@link #cleanup()}
+	 */
+	private static final class Store {
+
+		/**
+		 * The top slot + 1 (<b>0</b> when it is empty) in the lower 32 bits and a
+		 * stamp in the higher ones
+		 */
+		private final AtomicLong __head = new AtomicLong();
+		private final ThreadLocal<ThreadCache> cache = ThreadLocal.withInitial(ThreadCache::new);
+		private volatile Segment[] segments = new Segment[0];
+		private volatile IdentityTable table = new IdentityTable(SEGMENT_SIZE);
+		private volatile int size;
+
+		Segment getSegment(int slot) {
+			return segments[slot >>> SEGMENT_SHIFT];
+		}
+
+		void ensureSegments(int slot) {
+			int count = (slot >>> SEGMENT_SHIFT) + 1;
+			if (count <= segments.length) {
+				return;
+			}
+			var newSegments = new Segment[count];
+			System.arraycopy(segments, 0, newSegments, 0, segments.length);
+			for (int i = segments.length; i < count; i++) {
+				newSegments[i] = new Segment();
+			}
+			segments = newSegments;
+		}
+
+		int pop() {
+			for (;;) {
+				long head = __head.get();
+				int slot = (int) head - 1;
+				if (slot < 0) {
+					return -1;
+				}
+				int next = getSegment(slot).next.get(slot & SEGMENT_MASK);
+				if (__head.compareAndSet(head, __stamp(head, next))) {
+					return slot;
+				}
+			}
+		}
+
+		void push(int slot) {
+			var next = getSegment(slot).next;
+			for (;;) {
+				long head = __head.get();
+				next.set(slot & SEGMENT_MASK, (int) head);
+				if (__head.compareAndSet(head, __stamp(head, slot + 1))) {
+					return;
+				}
+			}
+		}
+
+		private static long __stamp(long head, int top) {
+			return (((head >>> 32) + 1) << 32) | (top & 0xffffffffL);
+		}
+
+	}
+
+	/**
+	 * A fixed group of slots, it is never moved once created
+	 */
+	private static final class Segment {
+
+		private final Object[] elements = new Object[SEGMENT_SIZE];
+		private final AtomicIntegerArray states = new AtomicIntegerArray(SEGMENT_SIZE);
+		private final AtomicIntegerArray next = new AtomicIntegerArray(SEGMENT_SIZE);
+		private final AtomicReferenceArray<Throwable> traces = new AtomicReferenceArray<Throwable>(SEGMENT_SIZE);
+
+	}
+
+	/**
+	 * Maps an element to its slot by identity. It is read without any lock and
+	 * only written under the pool's lock, a new key is published after its slot.
+	 */
+	private static final class IdentityTable {
+
+		private final AtomicReferenceArray<Object> __keys;
+		private final int[] __slots;
+		private final int __mask;
+
+		IdentityTable(int capacity) {
+			__keys = new AtomicReferenceArray<Object>(capacity);
+			__slots = new int[capacity];
+			__mask = capacity - 1;
+		}
+
+		int indexOf(Object element) {
+			int index = __hash(element) & __mask;
+			Object key;
+			while ((key = __keys.get(index)) != null) {
+				if (key == element) {
+					return __slots[index];
+				}
+				index = (index + 1) & __mask;
+			}
+			return -1;
+		}
+
+		void add(Object element, int slot) {
+			int index = __hash(element) & __mask;
+			while (__keys.get(index) != null) {
+				index = (index + 1) & __mask;
+			}
+			__slots[index] = slot;
+			__keys.set(index, element);
+		}
+
+		/**
+		 * @param count the total number of keys
+		 * @return this table or a larger copy, the load factor is kept under 0.5
+		 */
+		IdentityTable ensureCapacity(int count) {
+			if (count * 2 <= __keys.length()) {
+				return this;
+			}
+			int capacity = __keys.length();
+			while (count * 2 > capacity) {
+				capacity <<= 1;
+			}
+			var table = new IdentityTable(capacity);
+			for (int i = 0; i < __keys.length(); i++) {
+				var key = __keys.get(i);
+				if (key != null) {
+					table.add(key, __slots[i]);
+				}
+			}
+			return table;
+		}
+
+		private static int __hash(Object element) {
+			int hash = System.identityHashCode(element) * 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+
+	}
+
+	/**
+	 * The free slots kept by one thread
+	 */
+	private static final class ThreadCache {
+
+		private final int[] __slots = new int[Constants.THREAD_CACHE_ELEMENT_POOL];
+		private int __size;
+
+		int pop() {
+			return __size == 0 ? -1 : __slots[--__size];
+		}
+
+		boolean push(int slot) {
+			if (__size == __slots.length) {
+				return false;
+			}
+			__slots[__size++] = slot;
+			return true;
+		}
+
+	}
+
+}
@@ -32,6 +32,7 @@ import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.ErrorMsg;
 import com.tenio.event.IEventManager;
 import com.tenio.extension.IExtension;
+import com.tenio.extension.MessageRouter;
 
 /**
  * This class manages the workflow of the current server. The instruction's
@@ -100,4 +101,9 @@ interface IServer {
 	 */
 	TaskApi getTaskApi();
 
+	/**
+	 * @return see {@link MessageRouter}, it is available after the server starts
+	 */
+	MessageRouter getMessageRouter();
+
 }
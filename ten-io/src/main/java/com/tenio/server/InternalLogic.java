@@ -25,6 +25,7 @@ package com.tenio.server;
 
 import com.tenio.configuration.BaseConfiguration;
 import com.tenio.configuration.constant.ErrorMsg;
+import com.tenio.configuration.constant.HandlerMode;
 import com.tenio.configuration.constant.LEvent;
 import com.tenio.configuration.constant.TEvent;
 import com.tenio.entity.AbstractPlayer;
@@ -35,6 +36,9 @@ import com.tenio.event.IEventManager;
 import com.tenio.event.ISubscriber;
 import com.tenio.logger.AbstractLogger;
 import com.tenio.network.Connection;
+import com.tenio.task.SerialExecutorGroup;
+
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * Handle the main logic of the server.
@@ -47,6 +51,12 @@ final class InternalLogic extends AbstractLogger {
 	private final IEventManager __eventManager;
 	private final IPlayerManager __playerManager;
 	private final IRoomManager __roomManager;
+	private HandlerMode __handlerMode;
+	/**
+	 * The worker threads for the players' messages, <b>null</b> when they are
+	 * handled in the I/O threads
+	 */
+	private SerialExecutorGroup __executors;
 
 	public InternalLogic(IEventManager eventManager, IPlayerManager playerManager, IRoomManager roomManager) {
 		__eventManager = eventManager;
@@ -59,6 +69,14 @@ final class InternalLogic extends AbstractLogger {
 	 */
 	public void init(BaseConfiguration configuration) {
 
+		__handlerMode = configuration.getHandlerMode();
+		if (__handlerMode != HandlerMode.IO) {
+			int threads = configuration.isDefined(BaseConfiguration.HANDLER_THREADS)
+					? configuration.getInt(BaseConfiguration.HANDLER_THREADS)
+					: 0;
+			__executors = new SerialExecutorGroup("tenio-handler", threads);
+		}
+
 		__on(LEvent.CONNECTION_CLOSE, args -> {
 			var connection = __getConnection(args[0]);
 			boolean keepPlayerOnDisconnect = configuration.getBoolean(BaseConfiguration.KEEP_PLAYER_ON_DISCONNECT);
@@ -104,6 +122,20 @@ final class InternalLogic extends AbstractLogger {
 			return null;
 		});
 
+		__on(LEvent.CONNECTION_SLOW, args -> {
+			var connection = __getConnection(args[0]);
+			long pendingBytes = __getLong(args[1]);
+
+			AbstractPlayer player = null;
+			String username = connection.getUsername();
+			if (username != null) { // the player maybe exist
+				player = __playerManager.get(username);
+			}
+			__eventManager.getExternal().emit(TEvent.CONNECTION_SLOW, connection, player, pendingBytes);
+
+			return null;
+		});
+
 		__on(LEvent.FORCE_PLAYER_LEAVE_ROOM, args -> {
 			var player = __getPlayer(args[0]);
 
@@ -124,12 +156,8 @@ final class InternalLogic extends AbstractLogger {
 			return null;
 		});
 
-		__on(LEvent.CHANNEL_HANDLE, args -> {
-			var index = __getInt(args[0]);
-			var connection = __getConnection(args[1]);
-			var message = __getTObject(args[2]);
-			var tempConnection = __getConnection(args[3]);
-
+		// the hot path of each message, it is typed to avoid any parameters array
+		__eventManager.getInternal().on(LEvent.CHANNEL_HANDLE, (index, connection, message, tempConnection) -> {
 			if (connection == null) {
 				__createNewConnection(configuration, index, tempConnection, message);
 			} else {
@@ -145,14 +173,12 @@ final class InternalLogic extends AbstractLogger {
 					// Can handle free connection here
 				}
 			}
-
-			return null;
 		});
 
 	}
 
 	private void __createNewConnection(final BaseConfiguration configuration, final int index,
-			final Connection connection, final TObject message) {
+			final Connection connection, final Object message) {
 		if (index == 0) { // is main connection
 			// check reconnection request first
 			var player = (AbstractPlayer) __eventManager.getExternal().emit(TEvent.PLAYER_RECONNECT_REQUEST, connection,
@@ -195,14 +221,6 @@ final class InternalLogic extends AbstractLogger {
 		__eventManager.getInternal().on(event, sub);
 	}
 
-	/**
-	 * @param object the corresponding object
-	 * @return a value in, see {@link TObject}
-	 */
-	private TObject __getTObject(Object object) {
-		return (TObject) object;
-	}
-
 	/**
 	 * @param object the corresponding object
 	 * @return a value in ,see {@link Connection}
@@ -229,10 +247,10 @@ final class InternalLogic extends AbstractLogger {
 
 	/**
 	 * @param object the corresponding object
-	 * @return a value in, see {@link Integer}
+	 * @return a value in, see {@link Long}
 	 */
-	private int __getInt(Object object) {
-		return (int) object;
+	private long __getLong(Object object) {
+		return (long) object;
 	}
 
 	/**
@@ -243,10 +261,82 @@ final class InternalLogic extends AbstractLogger {
 		return (Throwable) object;
 	}
 
-	private void __handle(AbstractPlayer player, int index, TObject message) {
-		debug("RECV PLAYER", index, player.getName(), message.toString());
+	/**
+	 * @param message a {@link TObject}, or the raw data which skips the map
+	 *                decoding, see {@link TEvent#RECEIVED_RAW_FROM_PLAYER}
+	 */
+	private void __handle(AbstractPlayer player, int index, Object message) {
 		player.setCurrentReaderTime();
-		__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, player, index, message);
+		if (__executors == null) {
+			__dispatch(player, index, message);
+			return;
+		}
+		// the channel releases the message once this method returns
+		ReferenceCountUtil.retain(message);
+		if (!__execute(player, () -> {
+			try {
+				__dispatch(player, index, message);
+			} catch (Throwable cause) {
+				__exception(player, cause);
+			} finally {
+				ReferenceCountUtil.release(message);
+			}
+		})) {
+			ReferenceCountUtil.release(message);
+		}
+	}
+
+	/**
+	 * @param player the sender
+	 * @param task   the handling of one of the player's messages
+	 * @return <b>true</b> if the task was queued
+	 */
+	private boolean __execute(AbstractPlayer player, Runnable task) {
+		if (__handlerMode == HandlerMode.ROOM) {
+			// the room can change, the player's previous messages must be handled first
+			return __executors.execute(player.getName(), __getOrderingKey(player), task);
+		}
+		return __executors.execute(__getOrderingKey(player), task);
+	}
+
+	/**
+	 * @param player the sender
+	 * @return the key which decides the worker thread of the player's messages
+	 */
+	private Object __getOrderingKey(AbstractPlayer player) {
+		if (__handlerMode == HandlerMode.ROOM) {
+			var room = player.getRoom();
+			if (room != null) {
+				return room.getId();
+			}
+		}
+		return player.getName();
+	}
+
+	private void __dispatch(AbstractPlayer player, int index, Object message) {
+		if (message instanceof TObject) {
+			debug("RECV PLAYER", index, player.getName(), message);
+			__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, player, index, message);
+		} else {
+			__eventManager.getExternal().emit(TEvent.RECEIVED_RAW_FROM_PLAYER, player, index, message);
+		}
+	}
+
+	/**
+	 * @return the worker threads for the players' messages, <b>null</b> when they
+	 *         are handled in the I/O threads, see {@link HandlerMode}
+	 */
+	public SerialExecutorGroup getExecutors() {
+		return __executors;
+	}
+
+	/**
+	 * Stop the worker threads, the queued messages are still handled
+	 */
+	public void shutdown() {
+		if (__executors != null) {
+			__executors.shutdown();
+		}
 	}
 
 	private void __exception(AbstractPlayer player, Throwable cause) {
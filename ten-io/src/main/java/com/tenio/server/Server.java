@@ -44,6 +44,7 @@ import com.tenio.exception.DuplicatedUriAndMethodException;
 import com.tenio.exception.NotDefinedSocketConnectionException;
 import com.tenio.exception.NotDefinedSubscribersException;
 import com.tenio.extension.IExtension;
+import com.tenio.extension.MessageRouter;
 import com.tenio.logger.AbstractLogger;
 import com.tenio.network.INetwork;
 import com.tenio.network.http.HttpManagerTask;
@@ -52,6 +53,7 @@ import com.tenio.task.ITaskManager;
 import com.tenio.task.TaskManager;
 import com.tenio.task.schedule.CCUScanTask;
 import com.tenio.task.schedule.EmptyRoomScanTask;
+import com.tenio.task.schedule.HandlerScanTask;
 import com.tenio.task.schedule.TimeOutScanTask;
 
 /**
@@ -109,6 +111,7 @@ public final class Server extends AbstractLogger implements IServer {
 	private final MessageApi __messageApi;
 
 	private final InternalLogic __internalLogic;
+	private MessageRouter __messageRouter;
 	private IExtension __extension;
 	private INetwork __network;
 
@@ -123,9 +126,20 @@ public final class Server extends AbstractLogger implements IServer {
 		// main server logic
 		__internalLogic.init(configuration);
 
+		// the routes are added by the subscribers
+		__messageRouter = MessageRouter.newInstance(configuration.isDefined(BaseConfiguration.OPCODE_KEY)
+				? configuration.getString(BaseConfiguration.OPCODE_KEY)
+				: Constants.OPCODE_KEY);
+
 		// initialize the subscribers
 		getExtension().initialize();
 
+		// dispatch the players' messages by their opcodes
+		if (__messageRouter.hasRoutes()) {
+			__eventManager.getExternal().on(TEvent.RECEIVED_FROM_PLAYER, __messageRouter);
+			__eventManager.getExternal().on(TEvent.RECEIVED_RAW_FROM_PLAYER, __messageRouter);
+		}
+
 		// server need at least one connection to start up
 		String error = __checkDefinedMainSocketConnection(configuration);
 		if (error != null) {
@@ -188,6 +202,7 @@ public final class Server extends AbstractLogger implements IServer {
 		if (__network != null) {
 			__network.shutdown();
 		}
+		__internalLogic.shutdown();
 		// clear all objects
 		__heartBeatManager.clear();
 		__roomManager.clear();
@@ -263,6 +278,11 @@ public final class Server extends AbstractLogger implements IServer {
 				(new EmptyRoomScanTask(__roomApi, configuration.getInt(BaseConfiguration.EMPTY_ROOM_SCAN))).run());
 		__taskManager.create(Constants.KEY_SCHEDULE_CCU_SCAN,
 				(new CCUScanTask(__eventManager, __playerApi, configuration.getInt(BaseConfiguration.CCU_SCAN))).run());
+		if (__internalLogic.getExecutors() != null && configuration.isDefined(BaseConfiguration.HANDLER_SCAN)) {
+			__taskManager.create(Constants.KEY_SCHEDULE_HANDLER_SCAN,
+					(new HandlerScanTask(__eventManager, __internalLogic.getExecutors(),
+							configuration.getInt(BaseConfiguration.HANDLER_SCAN))).run());
+		}
 	}
 
 	private String __createHttpManagers(BaseConfiguration configuration) {
@@ -294,6 +314,11 @@ public final class Server extends AbstractLogger implements IServer {
 		return __messageApi;
 	}
 
+	@Override
+	public MessageRouter getMessageRouter() {
+		return __messageRouter;
+	}
+
 	@Override
 	public HeartBeatApi getHeartBeatApi() {
 		return __heartbeatApi;
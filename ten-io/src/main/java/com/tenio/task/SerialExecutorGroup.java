@@ -0,0 +1,248 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.tenio.logger.AbstractLogger;
+
+/**
+ * A group of single-thread executors. The tasks which are submitted with the
+ * same key are always run by the same thread in their submitting order, the
+ * ones with different keys are spread over all the threads. The group also
+ * counts the handled tasks, their time in the queues and their running time,
+ * these values are reset each time they are retrieved.<br>
+ * When the key of an owner can change (e.g. a player who joins a room), the
+ * owner's tasks stay in the thread of its previous key until they were all
+ * run, see {@link #execute(Object, Object, Runnable)}.<br>
+ * The queues are unbounded, their sizes should be watched, see
+ * {@link #getQueueSizes()}.
+ * 
+ * @author kong
+ * 
+ */
+public final class SerialExecutorGroup extends AbstractLogger {
+
+	private final ThreadPoolExecutor[] __executors;
+	private final LongAdder __handled = new LongAdder();
+	private final LongAdder __waitingTime = new LongAdder();
+	private final LongAdder __runningTime = new LongAdder();
+	private final AtomicLong __maxRunningTime = new AtomicLong();
+	/**
+	 * The threads of the owners which still have tasks waiting or running
+	 */
+	private final ConcurrentHashMap<Object, Sticky> __stickies = new ConcurrentHashMap<Object, Sticky>();
+
+	/**
+	 * @param name    the prefix of the threads' names
+	 * @param threads the number of threads, 0 for the number of available
+	 *                processors
+	 */
+	public SerialExecutorGroup(String name, int threads) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		__executors = new ThreadPoolExecutor[threads];
+		for (int i = 0; i < threads; i++) {
+			var threadName = name + "-" + i;
+			__executors[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+					runnable -> new Thread(runnable, threadName));
+		}
+	}
+
+	/**
+	 * Run a task after all the previous ones with the same key
+	 * 
+	 * @param key  the ordering key, see {@link Object#hashCode()}
+	 * @param task the task
+	 * @return <b>true</b> if the task was queued, <b>false</b> if the group was
+	 *         shut down
+	 */
+	public boolean execute(Object key, Runnable task) {
+		long queuedTime = System.nanoTime();
+		try {
+			__executors[__getIndex(key)].execute(() -> __run(task, queuedTime));
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Run a task after all the previous ones of the same owner. The key decides
+	 * the thread only when the owner has no task left, otherwise the task follows
+	 * the owner's previous ones in their thread, so the owner's order is kept when
+	 * its key changes.
+	 * 
+	 * @param owner the owner of the task (e.g. a player), see
+	 *              {@link Object#hashCode()}
+	 * @param key   the ordering key, see {@link Object#hashCode()}
+	 * @param task  the task
+	 * @return <b>true</b> if the task was queued, <b>false</b> if the group was
+	 *         shut down
+	 */
+	public boolean execute(Object owner, Object key, Runnable task) {
+		var sticky = __stickies.compute(owner, (k, current) -> {
+			if (current == null) {
+				current = new Sticky(__getIndex(key));
+			}
+			current.__pending++;
+			return current;
+		});
+		// the index never changes while the owner has pending tasks
+		int index = sticky.__index;
+		long queuedTime = System.nanoTime();
+		try {
+			__executors[index].execute(() -> {
+				try {
+					__run(task, queuedTime);
+				} finally {
+					__release(owner);
+				}
+			});
+			return true;
+		} catch (RejectedExecutionException e) {
+			__release(owner);
+			return false;
+		}
+	}
+
+	private void __release(Object owner) {
+		__stickies.computeIfPresent(owner, (k, current) -> --current.__pending == 0 ? null : current);
+	}
+
+	private void __run(Runnable task, long queuedTime) {
+		long startTime = System.nanoTime();
+		try {
+			task.run();
+		} catch (Throwable cause) {
+			// the thread must keep running the next tasks of its keys
+			error(cause, "task: ", task);
+		} finally {
+			long runningTime = System.nanoTime() - startTime;
+			__handled.increment();
+			__waitingTime.add(startTime - queuedTime);
+			__runningTime.add(runningTime);
+			__maxRunningTime.accumulateAndGet(runningTime, Math::max);
+		}
+	}
+
+	private int __getIndex(Object key) {
+		int hash = key.hashCode();
+		return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % __executors.length;
+	}
+
+	/**
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return __executors.length;
+	}
+
+	/**
+	 * @return the number of waiting tasks of each thread
+	 */
+	public int[] getQueueSizes() {
+		var sizes = new int[__executors.length];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = __executors[i].getQueue().size();
+		}
+		return sizes;
+	}
+
+	/**
+	 * @return the number of tasks which were handled since the last call
+	 */
+	public long getAndResetHandled() {
+		return __handled.sumThenReset();
+	}
+
+	/**
+	 * @return the total time in nanoseconds which the tasks spent in the queues
+	 *         since the last call
+	 */
+	public long getAndResetWaitingTime() {
+		return __waitingTime.sumThenReset();
+	}
+
+	/**
+	 * @return the total running time in nanoseconds of the tasks since the last
+	 *         call
+	 */
+	public long getAndResetRunningTime() {
+		return __runningTime.sumThenReset();
+	}
+
+	/**
+	 * @return the longest running time in nanoseconds of a task since the last
+	 *         call
+	 */
+	public long getAndResetMaxRunningTime() {
+		return __maxRunningTime.getAndSet(0);
+	}
+
+	/**
+	 * Stop accepting new tasks, the queued ones are still run
+	 */
+	public void shutdown() {
+		for (var executor : __executors) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Wait for all the queued tasks to complete after {@link #shutdown()}
+	 * 
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return <b>true</b> if all the threads terminated
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean awaitTermination(long timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (var executor : __executors) {
+			if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Sticky {
+
+		private final int __index;
+		private int __pending;
+
+		private Sticky(int index) {
+			__index = index;
+		}
+
+	}
+
+}
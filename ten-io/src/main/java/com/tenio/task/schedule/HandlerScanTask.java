@@ -0,0 +1,81 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.task.schedule;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.tenio.configuration.BaseConfiguration;
+import com.tenio.configuration.constant.TEvent;
+import com.tenio.event.IEventManager;
+import com.tenio.logger.AbstractLogger;
+import com.tenio.task.SerialExecutorGroup;
+
+/**
+ * To retrieve the workload of the players' messages handlers in period time.
+ * You can configure this time in your own configurations, see
+ * {@link BaseConfiguration}
+ * 
+ * @author kong
+ * 
+ */
+public final class HandlerScanTask extends AbstractLogger implements ITask {
+
+	private final IEventManager __eventManager;
+	private final SerialExecutorGroup __executors;
+	/**
+	 * The period time for retrieving the workload
+	 */
+	private final int __handlerScanPeriod;
+
+	public HandlerScanTask(IEventManager eventManager, SerialExecutorGroup executors, int handlerScanPeriod) {
+		__eventManager = eventManager;
+		__executors = executors;
+		__handlerScanPeriod = handlerScanPeriod;
+	}
+
+	@Override
+	public ScheduledFuture<?> run() {
+		info("HANDLER SCAN TASK", "Running ...");
+		return Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(() -> {
+			int queued = 0;
+			int longestQueue = 0;
+			for (int size : __executors.getQueueSizes()) {
+				queued += size;
+				longestQueue = Math.max(longestQueue, size);
+			}
+			long handled = __executors.getAndResetHandled();
+			long waitingTime = __executors.getAndResetWaitingTime();
+			long runningTime = __executors.getAndResetRunningTime();
+			long maxRunningTime = __executors.getAndResetMaxRunningTime();
+			long averageWaiting = handled == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitingTime / handled);
+			long averageRunning = handled == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(runningTime / handled);
+
+			__eventManager.getExternal().emit(TEvent.HANDLER_WORKLOAD, queued, longestQueue, handled, averageWaiting,
+					averageRunning, TimeUnit.NANOSECONDS.toMicros(maxRunningTime));
+		}, __handlerScanPeriod, __handlerScanPeriod, TimeUnit.SECONDS);
+	}
+
+}
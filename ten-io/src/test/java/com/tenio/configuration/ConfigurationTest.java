@@ -25,12 +25,21 @@ package com.tenio.configuration;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.HandlerMode;
+import com.tenio.configuration.constant.OutboundPolicy;
+import com.tenio.configuration.constant.TransportType;
 
 /**
  * @author kong
@@ -69,6 +78,78 @@ public final class ConfigurationTest {
 				() -> assertEquals(ConnectionType.SOCKET, __configuration.getSocketPorts().get(2).getType()));
 	}
 
+	@Test
+	public void getConfigurationTransportTypeShouldReturnTrueType() {
+		assertEquals(TransportType.NIO, __configuration.getTransportType());
+	}
+
+	@Test
+	public void getConfigurationHandlerModeShouldReturnTrueValue() {
+		assertAll("getHandlerModeConfiguration",
+				() -> assertEquals(HandlerMode.IO, __configuration.getHandlerMode()),
+				() -> assertEquals(0, __configuration.getInt(BaseConfiguration.HANDLER_THREADS)),
+				() -> assertEquals(60, __configuration.getInt(BaseConfiguration.HANDLER_SCAN)));
+	}
+
+	@Test
+	public void getConfigurationOpcodeKeyShouldReturnTrueValue() {
+		assertEquals("c", __configuration.getString(BaseConfiguration.OPCODE_KEY));
+	}
+
+	@Test
+	public void getConfigurationSocketOptionsShouldReturnTrueValue() {
+		assertAll("getSocketOptionsConfiguration",
+				() -> assertEquals(1024, __configuration.getSocketPorts().get(0).getBacklog()),
+				() -> assertEquals(true, __configuration.getSocketPorts().get(0).isNoDelay()),
+				() -> assertEquals(1048576, __configuration.getSocketPorts().get(1).getReceiveBuffer()),
+				() -> assertEquals(Constants.SOCKET_BUFFER_SIZE, __configuration.getSocketPorts().get(2).getSendBuffer()),
+				() -> assertEquals(true, __configuration.getSocketPorts().get(1).isReliable()),
+				() -> assertEquals(false, __configuration.getSocketPorts().get(2).isReliable()),
+				() -> assertEquals(OutboundPolicy.DROP_OLDEST, __configuration.getSocketPorts().get(0).getOutboundPolicy()),
+				() -> assertEquals(OutboundPolicy.DISCONNECT, __configuration.getSocketPorts().get(2).getOutboundPolicy()),
+				() -> assertEquals(5, __configuration.getSocketPorts().get(2).getUnwritableTimeout()),
+				() -> assertEquals(4194304, __configuration.getSocketPorts().get(0).getMaxFrameLength()),
+				() -> assertEquals(Constants.MAX_FRAME_LENGTH, __configuration.getSocketPorts().get(2).getMaxFrameLength()),
+				() -> assertEquals(true, __configuration.getSocketPorts().get(0).isLazyDecoding()),
+				() -> assertEquals(false, __configuration.getWebSocketPorts().get(0).isLazyDecoding()),
+				() -> assertEquals("msgpack", __configuration.getSocketPorts().get(0).getCodec()),
+				() -> assertEquals("raw", __configuration.getSocketPorts().get(3).getCodec()),
+				() -> assertEquals(OutboundPolicy.QUEUE, __configuration.getWebSocketPorts().get(0).getOutboundPolicy()),
+				() -> assertEquals(true, __configuration.getWebSocketPorts().get(0).isPooledAllocator()),
+				() -> assertEquals(1, __configuration.getInt(Configuration.PRODUCER_THREADS)));
+	}
+
+	@Test
+	public void onlyLoweredHighWaterMarkShouldPullTheLowOneDown() throws Exception {
+		var configuration = new Configuration(__withMainPortAttributes("highWaterMark=\"16384\""));
+		assertAll("onlyLoweredHighWaterMark",
+				() -> assertEquals(16384, configuration.getSocketPorts().get(0).getHighWaterMark()),
+				() -> assertEquals(16384, configuration.getSocketPorts().get(0).getLowWaterMark()));
+	}
+
+	@Test
+	public void onlyRaisedLowWaterMarkShouldPushTheHighOneUp() throws Exception {
+		var configuration = new Configuration(__withMainPortAttributes("lowWaterMark=\"131072\""));
+		assertAll("onlyRaisedLowWaterMark",
+				() -> assertEquals(131072, configuration.getSocketPorts().get(0).getHighWaterMark()),
+				() -> assertEquals(131072, configuration.getSocketPorts().get(0).getLowWaterMark()));
+	}
+
+	@Test
+	public void lowWaterMarkAboveHighWaterMarkShouldCauseException() {
+		assertThrows(IllegalArgumentException.class, () -> __configuration
+				.load(__withMainPortAttributes("lowWaterMark=\"65536\" highWaterMark=\"32768\"")));
+	}
+
+	private String __withMainPortAttributes(String attributes) throws Exception {
+		var content = Files.readString(Paths.get("TenIOConfig.example.xml"))
+				.replace("<Port name=\"main\" type=\"tcp\"", "<Port name=\"main\" type=\"tcp\" " + attributes);
+		Path file = Files.createTempFile("TenIOConfig", ".xml");
+		file.toFile().deleteOnExit();
+		Files.writeString(file, content);
+		return file.toString();
+	}
+
 	@AfterEach
 	public void tearDown() {
 		// do nothing
@@ -29,7 +29,11 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +42,7 @@ import org.junit.jupiter.api.Test;
 import com.tenio.api.PlayerApi;
 import com.tenio.api.RoomApi;
 import com.tenio.configuration.Configuration;
+import com.tenio.configuration.constant.ConnectionType;
 import com.tenio.configuration.constant.ErrorMsg;
 import com.tenio.entity.manager.IPlayerManager;
 import com.tenio.entity.manager.IRoomManager;
@@ -50,6 +55,9 @@ import com.tenio.exception.DuplicatedRoomException;
 import com.tenio.exception.NullPlayerNameException;
 import com.tenio.model.PlayerModel;
 import com.tenio.model.RoomModel;
+import com.tenio.network.netty.NettyConnection;
+
+import io.netty.channel.embedded.EmbeddedChannel;
 
 /**
  * @author kong
@@ -142,6 +150,71 @@ public final class PlayerRoomTest {
 		assertEquals(0, __playerApi.countPlayers());
 	}
 
+	private EmbeddedChannel __newChannel() {
+		return new EmbeddedChannel() {
+			@Override
+			protected SocketAddress remoteAddress0() {
+				return new InetSocketAddress("127.0.0.1", 8032);
+			}
+		};
+	}
+
+	@Test
+	public void countPlayersByConnectionTypesShouldReturnTrueValue() {
+		for (int i = 0; i < 5; i++) {
+			var type = i < 3 ? ConnectionType.SOCKET : ConnectionType.WEB_SOCKET;
+			var connection = NettyConnection.newInstance(0, __eventManager, type, __newChannel());
+			__playerApi.login(new PlayerModel("player" + i), connection);
+		}
+		__playerApi.login(new PlayerModel("bot"));
+		__playerApi.logOut("player0");
+
+		assertAll("countByTypes", () -> assertEquals(5, __playerApi.count()),
+				() -> assertEquals(4, __playerApi.countPlayers()),
+				() -> assertEquals(2, __playerApi.countPlayers(ConnectionType.SOCKET)),
+				() -> assertEquals(2, __playerApi.countPlayers(ConnectionType.WEB_SOCKET)),
+				() -> assertEquals(0, __playerApi.countPlayers(ConnectionType.DATAGRAM)));
+	}
+
+	@Test
+	public void concurrentChangesShouldKeepCountersConsistent() throws InterruptedException {
+		var failures = new AtomicInteger();
+		var threads = new ArrayList<Thread>();
+		for (int t = 0; t < 4; t++) {
+			int thread = t;
+			threads.add(new Thread(() -> {
+				try {
+					for (int i = 0; i < 2000; i++) {
+						var player = new PlayerModel("player" + thread + "-" + i);
+						__playerApi.login(player);
+						for (var iterated : __playerApi.gets().values()) {
+							iterated.getName();
+						}
+						if (i % 2 == 0) {
+							__playerApi.logOut(player);
+						}
+					}
+				} catch (RuntimeException e) {
+					failures.incrementAndGet();
+				}
+			}));
+		}
+		for (var thread : threads) {
+			thread.start();
+		}
+		for (var thread : threads) {
+			thread.join();
+		}
+
+		assertAll("concurrent", () -> assertEquals(0, failures.get()), () -> assertEquals(4000, __playerApi.count()),
+				() -> assertEquals(4000, __playerApi.gets().size()));
+	}
+
+	@Test
+	public void changePlayersThroughTheirViewShouldCauseException() {
+		assertThrows(UnsupportedOperationException.class, () -> __playerApi.gets().remove(__testPlayerName));
+	}
+
 	@Test
 	public void removePlayerShouldReturnSuccess() {
 		var player = new PlayerModel(__testPlayerName);
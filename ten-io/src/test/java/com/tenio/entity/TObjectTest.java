@@ -0,0 +1,129 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.entity;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.entity.element.TObject;
+
+/**
+ * @author kong
+ */
+public final class TObjectTest {
+
+	private TObject __object;
+
+	@BeforeEach
+	public void initialize() {
+		__object = TObject.newInstance();
+		__object.add("c", 1).add("p", "player").add("d", 2.5);
+	}
+
+	@Test
+	public void compactObjectShouldKeepInsertionOrder() {
+		__object.put("c", 10);
+		__object.remove("p");
+		__object.put("u", true);
+
+		assertAll("compactObject", () -> assertEquals(3, __object.size()),
+				() -> assertEquals(10, __object.getInt("c")), () -> assertNull(__object.get("p")),
+				() -> assertEquals(List.of("c", "d", "u"), new ArrayList<String>(__object.keySet())));
+	}
+
+	@Test
+	public void largeObjectShouldBehaveLikeHashMap() {
+		var expected = new HashMap<String, Object>(__object);
+		for (int i = 0; i < TObject.COMPACT_LIMIT * 2; i++) {
+			__object.put("key" + i, i);
+			expected.put("key" + i, i);
+		}
+		__object.remove("key3");
+		expected.remove("key3");
+
+		assertAll("largeObject", () -> assertEquals(expected, __object), () -> assertEquals(__object, expected),
+				() -> assertEquals(expected.hashCode(), __object.hashCode()),
+				() -> assertEquals(15, __object.getInt("key15")));
+	}
+
+	@Test
+	public void clearedLargeObjectShouldBeReusable() {
+		for (int i = 0; i < TObject.COMPACT_LIMIT * 2; i++) {
+			__object.put("key" + i, i);
+		}
+		__object.clear();
+		__object.put("c", 1);
+
+		assertAll("clearedObject", () -> assertEquals(1, __object.size()),
+				() -> assertEquals(1, __object.getInt("c")), () -> assertFalse(__object.containsKey("key0")));
+	}
+
+	@Test
+	public void removeWhileIteratingShouldKeepOtherEntries() {
+		var iterator = __object.entrySet().iterator();
+		while (iterator.hasNext()) {
+			var entry = iterator.next();
+			if (entry.getKey().equals("p")) {
+				iterator.remove();
+			} else {
+				entry.setValue(0);
+			}
+		}
+
+		assertAll("iterator", () -> assertEquals(2, __object.size()), () -> assertEquals(0, __object.getInt("c")),
+				() -> assertEquals(0, __object.getInt("d")), () -> assertFalse(__object.containsKey("p")));
+	}
+
+	@Test
+	public void entryShouldBeChangedAfterAnEarlierRemoval() {
+		var entries = new ArrayList<Map.Entry<String, Object>>(__object.entrySet());
+		// the following entries are moved forward
+		__object.remove("c");
+		entries.get(2).setValue(0);
+
+		assertAll("entry", () -> assertEquals(0, __object.getInt("d")),
+				() -> assertEquals("player", __object.get("p")),
+				() -> assertThrows(IllegalStateException.class, () -> entries.get(0).setValue(0)));
+	}
+
+	@Test
+	public void clonedObjectShouldBeEqual() {
+		var clone = __object.clone();
+		clone.put("c", 2);
+
+		assertAll("clone", () -> assertEquals(1, __object.getInt("c")), () -> assertEquals(3, clone.size()));
+	}
+
+}
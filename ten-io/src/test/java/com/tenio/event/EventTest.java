@@ -27,6 +27,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,6 +45,7 @@ import com.tenio.configuration.constant.TEvent;
 import com.tenio.entity.manager.IPlayerManager;
 import com.tenio.entity.manager.PlayerManager;
 import com.tenio.model.PlayerModel;
+import com.tenio.network.Connection;
 
 /**
  * @author kong
@@ -93,6 +102,144 @@ public final class EventTest {
 		assertAll("CCU", () -> assertEquals(0, __testCCU[0]), () -> assertEquals(1, __testCCU[1]));
 	}
 
+	@Test
+	public void typedAndUntypedSubscribersShouldBeCalledInOrder() {
+		var calls = new ArrayList<String>();
+		var player = new PlayerModel("kong");
+		var message = new Object();
+		__eventManager.getExternal().on(TEvent.RECEIVED_FROM_PLAYER, (sender, index, content) -> {
+			assertAll("typed", () -> assertSame(player, sender), () -> assertEquals(2, index),
+					() -> assertSame(message, content));
+			calls.add("typed");
+		});
+		__eventManager.getExternal().on(TEvent.RECEIVED_FROM_PLAYER, args -> {
+			assertAll("untyped", () -> assertSame(player, args[0]), () -> assertEquals(2, args[1]),
+					() -> assertSame(message, args[2]));
+			calls.add("untyped");
+			return "result";
+		});
+		__eventManager.subscribe();
+
+		assertEquals("result", __eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, player, 2, message));
+		// the typed subscriber also receives an untyped emit
+		__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, new Object[] { player, 2, message });
+		assertEquals(List.of("typed", "untyped", "typed", "untyped"), calls);
+	}
+
+	@Test
+	public void typedChannelSubscriberShouldReceiveMessage() {
+		var received = new Object[1];
+		__eventManager.getInternal().on(LEvent.CHANNEL_HANDLE, (index, connection, message, newConnection) -> {
+			received[0] = message;
+		});
+		__eventManager.subscribe();
+		var message = new Object();
+
+		assertNull(__eventManager.getInternal().emit(LEvent.CHANNEL_HANDLE, 1, (Connection) null, message, null));
+		assertSame(message, received[0]);
+	}
+
+	@Test
+	public void typedEmitShouldNotAllocate() {
+		var counter = new int[1];
+		__eventManager.getExternal().on(TEvent.RECEIVED_FROM_PLAYER, (player, index, message) -> counter[0] += index);
+		__eventManager.getInternal().on(LEvent.CHANNEL_HANDLE, (index, connection, message, newConnection) -> {
+			__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, null, index, message);
+		});
+		__eventManager.subscribe();
+		var message = new Object();
+		var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		for (int i = 0; i < 10000; i++) {
+			__eventManager.getInternal().emit(LEvent.CHANNEL_HANDLE, 1000, null, message, null);
+		}
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 100000; i++) {
+			__eventManager.getInternal().emit(LEvent.CHANNEL_HANDLE, 1000, null, message, null);
+		}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		assertEquals(110000 * 1000, counter[0]);
+		// a boxed index or a parameters array would take megabytes
+		assertTrue(allocated + " bytes", allocated < 64 * 1024);
+	}
+
+	@Test
+	public void subscribersShouldBeChangedAtRuntime() {
+		var counter = new int[1];
+		ISubscriber sub = args -> {
+			counter[0]++;
+			return null;
+		};
+		IMessageSubscriber messageSub = (player, index, message) -> counter[0] += 10;
+		var player = new PlayerModel("runtime");
+
+		__eventManager.getExternal().on(TEvent.PLAYER_TIMEOUT, sub);
+		__eventManager.getExternal().on(TEvent.RECEIVED_FROM_PLAYER, messageSub);
+		__eventManager.getExternal().emit(TEvent.PLAYER_TIMEOUT, player);
+		__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, player, 0, "message");
+
+		assertTrue(__eventManager.getExternal().off(TEvent.PLAYER_TIMEOUT, sub));
+		assertTrue(__eventManager.getExternal().off(TEvent.RECEIVED_FROM_PLAYER, messageSub));
+		assertFalse(__eventManager.getExternal().off(TEvent.PLAYER_TIMEOUT, sub));
+		__eventManager.getExternal().emit(TEvent.PLAYER_TIMEOUT, player);
+		__eventManager.getExternal().emit(TEvent.RECEIVED_FROM_PLAYER, player, 0, "message");
+
+		assertAll("runtime", () -> assertEquals(11, counter[0]),
+				() -> assertFalse(__eventManager.getExternal().hasSubscriber(TEvent.PLAYER_TIMEOUT)),
+				() -> assertTrue(__eventManager.getExternal().hasSubscriber(TEvent.CCU)));
+	}
+
+	@Test
+	public void internalSubscriberShouldBeRemovedAtRuntime() {
+		assertTrue(__eventManager.getInternal().hasSubscriber(LEvent.FORCE_PLAYER_LEAVE_ROOM));
+		assertTrue(__eventManager.getInternal().off(LEvent.FORCE_PLAYER_LEAVE_ROOM));
+
+		assertAll("off", () -> assertFalse(__eventManager.getInternal().hasSubscriber(LEvent.FORCE_PLAYER_LEAVE_ROOM)),
+				() -> assertNull(__eventManager.getInternal().emit(LEvent.FORCE_PLAYER_LEAVE_ROOM, "kong")),
+				() -> assertFalse(__eventManager.getInternal().off(LEvent.FORCE_PLAYER_LEAVE_ROOM)));
+	}
+
+	@Test
+	public void emitsShouldSeeCompleteTablesWhileSubscribersChange() throws InterruptedException {
+		var counter = new AtomicLong();
+		var failures = new AtomicLong();
+		var running = new AtomicBoolean(true);
+		var emitters = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			var emitter = new Thread(() -> {
+				while (running.get()) {
+					try {
+						__eventManager.getExternal().emit(TEvent.CCU, 0, 0);
+						__eventManager.getExternal().emit(TEvent.PLAYER_TIMEOUT, "kong");
+					} catch (RuntimeException e) {
+						failures.incrementAndGet();
+					}
+				}
+			});
+			emitters.add(emitter);
+			emitter.start();
+		}
+
+		for (int i = 0; i < 10000; i++) {
+			ISubscriber sub = args -> {
+				counter.incrementAndGet();
+				return null;
+			};
+			__eventManager.getExternal().on(TEvent.PLAYER_TIMEOUT, sub);
+			__eventManager.getExternal().off(TEvent.PLAYER_TIMEOUT, sub);
+		}
+		running.set(false);
+		for (var emitter : emitters) {
+			emitter.join();
+		}
+
+		assertAll("concurrent", () -> assertEquals(0, failures.get()),
+				() -> assertTrue(__eventManager.getExternal().hasSubscriber(TEvent.CCU)),
+				() -> assertFalse(__eventManager.getExternal().hasSubscriber(TEvent.PLAYER_TIMEOUT)));
+	}
+
 	@Test
 	public void clearAllTEventShouldReturnZero() {
 		__eventManager.getExternal().clear();
@@ -0,0 +1,156 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.extension;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.entity.element.TObject;
+import com.tenio.exception.DuplicatedOpcodeException;
+import com.tenio.model.PlayerModel;
+
+import io.netty.buffer.Unpooled;
+
+/**
+ * @author kong
+ */
+public final class MessageRouterTest {
+
+	private enum Opcode {
+		LOGIN, MOVE, CHAT
+	}
+
+	private MessageRouter __router;
+	private PlayerModel __player;
+	private List<String> __handled;
+
+	@BeforeEach
+	public void initialize() {
+		__router = MessageRouter.newInstance(Constants.OPCODE_KEY);
+		__player = new PlayerModel("kong");
+		__handled = new ArrayList<String>();
+	}
+
+	private TObject __message(Object opcode) {
+		var message = TObject.newInstance();
+		message.put(Constants.OPCODE_KEY, opcode);
+		message.put("d", "data");
+		return message;
+	}
+
+	@Test
+	public void messagesShouldBeDispatchedByTheirOpcodes() {
+		__router.route(1, (player, index, message) -> __handled.add("one"));
+		__router.route(200, (player, index, message) -> __handled.add("two hundred"));
+
+		__router.dispatch(__player, 0, __message(200));
+		__router.dispatch(__player, 0, __message(1));
+
+		assertEquals(List.of("two hundred", "one"), __handled);
+	}
+
+	@Test
+	public void enumOpcodesShouldUseTheirOrdinals() {
+		__router.route(Opcode.MOVE, (player, index, message) -> __handled.add(Opcode.MOVE.name()));
+
+		__router.dispatch(__player, 0, __message(Opcode.MOVE.ordinal()));
+
+		assertEquals(List.of(Opcode.MOVE.name()), __handled);
+	}
+
+	@Test
+	public void rawDataShouldBeDispatchedByItsFirstByte() {
+		__router.route(7, (player, index, message) -> __handled.add("seven"));
+		var data = Unpooled.wrappedBuffer(new byte[] { 7, 1, 2, 3 });
+
+		__router.dispatch(__player, 1, data);
+
+		assertAll("dispatchRaw", () -> assertEquals(List.of("seven"), __handled),
+				() -> assertEquals(0, data.readerIndex()));
+	}
+
+	@Test
+	public void unknownOpcodesShouldBeRejected() {
+		__router.route(1, (player, index, message) -> __handled.add("one"));
+		__router.setFallback((player, index, message) -> __handled.add("fallback"));
+
+		__router.dispatch(__player, 0, __message(2));
+		__router.dispatch(__player, 0, __message(100000));
+		__router.dispatch(__player, 0, __message("1"));
+		__router.dispatch(__player, 0, TObject.newInstance());
+		__router.dispatch(__player, 0, Unpooled.EMPTY_BUFFER);
+
+		assertAll("reject", () -> assertEquals(5, __router.getRejections()),
+				() -> assertEquals(List.of("fallback", "fallback", "fallback", "fallback", "fallback"), __handled),
+				() -> assertEquals(0, __router.getInvocations(1)));
+	}
+
+	@Test
+	public void addADuplicatedOpcodeShouldCauseException() {
+		__router.route(1, (player, index, message) -> {
+		});
+
+		assertThrows(DuplicatedOpcodeException.class, () -> __router.route(1, (player, index, message) -> {
+		}));
+	}
+
+	@Test
+	public void addAnOpcodeOutOfRangeShouldCauseException() {
+		assertAll("outOfRange",
+				() -> assertThrows(IllegalArgumentException.class, () -> __router.route(-1, (player, index, message) -> {
+				})), () -> assertThrows(IllegalArgumentException.class,
+						() -> __router.route(Constants.MAX_OPCODE + 1, (player, index, message) -> {
+						})));
+	}
+
+	@Test
+	public void invocationsShouldBeCountedByOpcodes() {
+		assertFalse(__router.hasRoutes());
+		__router.route(1, (player, index, message) -> {
+		});
+		__router.route(2, (player, index, message) -> {
+		});
+		assertTrue(__router.hasRoutes());
+
+		for (int i = 0; i < 3; i++) {
+			__router.dispatch(__player, 0, __message(1));
+		}
+		__router.dispatch(__player, 0, __message(2));
+
+		assertAll("count", () -> assertEquals(3, __router.getInvocations(1)),
+				() -> assertEquals(1, __router.getInvocations(2)), () -> assertEquals(0, __router.getInvocations(3)),
+				() -> assertTrue(__router.getHandlingTime(1) >= 0), () -> assertEquals(0, __router.getRejections()));
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.tenio.engine.physic.math.Vector2;
+import com.tenio.entity.element.TByteArray;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.BitReader;
+import com.tenio.message.codec.BitWriter;
+import com.tenio.message.codec.MsgPackConverter;
+import com.tenio.message.codec.Quantizer;
+import com.tenio.message.codec.VectorQuantizer;
+
+/**
+ * @author kong
+ */
+public final class BitStreamTest {
+
+	@Test
+	public void bitsAcrossBytesShouldBeReadBack() {
+		var writer = BitWriter.newInstance().wrap(TByteArray.newInstance());
+		writer.writeBits(5, 3).writeBits(0x1ABC, 13).writeBoolean(true).writeBits(-1L, 64).writeFloat(-12.75f);
+		var bytes = writer.flush();
+
+		assertEquals(3 + 13 + 1 + 64 + 32, writer.getBitCount());
+		assertEquals((3 + 13 + 1 + 64 + 32 + 7) / 8, bytes.size());
+
+		var reader = BitReader.newInstance().wrap(bytes);
+		assertAll("readBits", () -> assertEquals(5, reader.readBits(3)),
+				() -> assertEquals(0x1ABC, reader.readBits(13)), () -> assertTrue(reader.readBoolean()),
+				() -> assertEquals(-1L, reader.readBits(64)), () -> assertEquals(-12.75f, reader.readFloat()));
+	}
+
+	@Test
+	public void signedBitsShouldBeSignExtended() {
+		var writer = BitWriter.newInstance().wrap(TByteArray.newInstance());
+		writer.writeSignedBits(-4, 3).writeSignedBits(3, 3).writeSignedBits(-1000, 12);
+		var reader = BitReader.newInstance().wrap(writer.flush());
+
+		assertAll("readSignedBits", () -> assertEquals(-4, reader.readSignedBits(3)),
+				() -> assertEquals(3, reader.readSignedBits(3)), () -> assertEquals(-1000, reader.readSignedBits(12)));
+		assertThrows(IllegalArgumentException.class, () -> writer.writeSignedBits(4, 3));
+	}
+
+	@Test
+	public void readingPastTheEndShouldThrowException() {
+		var writer = BitWriter.newInstance().wrap(TByteArray.newInstance());
+		var reader = BitReader.newInstance().wrap(writer.writeBits(1, 1).flush());
+
+		assertEquals(8, reader.getRemainingBits());
+		reader.readBits(8);
+		assertThrows(IndexOutOfBoundsException.class, () -> reader.readBits(1));
+		assertThrows(IllegalArgumentException.class, () -> writer.writeBits(0, 65));
+	}
+
+	@Test
+	public void quantizedValueShouldStayInPrecision() {
+		var quantizer = Quantizer.newInstance(-500, 500, 16);
+		var random = new Random(1993);
+		for (int i = 0; i < 1000; i++) {
+			float value = random.nextFloat() * 1000 - 500;
+			assertEquals(value, quantizer.dequantize(quantizer.quantize(value)), quantizer.getPrecision() / 2 + 1e-4f);
+		}
+
+		assertAll("clamp", () -> assertEquals(0, quantizer.quantize(-501)),
+				() -> assertEquals((1 << 16) - 1, quantizer.quantize(10000)),
+				() -> assertEquals(500, quantizer.dequantize(quantizer.quantize(500))));
+	}
+
+	@Test
+	public void quantizedAngleShouldWrapAround() {
+		var angle = Quantizer.newAngleInstance(8);
+
+		assertAll("wrap", () -> assertEquals(angle.quantize(10), angle.quantize(370)),
+				() -> assertEquals(angle.quantize(350), angle.quantize(-10)), () -> assertEquals(0, angle.quantize(360)),
+				() -> assertEquals(360f / 256, angle.getPrecision(), 1e-6f));
+	}
+
+	@Test
+	public void quantizedVectorShouldBeReadBack() {
+		var positions = VectorQuantizer.newInstance(0, 1000, 16);
+		var velocities = VectorQuantizer.newInstance(-50, 50, 10);
+		var writer = BitWriter.newInstance().wrap(TByteArray.newInstance());
+		positions.write(writer, Vector2.newInstance().set(123.4f, 987.6f));
+		velocities.write(writer, Vector2.newInstance().set(-12.5f, 49f));
+		var reader = BitReader.newInstance().wrap(writer.flush());
+
+		var position = positions.read(reader, Vector2.newInstance());
+		var velocity = velocities.read(reader, Vector2.newInstance());
+		assertAll("read", () -> assertEquals(123.4f, position.x, 0.01f), () -> assertEquals(987.6f, position.y, 0.01f),
+				() -> assertEquals(-12.5f, velocity.x, 0.1f), () -> assertEquals(49f, velocity.y, 0.1f));
+		assertEquals(positions.getBits() + velocities.getBits(), writer.getBitCount());
+	}
+
+	@Test
+	public void bitPackedSnapshotShouldBeSmallerThanMessagePack() {
+		int entities = 500;
+		var positions = VectorQuantizer.newInstance(0, 1000, 14);
+		var rotation = Quantizer.newAngleInstance(7);
+		var writer = BitWriter.newInstance().wrap(TByteArray.newInstance());
+		var ints = TIntArray.newInstance();
+		var random = new Random(1993);
+		writer.writeBits(entities, 16);
+		for (int i = 0; i < entities; i++) {
+			var position = Vector2.newInstance().set(random.nextFloat() * 1000, random.nextFloat() * 1000);
+			float angle = random.nextFloat() * 360;
+			positions.write(writer, position);
+			rotation.write(writer, angle);
+			// the usual way: the values multiplied by 100 in a TIntArray
+			ints.put(i).put((int) (position.x * 100)).put((int) (position.y * 100)).put((int) (angle * 100));
+		}
+
+		var bytes = writer.flush();
+		var packed = TObject.newInstance();
+		packed.put("s", bytes);
+		var plain = TObject.newInstance();
+		plain.put("s", ints);
+		int packedSize = MsgPackConverter.serialize(packed).length;
+		int plainSize = MsgPackConverter.serialize(plain).length;
+
+		assertEquals((16 + entities * 35 + 7) / 8, bytes.size());
+		assertTrue(packedSize * 3 < plainSize, packedSize + " bytes against " + plainSize + " bytes");
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.tenio.annotation.Field;
+import com.tenio.annotation.Message;
+import com.tenio.api.pool.MessagePool;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.KeyDictionary;
+import com.tenio.message.codec.MessageCodecs;
+import com.tenio.message.codec.MsgPackConverter;
+import com.tenio.message.codec.MsgPackReader;
+
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * @author kong
+ */
+public final class MessageCodecTest {
+
+	@Message
+	public static class Move {
+
+		@Field(name = "n")
+		String name;
+		@Field
+		int x;
+		@Field
+		long time;
+		@Field
+		float speed;
+		@Field
+		double angle;
+		@Field
+		boolean running;
+		@Field
+		Integer level;
+		@Field
+		TIntArray path;
+
+		// not sent
+		int cache;
+
+	}
+
+	private Move __newMove() {
+		var move = MessageCodecs.get(Move.class).newMessage();
+		move.name = "kong";
+		move.x = -300;
+		move.time = 1L << 40;
+		move.speed = 1.5F;
+		move.angle = 0.25;
+		move.running = true;
+		move.level = 7;
+		move.path = TIntArray.newInstance().put(1).put(2);
+		move.cache = 99;
+		return move;
+	}
+
+	private TObject __newObject() {
+		var object = TObject.newInstance();
+		object.put("n", "kong");
+		object.put("x", -300);
+		object.put("time", 1L << 40);
+		object.put("speed", 1.5F);
+		object.put("angle", 0.25);
+		object.put("running", true);
+		object.put("level", 7);
+		object.put("path", TIntArray.newInstance().put(1).put(2));
+		return object;
+	}
+
+	@Test
+	public void encodeSameAsObjectShouldReturnTrue() {
+		var expected = MsgPackConverter.serialize(__newObject());
+		var buffer = MessageCodecs.serializeToBuffer(__newMove(), null);
+		try {
+			assertArrayEquals(expected, ByteBufUtil.getBytes(buffer));
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void decodeEncodedMessageShouldReturnSameValues() {
+		var buffer = MessageCodecs.serializeToBuffer(__newMove(), null);
+		Move move;
+		try {
+			move = MessageCodecs.decode(MsgPackReader.read(buffer), Move.class);
+		} finally {
+			buffer.release();
+		}
+
+		assertAll("decode", () -> assertEquals("kong", move.name), () -> assertEquals(-300, move.x),
+				() -> assertEquals(1L << 40, move.time), () -> assertEquals(1.5F, move.speed),
+				() -> assertEquals(0.25, move.angle), () -> assertTrue(move.running),
+				() -> assertEquals(Integer.valueOf(7), move.level),
+				() -> assertEquals(TIntArray.newInstance().put(1).put(2), move.path),
+				() -> assertEquals(0, move.cache));
+	}
+
+	@Test
+	public void decodeMissingKeysShouldKeepFields() {
+		var source = TObject.newInstance();
+		source.put("x", 5);
+		source.put("level", null);
+		var move = __newMove();
+		MessageCodecs.get(Move.class).decode(source, move);
+
+		assertAll("decodeMissingKeys", () -> assertEquals(5, move.x), () -> assertEquals("kong", move.name),
+				() -> assertNull(move.level));
+	}
+
+	@Test
+	public void encodeWithDictionaryShouldWriteKeyIds() {
+		KeyDictionary.getInstance().register("n", "speed");
+		var expected = MsgPackConverter.serializeToBuffer(__newObject(), KeyDictionary.getInstance());
+		var buffer = MessageCodecs.serializeToBuffer(__newMove(), KeyDictionary.getInstance());
+		try {
+			assertAll("encodeWithDictionary", () -> assertTrue(ByteBufUtil.equals(expected, buffer)),
+					() -> assertEquals("kong", MsgPackReader.read(buffer.duplicate()).getString("n")));
+		} finally {
+			expected.release();
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void repayToPoolShouldResetMessage() {
+		var pool = new MessagePool<Move>(MessageCodecs.get(Move.class));
+		var move = pool.get();
+		move.name = "kong";
+		move.x = 10;
+		move.running = true;
+		pool.repay(move);
+		var reused = pool.get();
+
+		assertAll("repayToPool", () -> assertSame(move, reused), () -> assertNull(reused.name),
+				() -> assertEquals(0, reused.x), () -> assertFalse(reused.running));
+	}
+
+	@Test
+	public void getCodecOfPlainClassShouldReturnException() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			MessageCodecs.get(String.class);
+		});
+	}
+
+}
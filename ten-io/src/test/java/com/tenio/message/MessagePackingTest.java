@@ -23,17 +23,44 @@ THE SOFTWARE.
 */
 package com.tenio.message;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.util.Arrays;
 
+import org.msgpack.MessagePack;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.FramingMode;
+import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TByteArray;
+import com.tenio.entity.element.TFloatArray;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.entity.element.TLongArray;
 import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.KeyDictionary;
 import com.tenio.message.codec.MessagePacker;
 import com.tenio.message.codec.MsgPackConverter;
+import com.tenio.message.codec.MsgPackReader;
+import com.tenio.message.codec.MsgPackWriter;
+import com.tenio.network.netty.NettyConnection;
+import com.tenio.network.netty.socket.NettyFrameDecoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
 
 /**
  * @author kong
@@ -73,4 +100,336 @@ public final class MessagePackingTest {
 		assertEquals(__message, MsgPackConverter.unserialize(packWithContent));
 	}
 
+	@Test
+	public void messageSerializeToBufferShouldReturnSameContent() {
+		var packet = MsgPackConverter.serializeToBuffer(__message);
+		try {
+			assertArrayEquals(MsgPackConverter.serialize(__message), ByteBufUtil.getBytes(packet));
+		} finally {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void messageReadFromBufferShouldReturnSameObject() {
+		var array = TArray.newInstance();
+		array.add(-1);
+		array.add(Integer.MAX_VALUE);
+		array.add("element");
+		__message.put("array", array);
+		__message.put("nil", null);
+
+		var packet = MsgPackConverter.serializeToBuffer(__message);
+		try {
+			assertEquals(__message, MsgPackReader.read(packet));
+			assertFalse(packet.isReadable());
+		} finally {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void messageReadFromWrappedBytesShouldReturnTrue() {
+		var bytes = MsgPackConverter.serialize(__message);
+
+		assertEquals(__message, MsgPackReader.read(Unpooled.wrappedBuffer(bytes)));
+	}
+
+	@Test
+	public void messageWriterShouldMatchFormerConverter() throws IOException {
+		var array = TArray.newInstance();
+		array.add(0);
+		array.add(-33);
+		array.add(-129);
+		array.add(-32769);
+		array.add(128);
+		array.add(65536);
+		array.add(Long.MAX_VALUE);
+		array.add(Long.MIN_VALUE);
+		array.add((short) 300);
+		array.add((byte) -1);
+		array.add(1.5f);
+		array.add(false);
+		array.add(null);
+		__message.put("array", array);
+		__message.put("long string", "s".repeat(40));
+		__message.put("longer string", "s".repeat(70000));
+		__message.put("unicode", "xin chào");
+		__message.put("bytes", new byte[] { 1, 2, 3 });
+		var big = TArray.newInstance();
+		for (int i = 0; i < 20; i++) {
+			big.add(i * 1000);
+		}
+		__message.put("big array", big);
+		for (int i = 0; i < 20; i++) {
+			__message.put("key" + i, i);
+		}
+
+		var buffer = Unpooled.buffer();
+		MsgPackWriter.write(__message, buffer);
+
+		assertArrayEquals(new MessagePack().write(__message), ByteBufUtil.getBytes(buffer));
+	}
+
+	@Test
+	public void messageReadNestedObjectShouldReturnSameObject() {
+		var child = TObject.newInstance();
+		child.put("x", 1);
+		child.put("y", -1.5);
+		var array = TArray.newInstance();
+		array.add(child);
+		__message.put("child", child);
+		__message.put("children", array);
+
+		assertEquals(__message, MsgPackReader.read(MsgPackConverter.serialize(__message)));
+	}
+
+	@Test
+	public void messageReadShouldReuseCachedKeys() {
+		var first = MsgPackReader.read(MsgPackConverter.serialize(__message));
+		var second = MsgPackReader.read(MsgPackConverter.serialize(__message));
+
+		for (var key : first.keySet()) {
+			var same = second.keySet().stream().filter(key::equals).findFirst().get();
+			assertSame(key, same);
+		}
+	}
+
+	@Test
+	public void messageReadLazilyShouldDecodeOnFirstRead() {
+		var child = TObject.newInstance();
+		child.put("name", "child");
+		var array = TArray.newInstance();
+		array.add("element");
+		__message.put("child", child);
+		__message.put("array", array);
+
+		var packet = MsgPackConverter.serializeToBuffer(__message);
+		try {
+			var message = MsgPackReader.readLazy(packet);
+			assertFalse(packet.isReadable());
+			assertTrue(message.isLazy());
+			assertEquals("String", message.getString("string"));
+			assertEquals("child", message.getTObject("child").getString("name"));
+			assertTrue(message.isLazy());
+			assertEquals(__message, message);
+			assertFalse(message.isLazy());
+		} finally {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void primitiveArraysShouldBeReadAsSameTypes() {
+		var ints = TIntArray.newInstance();
+		for (int i = 0; i < 500; i++) {
+			ints.put(i * -7);
+		}
+		__message.put("ints", ints);
+		__message.put("one int", TIntArray.newInstance().put(Integer.MIN_VALUE));
+		__message.put("floats", TFloatArray.newInstance().put(1.5f).put(-0.25f).put(Float.NaN));
+		__message.put("longs", TLongArray.newInstance().put(Long.MAX_VALUE).put(-1L));
+		__message.put("bytes", TByteArray.newInstance().put((byte) -1));
+		__message.put("empty", TIntArray.newInstance());
+		__message.put("nested", TArray.newInstance().put(TIntArray.newInstance().put(7)));
+
+		var bytes = MsgPackConverter.serialize(__message);
+
+		assertEquals(__message, MsgPackReader.read(bytes));
+		assertEquals(__message, MsgPackReader.readLazy(Unpooled.wrappedBuffer(bytes)));
+	}
+
+	@Test
+	public void primitiveArrayShouldBeWrittenAsExtension() {
+		var message = TObject.newInstance();
+		message.put("i", TIntArray.newInstance().put(1).put(2));
+
+		var buffer = Unpooled.buffer();
+		MsgPackWriter.write(message, buffer);
+
+		// fixmap, fixstr "i", fixext 8, type, two big-endian integers
+		assertArrayEquals(new byte[] { (byte) 0x81, (byte) 0xa1, 'i', (byte) 0xd7, Constants.MSGPACK_EXT_INT_ARRAY, 0,
+				0, 0, 1, 0, 0, 0, 2 }, ByteBufUtil.getBytes(buffer));
+	}
+
+	@Test
+	public void unknownExtensionShouldCauseException() {
+		var bytes = new byte[] { (byte) 0x81, (byte) 0xa1, 'i', (byte) 0xd4, 99, 0 };
+
+		assertThrows(UnsupportedOperationException.class, () -> MsgPackReader.read(bytes));
+		assertThrows(UnsupportedOperationException.class, () -> MsgPackReader.readLazy(Unpooled.wrappedBuffer(bytes)));
+	}
+
+	@Test
+	public void uint64OutOfLongRangeShouldCauseException() {
+		var bytes = new byte[] { (byte) 0x81, (byte) 0xa1, 'u', (byte) 0xcf, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 };
+		var inRange = new byte[] { (byte) 0x81, (byte) 0xa1, 'u', (byte) 0xcf, 0x7f, (byte) 0xff, (byte) 0xff,
+				(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff };
+
+		assertThrows(IllegalArgumentException.class, () -> MsgPackReader.read(bytes));
+		assertThrows(IllegalArgumentException.class, () -> MsgPackReader.readLazy(Unpooled.wrappedBuffer(bytes)));
+		assertEquals(Long.MAX_VALUE, MsgPackReader.read(inRange).getLong("u"));
+	}
+
+	@Test
+	public void dictionaryKeysShouldBeReadAsRegisteredStrings() {
+		KeyDictionary.getInstance().register("string", "integer", "dictionary test key");
+		var child = TObject.newInstance();
+		child.put("integer", 1);
+		__message.put("child", child);
+
+		var buffer = MsgPackConverter.serializeToBuffer(__message, KeyDictionary.getInstance());
+		try {
+			var plain = MsgPackConverter.serialize(__message);
+			assertTrue(buffer.readableBytes() < plain.length);
+			var message = MsgPackReader.read(buffer);
+			assertEquals(__message, message);
+			for (var key : message.keySet()) {
+				if (key.equals("string")) {
+					assertSame(KeyDictionary.getInstance().getKey(KeyDictionary.getInstance().getId("string")), key);
+				}
+			}
+			// the legacy clients still send the keys' strings
+			assertEquals(__message, MsgPackReader.read(plain));
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void unknownDictionaryIdShouldCauseException() {
+		var bytes = new byte[] { (byte) 0x81, (byte) 0xcd, (byte) 0xff, (byte) 0xff, 1 };
+
+		assertThrows(IllegalArgumentException.class, () -> MsgPackReader.read(bytes));
+	}
+
+	@Test
+	public void messageReadLazilyShouldRejectTruncatedData() {
+		var bytes = MsgPackConverter.serialize(__message);
+
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> MsgPackReader.readLazy(Unpooled.wrappedBuffer(bytes, 0, bytes.length - 1)));
+	}
+
+	@Test
+	public void messageSerializeAfterReservedHeaderShouldKeepHeader() {
+		var buffer = PooledByteBufAllocator.DEFAULT.directBuffer();
+		try {
+			buffer.writeZero(Constants.HEADER_BYTES);
+			MsgPackConverter.serializeToBuffer(__message, buffer);
+			buffer.setShort(0, buffer.readableBytes() - Constants.HEADER_BYTES);
+
+			assertArrayEquals(MessagePacker.pack(MsgPackConverter.serialize(__message)), ByteBufUtil.getBytes(buffer));
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void packTooLongDataShouldCauseException() {
+		assertThrows(IllegalArgumentException.class, () -> MessagePacker.pack(new byte[Short.MAX_VALUE + 1]));
+	}
+
+	@Test
+	public void varintWriteAndReadShouldReturnSameValue() {
+		int[] values = { 0, 1, 127, 128, 16383, 16384, 40000, 1 << 21, Integer.MAX_VALUE };
+		int[] sizes = { 1, 1, 1, 2, 2, 3, 3, 4, 5 };
+		for (int i = 0; i < values.length; i++) {
+			var bytes = new byte[MessagePacker.MAX_VARINT_BYTES];
+			int size = MessagePacker.writeVarint(values[i], bytes, 0);
+			var buffer = Unpooled.buffer();
+			MessagePacker.writeVarint(buffer, values[i]);
+
+			assertEquals(sizes[i], size);
+			assertEquals(sizes[i], MessagePacker.getVarintSize(values[i]));
+			assertEquals(values[i], MessagePacker.readVarint(bytes, 0, size));
+			assertArrayEquals(Arrays.copyOf(bytes, size), ByteBufUtil.getBytes(buffer));
+			assertEquals(values[i], MessagePacker.readVarint(buffer));
+			assertFalse(buffer.isReadable());
+		}
+	}
+
+	@Test
+	public void readIncompleteVarintShouldReturnMinusOne() {
+		var buffer = Unpooled.wrappedBuffer(new byte[] { (byte) 0x80, (byte) 0x80 });
+
+		assertAll("readIncompleteVarint", () -> assertEquals(-1, MessagePacker.readVarint(buffer)),
+				() -> assertEquals(0, buffer.readerIndex()),
+				() -> assertEquals(-1, MessagePacker.readVarint(new byte[] { (byte) 0x80 }, 0, 1)));
+	}
+
+	@Test
+	public void readMalformedVarintShouldCauseException() {
+		var bytes = new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x0F };
+
+		assertThrows(IllegalArgumentException.class, () -> MessagePacker.readVarint(bytes, 0, bytes.length));
+	}
+
+	@Test
+	public void packVarintShouldPrependVarintLength() {
+		var data = new byte[40000];
+		Arrays.fill(data, (byte) 7);
+		var pack = MessagePacker.packVarint(data);
+
+		assertAll("packVarint", () -> assertEquals(3 + data.length, pack.length),
+				() -> assertEquals(data.length, MessagePacker.readVarint(pack, 0, pack.length)),
+				() -> assertArrayEquals(data, Arrays.copyOfRange(pack, 3, pack.length)));
+	}
+
+	@Test
+	public void frameDecoderShouldSplitVarintFrames() {
+		var channel = new EmbeddedChannel(new NettyFrameDecoder(Constants.MAX_FRAME_LENGTH));
+		var large = new byte[40000];
+		Arrays.fill(large, (byte) 1);
+		var small = new byte[] { 1, 2, 3 };
+		var stream = Unpooled.buffer();
+		stream.writeByte(Constants.VARINT_PREAMBLE);
+		stream.writeBytes(MessagePacker.packVarint(large));
+		stream.writeBytes(MessagePacker.packVarint(small));
+		// deliver the stream in small chunks
+		while (stream.isReadable()) {
+			channel.writeInbound(stream.readRetainedSlice(Math.min(1000, stream.readableBytes())));
+		}
+		stream.release();
+
+		ByteBuf first = channel.readInbound();
+		ByteBuf second = channel.readInbound();
+		assertAll("frameDecoderVarint",
+				() -> assertEquals(FramingMode.VARINT, channel.attr(NettyConnection.KEY_FRAMING).get()),
+				() -> assertArrayEquals(large, ByteBufUtil.getBytes(first)),
+				() -> assertArrayEquals(small, ByteBufUtil.getBytes(second)));
+		first.release();
+		second.release();
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void frameDecoderShouldKeepFixedFrames() {
+		var channel = new EmbeddedChannel(new NettyFrameDecoder(Constants.MAX_FRAME_LENGTH));
+		var bytes = MsgPackConverter.serialize(__message);
+		channel.writeInbound(Unpooled.wrappedBuffer(MessagePacker.pack(bytes)));
+
+		ByteBuf frame = channel.readInbound();
+		assertAll("frameDecoderFixed",
+				() -> assertEquals(FramingMode.FIXED, channel.attr(NettyConnection.KEY_FRAMING).get()),
+				() -> assertArrayEquals(bytes, ByteBufUtil.getBytes(frame)));
+		frame.release();
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void frameDecoderShouldDiscardTooLongFrame() {
+		var channel = new EmbeddedChannel(new NettyFrameDecoder(16));
+		var stream = Unpooled.buffer();
+		stream.writeByte(Constants.VARINT_PREAMBLE);
+		stream.writeBytes(MessagePacker.packVarint(new byte[100]));
+		stream.writeBytes(MessagePacker.packVarint(new byte[] { 9 }));
+
+		assertThrows(TooLongFrameException.class, () -> channel.writeInbound(stream));
+		ByteBuf frame = channel.readInbound();
+		assertArrayEquals(new byte[] { 9 }, ByteBufUtil.getBytes(frame));
+		frame.release();
+		channel.finishAndReleaseAll();
+	}
+
 }
@@ -0,0 +1,126 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.annotation.Message;
+import com.tenio.message.annotation.MessageProcessor;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @author kong
+ */
+public final class MessageProcessorTest {
+
+	private Path __output;
+
+	@BeforeEach
+	public void initialize() throws IOException {
+		__output = Files.createTempDirectory("tenio-processor");
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		try (var paths = Files.walk(__output)) {
+			paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	/**
+	 * Run the processor only on a message class
+	 * 
+	 * @param fields the fields' declarations
+	 * @return the compiling errors
+	 */
+	private List<String> __process(String... fields) throws URISyntaxException {
+		var source = new StringBuilder("package test;\n@com.tenio.annotation.Message\npublic class Foo {\n");
+		for (var field : fields) {
+			source.append("@com.tenio.annotation.Field ").append(field).append(";\n");
+		}
+		source.append("}\n");
+		var file = new SimpleJavaFileObject(new File("test/Foo.java").toURI(), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return source;
+			}
+		};
+
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		// the generated codec is compiled against Netty too
+		var classPath = __getLocation(Message.class) + File.pathSeparator + __getLocation(ByteBuf.class);
+		var task = ToolProvider.getSystemJavaCompiler().getTask(null, null, diagnostics,
+				List.of("-proc:only", "-classpath", classPath, "-d", __output.toString(), "-s",
+						__output.toString()),
+				null, List.of(file));
+		task.setProcessors(List.of(new MessageProcessor()));
+		task.call();
+		return diagnostics.getDiagnostics().stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+				.map(d -> d.getMessage(null)).collect(Collectors.toList());
+	}
+
+	private String __getLocation(Class<?> clazz) throws URISyntaxException {
+		return Path.of(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+	}
+
+	@Test
+	public void supportedFieldsShouldBeAccepted() throws URISyntaxException {
+		var errors = __process("int a", "Long b", "String c", "com.tenio.entity.element.TObject d",
+				"com.tenio.entity.element.TArray e", "com.tenio.entity.element.TIntArray f",
+				"java.util.List<String> g", "java.util.Collection<Object> h", "java.util.Map<String, Object> i");
+
+		assertTrue(errors.isEmpty(), errors.toString());
+	}
+
+	@Test
+	public void unsupportedFieldsShouldBeRejected() throws URISyntaxException {
+		var errors = __process("java.util.Date a", "Foo b", "Object c", "java.util.Set<String> d",
+				"java.util.HashMap<String, Object> e", "Number f");
+
+		assertAll("unsupported", () -> assertEquals(6, errors.size()),
+				() -> assertTrue(errors.stream().allMatch(error -> error.startsWith("A @Field must be"))));
+	}
+
+}
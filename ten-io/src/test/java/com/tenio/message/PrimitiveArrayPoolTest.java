@@ -0,0 +1,96 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.message;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.api.pool.PrimitiveArrayPool;
+import com.tenio.entity.element.TIntArray;
+import com.tenio.exception.NullElementPoolException;
+import com.tenio.pool.IElementPool;
+
+/**
+ * @author kong
+ */
+public final class PrimitiveArrayPoolTest {
+
+	private IElementPool<TIntArray> __arrayPool;
+
+	@BeforeEach
+	public void initialize() {
+		__arrayPool = new PrimitiveArrayPool<TIntArray>(TIntArray::newInstance);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		__arrayPool.cleanup();
+	}
+
+	@Test
+	public void createNewTIntArrayShouldReturnSuccess() {
+		TIntArray array = __arrayPool.get();
+
+		assertNotEquals(null, array);
+	}
+
+	@Test
+	public void repayAnArrayWithoutGetShouldCauseException() {
+		assertThrows(NullElementPoolException.class, () -> {
+			__arrayPool.repay(TIntArray.newInstance());
+		});
+	}
+
+	@Test
+	public void afterReplayArrayShouldBeClearedAllData() {
+		TIntArray array = __arrayPool.get();
+		array.put(10).put(20).put(30);
+		__arrayPool.repay(array);
+
+		assertTrue(array.isEmpty());
+	}
+
+	@Test
+	public void putMoreThanCapacityShouldKeepAllElements() {
+		var array = TIntArray.newInstance(1);
+		for (int i = 0; i < 100; i++) {
+			array.put(i);
+		}
+
+		assertEquals(100, array.size());
+		assertEquals(99, array.getInt(99));
+		assertArrayEquals(new int[] { 0, 1, 2 }, Arrays.copyOf(array.toArray(), 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> array.getInt(100));
+	}
+
+}
@@ -0,0 +1,291 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.configuration.Configuration;
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.DeliveryMode;
+import com.tenio.configuration.constant.FramingMode;
+import com.tenio.configuration.constant.LEvent;
+import com.tenio.configuration.constant.OutboundPolicy;
+import com.tenio.entity.element.TObject;
+import com.tenio.event.EventManager;
+import com.tenio.message.OutboundMessage;
+import com.tenio.message.codec.MessagePacker;
+import com.tenio.message.codec.MsgPackReader;
+import com.tenio.network.netty.NettyConnection;
+import com.tenio.network.netty.socket.NettySocketHandler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * @author kong
+ */
+public final class BackpressureTest {
+
+	private EventManager __eventManager;
+	private Configuration __configuration;
+	private EmbeddedChannel __channel;
+	private List<Long> __slows;
+	private int __replies;
+
+	@BeforeEach
+	public void initialize() throws Exception {
+		__eventManager = new EventManager();
+		__slows = new ArrayList<Long>();
+		__eventManager.getInternal().on(LEvent.CONNECTION_SLOW, args -> {
+			__slows.add((long) args[1]);
+			return null;
+		});
+		__eventManager.getInternal().on(LEvent.CHANNEL_HANDLE, args -> {
+			var connection = (Connection) (args[1] != null ? args[1] : args[3]);
+			for (int i = 0; i < __replies; i++) {
+				connection.send(__message(i));
+			}
+			return null;
+		});
+		__eventManager.getInternal().subscribe();
+		__configuration = new Configuration("TenIOConfig.example.xml");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		__channel.finishAndReleaseAll();
+	}
+
+	private Connection __newConnection(OutboundPolicy policy, long unwritableTimeout, ChannelHandler... handlers) {
+		var sock = __configuration.getSocketPorts().get(0);
+		sock.setOutboundPolicy(policy);
+		sock.setUnwritableTimeout(unwritableTimeout);
+		__channel = new EmbeddedChannel() {
+			@Override
+			protected SocketAddress remoteAddress0() {
+				return new InetSocketAddress("127.0.0.1", 8032);
+			}
+		};
+		__channel.pipeline().addLast(handlers);
+		__channel.pipeline().addLast(new NettySocketHandler(0, __eventManager, __configuration));
+		// the connection is created on the first message
+		__channel.writeInbound(TObject.newInstance());
+		return __channel.attr(NettyConnection.KEY_CONNECTION).get();
+	}
+
+	private void __setWritable(boolean writable) {
+		__channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+		// the change is fired later in the event loop
+		__channel.runPendingTasks();
+	}
+
+	private List<Integer> __readSequences() {
+		var sequences = new ArrayList<Integer>();
+		ByteBuf buffer;
+		while ((buffer = __channel.readOutbound()) != null) {
+			buffer.skipBytes(Constants.HEADER_BYTES);
+			sequences.add(MsgPackReader.read(buffer).getInt("i"));
+			buffer.release();
+		}
+		return sequences;
+	}
+
+	private TObject __message(int sequence) {
+		var message = TObject.newInstance();
+		message.put("i", sequence);
+		return message;
+	}
+
+	@Test
+	public void flushesDuringReadShouldBeConsolidated() {
+		var flushes = new AtomicInteger();
+		__newConnection(OutboundPolicy.QUEUE, Constants.UNWRITABLE_TIMEOUT, new ChannelOutboundHandlerAdapter() {
+			@Override
+			public void flush(ChannelHandlerContext ctx) throws Exception {
+				flushes.incrementAndGet();
+				super.flush(ctx);
+			}
+		}, new FlushConsolidationHandler(Constants.FLUSH_CONSOLIDATION_LIMIT, true));
+
+		// all replies sent while handling the messages are flushed once
+		__replies = 10;
+		__channel.writeInbound(TObject.newInstance(), TObject.newInstance());
+
+		assertAll("consolidate", () -> assertEquals(1, flushes.get()),
+				() -> assertEquals(20, __readSequences().size()));
+	}
+
+	@Test
+	public void varintConnectionShouldWriteVarintHeaders() {
+		var connection = __newConnection(OutboundPolicy.QUEUE, Constants.UNWRITABLE_TIMEOUT);
+		__channel.attr(NettyConnection.KEY_FRAMING).set(FramingMode.VARINT);
+		var large = __message(1);
+		large.put("s", "a".repeat(Short.MAX_VALUE + 1));
+		connection.send(__message(0));
+		connection.send(large);
+
+		ByteBuf small = __channel.readOutbound();
+		ByteBuf big = __channel.readOutbound();
+		assertAll("varint", () -> assertEquals(small.readableBytes() - 1, MessagePacker.readVarint(small)),
+				() -> assertEquals(0, MsgPackReader.read(small).getInt("i")),
+				() -> assertEquals(big.readableBytes() - 3, MessagePacker.readVarint(big)),
+				() -> assertEquals(1, MsgPackReader.read(big).getInt("i")));
+		small.release();
+		big.release();
+	}
+
+	@Test
+	public void fixedConnectionShouldNotWriteWhatItCanNotRead() {
+		var connection = __newConnection(OutboundPolicy.QUEUE, Constants.UNWRITABLE_TIMEOUT);
+		var large = __message(1);
+		// the body is longer than the limit, while its length still fits in 2 bytes
+		large.put("s", "a".repeat(Constants.MAX_FIXED_FRAME_LENGTH));
+		connection.send(large);
+		connection.send(__message(0));
+
+		assertEquals(List.of(0), __readSequences());
+	}
+
+	@Test
+	public void unwritableConnectionShouldFireSlowEvent() {
+		var connection = __newConnection(OutboundPolicy.QUEUE, Constants.UNWRITABLE_TIMEOUT);
+		__setWritable(false);
+
+		assertAll("slow", () -> assertFalse(connection.isWritable()), () -> assertEquals(1, __slows.size()));
+		__setWritable(true);
+		assertTrue(connection.isWritable());
+	}
+
+	@Test
+	public void dropOldestShouldOnlyKeepNewestDroppableMessages() {
+		var connection = __newConnection(OutboundPolicy.DROP_OLDEST, Constants.UNWRITABLE_TIMEOUT);
+		__setWritable(false);
+		int total = Constants.OUTBOUND_DROPPABLE_QUEUE + 8;
+		for (int i = 0; i < total; i++) {
+			connection.send(__message(i), DeliveryMode.UNRELIABLE_SEQUENCED);
+		}
+		assertTrue(__readSequences().isEmpty());
+
+		__setWritable(true);
+		var sequences = __readSequences();
+		assertAll("dropOldest", () -> assertEquals(Constants.OUTBOUND_DROPPABLE_QUEUE, sequences.size()),
+				() -> assertEquals(total - Constants.OUTBOUND_DROPPABLE_QUEUE, (int) sequences.get(0)),
+				() -> assertEquals(total - 1, (int) sequences.get(sequences.size() - 1)));
+	}
+
+	@Test
+	public void dropOldestShouldWriteHeldMessagesBeforeReliableOne() {
+		var connection = __newConnection(OutboundPolicy.DROP_OLDEST, Constants.UNWRITABLE_TIMEOUT);
+		__setWritable(false);
+		int total = Constants.OUTBOUND_DROPPABLE_QUEUE + 8;
+		for (int i = 0; i < total; i++) {
+			connection.send(__message(i), DeliveryMode.UNRELIABLE_SEQUENCED);
+		}
+		// the reliable messages are never dropped and do not overtake the held ones
+		connection.send(__message(-1), DeliveryMode.RELIABLE_ORDERED);
+		var sequences = __readSequences();
+		assertAll("dropOldestReliable",
+				() -> assertEquals(Constants.OUTBOUND_DROPPABLE_QUEUE + 1, sequences.size()),
+				() -> assertEquals(total - Constants.OUTBOUND_DROPPABLE_QUEUE, (int) sequences.get(0)),
+				() -> assertEquals(total - 1, (int) sequences.get(sequences.size() - 2)),
+				() -> assertEquals(-1, (int) sequences.get(sequences.size() - 1)));
+
+		__setWritable(true);
+		assertTrue(__readSequences().isEmpty());
+	}
+
+	@Test
+	public void dropOldestShouldDropUnreliableBroadcasts() {
+		var connection = __newConnection(OutboundPolicy.DROP_OLDEST, Constants.UNWRITABLE_TIMEOUT);
+		__setWritable(false);
+		int total = Constants.OUTBOUND_DROPPABLE_QUEUE + 8;
+		for (int i = 0; i < total; i++) {
+			// a broadcast shares one packet between the connections
+			var message = OutboundMessage.newInstance().initialize(__message(i), true, m -> {
+			});
+			connection.send(message, DeliveryMode.UNRELIABLE);
+			message.release();
+		}
+		// without a delivery mode, it is still queued behind the held ones
+		var message = OutboundMessage.newInstance().initialize(__message(-1), true, m -> {
+		});
+		connection.send(message);
+		message.release();
+		var sequences = __readSequences();
+		assertAll("dropOldestBroadcast",
+				() -> assertEquals(Constants.OUTBOUND_DROPPABLE_QUEUE + 1, sequences.size()),
+				() -> assertEquals(total - Constants.OUTBOUND_DROPPABLE_QUEUE, (int) sequences.get(0)),
+				() -> assertEquals(-1, (int) sequences.get(sequences.size() - 1)));
+	}
+
+	@Test
+	public void queueShouldNotDropAnyMessage() {
+		var connection = __newConnection(OutboundPolicy.QUEUE, Constants.UNWRITABLE_TIMEOUT);
+		__setWritable(false);
+		for (int i = 0; i < Constants.OUTBOUND_DROPPABLE_QUEUE + 8; i++) {
+			connection.send(__message(i), DeliveryMode.UNRELIABLE_SEQUENCED);
+		}
+
+		assertEquals(Constants.OUTBOUND_DROPPABLE_QUEUE + 8, __readSequences().size());
+	}
+
+	@Test
+	public void disconnectShouldCloseConnectionWhichStaysUnwritable() {
+		__newConnection(OutboundPolicy.DISCONNECT, 0);
+		__setWritable(false);
+		__channel.runScheduledPendingTasks();
+
+		assertFalse(__channel.isOpen());
+	}
+
+	@Test
+	public void disconnectShouldKeepConnectionWhichRecovers() throws Exception {
+		__newConnection(OutboundPolicy.DISCONNECT, 1);
+		__setWritable(false);
+		__setWritable(true);
+		Thread.sleep(1100);
+		__channel.runScheduledPendingTasks();
+
+		assertAll("recover", () -> assertTrue(__channel.isOpen()), () -> assertNull(__channel.readOutbound()));
+	}
+
+}
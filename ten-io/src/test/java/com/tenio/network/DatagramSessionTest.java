@@ -0,0 +1,108 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.event.EventManager;
+import com.tenio.network.netty.NettyConnection;
+import com.tenio.network.netty.datagram.NettyDatagramSessionRegistry;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * @author kong
+ */
+public final class DatagramSessionTest {
+
+	private static final long IDLE_TIMEOUT = 1000;
+
+	private EmbeddedChannel __channel;
+	private NettyDatagramSessionRegistry __sessions;
+
+	@BeforeEach
+	public void initialize() {
+		__channel = new EmbeddedChannel();
+		__sessions = new NettyDatagramSessionRegistry(2, IDLE_TIMEOUT);
+		__channel.attr(NettyConnection.KEY_DATAGRAM_SESSIONS).set(__sessions);
+	}
+
+	private Connection __newConnection(int port) {
+		var connection = NettyConnection.newInstance(1, new EventManager(), ConnectionType.DATAGRAM, __channel);
+		connection.setRemote(new InetSocketAddress("127.0.0.1", port));
+		connection.setThis();
+		return connection;
+	}
+
+	@Test
+	public void setThisShouldAddSessionByRemoteAddress() {
+		var connection = __newConnection(1);
+
+		assertAll("setThis", () -> assertSame(connection, connection.getThis()),
+				() -> assertSame(connection, __sessions.get(new InetSocketAddress("127.0.0.1", 1))),
+				() -> assertEquals(1, __sessions.count()));
+	}
+
+	@Test
+	public void addSessionWhenFullShouldReturnFalse() {
+		__newConnection(1);
+		__newConnection(2);
+		var connection = __newConnection(3);
+
+		assertAll("addSession", () -> assertTrue(__sessions.isFull()), () -> assertNull(connection.getThis()),
+				() -> assertFalse(__sessions.add(new InetSocketAddress("127.0.0.1", 3), connection)));
+	}
+
+	@Test
+	public void removeIdleSessionsShouldKeepAttachedSessions() {
+		var free = __newConnection(1);
+		var attached = __newConnection(2);
+		attached.setUsername("kong");
+
+		assertEquals(1, __sessions.removeIdleSessions(System.currentTimeMillis() + IDLE_TIMEOUT));
+		assertAll("removeIdleSessions", () -> assertNull(free.getThis()),
+				() -> assertSame(attached, attached.getThis()));
+	}
+
+	@Test
+	public void closeDatagramConnectionShouldOnlyRemoveSession() {
+		var connection = __newConnection(1);
+		connection.setUsername("kong");
+		connection.close();
+
+		assertAll("close", () -> assertNull(connection.getThis()), () -> assertTrue(__channel.isOpen()));
+	}
+
+}
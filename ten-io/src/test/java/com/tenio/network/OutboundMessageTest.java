@@ -0,0 +1,192 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.api.MessageApi;
+import com.tenio.configuration.constant.ConnectionType;
+import com.tenio.configuration.constant.LEvent;
+import com.tenio.entity.element.TObject;
+import com.tenio.event.EventManager;
+import com.tenio.message.OutboundMessage;
+import com.tenio.message.codec.MsgPackConverter;
+import com.tenio.model.PlayerModel;
+import com.tenio.network.netty.NettyConnection;
+import com.tenio.network.netty.datagram.NettyDatagramSessionRegistry;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.DatagramPacket;
+
+/**
+ * @author kong
+ */
+public final class OutboundMessageTest {
+
+	private EmbeddedChannel __channel;
+	private TObject __content;
+	private AtomicInteger __recycled;
+
+	@BeforeEach
+	public void initialize() {
+		__channel = new EmbeddedChannel();
+		__channel.attr(NettyConnection.KEY_DATAGRAM_SESSIONS).set(new NettyDatagramSessionRegistry(10, 1000));
+		__content = TObject.newInstance();
+		__content.put("c", "move");
+		__content.put("x", 100);
+		__recycled = new AtomicInteger();
+	}
+
+	private Connection __newConnection(int port) {
+		var connection = NettyConnection.newInstance(1, new EventManager(), ConnectionType.DATAGRAM, __channel);
+		connection.setRemote(new InetSocketAddress("127.0.0.1", port));
+		return connection;
+	}
+
+	private OutboundMessage __newMessage(boolean shared) {
+		return OutboundMessage.newInstance().initialize(__content, shared, message -> {
+			__recycled.incrementAndGet();
+			message.clear();
+		});
+	}
+
+	private byte[] __readOutbound() {
+		DatagramPacket packet = __channel.readOutbound();
+		try {
+			return ByteBufUtil.getBytes(packet.content());
+		} finally {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void sendMessageShouldRecycleAfterLastRelease() {
+		var message = __newMessage(false);
+		__newConnection(1).send(message);
+
+		assertAll("sendMessage", () -> assertEquals(0, __recycled.get()), () -> assertSame(__content,
+				message.getContent()));
+		message.release();
+
+		assertAll("released", () -> assertEquals(1, __recycled.get()), () -> assertEquals(0, message.refCnt()),
+				() -> assertNull(message.getContent()),
+				() -> assertArrayEquals(MsgPackConverter.serialize(__content), __readOutbound()));
+	}
+
+	@Test
+	public void sendTooLongMessageShouldBeReported() {
+		var channel = new EmbeddedChannel() {
+			@Override
+			protected SocketAddress remoteAddress0() {
+				return new InetSocketAddress("127.0.0.1", 8032);
+			}
+		};
+		var eventManager = new EventManager();
+		var causes = new ArrayList<Throwable>();
+		eventManager.getInternal().on(LEvent.CONNECTION_EXCEPTION, args -> {
+			causes.add((Throwable) args[2]);
+			return null;
+		});
+		eventManager.getInternal().subscribe();
+		var connection = NettyConnection.newInstance(0, eventManager, ConnectionType.SOCKET, channel);
+		__content.put("d", "x".repeat(0x10000));
+
+		connection.send(__content);
+
+		assertAll("sendTooLong", () -> assertEquals(1, causes.size()),
+				() -> assertTrue(causes.get(0) instanceof IllegalArgumentException),
+				() -> assertNull(channel.readOutbound()));
+	}
+
+	@Test
+	public void sendCallerObjectShouldNotRepayItToThePool() {
+		var expected = MsgPackConverter.serialize(__content);
+		var player = new PlayerModel("kong");
+		player.initializeConnections(1);
+		player.setConnection(__newConnection(1), 0);
+		var messageApi = new MessageApi(new EventManager());
+
+		// an echoed message belongs to the caller, only its wrapper is recycled
+		assertDoesNotThrow(() -> messageApi.sendToPlayer(player, 0, __content));
+		assertAll("sendCallerObject", () -> assertArrayEquals(expected, __readOutbound()),
+				() -> assertEquals(100, __content.getInt("x")));
+	}
+
+	@Test
+	public void sendSharedMessageShouldWriteSamePacket() {
+		var expected = MsgPackConverter.serialize(__content);
+		var message = __newMessage(true);
+		__newConnection(1).send(message);
+		__newConnection(2).send(message);
+		var packet = message.getPacket(null, __channel.alloc());
+		message.release();
+
+		assertAll("sendShared", () -> assertEquals(1, __recycled.get()),
+				() -> assertArrayEquals(expected, __readOutbound()),
+				() -> assertArrayEquals(expected, __readOutbound()),
+				// the written duplicates were the last holders
+				() -> assertEquals(0, packet.refCnt()));
+	}
+
+	@Test
+	public void sharedPacketShouldBeTakenFromChannelAllocator() {
+		__channel.config().setAllocator(UnpooledByteBufAllocator.DEFAULT);
+		var message = __newMessage(true);
+		__newConnection(1).send(message);
+		var packet = message.getPacket(null, __channel.alloc());
+
+		assertSame(UnpooledByteBufAllocator.DEFAULT, packet.alloc());
+		message.release();
+		__readOutbound();
+	}
+
+	@Test
+	public void sendToCleanedConnectionShouldNotRetainMessage() {
+		var connection = __newConnection(1);
+		connection.clean();
+		var message = __newMessage(false);
+		connection.send(message);
+
+		assertEquals(1, message.refCnt());
+		message.release();
+		assertEquals(1, __recycled.get());
+	}
+
+}
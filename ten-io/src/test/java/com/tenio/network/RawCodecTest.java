@@ -0,0 +1,160 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.configuration.Configuration;
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.LEvent;
+import com.tenio.event.EventManager;
+import com.tenio.message.OutboundMessage;
+import com.tenio.message.codec.IPacketDecoder;
+import com.tenio.message.codec.MessagePacker;
+import com.tenio.message.codec.MsgPackPacketDecoder;
+import com.tenio.message.codec.PacketDecoders;
+import com.tenio.message.codec.RawPacketDecoder;
+import com.tenio.network.netty.NettyConnection;
+import com.tenio.network.netty.socket.NettyFrameDecoder;
+import com.tenio.network.netty.socket.NettySocketDecoder;
+import com.tenio.network.netty.socket.NettySocketHandler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * @author kong
+ */
+public final class RawCodecTest {
+
+	/**
+	 * It is not a valid MessagePack map
+	 */
+	private static final byte[] VOICE = new byte[] { (byte) 0xC1, 1, 2, 3, 4 };
+
+	private EventManager __eventManager;
+	private Configuration __configuration;
+	private EmbeddedChannel __channel;
+	private List<Object> __received;
+
+	@BeforeEach
+	public void initialize() throws Exception {
+		__eventManager = new EventManager();
+		__received = new ArrayList<Object>();
+		__eventManager.getInternal().on(LEvent.CHANNEL_HANDLE, args -> {
+			__received.add(ByteBufUtil.getBytes((ByteBuf) args[2]));
+			return null;
+		});
+		__eventManager.getInternal().subscribe();
+		__configuration = new Configuration("TenIOConfig.example.xml");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		if (__channel != null) {
+			__channel.finishAndReleaseAll();
+		}
+	}
+
+	private void __newChannel(IPacketDecoder decoder) {
+		__channel = new EmbeddedChannel() {
+			@Override
+			protected SocketAddress remoteAddress0() {
+				return new InetSocketAddress("127.0.0.1", 8032);
+			}
+		};
+		__channel.pipeline().addLast(new NettyFrameDecoder(Constants.MAX_FRAME_LENGTH),
+				new NettySocketDecoder(decoder), new NettySocketHandler(0, __eventManager, __configuration));
+	}
+
+	@Test
+	public void rawPortShouldPassFramesThrough() {
+		__newChannel(new RawPacketDecoder());
+		var frames = Unpooled.wrappedBuffer(MessagePacker.pack(VOICE), MessagePacker.pack(new byte[] { 9 }));
+		__channel.writeInbound(frames);
+
+		assertAll("raw", () -> assertEquals(2, __received.size()),
+				() -> assertArrayEquals(VOICE, (byte[]) __received.get(0)),
+				() -> assertArrayEquals(new byte[] { 9 }, (byte[]) __received.get(1)),
+				// the data was released after it was handled
+				() -> assertEquals(0, frames.refCnt()));
+	}
+
+	@Test
+	public void msgpackPortShouldDropRawFrames() {
+		__newChannel(new MsgPackPacketDecoder(false));
+		__channel.writeInbound(Unpooled.wrappedBuffer(MessagePacker.pack(VOICE)));
+
+		assertAll("msgpack", () -> assertTrue(__received.isEmpty()), () -> assertNull(__channel.readInbound()));
+	}
+
+	@Test
+	public void sendRawShouldWriteDataAsIs() {
+		__newChannel(new RawPacketDecoder());
+		__channel.writeInbound(Unpooled.wrappedBuffer(MessagePacker.pack(VOICE)));
+		var connection = __channel.attr(NettyConnection.KEY_CONNECTION).get();
+
+		var data = Unpooled.wrappedBuffer(VOICE);
+		var message = OutboundMessage.newInstance().initialize(data, false, released -> data.release());
+		connection.send(message);
+		message.release();
+
+		ByteBuf frame = __channel.readOutbound();
+		assertAll("sendRaw", () -> assertTrue(message.isRaw()),
+				() -> assertEquals(VOICE.length, frame.readUnsignedShort()),
+				() -> assertArrayEquals(VOICE, ByteBufUtil.getBytes(frame)));
+		frame.release();
+		assertEquals(0, data.refCnt());
+	}
+
+	@Test
+	public void codecShouldBeCreatedByItsName() {
+		var sock = __configuration.getSocketPorts().get(3);
+
+		assertTrue(PacketDecoders.newInstance(sock) instanceof RawPacketDecoder);
+		sock.setCodec(RawPacketDecoder.class.getName());
+		assertTrue(PacketDecoders.newInstance(sock) instanceof RawPacketDecoder);
+		sock.setCodec("protobuf");
+		assertThrows(IllegalArgumentException.class, () -> PacketDecoders.newInstance(sock));
+		sock.setCodec(String.class.getName());
+		assertThrows(IllegalArgumentException.class, () -> PacketDecoders.newInstance(sock));
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.network;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.DeliveryMode;
+import com.tenio.network.netty.datagram.NettyReliableHandler;
+import com.tenio.network.netty.datagram.ReliableDatagramPacket;
+import com.tenio.network.netty.datagram.ReliableEndpoint;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.DatagramPacket;
+
+/**
+ * @author kong
+ */
+public final class ReliableDatagramTest {
+
+	private static final UnpooledByteBufAllocator ALLOC = UnpooledByteBufAllocator.DEFAULT;
+
+	private ReliableEndpoint __sender;
+	private ReliableEndpoint __receiver;
+	private List<ByteBuf> __packets;
+	private List<ByteBuf> __delivered;
+
+	@BeforeEach
+	public void initialize() {
+		__sender = new ReliableEndpoint(0);
+		__receiver = new ReliableEndpoint(0);
+		__packets = new ArrayList<ByteBuf>();
+		__delivered = new ArrayList<ByteBuf>();
+	}
+
+	private void __send(String content, DeliveryMode mode, long now) {
+		var payload = Unpooled.copiedBuffer(content.getBytes());
+		__sender.send(payload, mode, now, ALLOC, __packets);
+		payload.release();
+	}
+
+	private void __transfer(ReliableEndpoint to, long now, int... dropped) {
+		for (int i = 0; i < __packets.size(); i++) {
+			var packet = __packets.get(i);
+			boolean drop = false;
+			for (int d : dropped) {
+				drop |= (d == i);
+			}
+			if (!drop) {
+				to.receive(packet, now, __delivered);
+			}
+			packet.release();
+		}
+		__packets.clear();
+	}
+
+	private List<String> __takeDelivered() {
+		var result = new ArrayList<String>();
+		for (var message : __delivered) {
+			result.add(new String(ByteBufUtil.getBytes(message)));
+			message.release();
+		}
+		__delivered.clear();
+		return result;
+	}
+
+	@Test
+	public void reliableMessagesShouldBeRetransmittedAndDeliveredInOrder() {
+		for (int i = 0; i < 5; i++) {
+			__send("m" + i, DeliveryMode.RELIABLE_ORDERED, 0);
+		}
+		// the second packet is lost
+		__transfer(__receiver, 10, 1);
+		assertEquals(List.of("m0"), __takeDelivered());
+
+		// the receiver acknowledges what it got
+		__receiver.flush(10, ALLOC, __packets);
+		__transfer(__sender, 20);
+		assertTrue(__sender.hasWork());
+
+		// nothing is expired yet
+		__sender.flush(20, ALLOC, __packets);
+		assertTrue(__packets.isEmpty());
+
+		// only the lost one is retransmitted
+		__sender.flush(20 + __sender.getRetransmissionTimeout(), ALLOC, __packets);
+		assertEquals(1, __packets.size());
+		__transfer(__receiver, 300);
+		assertEquals(List.of("m1", "m2", "m3", "m4"), __takeDelivered());
+
+		__receiver.flush(300, ALLOC, __packets);
+		__transfer(__sender, 310);
+		assertAll("reliable", () -> assertFalse(__sender.hasWork()),
+				() -> assertTrue(__sender.getRoundTripTime() >= 0));
+	}
+
+	@Test
+	public void unacknowledgedFragmentShouldMarkTheEndpointAsLost() {
+		__send("m0", DeliveryMode.RELIABLE_ORDERED, 0);
+		__transfer(__receiver, 10, 0);
+		assertEquals(0, __sender.getLastActive());
+
+		long now = 0;
+		for (int i = 0; i < Constants.RELIABLE_MAX_RETRIES; i++) {
+			now += Constants.RELIABLE_MAX_RTO;
+			__sender.flush(now, ALLOC, __packets);
+			assertEquals(1, __packets.size());
+			__transfer(__receiver, now, 0);
+		}
+		assertFalse(__sender.isLost());
+
+		__sender.flush(now + Constants.RELIABLE_MAX_RTO, ALLOC, __packets);
+		assertAll("lost", () -> assertTrue(__packets.isEmpty()), () -> assertTrue(__sender.isLost()));
+	}
+
+	@Test
+	public void clientShouldResumeAfterTheServerRemovedAnIdleEndpoint() {
+		__send("m0", DeliveryMode.RELIABLE_ORDERED, 0);
+		__transfer(__receiver, 10);
+		__receiver.flush(10, ALLOC, __packets);
+		__transfer(__sender, 20);
+		assertEquals(List.of("m0"), __takeDelivered());
+
+		// the idle endpoint was removed, a new one has another epoch
+		__receiver.release();
+		__receiver = new ReliableEndpoint(60000, __receiver.getEpoch() % 255 + 1);
+		__send("m1", DeliveryMode.RELIABLE_ORDERED, 60000);
+		__transfer(__receiver, 60010);
+		assertTrue(__takeDelivered().isEmpty());
+
+		// its acknowledgement makes the client restart its sequences
+		__receiver.flush(60010, ALLOC, __packets);
+		__transfer(__sender, 60020);
+		__sender.flush(60020, ALLOC, __packets);
+		__transfer(__receiver, 60030);
+		__send("m2", DeliveryMode.RELIABLE_ORDERED, 60030);
+		__transfer(__receiver, 60040);
+		assertEquals(List.of("m1", "m2"), __takeDelivered());
+
+		__receiver.flush(60040, ALLOC, __packets);
+		__transfer(__sender, 60050);
+		assertFalse(__sender.hasWork());
+	}
+
+	@Test
+	public void clientShouldResumeAfterTheServerGaveUpALostEndpoint() {
+		__send("m0", DeliveryMode.RELIABLE_ORDERED, 0);
+		__transfer(__receiver, 10);
+		assertEquals(List.of("m0"), __takeDelivered());
+
+		// the acknowledgements are lost until the server gives up
+		long now = 0;
+		while (!__sender.isLost()) {
+			now += Constants.RELIABLE_MAX_RTO;
+			__sender.flush(now, ALLOC, __packets);
+			__transfer(__receiver, now, 0);
+		}
+		__sender.release();
+		__sender = new ReliableEndpoint(now, __sender.getEpoch() % 255 + 1);
+
+		// the new epoch makes the client reset the sequences it expects
+		__send("m1", DeliveryMode.RELIABLE_ORDERED, now);
+		__transfer(__receiver, now + 10);
+		assertEquals(List.of("m1"), __takeDelivered());
+
+		__receiver.flush(now + 10, ALLOC, __packets);
+		__transfer(__sender, now + 20);
+		assertFalse(__sender.hasWork());
+	}
+
+	@Test
+	public void reliableBacklogShouldBeBounded() {
+		var payload = Unpooled.buffer(1).writeByte(0);
+		int accepted = 0;
+		while (__sender.send(payload, DeliveryMode.RELIABLE_ORDERED, 0, ALLOC, __packets)) {
+			accepted++;
+		}
+		payload.release();
+		for (var packet : __packets) {
+			packet.release();
+		}
+		__packets.clear();
+		assertEquals(Constants.RELIABLE_WINDOW + Constants.RELIABLE_MAX_BACKLOG, accepted);
+		__sender.release();
+	}
+
+	@Test
+	public void duplicatedReliableMessageShouldBeDeliveredOnce() {
+		__send("m0", DeliveryMode.RELIABLE_ORDERED, 0);
+		var copy = __packets.get(0).copy();
+		__transfer(__receiver, 10);
+		__receiver.receive(copy, 20, __delivered);
+		copy.release();
+
+		assertEquals(List.of("m0"), __takeDelivered());
+	}
+
+	@Test
+	public void largeMessageShouldBeFragmentedAndReassembled() {
+		var builder = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			builder.append((char) ('a' + i % 26));
+		}
+		var content = builder.toString();
+
+		__send(content, DeliveryMode.RELIABLE_ORDERED, 0);
+		assertTrue(__packets.size() > 1);
+		__transfer(__receiver, 10);
+		assertEquals(List.of(content), __takeDelivered());
+
+		__send(content, DeliveryMode.UNRELIABLE, 20);
+		__transfer(__receiver, 30);
+		assertEquals(List.of(content), __takeDelivered());
+
+		// an incomplete unreliable message is never delivered
+		__send(content, DeliveryMode.UNRELIABLE, 40);
+		__transfer(__receiver, 50, 0);
+		assertTrue(__takeDelivered().isEmpty());
+	}
+
+	@Test
+	public void olderSequencedMessageShouldBeDropped() {
+		__send("old", DeliveryMode.UNRELIABLE_SEQUENCED, 0);
+		__send("new", DeliveryMode.UNRELIABLE_SEQUENCED, 0);
+		var old = __packets.remove(0);
+		__transfer(__receiver, 10);
+		__receiver.receive(old, 20, __delivered);
+		old.release();
+
+		assertEquals(List.of("new"), __takeDelivered());
+	}
+
+	@Test
+	public void reliableHandlerShouldAddAndStripHeaders() {
+		var server = new EmbeddedChannel(new NettyReliableHandler());
+		var client = new EmbeddedChannel(new NettyReliableHandler());
+		var address = new InetSocketAddress("127.0.0.1", 8033);
+		var bytes = "content".getBytes();
+
+		server.writeOutbound(new ReliableDatagramPacket(Unpooled.wrappedBuffer(bytes), address,
+				DeliveryMode.RELIABLE_ORDERED));
+		DatagramPacket packet = server.readOutbound();
+		assertEquals(ReliableEndpoint.HEADER_BYTES + bytes.length, packet.content().readableBytes());
+
+		client.writeInbound(new DatagramPacket(packet.content(), address, address));
+		DatagramPacket message = client.readInbound();
+		assertArrayEquals(bytes, ByteBufUtil.getBytes(message.content()));
+		message.release();
+
+		// the acknowledgement is sent after the read
+		DatagramPacket ack = client.readOutbound();
+		assertEquals(ReliableEndpoint.ACK_BYTES, ack.content().readableBytes());
+		ack.release();
+
+		server.finishAndReleaseAll();
+		client.finishAndReleaseAll();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		__sender.release();
+		__receiver.release();
+	}
+
+}
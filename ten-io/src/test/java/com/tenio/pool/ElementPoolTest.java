@@ -0,0 +1,148 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.pool;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.tenio.exception.NullElementPoolException;
+
+/**
+ * @author kong
+ */
+public final class ElementPoolTest {
+
+	@Test
+	public void repayAndGetShouldReuseElement() {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, builder -> builder.setLength(0));
+		var builder = pool.get();
+		builder.append("abc");
+		pool.repay(builder);
+
+		assertAll("reuse", () -> assertEquals(0, builder.length()), () -> assertSame(builder, pool.get()));
+	}
+
+	@Test
+	public void repayTwiceShouldNotGiveElementTwice() {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, null);
+		var builder = pool.get();
+		pool.repay(builder);
+		pool.repay(builder);
+
+		var first = pool.get();
+		var second = pool.get();
+
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void getOverMaxSizeShouldCauseException() {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, null, 2, 12, false);
+		for (int i = 0; i < 12; i++) {
+			pool.get();
+		}
+
+		assertAll("maxSize", () -> assertEquals(12, pool.getPoolSize()),
+				() -> assertThrows(NullElementPoolException.class, () -> pool.get()));
+	}
+
+	@Test
+	public void reportLeaksShouldCountNotRepaidElements() {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, null, 4, 100, true);
+		var repaid = pool.get();
+		pool.get();
+		pool.get();
+		pool.repay(repaid);
+
+		assertAll("leaks", () -> assertEquals(2, pool.getUsedSize()), () -> assertEquals(2, pool.reportLeaks()));
+	}
+
+	@Test
+	public void cleanupShouldForgetAllElements() {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, null);
+		var builder = pool.get();
+		pool.cleanup();
+
+		assertAll("cleanup", () -> assertEquals(0, pool.getPoolSize()),
+				() -> assertThrows(NullElementPoolException.class, () -> pool.repay(builder)),
+				() -> assertNotSame(builder, pool.get()));
+	}
+
+	@Test
+	public void concurrentAccessShouldNeverShareElement() throws InterruptedException {
+		var pool = new ElementPool<StringBuilder>("TEST", StringBuilder::new, null);
+		var owners = ConcurrentHashMap.<StringBuilder>newKeySet();
+		var shared = new AtomicBoolean();
+		var errors = new AtomicInteger();
+		int threads = 8;
+		var done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread(() -> {
+				try {
+					var held = new ArrayList<StringBuilder>();
+					for (int i = 0; i < 20000; i++) {
+						var builder = pool.get();
+						// the builders are compared by identity
+						if (!owners.add(builder)) {
+							shared.set(true);
+						}
+						held.add(builder);
+						if (held.size() > i % 5) {
+							for (var element : held) {
+								owners.remove(element);
+								pool.repay(element);
+							}
+							held.clear();
+						}
+					}
+					for (var element : held) {
+						owners.remove(element);
+						pool.repay(element);
+					}
+				} catch (RuntimeException e) {
+					errors.incrementAndGet();
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		done.await();
+
+		assertAll("concurrent", () -> assertFalse(shared.get()), () -> assertEquals(0, errors.get()),
+				() -> assertEquals(0, pool.getUsedSize()));
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.task;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author kong
+ */
+public final class SerialExecutorGroupTest {
+
+	private SerialExecutorGroup __executors;
+
+	@BeforeEach
+	public void initialize() {
+		__executors = new SerialExecutorGroup("test-handler", 4);
+	}
+
+	@AfterEach
+	public void tearDown() throws InterruptedException {
+		__executors.shutdown();
+		__executors.awaitTermination(5000);
+	}
+
+	@Test
+	public void tasksWithTheSameKeyShouldRunInOrder() throws InterruptedException {
+		var keys = new String[] { "player-a", "player-b", "player-c", "player-d", "player-e" };
+		var results = new ArrayList<List<Integer>>();
+		for (int i = 0; i < keys.length; i++) {
+			results.add(new ArrayList<Integer>());
+		}
+		for (int sequence = 0; sequence < 1000; sequence++) {
+			for (int i = 0; i < keys.length; i++) {
+				var result = results.get(i);
+				int value = sequence;
+				__executors.execute(keys[i], () -> result.add(value));
+			}
+		}
+		__executors.shutdown();
+		assertTrue(__executors.awaitTermination(5000));
+
+		for (var result : results) {
+			assertEquals(1000, result.size());
+			for (int sequence = 0; sequence < 1000; sequence++) {
+				assertEquals(sequence, (int) result.get(sequence));
+			}
+		}
+	}
+
+	@Test
+	public void ownerShouldKeepItsOrderWhenItsKeyChanges() throws InterruptedException {
+		var blocker = new CountDownLatch(1);
+		var order = Collections.synchronizedList(new ArrayList<Integer>());
+		// the keys 0 and 1 are handled by different threads
+		__executors.execute("player", 0, () -> {
+			try {
+				blocker.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			order.add(0);
+		});
+		__executors.execute("player", 1, () -> order.add(1));
+		blocker.countDown();
+
+		// once the previous tasks were run, the new key decides the thread
+		String threadName = null;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!"test-handler-1".equals(threadName) && System.nanoTime() < deadline) {
+			var done = new CountDownLatch(1);
+			var threads = new Thread[1];
+			__executors.execute("player", 1, () -> {
+				threads[0] = Thread.currentThread();
+				done.countDown();
+			});
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			threadName = threads[0].getName();
+		}
+		var lastThreadName = threadName;
+
+		assertAll("owner", () -> assertEquals(List.of(0, 1), order),
+				() -> assertEquals("test-handler-1", lastThreadName));
+	}
+
+	@Test
+	public void tasksShouldRunOutsideTheCallerThread() throws InterruptedException {
+		var latch = new CountDownLatch(1);
+		var threads = new Thread[1];
+		__executors.execute("player", () -> {
+			threads[0] = Thread.currentThread();
+			latch.countDown();
+		});
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertNotEquals(Thread.currentThread(), threads[0]);
+	}
+
+	@Test
+	public void aSlowTaskShouldNotBlockOtherThreads() throws InterruptedException {
+		var blocker = new CountDownLatch(1);
+		var done = new CountDownLatch(1);
+		String slowKey = "slow";
+		// find a key which is handled by another thread
+		String fastKey = null;
+		for (int i = 0; fastKey == null; i++) {
+			var threads = new Thread[2];
+			var found = new CountDownLatch(2);
+			__executors.execute(slowKey, () -> {
+				threads[0] = Thread.currentThread();
+				found.countDown();
+			});
+			__executors.execute("fast" + i, () -> {
+				threads[1] = Thread.currentThread();
+				found.countDown();
+			});
+			found.await(5, TimeUnit.SECONDS);
+			if (threads[0] != threads[1]) {
+				fastKey = "fast" + i;
+			}
+		}
+		__executors.execute(slowKey, () -> {
+			try {
+				blocker.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		__executors.execute(fastKey, () -> done.countDown());
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		blocker.countDown();
+	}
+
+	@Test
+	public void anExceptionShouldNotStopTheNextTasks() throws InterruptedException {
+		var latch = new CountDownLatch(1);
+		__executors.execute("player", () -> {
+			throw new IllegalStateException("expected");
+		});
+		__executors.execute("player", () -> latch.countDown());
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void statisticsShouldBeCountedAndReset() throws InterruptedException {
+		for (int i = 0; i < 10; i++) {
+			__executors.execute("player" + i, () -> {
+			});
+		}
+		__executors.shutdown();
+		assertTrue(__executors.awaitTermination(5000));
+
+		assertAll("statistics", () -> assertEquals(4, __executors.getQueueSizes().length),
+				() -> assertEquals(0, __executors.getQueueSizes()[0]),
+				() -> assertEquals(10, __executors.getAndResetHandled()),
+				() -> assertEquals(0, __executors.getAndResetHandled()),
+				() -> assertTrue(__executors.getAndResetRunningTime() >= 0),
+				() -> assertEquals(0, __executors.getAndResetRunningTime()));
+	}
+
+	@Test
+	public void executeAfterShutdownShouldBeRejected() {
+		__executors.shutdown();
+
+		assertFalse(__executors.execute("player", () -> {
+		}));
+	}
+
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import com.tenio.configuration.constant.Constants;
+import com.tenio.configuration.constant.FramingMode;
 import com.tenio.entity.element.TObject;
 import com.tenio.message.codec.MessagePacker;
 import com.tenio.message.codec.MsgPackConverter;
@@ -54,7 +55,12 @@ public final class TCP {
 	/**
 	 * The size of the received packet
 	 */
-	private short __dataSize = 0;
+	private int __dataSize = 0;
+	/**
+	 * Use the variable-length header instead of the fixed one, see
+	 * {@link FramingMode}
+	 */
+	private boolean __varint;
 	/**
 	 * This flag is used to determine how many numbers of received bytes can be used
 	 * for one packet's header (that contains the packet's length)
@@ -67,10 +73,26 @@ public final class TCP {
 	 * @param port the desired port
 	 */
 	public TCP(int port) {
+		this(port, false);
+	}
+
+	/**
+	 * Listen in a port on the local machine
+	 * 
+	 * @param port   the desired port
+	 * @param varint set <b>true</b> to use the variable-length header, see
+	 *               {@link FramingMode#VARINT}
+	 */
+	public TCP(int port, boolean varint) {
+		__varint = varint;
 		try {
 			__socket = new Socket("localhost", port);
 			__out = new DataOutputStream(__socket.getOutputStream());
 			__in = new DataInputStream(__socket.getInputStream());
+			if (__varint) {
+				// switch the connection's header mode before the first packet
+				__out.write(Constants.VARINT_PREAMBLE);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -85,7 +107,7 @@ public final class TCP {
 		// convert message object to bytes data
 		var pack = MsgPackConverter.serialize(message);
 		// attach the packet's length to packet's header
-		var bytes = MessagePacker.pack(pack);
+		var bytes = __varint ? MessagePacker.packVarint(pack) : MessagePacker.pack(pack);
 		try {
 			__out.write(bytes);
 			__out.flush();
@@ -128,9 +150,19 @@ public final class TCP {
 	}
 
 	private void __updateRecvHeaderData(byte[] bytes) {
-		if (bytes.length >= Constants.HEADER_BYTES) { // header length
+		if (__varint) {
+			int size = MessagePacker.readVarint(bytes, 0, bytes.length);
+			if (size >= 0) {
+				__dataSize = size;
+				__flagRecvHeader = false;
+				// package = |1 to 5 bytes header| <content bytes> |
+				int headerBytes = MessagePacker.getVarintSize(size);
+				var data = Arrays.copyOfRange(bytes, headerBytes, __dataSize + headerBytes);
+				__onRecvData(data); // recursion
+			}
+		} else if (bytes.length >= Constants.HEADER_BYTES) { // header length
 			var header = Arrays.copyOfRange(bytes, 0, Constants.HEADER_BYTES);
-			__dataSize = MessagePacker.byteToShort(header); // network to host short
+			__dataSize = MessagePacker.byteToShort(header) & 0xFFFF; // network to host short
 			__flagRecvHeader = false;
 			// package = |2 bytes header| <content bytes> |
 			var data = Arrays.copyOfRange(bytes, Constants.HEADER_BYTES, __dataSize + Constants.HEADER_BYTES);
@@ -79,10 +79,6 @@ public final class World extends AbstractHeartBeat {
 	// for network communication
 	private Collection<AbstractPlayer> __inspectors = Server.getInstance().getPlayerApi().gets().values();
 	private MessageApi __messageApi = Server.getInstance().getMessageApi();
-	private TArray __ids = TArray.newInstance();
-	private TArray __pxs = TArray.newInstance();
-	private TArray __pys = TArray.newInstance();
-	private TArray __prs = TArray.newInstance();
 
 	public World(int cx, int cy) {
 		super(cx, cy);
@@ -444,11 +440,11 @@ public final class World extends AbstractHeartBeat {
 	 */
 	@Override
 	protected void _onUpdate(float delta) {
-		// reset array
-		__ids.clear();
-		__pxs.clear();
-		__pys.clear();
-		__prs.clear();
+		// the sent arrays are encoded later, so new ones are needed for each frame
+		var ids = TArray.newInstance();
+		var pxs = TArray.newInstance();
+		var pys = TArray.newInstance();
+		var prs = TArray.newInstance();
 
 		__fps = frameRateSmoother.update(delta);
 
@@ -456,17 +452,15 @@ public final class World extends AbstractHeartBeat {
 		for (int i = 0; i < __vehicles.size(); ++i) {
 			__vehicles.get(i).update(delta);
 			// package data
-			__ids.put(i);
-			__pxs.put((int) __vehicles.get(i).getPosition().x);
-			__pys.put((int) __vehicles.get(i).getPosition().y);
-			__prs.put((int) __vehicles.get(i).getRotation());
+			ids.put(i);
+			pxs.put((int) __vehicles.get(i).getPosition().x);
+			pys.put((int) __vehicles.get(i).getPosition().y);
+			prs.put((int) __vehicles.get(i).getRotation());
 		}
 
-		// send to client (naive way)
-		for (var inspector : __inspectors) {
-			__messageApi.sendToPlayer(inspector, Inspector.MOVE_CHANNEL, "p",
-					__messageApi.getArrayPack().put(__ids).put(__pxs).put(__pys).put(__prs));
-		}
+		// send to clients (the message is only serialized once)
+		__messageApi.sendToPlayers(__inspectors, Inspector.MOVE_CHANNEL, "p",
+				__messageApi.getArrayPack().put(ids).put(pxs).put(pys).put(prs));
 
 	}
 
@@ -105,9 +105,8 @@ public final class TestServerStress extends AbstractApp {
 				return null;
 			});
 
-			_on(TEvent.RECEIVED_FROM_PLAYER, args -> {
-				var player = this.<PlayerStress>_getPlayer(args[0]);
-
+			// the typed handler of the hot per-message event, no parameters array
+			_on(TEvent.RECEIVED_FROM_PLAYER, (player, index, message) -> {
 				var pack = __getSortRandomNumberArray();
 				// Sending, the data need to be packed
 				var data = _messageApi.getArrayPack();
@@ -116,8 +115,6 @@ public final class TestServerStress extends AbstractApp {
 				}
 
 				_messageApi.sendToPlayer(player, PlayerStress.MAIN_CHANNEL, "p", player.getName(), "d", data);
-
-				return null;
 			});
 
 			_on(TEvent.PLAYER_TIMEOUT, args -> {
@@ -162,6 +159,32 @@ public final class TestServerStress extends AbstractApp {
 				return null;
 			});
 
+			_on(TEvent.BUFFER_MEMORY, args -> {
+				long usedDirectMemory = _getLong(args[0]);
+				long usedHeapMemory = _getLong(args[1]);
+				long unpooledDirectMemory = _getLong(args[4]);
+				long unpooledHeapMemory = _getLong(args[5]);
+
+				var memory = String.format(
+						"usedDirectMemory=%dKB;usedHeapMemory=%dKB;unpooledDirectMemory=%dKB;unpooledHeapMemory=%dKB",
+						usedDirectMemory, usedHeapMemory, unpooledDirectMemory, unpooledHeapMemory);
+
+				info("BUFFER MEMORY", memory);
+
+				return null;
+			});
+
+			_on(TEvent.OUTBOUND_RATE, args -> {
+				long writes = _getLong(args[0]);
+				long flushes = _getLong(args[1]);
+
+				var rate = String.format("writes=%d/s;flushes=%d/s", writes, flushes);
+
+				info("OUTBOUND RATE", rate);
+
+				return null;
+			});
+
 		}
 
 		private int[] __getSortRandomNumberArray() {
@@ -0,0 +1,195 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.example.example8;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.tenio.configuration.constant.TransportType;
+import com.tenio.network.netty.NettyTransport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.FixedLengthFrameDecoder;
+
+/**
+ * This class compares the NIO and the native epoll transports (see
+ * {@link NettyTransport}) on the loop-back interface:<br>
+ * 1. The number of TCP connections can be established per second.<br>
+ * 2. The round-trip latency (p50, p99) of a small echo message.<br>
+ * The epoll transport is skipped when it is not available on the current
+ * platform.
+ * 
+ * @author kong
+ *
+ */
+public final class TestTransportBenchmark {
+
+	private static final int CONNECTIONS = 2000;
+	private static final int WARMUP_ROUNDS = 5000;
+	private static final int ROUNDS = 50000;
+	private static final int MESSAGE_BYTES = 8;
+
+	/**
+	 * The entry point
+	 */
+	public static void main(String[] args) throws Exception {
+		for (var type : TransportType.values()) {
+			var transport = NettyTransport.newInstance(type);
+			if (transport.getType() != type) {
+				System.out.println("[" + type + "] skipped: " + NettyTransport.getUnavailabilityCause());
+				continue;
+			}
+			new TestTransportBenchmark(transport).run();
+		}
+	}
+
+	private final NettyTransport __transport;
+
+	public TestTransportBenchmark(NettyTransport transport) {
+		__transport = transport;
+	}
+
+	public void run() throws Exception {
+		var producer = __transport.newEventLoopGroup(1);
+		var consumer = __transport.newEventLoopGroup(0);
+		var client = __transport.newEventLoopGroup(0);
+		try {
+			var server = new ServerBootstrap();
+			server.group(producer, consumer).channel(__transport.getServerChannel())
+					.option(ChannelOption.SO_BACKLOG, CONNECTIONS).childOption(ChannelOption.TCP_NODELAY, true)
+					.childHandler(new ChannelInitializer<Channel>() {
+						@Override
+						protected void initChannel(Channel channel) throws Exception {
+							channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+								@Override
+								public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+									// echo
+									ctx.writeAndFlush(msg);
+								}
+							});
+						}
+					});
+			__transport.applyServerOptions(server);
+			var address = (InetSocketAddress) server.bind("127.0.0.1", 0).sync().channel().localAddress();
+
+			var cps = __measureConnections(client, address);
+			var latencies = __measureEcho(client, address);
+
+			System.out.println(String.format("[%s] connections=%.0f/s echo p50=%dus p99=%dus", __transport.getType(),
+					cps, latencies[latencies.length / 2] / 1000, latencies[latencies.length * 99 / 100] / 1000));
+		} finally {
+			client.shutdownGracefully().sync();
+			consumer.shutdownGracefully().sync();
+			producer.shutdownGracefully().sync();
+		}
+	}
+
+	private double __measureConnections(EventLoopGroup group, InetSocketAddress address)
+			throws Exception {
+		var bootstrap = new Bootstrap();
+		bootstrap.group(group).channel(__transport.getSocketChannel()).handler(new ChannelInitializer<Channel>() {
+			@Override
+			protected void initChannel(Channel channel) throws Exception {
+				// only connect
+			}
+		});
+
+		var futures = new ArrayList<ChannelFuture>(CONNECTIONS);
+		long start = System.nanoTime();
+		for (int i = 0; i < CONNECTIONS; i++) {
+			futures.add(bootstrap.connect(address));
+		}
+		for (var future : futures) {
+			future.sync();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		for (var future : futures) {
+			future.channel().close().sync();
+		}
+		return CONNECTIONS * 1e9 / elapsed;
+	}
+
+	private long[] __measureEcho(EventLoopGroup group, InetSocketAddress address) throws Exception {
+		var responses = new LinkedBlockingQueue<Long>();
+		var bootstrap = new Bootstrap();
+		bootstrap.group(group).channel(__transport.getSocketChannel()).option(ChannelOption.TCP_NODELAY, true)
+				.handler(new ChannelInitializer<Channel>() {
+					@Override
+					protected void initChannel(Channel channel) throws Exception {
+						channel.pipeline().addLast(new FixedLengthFrameDecoder(MESSAGE_BYTES),
+								new SimpleChannelInboundHandler<ByteBuf>() {
+									@Override
+									protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg)
+											throws Exception {
+										// never block the event loop
+										responses.offer(System.nanoTime() - msg.readLong());
+									}
+								});
+					}
+				});
+		var channel = bootstrap.connect(address).sync().channel();
+
+		var latencies = new long[ROUNDS];
+		int received = 0;
+		int lost = 0;
+		for (int i = 0; i < WARMUP_ROUNDS + ROUNDS; i++) {
+			channel.writeAndFlush(channel.alloc().buffer(MESSAGE_BYTES).writeLong(System.nanoTime()));
+			Long latency = responses.poll(5, TimeUnit.SECONDS);
+			if (latency == null) {
+				// a late response still carries its own sending time
+				lost++;
+				continue;
+			}
+			if (i >= WARMUP_ROUNDS) {
+				latencies[received++] = latency;
+			}
+		}
+		channel.close().sync();
+
+		if (lost > 0) {
+			System.out.println(String.format("[%s] %d echo responses timed out", __transport.getType(), lost));
+		}
+		if (received == 0) {
+			throw new IllegalStateException("No echo response was received");
+		}
+		latencies = Arrays.copyOf(latencies, received);
+		Arrays.sort(latencies);
+		return latencies;
+	}
+
+}
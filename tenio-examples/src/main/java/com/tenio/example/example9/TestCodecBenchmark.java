@@ -0,0 +1,148 @@
+/*
+The MIT License
+
+Copyright (c) 2016-2020 kong <congcoi123@gmail.com>
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+*/
+package com.tenio.example.example9;
+
+import static org.msgpack.template.Templates.TString;
+import static org.msgpack.template.Templates.TValue;
+import static org.msgpack.template.Templates.tMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.msgpack.MessagePack;
+import org.msgpack.type.Value;
+
+import com.tenio.entity.element.TArray;
+import com.tenio.entity.element.TObject;
+import com.tenio.message.codec.MsgPackReader;
+import com.tenio.message.codec.MsgPackWriter;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * This class compares the streaming codec ({@link MsgPackWriter} and
+ * {@link MsgPackReader}) with the former <code>org.msgpack</code> based one on
+ * a typical game message:<br>
+ * 1. The average time to encode a {@link TObject} (ns/op).<br>
+ * 2. The average time to decode it back to a {@link TObject} (ns/op).<br>
+ * Each case is warmed up before it is measured.
+ * 
+ * @author kong
+ *
+ */
+public final class TestCodecBenchmark {
+
+	private static final int WARMUP_ROUNDS = 200000;
+	private static final int ROUNDS = 1000000;
+
+	private static final MessagePack __packer = new MessagePack();
+	private static volatile Object __sink;
+
+	/**
+	 * The entry point
+	 */
+	public static void main(String[] args) throws Exception {
+		var message = __createMessage();
+		var bytes = __packer.write(message);
+
+		__report("encode", "msgpack", () -> __sink = __packer.write(message));
+		__report("encode", "writer", () -> {
+			var buffer = PooledByteBufAllocator.DEFAULT.heapBuffer();
+			MsgPackWriter.write(message, buffer);
+			__sink = buffer;
+			buffer.release();
+		});
+
+		__report("decode", "msgpack", () -> __sink = __unpack(bytes));
+		var source = Unpooled.wrappedBuffer(bytes);
+		__report("decode", "reader", () -> __sink = MsgPackReader.read(source.resetReaderIndex()));
+	}
+
+	private static TObject __createMessage() {
+		var message = TObject.newInstance();
+		message.put("c", "move");
+		message.put("u", "player-1024");
+		message.put("x", 1024);
+		message.put("y", -37);
+		message.put("speed", 3.75);
+		message.put("alive", true);
+		var items = TArray.newInstance();
+		for (int i = 0; i < 8; i++) {
+			items.add(i * 100);
+		}
+		message.put("items", items);
+		return message;
+	}
+
+	private static void __report(String operation, String codec, Action action) throws Exception {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			action.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			action.run();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(String.format("[%s] %s=%dns/op", operation, codec, elapsed / ROUNDS));
+	}
+
+	/**
+	 * The former decoding: a template based unpacking to a map of values, then a
+	 * conversion of each value
+	 */
+	private static TObject __unpack(byte[] bytes) throws IOException {
+		var unpacker = __packer.createUnpacker(new ByteArrayInputStream(bytes));
+		Map<String, Value> map = unpacker.read(tMap(TString, TValue));
+		var object = TObject.newInstance();
+		map.forEach((key, value) -> object.put(key, __toObject(value)));
+		return object;
+	}
+
+	private static Object __toObject(Value value) {
+		if (value.isNilValue()) {
+			return null;
+		} else if (value.isRawValue()) {
+			return value.asRawValue().getString();
+		} else if (value.isBooleanValue()) {
+			return value.asBooleanValue().getBoolean();
+		} else if (value.isFloatValue()) {
+			return value.asFloatValue().getDouble();
+		} else if (value.isIntegerValue()) {
+			return value.asIntegerValue().getInt();
+		} else if (value.isArrayValue()) {
+			var array = TArray.newInstance();
+			value.asArrayValue().forEach(element -> array.add(__toObject(element)));
+			return array;
+		}
+		throw new UnsupportedOperationException();
+	}
+
+	@FunctionalInterface
+	private interface Action {
+		void run() throws Exception;
+	}
+
+}